@@ -21,14 +21,38 @@ package org.killbill.commons.concurrent;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 // See http://stackoverflow.com/questions/19528304/how-to-get-the-threadpoolexecutor-to-increase-threads-to-max-before-queueing/19538899#19538899
+/**
+ * Grows the pool up to the maximum pool size before queueing, by keeping the core pool size in line with the number
+ * of tasks (within bounds).
+ * <p>
+ * The task count is atomic and the core pool size is only adjusted when it is out of bounds, by a single thread at a
+ * time (others don't wait, the adjusting thread re-checks the task count once done): submissions and completions
+ * don't serialize on a monitor. Growing is immediate, shrinking (which interrupts all idle workers) happens at most
+ * every 100ms, on task completion: when a completion is too early, the shrink is deferred (on a shared scheduler thread),
+ * so that an idle pool gets back to the specified core pool size.
+ */
 public class DynamicThreadPoolExecutorWithLoggingOnExceptions extends LoggingExecutor {
 
+    private static final long SHRINK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private final int inputSpecifiedCorePoolSize;
-    private int currentTasks;
+    // Submitted and not completed yet
+    private final AtomicInteger currentTasks = new AtomicInteger();
+    private final AtomicBoolean adjustingCorePoolSize = new AtomicBoolean(false);
+    private final LongAdder corePoolSizeAdjustments = new LongAdder();
+    private final LongAdder corePoolSizeAdjustmentContentions = new LongAdder();
+    private final AtomicBoolean shrinkScheduled = new AtomicBoolean(false);
+    // Written by the adjusting thread only
+    private volatile long lastShrinkNanos;
 
     public DynamicThreadPoolExecutorWithLoggingOnExceptions(final int corePoolSize, final int maximumPoolSize, final String name, final long keepAliveTime, final TimeUnit unit) {
         super(corePoolSize, maximumPoolSize, name, keepAliveTime, unit);
@@ -63,30 +87,120 @@ public class DynamicThreadPoolExecutorWithLoggingOnExceptions extends LoggingExe
 
     @Override
     public void execute(final Runnable runnable) {
-        synchronized (this) {
-            currentTasks++;
-            setCorePoolSizeToTaskCountWithinBounds();
+        final int nbTasks = currentTasks.incrementAndGet();
+        if (boundedCorePoolSize(nbTasks) > getCorePoolSize()) {
+            adjustCorePoolSize();
+        }
+        try {
+            super.execute(runnable);
+        } catch (final RuntimeException e) {
+            // Rejected, afterExecute won't be called
+            currentTasks.decrementAndGet();
+            throw e;
         }
-        super.execute(runnable);
     }
 
     @Override
     protected void afterExecute(final Runnable runnable, final Throwable throwable) {
         super.afterExecute(runnable, throwable);
-        synchronized (this) {
-            currentTasks--;
-            setCorePoolSizeToTaskCountWithinBounds();
+        final int nbTasks = currentTasks.decrementAndGet();
+        if (boundedCorePoolSize(nbTasks) < getCorePoolSize()) {
+            if (System.nanoTime() - lastShrinkNanos >= SHRINK_INTERVAL_NANOS) {
+                adjustCorePoolSize();
+            }
+            // Too early (or left to another thread): there may not be any other completion to shrink on
+            if (boundedCorePoolSize(currentTasks.get()) < getCorePoolSize()) {
+                scheduleShrink();
+            }
         }
     }
 
-    private void setCorePoolSizeToTaskCountWithinBounds() {
-        int updatedCorePoolSize = currentTasks;
+    /**
+     * @return the number of tasks submitted and not completed yet
+     */
+    public int getCurrentTaskCount() {
+        return currentTasks.get();
+    }
+
+    /**
+     * @return the number of core pool size changes
+     */
+    public long getCorePoolSizeAdjustmentCount() {
+        return corePoolSizeAdjustments.sum();
+    }
+
+    /**
+     * @return the number of times an adjustment was left to another thread, already adjusting the core pool size
+     */
+    public long getCorePoolSizeAdjustmentContentionCount() {
+        return corePoolSizeAdjustmentContentions.sum();
+    }
+
+    private void scheduleShrink() {
+        if (shrinkScheduled.get() || isShutdown() || !shrinkScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        final long delayNanos = Math.max(0, SHRINK_INTERVAL_NANOS - (System.nanoTime() - lastShrinkNanos));
+        ShrinkScheduler.INSTANCE.schedule(this::deferredShrink, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void deferredShrink() {
+        shrinkScheduled.set(false);
+        if (isShutdown() || boundedCorePoolSize(currentTasks.get()) >= getCorePoolSize()) {
+            return;
+        }
+        adjustCorePoolSize();
+        if (boundedCorePoolSize(currentTasks.get()) < getCorePoolSize()) {
+            scheduleShrink();
+        }
+    }
+
+    private void adjustCorePoolSize() {
+        do {
+            if (!adjustingCorePoolSize.compareAndSet(false, true)) {
+                corePoolSizeAdjustmentContentions.increment();
+                return;
+            }
+            try {
+                final int nbTasks = currentTasks.get();
+                final int updatedCorePoolSize = boundedCorePoolSize(nbTasks);
+                final int corePoolSize = getCorePoolSize();
+                if (updatedCorePoolSize > corePoolSize) {
+                    setCorePoolSize(updatedCorePoolSize);
+                    corePoolSizeAdjustments.increment();
+                } else if (updatedCorePoolSize < corePoolSize) {
+                    final long now = System.nanoTime();
+                    if (now - lastShrinkNanos >= SHRINK_INTERVAL_NANOS) {
+                        lastShrinkNanos = now;
+                        setCorePoolSize(updatedCorePoolSize);
+                        corePoolSizeAdjustments.increment();
+                    }
+                }
+            } finally {
+                adjustingCorePoolSize.set(false);
+            }
+            // Threads which gave up growing the pool while we were adjusting rely on us
+        } while (boundedCorePoolSize(currentTasks.get()) > getCorePoolSize());
+    }
+
+    private int boundedCorePoolSize(final int nbTasks) {
+        int updatedCorePoolSize = nbTasks;
         if (updatedCorePoolSize < inputSpecifiedCorePoolSize) {
             updatedCorePoolSize = inputSpecifiedCorePoolSize;
         }
         if (updatedCorePoolSize > getMaximumPoolSize()) {
             updatedCorePoolSize = getMaximumPoolSize();
         }
-        setCorePoolSize(updatedCorePoolSize);
+        return updatedCorePoolSize;
+    }
+
+    // Lazily started, shared by all pools
+    private static final class ShrinkScheduler {
+
+        private static final ScheduledExecutorService INSTANCE = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "DynamicThreadPoolExecutor-shrink");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 }
@@ -117,12 +117,12 @@ public class FailsafeScheduledExecutor extends ScheduledThreadPoolExecutor {
 
     @Override
     public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command, final long initialDelay, final long delay, final TimeUnit unit) {
-        return super.scheduleWithFixedDelay(WrappedRunnable.wrap(LOG, command), initialDelay, delay, unit);
+        return super.scheduleWithFixedDelay(WrappedRunnable.wrapWithoutContext(LOG, command), initialDelay, delay, unit);
     }
 
     @Override
     public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command, final long initialDelay, final long period, final TimeUnit unit) {
-        return super.scheduleAtFixedRate(WrappedRunnable.wrap(LOG, command), initialDelay, period, unit);
+        return super.scheduleAtFixedRate(WrappedRunnable.wrapWithoutContext(LOG, command), initialDelay, period, unit);
     }
 
     @Override
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.concurrent;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.killbill.commons.profiling.Profiling;
+import org.killbill.commons.profiling.ProfilingData;
+import org.killbill.commons.request.Request;
+import org.killbill.commons.request.RequestData;
+import org.slf4j.MDC;
+
+/**
+ * Per-thread context of the thread submitting a task (request data, profiling data and MDC), propagated to the task.
+ * <p>
+ * The task runs with the request data and MDC of the submitter and with its own profiling data (same profiling
+ * features), whose timings are handed back to the submitter's profiling data when the task ends (see
+ * {@link ProfilingData#addChildData(ProfilingData)}, lock-free). The previous context of the executing thread is
+ * restored afterwards.
+ */
+final class TaskContext {
+
+    @Nullable
+    private final RequestData requestData;
+    @Nullable
+    private final ProfilingData profilingData;
+    @Nullable
+    private final Map<String, String> mdc;
+
+    private TaskContext(@Nullable final RequestData requestData, @Nullable final ProfilingData profilingData, @Nullable final Map<String, String> mdc) {
+        this.requestData = requestData;
+        this.profilingData = profilingData;
+        this.mdc = mdc;
+    }
+
+    /**
+     * @return the context of the current thread, null if there is nothing to propagate
+     */
+    @Nullable
+    static TaskContext capture() {
+        final RequestData requestData = Request.getPerThreadRequestData();
+        final ProfilingData profilingData = Profiling.getPerThreadProfilingData();
+        final Map<String, String> mdc = MDC.getCopyOfContextMap();
+        if (requestData == null && profilingData == null && (mdc == null || mdc.isEmpty())) {
+            return null;
+        }
+        return new TaskContext(requestData, profilingData, mdc == null || mdc.isEmpty() ? null : mdc);
+    }
+
+    /**
+     * @return the previous context of the current thread, to pass to {@link #detach(TaskContext)}
+     */
+    TaskContext attach() {
+        final TaskContext previous = new TaskContext(requestData != null ? Request.getPerThreadRequestData() : null,
+                                                     profilingData != null ? Profiling.getPerThreadProfilingData() : null,
+                                                     mdc != null ? MDC.getCopyOfContextMap() : null);
+        if (requestData != null) {
+            Request.setPerThreadRequestData(requestData);
+        }
+        if (profilingData != null) {
+            Profiling.setPerThreadProfilingData(new ProfilingData(profilingData.getProfileFeature()));
+        }
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        return previous;
+    }
+
+    void detach(final TaskContext previous) {
+        if (profilingData != null) {
+            profilingData.addChildData(Profiling.getPerThreadProfilingData());
+            Profiling.setPerThreadProfilingData(previous.profilingData);
+        }
+        if (requestData != null) {
+            Request.setPerThreadRequestData(previous.requestData);
+        }
+        if (mdc != null) {
+            if (previous.mdc == null) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(previous.mdc);
+            }
+        }
+    }
+}
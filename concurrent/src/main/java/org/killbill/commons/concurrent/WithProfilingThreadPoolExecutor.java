@@ -58,6 +58,7 @@ public class WithProfilingThreadPoolExecutor  extends DynamicThreadPoolExecutorW
     protected void beforeExecute(final Thread t, final Runnable runnable) {
         // Allocate the thread local data
         Profiling.setPerThreadProfilingData();
+        Profiling.startSampledRequest();
 
         super.beforeExecute(t, runnable);
     }
@@ -65,6 +66,7 @@ public class WithProfilingThreadPoolExecutor  extends DynamicThreadPoolExecutorW
     protected void afterExecute(final Runnable runnable, final Throwable exception) {
         super.afterExecute(runnable, exception);
 
+        Profiling.endSampledRequest();
         // Clear the thread local data
         Profiling.resetPerThreadProfilingData();
     }
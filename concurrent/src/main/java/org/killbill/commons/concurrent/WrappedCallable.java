@@ -21,25 +21,32 @@ package org.killbill.commons.concurrent;
 
 import java.util.concurrent.Callable;
 
+import javax.annotation.Nullable;
+
 import org.slf4j.Logger;
 
 class WrappedCallable<T> implements Callable<T> {
 
     private final Logger log;
     private final Callable<T> callable;
+    // Context of the submitter, see TaskContext
+    @Nullable
+    private final TaskContext context;
 
-    private WrappedCallable(final Logger log, final Callable<T> callable) {
+    private WrappedCallable(final Logger log, final Callable<T> callable, @Nullable final TaskContext context) {
         this.log = log;
         this.callable = callable;
+        this.context = context;
     }
 
     public static <T> Callable<T> wrap(final Logger log, final Callable<T> callable) {
-        return callable instanceof WrappedCallable ? callable : new WrappedCallable<T>(log, callable);
+        return callable instanceof WrappedCallable ? callable : new WrappedCallable<T>(log, callable, TaskContext.capture());
     }
 
     @Override
     public T call() throws Exception {
         final Thread currentThread = Thread.currentThread();
+        final TaskContext previousContext = context == null ? null : context.attach();
 
         try {
             return callable.call();
@@ -53,6 +60,9 @@ class WrappedCallable<T> implements Callable<T> {
 
             throw e;
         } finally {
+            if (context != null) {
+                context.detach(previousContext);
+            }
             log.debug("{} finished executing", currentThread);
         }
     }
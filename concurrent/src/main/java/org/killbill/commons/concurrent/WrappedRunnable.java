@@ -19,22 +19,35 @@
 
 package org.killbill.commons.concurrent;
 
+import javax.annotation.Nullable;
+
 import org.slf4j.Logger;
 
 class WrappedRunnable implements Runnable {
 
     private final Logger log;
     private final Runnable runnable;
+    // Context of the submitter, see TaskContext
+    @Nullable
+    private final TaskContext context;
 
     private volatile Throwable exception;
 
-    private WrappedRunnable(final Logger log, final Runnable runnable) {
+    private WrappedRunnable(final Logger log, final Runnable runnable, @Nullable final TaskContext context) {
         this.log = log;
         this.runnable = runnable;
+        this.context = context;
     }
 
     public static WrappedRunnable wrap(final Logger log, final Runnable runnable) {
-        return runnable instanceof WrappedRunnable ? (WrappedRunnable) runnable : new WrappedRunnable(log, runnable);
+        return runnable instanceof WrappedRunnable ? (WrappedRunnable) runnable : new WrappedRunnable(log, runnable, TaskContext.capture());
+    }
+
+    /**
+     * For periodic tasks, which outlive the context of their submitter.
+     */
+    public static WrappedRunnable wrapWithoutContext(final Logger log, final Runnable runnable) {
+        return runnable instanceof WrappedRunnable ? (WrappedRunnable) runnable : new WrappedRunnable(log, runnable, null);
     }
 
     Throwable getException() {
@@ -44,12 +57,17 @@ class WrappedRunnable implements Runnable {
     @Override
     public void run() {
         final Thread currentThread = Thread.currentThread();
+        final TaskContext previousContext = context == null ? null : context.attach();
 
         try {
             runnable.run();
         } catch (final Throwable e) {
             log.error(currentThread + " ended abnormally with an exception", e);
             exception = e;
+        } finally {
+            if (context != null) {
+                context.detach(previousContext);
+            }
         }
 
         log.debug("{} finished executing", currentThread);
@@ -19,26 +19,38 @@
 
 package org.killbill.commons.profiling;
 
+import javax.annotation.Nullable;
 
 public class Profiling<ReturnType, ExceptionType extends Throwable> {
 
     private static final ThreadLocal<ProfilingData> perThreadProfilingData = new ThreadLocal<ProfilingData>();
 
+    private static volatile ProfilingSampler sampler;
+
     public interface WithProfilingCallback<ReturnType, ExceptionType extends Throwable> {
         public ReturnType execute() throws ExceptionType;
     }
 
     public ReturnType executeWithProfiling(final ProfilingFeature.ProfilingFeatureType profilingType, final String profilingId, final WithProfilingCallback<ReturnType, ExceptionType> callback) throws ExceptionType {
-        // Nothing to do
         final ProfilingData profilingData = Profiling.getPerThreadProfilingData();
-        if (profilingData == null) {
+        final ProfilingSampler currentSampler = sampler;
+        // Nothing to do
+        if (profilingData == null && currentSampler == null) {
             return callback.execute();
         }
-        profilingData.addStart(profilingType, profilingId);
+        if (profilingData != null) {
+            profilingData.addStart(profilingType, profilingId);
+        }
+        final long startTime = currentSampler == null ? 0 : System.nanoTime();
         try {
             return callback.execute();
         } finally {
-            profilingData.addEnd(profilingType, profilingId);
+            if (currentSampler != null) {
+                currentSampler.record(profilingType, profilingId, System.nanoTime() - startTime);
+            }
+            if (profilingData != null) {
+                profilingData.addEnd(profilingType, profilingId);
+            }
         }
     }
 
@@ -56,7 +68,44 @@ public class Profiling<ReturnType, ExceptionType extends Throwable> {
         perThreadProfilingData.set(new ProfilingData(profilingFeature));
     }
 
+    /**
+     * @param profilingData profiling data for the current thread (e.g. propagated from another thread), null to reset it
+     */
+    public static void setPerThreadProfilingData(@Nullable final ProfilingData profilingData) {
+        perThreadProfilingData.set(profilingData);
+    }
+
     public static void resetPerThreadProfilingData() {
         perThreadProfilingData.set(null);
     }
+
+    /**
+     * @param profilingSampler the always-on sampler, null to disable it
+     */
+    public static void setSampler(@Nullable final ProfilingSampler profilingSampler) {
+        sampler = profilingSampler;
+    }
+
+    @Nullable
+    public static ProfilingSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Marks the start of a request (e.g. a JAX-RS call, a task) for the sampler, if any. Must be followed by
+     * {@link #endSampledRequest()} on the same thread.
+     */
+    public static void startSampledRequest() {
+        final ProfilingSampler currentSampler = sampler;
+        if (currentSampler != null) {
+            currentSampler.startRequest();
+        }
+    }
+
+    public static void endSampledRequest() {
+        final ProfilingSampler currentSampler = sampler;
+        if (currentSampler != null) {
+            currentSampler.endRequest();
+        }
+    }
 }
@@ -23,14 +23,25 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
 public class ProfilingData {
 
+    private static final Comparator<ProfilingDataItem> BY_TIMESTAMP = new Comparator<ProfilingDataItem>() {
+        @Override
+        public int compare(final ProfilingDataItem o1, final ProfilingDataItem o2) {
+            return o1.getTimestampNsec().compareTo(o2.getTimestampNsec());
+        }
+    };
+
     private final List<ProfilingDataItem> rawData;
     private final ProfilingFeature profileFeature;
+    // Data of tasks run on other threads, merged in rawData by the owning thread on read
+    private final Queue<List<ProfilingDataItem>> childrenData = new ConcurrentLinkedQueue<List<ProfilingDataItem>>();
 
     public ProfilingData(final ProfilingFeature profileFeature) {
         this.profileFeature = profileFeature;
@@ -43,12 +54,23 @@ public class ProfilingData {
             return;
         }
         rawData.addAll(otherData.getRawData());
-        Collections.sort(rawData, new Comparator<ProfilingDataItem>() {
-            @Override
-            public int compare(final ProfilingDataItem o1, final ProfilingDataItem o2) {
-                return o1.getTimestampNsec().compareTo(o2.getTimestampNsec());
-            }
-        });
+        Collections.sort(rawData, BY_TIMESTAMP);
+    }
+
+    /**
+     * Hands back the data of a task run on another thread on behalf of the owner of this data. Unlike
+     * {@link #merge(ProfilingData)}, this can be called from any thread (lock-free): the data is merged on the next read.
+     *
+     * @param childData data of the task
+     */
+    public void addChildData(@Nullable final ProfilingData childData) {
+        if (childData == null) {
+            return;
+        }
+        final List<ProfilingDataItem> childRawData = childData.getRawData();
+        if (!childRawData.isEmpty()) {
+            childrenData.add(childRawData);
+        }
     }
 
     public void addStart(final ProfilingFeature.ProfilingFeatureType profileType, final String id) {
@@ -60,6 +82,7 @@ public class ProfilingData {
     }
 
     public List<ProfilingDataItem> getRawData() {
+        mergeChildrenData();
         if (rawData == null || rawData.isEmpty()) {
             return Collections.emptyList();
         }
@@ -68,6 +91,17 @@ public class ProfilingData {
                       .collect(Collectors.toList());
     }
 
+    private void mergeChildrenData() {
+        if (childrenData.isEmpty()) {
+            return;
+        }
+        List<ProfilingDataItem> childRawData;
+        while ((childRawData = childrenData.poll()) != null) {
+            rawData.addAll(childRawData);
+        }
+        Collections.sort(rawData, BY_TIMESTAMP);
+    }
+
     public ProfilingFeature getProfileFeature() {
         return profileFeature;
     }
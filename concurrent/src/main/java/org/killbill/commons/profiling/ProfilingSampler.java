@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.profiling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.commons.metrics.api.Counter;
+import org.killbill.commons.metrics.api.MetricId;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.api.Timer;
+import org.killbill.commons.profiling.ProfilingFeature.ProfilingFeatureType;
+
+/**
+ * Always-on, sampled, profiling: unlike {@link ProfilingData}, it doesn't need to be enabled per request.
+ * <p>
+ * The timings of each request (see {@link Profiling#startSampledRequest()}) are recorded in a fixed size ring buffer
+ * of the thread (primitive arrays, no allocation). When the request ends, they are published to the registry if the
+ * request is sampled (one in sampleRate requests, per thread) or slow (over the threshold), and discarded otherwise.
+ * Timings recorded outside of a request are sampled on their own.
+ * <p>
+ * Published timings are aggregated in a timer per profiling type and id (org.killbill.commons.profiling.Profiling.time,
+ * tagged by type and id): with the native registry, these are log-linear bucket histograms.
+ */
+public final class ProfilingSampler {
+
+    public static final int DEFAULT_MAX_SPANS_PER_REQUEST = 256;
+
+    private static final String METRIC_NAME = String.format("%s.%s", Profiling.class.getName(), "time");
+    private static final ProfilingFeatureType[] PROFILING_TYPES = ProfilingFeatureType.values();
+
+    private final MetricRegistry registry;
+    private final ProfilingFeature profilingFeature;
+    private final int sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxSpansPerRequest;
+    private final ThreadLocal<ThreadSpans> perThreadSpans;
+    // Timers, by profiling type (ordinal) and id
+    private final Map<String, Timer>[] timers;
+    private final Counter sampledRequests;
+    private final Counter slowRequests;
+    private final Counter droppedSpans;
+
+    public ProfilingSampler(final MetricRegistry registry, final int sampleRate, final long slowThreshold, final TimeUnit unit) {
+        this(registry, new ProfilingFeature(), sampleRate, slowThreshold, unit, DEFAULT_MAX_SPANS_PER_REQUEST);
+    }
+
+    /**
+     * @param registry           registry to publish to
+     * @param profilingFeature   profiling types to record
+     * @param sampleRate         one in sampleRate requests is published (0 to only publish the slow ones)
+     * @param slowThreshold      requests over this duration are always published
+     * @param unit               unit of the threshold
+     * @param maxSpansPerRequest size of the ring buffers (only the last timings of bigger requests are published)
+     */
+    @SuppressWarnings("unchecked")
+    public ProfilingSampler(final MetricRegistry registry,
+                            final ProfilingFeature profilingFeature,
+                            final int sampleRate,
+                            final long slowThreshold,
+                            final TimeUnit unit,
+                            final int maxSpansPerRequest) {
+        if (sampleRate < 0) {
+            throw new IllegalArgumentException("sampleRate should be greater than or equal to 0");
+        }
+        if (maxSpansPerRequest <= 0) {
+            throw new IllegalArgumentException("maxSpansPerRequest should be greater than 0");
+        }
+        this.registry = registry;
+        this.profilingFeature = profilingFeature;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = unit.toNanos(slowThreshold);
+        this.maxSpansPerRequest = maxSpansPerRequest;
+        this.perThreadSpans = ThreadLocal.withInitial(() -> new ThreadSpans(this.maxSpansPerRequest));
+        this.timers = new Map[PROFILING_TYPES.length];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new ConcurrentHashMap<String, Timer>();
+        }
+        this.sampledRequests = registry.counter(String.format("%s.%s", ProfilingSampler.class.getName(), "sampledRequests"));
+        this.slowRequests = registry.counter(String.format("%s.%s", ProfilingSampler.class.getName(), "slowRequests"));
+        this.droppedSpans = registry.counter(String.format("%s.%s", ProfilingSampler.class.getName(), "droppedSpans"));
+    }
+
+    public void startRequest() {
+        final ThreadSpans spans = perThreadSpans.get();
+        // Nested requests are part of the outer one
+        if (spans.depth++ == 0) {
+            spans.size = 0;
+            spans.requestStartNanos = System.nanoTime();
+        }
+    }
+
+    public void endRequest() {
+        final ThreadSpans spans = perThreadSpans.get();
+        if (spans.depth == 0 || --spans.depth > 0) {
+            return;
+        }
+
+        final boolean slow = System.nanoTime() - spans.requestStartNanos >= slowThresholdNanos;
+        if (slow) {
+            slowRequests.inc(1);
+        }
+        if (slow || spans.isSampled(sampleRate)) {
+            publish(spans);
+        }
+        spans.size = 0;
+    }
+
+    void record(final ProfilingFeatureType profilingType, final String id, final long durationNanos) {
+        if (!profilingFeature.isDefined(profilingType)) {
+            return;
+        }
+
+        final ThreadSpans spans = perThreadSpans.get();
+        if (spans.depth > 0) {
+            spans.add(profilingType, id, durationNanos);
+        } else if (durationNanos >= slowThresholdNanos || spans.isSampled(sampleRate)) {
+            timer(profilingType, id).update(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void publish(final ThreadSpans spans) {
+        sampledRequests.inc(1);
+        if (spans.size > maxSpansPerRequest) {
+            droppedSpans.inc(spans.size - maxSpansPerRequest);
+        }
+
+        final int nbSpans = Math.min(spans.size, maxSpansPerRequest);
+        for (int i = 0; i < nbSpans; i++) {
+            timer(PROFILING_TYPES[spans.types[i]], spans.ids[i]).update(spans.durations[i], TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(final ProfilingFeatureType profilingType, final String id) {
+        final Map<String, Timer> timersForType = timers[profilingType.ordinal()];
+        final Timer timer = timersForType.get(id);
+        if (timer != null) {
+            return timer;
+        }
+        return timersForType.computeIfAbsent(id, i -> registry.timer(MetricId.of(METRIC_NAME, "type", profilingType.name(), "id", i)));
+    }
+
+    // Only accessed by its thread
+    private static final class ThreadSpans {
+
+        private final byte[] types;
+        private final String[] ids;
+        private final long[] durations;
+        // Number of spans recorded in the current request, may be greater than the capacity (oldest spans overwritten)
+        private int size;
+        private int depth;
+        private long requestStartNanos;
+        private int nbUnsampled;
+
+        private ThreadSpans(final int capacity) {
+            this.types = new byte[capacity];
+            this.ids = new String[capacity];
+            this.durations = new long[capacity];
+        }
+
+        private void add(final ProfilingFeatureType profilingType, final String id, final long durationNanos) {
+            final int index = size++ % durations.length;
+            types[index] = (byte) profilingType.ordinal();
+            ids[index] = id;
+            durations[index] = durationNanos;
+        }
+
+        private boolean isSampled(final int sampleRate) {
+            if (sampleRate == 0 || ++nbUnsampled < sampleRate) {
+                return false;
+            }
+            nbUnsampled = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.concurrent;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Submission throughput of trivial tasks (as the queue Dispatcher does), with the dynamic executor or a fixed size
+ * LoggingExecutor (same task wrapping, no core pool size adjustments). The number of tasks in flight is bounded, so
+ * that producers wait for the workers instead of filling the queue.
+ * <p>
+ * Not run as part of the test suite, see main (test classpath): it runs with 1, 4, 16 and 64 producer threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DynamicThreadPoolExecutorBenchmark {
+
+    private static final int MAX_POOL_SIZE = 8;
+    private static final int MAX_TASKS_IN_FLIGHT = 1024;
+
+    @Param({"dynamic", "fixed"})
+    public String executorType;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore tasksInFlight;
+    private Runnable task;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The test configuration logs each task at DEBUG
+        Logger.getLogger(LoggingExecutor.class).setLevel(org.apache.log4j.Level.INFO);
+
+        if ("dynamic".equals(executorType)) {
+            executor = new DynamicThreadPoolExecutorWithLoggingOnExceptions(1, MAX_POOL_SIZE, "benchmark", 10, TimeUnit.MINUTES, new LinkedBlockingQueue<Runnable>());
+        } else {
+            executor = new LoggingExecutor(MAX_POOL_SIZE, MAX_POOL_SIZE, "benchmark", 10, TimeUnit.MINUTES, new LinkedBlockingQueue<Runnable>());
+        }
+        tasksInFlight = new Semaphore(MAX_TASKS_IN_FLIGHT);
+        task = tasksInFlight::release;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void submit() throws InterruptedException {
+        tasksInFlight.acquire();
+        executor.execute(task);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        for (final int nbThreads : new int[]{1, 4, 16, 64}) {
+            new Runner(new OptionsBuilder().include(DynamicThreadPoolExecutorBenchmark.class.getSimpleName()).threads(nbThreads).build()).run();
+        }
+    }
+}
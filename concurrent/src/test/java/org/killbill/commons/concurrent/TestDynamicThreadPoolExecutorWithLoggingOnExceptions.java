@@ -36,7 +36,7 @@ import java.util.concurrent.TimeUnit;
 public class TestDynamicThreadPoolExecutorWithLoggingOnExceptions {
 
     private BlockingQueue<Runnable> queue;
-    private ThreadPoolExecutor executor;
+    private DynamicThreadPoolExecutorWithLoggingOnExceptions executor;
 
 
     @BeforeMethod(groups = "fast")
@@ -64,7 +64,7 @@ public class TestDynamicThreadPoolExecutorWithLoggingOnExceptions {
 
     @AfterMethod(groups = "fast")
     public void afterMethod() {
-
+        executor.shutdownNow();
     }
 
 
@@ -98,6 +98,35 @@ public class TestDynamicThreadPoolExecutorWithLoggingOnExceptions {
 
     }
 
+    @Test(groups = "fast")
+    public void testCorePoolSizeAdjustments() throws Exception {
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final CountDownLatch doneSignal = new CountDownLatch(4);
+
+        for (int i = 0; i < 4; i++) {
+            executor.submit(new TestCallable(startSignal, doneSignal));
+        }
+        Assert.assertEquals(executor.getCurrentTaskCount(), 4);
+        Assert.assertEquals(executor.getCorePoolSize(), 3);
+        Assert.assertEquals(executor.getCorePoolSizeAdjustmentCount(), 2);
+
+        startSignal.countDown();
+        doneSignal.await();
+
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (executor.getCurrentTaskCount() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(executor.getCurrentTaskCount(), 0);
+
+        // Shrinking is rate-limited: back to the specified core pool size once idle, without any other completion
+        while (executor.getCorePoolSize() != 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(executor.getCorePoolSize(), 1);
+        Assert.assertEquals(executor.getCorePoolSizeAdjustmentContentionCount(), 0);
+    }
+
     public static class TestCallable implements Callable<Object> {
 
         private final CountDownLatch startSignal;
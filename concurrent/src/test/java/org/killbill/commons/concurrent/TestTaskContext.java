@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.concurrent;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.killbill.commons.profiling.Profiling;
+import org.killbill.commons.profiling.ProfilingData;
+import org.killbill.commons.profiling.ProfilingData.ProfilingDataItem;
+import org.killbill.commons.profiling.ProfilingFeature.ProfilingFeatureType;
+import org.killbill.commons.request.Request;
+import org.killbill.commons.request.RequestData;
+import org.slf4j.MDC;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestTaskContext {
+
+    private final Profiling<Void, RuntimeException> prof = new Profiling<Void, RuntimeException>();
+
+    private ExecutorService executorService;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() throws Exception {
+        executorService = Executors.newFixedThreadPool(1, "TestTaskContext");
+        // Start the thread beforehand: the log4j MDC is inherited by new threads
+        executorService.submit(() -> {}).get();
+    }
+
+    @AfterMethod(groups = "fast")
+    public void tearDown() throws InterruptedException {
+        executorService.shutdownNow();
+        Assert.assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        Request.resetPerThreadRequestData();
+        Profiling.resetPerThreadProfilingData();
+        MDC.clear();
+    }
+
+    @Test(groups = "fast")
+    public void testContextPropagated() throws Exception {
+        Request.setPerThreadRequestData(new RequestData("12345"));
+        Profiling.setPerThreadProfilingData("DAO");
+        MDC.put("kb.userToken", "abcde");
+
+        final String[] taskContext = executorService.submit(() -> {
+            prof.executeWithProfiling(ProfilingFeatureType.DAO, "DAO:getById", () -> null);
+            // Not part of the profiled features of the caller
+            prof.executeWithProfiling(ProfilingFeatureType.GLOCK, "lock", () -> null);
+            return new String[]{Request.getPerThreadRequestData().getRequestId(), MDC.get("kb.userToken")};
+        }).get();
+
+        Assert.assertEquals(taskContext[0], "12345");
+        Assert.assertEquals(taskContext[1], "abcde");
+
+        // The timings of the task are handed back to the caller
+        final List<ProfilingDataItem> rawData = Profiling.getPerThreadProfilingData().getRawData();
+        Assert.assertEquals(rawData.size(), 2);
+        Assert.assertEquals(rawData.get(0).getKey(), "DAO:DAO:getById");
+        Assert.assertEquals(rawData.get(0).getLineType(), ProfilingData.LogLineType.START);
+        Assert.assertEquals(rawData.get(1).getLineType(), ProfilingData.LogLineType.END);
+
+        // The executing thread is restored
+        Request.resetPerThreadRequestData();
+        Profiling.resetPerThreadProfilingData();
+        MDC.clear();
+        final Object[] threadContext = executorService.submit(() -> new Object[]{Request.getPerThreadRequestData(), Profiling.getPerThreadProfilingData(), MDC.get("kb.userToken")}).get();
+        Assert.assertEquals(threadContext, new Object[]{null, null, null});
+    }
+
+    @Test(groups = "fast")
+    public void testRunnableWithException() throws Exception {
+        Request.setPerThreadRequestData(new RequestData("12345"));
+
+        final AtomicReference<String> requestId = new AtomicReference<String>();
+        executorService.execute(() -> {
+            requestId.set(Request.getPerThreadRequestData().getRequestId());
+            throw new IllegalStateException("Expected exception");
+        });
+        Request.resetPerThreadRequestData();
+
+        Assert.assertNull(executorService.submit(() -> Request.getPerThreadRequestData()).get());
+        Assert.assertEquals(requestId.get(), "12345");
+    }
+
+    @Test(groups = "fast")
+    public void testPeriodicTasksWithoutContext() throws Exception {
+        final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor("TestTaskContext-scheduled");
+        try {
+            Request.setPerThreadRequestData(new RequestData("12345"));
+
+            final AtomicReference<RequestData> requestData = new AtomicReference<RequestData>(new RequestData("not run"));
+            final ScheduledFuture<?> future = scheduledExecutorService.scheduleWithFixedDelay(() -> requestData.set(Request.getPerThreadRequestData()), 0, 1, TimeUnit.HOURS);
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (requestData.get() != null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            future.cancel(false);
+
+            Assert.assertNull(requestData.get());
+        } finally {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.profiling;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.commons.metrics.api.Metric;
+import org.killbill.commons.metrics.api.MetricId;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.api.Timer;
+import org.killbill.commons.metrics.registry.DefaultMetricRegistry;
+import org.killbill.commons.profiling.ProfilingFeature.ProfilingFeatureType;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestProfilingSampler {
+
+    private static final String METRIC_NAME = "org.killbill.commons.profiling.Profiling.time";
+
+    private final Profiling<Void, RuntimeException> prof = new Profiling<Void, RuntimeException>();
+
+    private MetricRegistry registry;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() {
+        registry = new DefaultMetricRegistry();
+    }
+
+    @AfterMethod(groups = "fast")
+    public void tearDown() {
+        Profiling.setSampler(null);
+    }
+
+    @Test(groups = "fast")
+    public void testSampledRequests() {
+        Profiling.setSampler(new ProfilingSampler(registry, 3, 1, TimeUnit.HOURS));
+
+        for (int i = 0; i < 6; i++) {
+            Profiling.startSampledRequest();
+            execute(ProfilingFeatureType.DAO, "DAO:getById");
+            execute(ProfilingFeatureType.GLOCK, "lock");
+            Profiling.endSampledRequest();
+        }
+
+        // 2 requests out of 6
+        Assert.assertEquals(timer(ProfilingFeatureType.DAO, "DAO:getById").getCount(), 2);
+        Assert.assertEquals(timer(ProfilingFeatureType.GLOCK, "lock").getCount(), 2);
+        Assert.assertEquals(registry.getCounters().get(ProfilingSampler.class.getName() + ".sampledRequests").getCount(), 2);
+        Assert.assertEquals(registry.getCounters().get(ProfilingSampler.class.getName() + ".slowRequests").getCount(), 0);
+        // No per-request profiling data involved
+        Assert.assertNull(Profiling.getPerThreadProfilingData());
+    }
+
+    @Test(groups = "fast")
+    public void testSlowRequests() {
+        Profiling.setSampler(new ProfilingSampler(registry, 0, 0, TimeUnit.NANOSECONDS));
+
+        Profiling.startSampledRequest();
+        // Nested requests are part of the outer one
+        Profiling.startSampledRequest();
+        execute(ProfilingFeatureType.DAO, "DAO:getById");
+        Profiling.endSampledRequest();
+        Assert.assertNull(registry.getTaggedMetrics().get(METRIC_NAME));
+        execute(ProfilingFeatureType.DAO, "DAO:getById");
+        Profiling.endSampledRequest();
+
+        Assert.assertEquals(timer(ProfilingFeatureType.DAO, "DAO:getById").getCount(), 2);
+        Assert.assertEquals(registry.getCounters().get(ProfilingSampler.class.getName() + ".slowRequests").getCount(), 1);
+    }
+
+    @Test(groups = "fast")
+    public void testRingBufferAndFeatures() {
+        Profiling.setSampler(new ProfilingSampler(registry, new ProfilingFeature("DAO"), 1, 1, TimeUnit.HOURS, 4));
+
+        Profiling.startSampledRequest();
+        for (int i = 0; i < 6; i++) {
+            execute(ProfilingFeatureType.DAO, "DAO:getById");
+        }
+        execute(ProfilingFeatureType.GLOCK, "lock");
+        Profiling.endSampledRequest();
+
+        // Only the last 4 timings are kept
+        Assert.assertEquals(timer(ProfilingFeatureType.DAO, "DAO:getById").getCount(), 4);
+        Assert.assertEquals(registry.getCounters().get(ProfilingSampler.class.getName() + ".droppedSpans").getCount(), 2);
+        Assert.assertEquals(registry.getTaggedMetrics().get(METRIC_NAME).size(), 1);
+    }
+
+    @Test(groups = "fast")
+    public void testOutsideOfRequests() {
+        Profiling.setSampler(new ProfilingSampler(registry, 2, 1, TimeUnit.HOURS));
+
+        for (int i = 0; i < 4; i++) {
+            execute(ProfilingFeatureType.PLUGIN, "plugin");
+        }
+
+        Assert.assertEquals(timer(ProfilingFeatureType.PLUGIN, "plugin").getCount(), 2);
+        // Still exposed with a flat name
+        Assert.assertNotNull(registry.getTimers().get(METRIC_NAME + ".PLUGIN.plugin"));
+    }
+
+    private void execute(final ProfilingFeatureType profilingType, final String id) {
+        prof.executeWithProfiling(profilingType, id, () -> null);
+    }
+
+    private Timer timer(final ProfilingFeatureType profilingType, final String id) {
+        final Map<MetricId, Metric> family = registry.getTaggedMetrics().get(METRIC_NAME);
+        Assert.assertNotNull(family);
+        final Timer timer = (Timer) family.get(MetricId.of(METRIC_NAME, "type", profilingType.name(), "id", id));
+        Assert.assertNotNull(timer);
+        return timer;
+    }
+}
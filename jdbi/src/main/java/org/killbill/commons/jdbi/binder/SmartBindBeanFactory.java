@@ -20,11 +20,18 @@
 package org.killbill.commons.jdbi.binder;
 
 import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
+import org.killbill.commons.jdbi.reflect.LambdaAccessors;
+import org.skife.jdbi.v2.ResolvedArgumentFactory;
 import org.skife.jdbi.v2.SQLStatement;
 import org.skife.jdbi.v2.sqlobject.BindBean;
 import org.skife.jdbi.v2.sqlobject.Binder;
@@ -33,35 +40,106 @@ import org.skife.jdbi.v2.sqlobject.BinderFactory;
 // Similar to org.skife.jdbi.v2.sqlobject.BindBeanFactory with optimizations
 public class SmartBindBeanFactory implements BinderFactory {
 
+    // [OPTIMIZATION] Introspect each bean class only once
+    private static final ClassValue<BeanBinding> BEAN_BINDINGS = new ClassValue<BeanBinding>() {
+        @Override
+        protected BeanBinding computeValue(final Class<?> type) {
+            return new BeanBinding(type);
+        }
+    };
+
     private static final Binder<SmartBindBean, Object> SMART_BINDER = new Binder<SmartBindBean, Object>() {
         @Override
         public void bind(final SQLStatement q, final SmartBindBean bind, final Object arg) {
-            final String prefix;
-            if (BindBean.BARE_BINDING.equals(bind.value())) {
-                prefix = null;
-            } else {
-                prefix = bind.value() + ".";
-            }
+            final BeanBinding beanBinding = BEAN_BINDINGS.get(arg.getClass());
+            beanBinding.bind(q, beanBinding.names, arg);
+        }
+    };
 
+    @Override
+    public Binder build(final Annotation annotation) {
+        final SmartBindBean smartBindBean = (SmartBindBean) annotation;
+        if (BindBean.BARE_BINDING.equals(smartBindBean.value())) {
+            return SMART_BINDER;
+        } else {
+            return new PrefixedBinder(smartBindBean.value() + ".");
+        }
+    }
+
+    private static final class PrefixedBinder implements Binder<SmartBindBean, Object> {
+
+        // [OPTIMIZATION] Avoid the concatenation for each property on each bind
+        private final ClassValue<String[]> prefixedNames;
+
+        private PrefixedBinder(final String prefix) {
+            this.prefixedNames = new ClassValue<String[]>() {
+                @Override
+                protected String[] computeValue(final Class<?> type) {
+                    final String[] names = BEAN_BINDINGS.get(type).names;
+                    final String[] result = new String[names.length];
+                    for (int i = 0; i < names.length; i++) {
+                        result[i] = prefix + names[i];
+                    }
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public void bind(final SQLStatement q, final SmartBindBean bind, final Object arg) {
+            final Class<?> type = arg.getClass();
+            BEAN_BINDINGS.get(type).bind(q, prefixedNames.get(type), arg);
+        }
+    }
+
+    // Binding plan for a bean class: readable properties, with their getter and argument factory
+    private static final class BeanBinding {
+
+        private final String[] names;
+        private final Function<Object, Object>[] getters;
+        private final ResolvedArgumentFactory[] argumentFactories;
+        private final Exception introspectionException;
+
+        @SuppressWarnings("unchecked")
+        private BeanBinding(final Class<?> type) {
+            final List<String> names = new ArrayList<>();
+            final List<Function<Object, Object>> getters = new ArrayList<>();
+            final List<ResolvedArgumentFactory> argumentFactories = new ArrayList<>();
+            Exception introspectionException = null;
             try {
-                final BeanInfo infos = Introspector.getBeanInfo(arg.getClass());
-                final PropertyDescriptor[] props = infos.getPropertyDescriptors();
-                for (final PropertyDescriptor prop : props) {
+                final MethodHandles.Lookup lookup = LambdaAccessors.lookupIn(type);
+                final BeanInfo infos = Introspector.getBeanInfo(type);
+                for (final PropertyDescriptor prop : infos.getPropertyDescriptors()) {
                     final Method readMethod = prop.getReadMethod();
                     if (readMethod != null) {
-                        // [OPTIMIZATION] Avoid implicit creation of StringBuilder (concatenation) when no custom annotation value is specified
-                        final String name = prefix == null ? prop.getName() : prefix + prop.getName();
-                        q.dynamicBind(readMethod.getReturnType(), name, readMethod.invoke(arg));
+                        names.add(prop.getName());
+                        getters.add(LambdaAccessors.getter(lookup, lookup.unreflect(readMethod)));
+                        argumentFactories.add(new ResolvedArgumentFactory(readMethod.getReturnType()));
                     }
                 }
+            } catch (final IntrospectionException | IllegalAccessException e) {
+                // Report it on each bind, like before
+                introspectionException = e;
+            }
+
+            this.names = names.toArray(new String[0]);
+            this.getters = getters.toArray(new Function[0]);
+            this.argumentFactories = argumentFactories.toArray(new ResolvedArgumentFactory[0]);
+            this.introspectionException = introspectionException;
+        }
+
+        private void bind(final SQLStatement q, final String[] boundNames, final Object arg) {
+            if (introspectionException != null) {
+                throw new IllegalStateException("unable to bind bean properties", introspectionException);
+            }
+
+            try {
+                for (int i = 0; i < getters.length; i++) {
+                    q.dynamicBind(argumentFactories[i], boundNames[i], getters[i].apply(arg));
+                }
             } catch (final Exception e) {
                 throw new IllegalStateException("unable to bind bean properties", e);
             }
         }
-    };
-
-    @Override
-    public Binder build(final Annotation annotation) {
-        return SMART_BINDER;
     }
 }
@@ -33,8 +33,15 @@ import org.killbill.commons.jdbi.argument.LocalDateArgumentFactory;
 import org.killbill.commons.jdbi.argument.UUIDArgumentFactory;
 import org.killbill.commons.jdbi.log.Slf4jLogging;
 import org.killbill.commons.jdbi.mapper.UUIDMapper;
+import org.killbill.commons.jdbi.routing.RoutingDataSource;
+import org.killbill.commons.jdbi.statement.PreparedStatementCacheFactory;
+import org.killbill.commons.metrics.api.Gauge;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.skife.jdbi.v2.ColonPrefixNamedParamStatementRewriter;
 import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.HashPrefixStatementRewriter;
 import org.skife.jdbi.v2.IDBI;
+import org.skife.jdbi.v2.ParsedStatementCache;
 import org.skife.jdbi.v2.ResultSetMapperFactory;
 import org.skife.jdbi.v2.TimingCollector;
 import org.skife.jdbi.v2.tweak.ArgumentFactory;
@@ -61,6 +68,7 @@ public class DBIProvider implements Provider<IDBI> {
     private TimingCollector timingCollector;
     private StatementRewriter statementRewriter;
     private StatementBuilderFactory statementBuilderFactory;
+    private MetricRegistry metricRegistry;
 
     @Inject
     public DBIProvider(final DaoConfig config, final DataSource ds, final TransactionHandler transactionHandler) {
@@ -112,6 +120,11 @@ public class DBIProvider implements Provider<IDBI> {
         this.statementBuilderFactory = statementBuilderFactory;
     }
 
+    @Inject
+    public void setMetricRegistry(@Nullable final MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
     @Override
     public IDBI get() {
         final DBI dbi = new DBI(ds);
@@ -122,6 +135,8 @@ public class DBIProvider implements Provider<IDBI> {
 
         if (statementBuilderFactory != null) {
             dbi.setStatementBuilderFactory(statementBuilderFactory);
+        } else if (config != null && config.getStatementCacheSize() > 0) {
+            dbi.setStatementBuilderFactory(new PreparedStatementCacheFactory(config.getStatementCacheSize()));
         }
 
         for (final ArgumentFactory argumentFactory : argumentFactorySet) {
@@ -151,9 +166,52 @@ public class DBIProvider implements Provider<IDBI> {
             dbi.setTimingCollector(timingCollector);
         }
 
+        if (metricRegistry != null) {
+            registerParsedStatementCacheMetrics(dbi);
+            registerPreparedStatementCacheMetrics(dbi);
+            registerRoutingDataSourceMetrics();
+        }
+
         return dbi;
     }
 
+    private void registerParsedStatementCacheMetrics(final DBI dbi) {
+        final ParsedStatementCache<?> parsedStatementCache;
+        if (dbi.getStatementRewriter() instanceof ColonPrefixNamedParamStatementRewriter) {
+            parsedStatementCache = ((ColonPrefixNamedParamStatementRewriter) dbi.getStatementRewriter()).getParsedStatementCache();
+        } else if (dbi.getStatementRewriter() instanceof HashPrefixStatementRewriter) {
+            parsedStatementCache = ((HashPrefixStatementRewriter) dbi.getStatementRewriter()).getParsedStatementCache();
+        } else {
+            return;
+        }
+
+        metricRegistry.gauge(String.format("%s.%s", ParsedStatementCache.class.getName(), "hits"), (Gauge<Long>) parsedStatementCache::getHits);
+        metricRegistry.gauge(String.format("%s.%s", ParsedStatementCache.class.getName(), "misses"), (Gauge<Long>) parsedStatementCache::getMisses);
+        metricRegistry.gauge(String.format("%s.%s", ParsedStatementCache.class.getName(), "size"), (Gauge<Integer>) parsedStatementCache::size);
+    }
+
+    private void registerPreparedStatementCacheMetrics(final DBI dbi) {
+        if (!(dbi.getStatementBuilderFactory() instanceof PreparedStatementCacheFactory)) {
+            return;
+        }
+        final PreparedStatementCacheFactory preparedStatementCache = (PreparedStatementCacheFactory) dbi.getStatementBuilderFactory();
+
+        metricRegistry.gauge(String.format("%s.%s", PreparedStatementCacheFactory.class.getName(), "hits"), (Gauge<Long>) preparedStatementCache::getHits);
+        metricRegistry.gauge(String.format("%s.%s", PreparedStatementCacheFactory.class.getName(), "misses"), (Gauge<Long>) preparedStatementCache::getMisses);
+        metricRegistry.gauge(String.format("%s.%s", PreparedStatementCacheFactory.class.getName(), "evictions"), (Gauge<Long>) preparedStatementCache::getEvictions);
+    }
+
+    private void registerRoutingDataSourceMetrics() {
+        if (!(ds instanceof RoutingDataSource)) {
+            return;
+        }
+        final RoutingDataSource routingDataSource = (RoutingDataSource) ds;
+
+        metricRegistry.gauge(String.format("%s.%s", RoutingDataSource.class.getName(), "primaryConnections"), (Gauge<Long>) routingDataSource::getPrimaryConnections);
+        metricRegistry.gauge(String.format("%s.%s", RoutingDataSource.class.getName(), "replicaConnections"), (Gauge<Long>) routingDataSource::getReplicaConnections);
+        metricRegistry.gauge(String.format("%s.%s", RoutingDataSource.class.getName(), "replicaFailures"), (Gauge<Long>) routingDataSource::getReplicaFailures);
+    }
+
     protected void setDefaultArgumentFactorySet() {
         argumentFactorySet.add(new UUIDArgumentFactory());
         argumentFactorySet.add(new DateTimeZoneArgumentFactory());
@@ -99,6 +99,11 @@ public interface DaoConfig {
     @Default("true")
     boolean isPreparedStatementsCacheEnabled();
 
+    @Description("Number of prepared statements cached by JDBI per handle, while its connection is checked out (0 to disable)")
+    @Config("org.killbill.dao.statementCacheSize")
+    @Default("0")
+    int getStatementCacheSize();
+
     @Description("Enable server-side prepared statements")
     @Config("org.killbill.dao.useServerPrepStmts")
     @Default("true")
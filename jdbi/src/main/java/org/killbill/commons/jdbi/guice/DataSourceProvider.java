@@ -33,6 +33,7 @@ import org.killbill.commons.embeddeddb.EmbeddedDB;
 import org.killbill.commons.health.api.HealthCheckRegistry;
 import org.killbill.commons.jdbi.hikari.KillBillHealthChecker;
 import org.killbill.commons.jdbi.hikari.KillBillMetricsTrackerFactory;
+import org.killbill.commons.jdbi.routing.RoutingDataSource;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.utils.annotation.VisibleForTesting;
 import org.skife.config.TimeSpan;
@@ -46,6 +47,7 @@ import com.zaxxer.hikari.pool.HikariPool.PoolInitializationException;
 public class DataSourceProvider implements Provider<DataSource> {
 
     protected final DaoConfig config;
+    protected final DaoConfig replicaConfig;
     protected final String poolName;
     protected final boolean useMariaDB;
     protected final EmbeddedDB embeddedDB;
@@ -80,7 +82,15 @@ public class DataSourceProvider implements Provider<DataSource> {
     }
 
     public DataSourceProvider(final DaoConfig config, final EmbeddedDB embeddedDB, final String poolName, final boolean useMariaDB) {
+        this(config, null, embeddedDB, poolName, useMariaDB);
+    }
+
+    /**
+     * @param replicaConfig when not null, a second pool is built for the replica and the provided DataSource is a {@link RoutingDataSource}
+     */
+    public DataSourceProvider(final DaoConfig config, @Nullable final DaoConfig replicaConfig, final EmbeddedDB embeddedDB, final String poolName, final boolean useMariaDB) {
         this.config = config;
+        this.replicaConfig = replicaConfig;
         this.poolName = poolName;
         this.useMariaDB = useMariaDB;
         this.embeddedDB = embeddedDB;
@@ -103,7 +113,17 @@ public class DataSourceProvider implements Provider<DataSource> {
         if (embeddedDB != null) {
             embeddedDB.setDataSource(dataSource);
         }
-        return dataSource;
+        if (replicaConfig == null) {
+            return dataSource;
+        }
+        return new RoutingDataSource(dataSource, buildReplicaDataSource());
+    }
+
+    private DataSource buildReplicaDataSource() {
+        final DataSourceProvider replicaDataSourceProvider = new DataSourceProvider(replicaConfig, null, null, poolName == null ? "replica" : poolName + "-replica", useMariaDB);
+        replicaDataSourceProvider.setMetricsRegistry(metricRegistry);
+        replicaDataSourceProvider.setHealthCheckRegistry(healthCheckRegistry);
+        return replicaDataSourceProvider.get();
     }
 
     private DataSource buildDataSource() {
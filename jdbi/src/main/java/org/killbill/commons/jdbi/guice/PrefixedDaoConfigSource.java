@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.guice;
+
+import org.skife.config.ConfigSource;
+import org.skife.config.ConfigurationObjectFactory;
+
+/**
+ * Reads the {@link DaoConfig} properties under another prefix, e.g. org.killbill.dao.replica.url for org.killbill.dao.url,
+ * falling back to the main properties (credentials, pool settings, etc. are shared unless overridden).
+ * <p>
+ * The replica of a {@link org.killbill.commons.jdbi.routing.RoutingDataSource} is configured this way,
+ * see {@link RoutingDataSourceProvider}.
+ */
+public class PrefixedDaoConfigSource implements ConfigSource {
+
+    public static final String DAO_PREFIX = "org.killbill.dao.";
+    public static final String REPLICA_PREFIX = "org.killbill.dao.replica.";
+
+    private final ConfigSource delegate;
+    private final String prefix;
+
+    public PrefixedDaoConfigSource(final ConfigSource delegate, final String prefix) {
+        this.delegate = delegate;
+        this.prefix = prefix;
+    }
+
+    /**
+     * @param configSource the main config source
+     * @param prefix       the prefix (e.g. {@link #REPLICA_PREFIX})
+     * @return whether a database url is configured under that prefix
+     */
+    public static boolean isConfigured(final ConfigSource configSource, final String prefix) {
+        return configSource.getString(prefix + "url") != null;
+    }
+
+    public static DaoConfig buildDaoConfig(final ConfigSource configSource, final String prefix) {
+        return new ConfigurationObjectFactory(new PrefixedDaoConfigSource(configSource, prefix)).build(DaoConfig.class);
+    }
+
+    @Override
+    public String getString(final String propertyName) {
+        if (propertyName.startsWith(DAO_PREFIX)) {
+            final String value = delegate.getString(prefix + propertyName.substring(DAO_PREFIX.length()));
+            if (value != null) {
+                return value;
+            }
+        }
+        return delegate.getString(propertyName);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.guice;
+
+import javax.inject.Inject;
+
+import org.skife.config.ConfigSource;
+
+/**
+ * {@link DataSourceProvider} which also builds a replica pool when org.killbill.dao.replica.url is set,
+ * in which case the provided DataSource is a {@link org.killbill.commons.jdbi.routing.RoutingDataSource}.
+ */
+public class RoutingDataSourceProvider extends DataSourceProvider {
+
+    @Inject
+    public RoutingDataSourceProvider(final DaoConfig config, final ConfigSource configSource) {
+        super(config, buildReplicaDaoConfig(configSource), null, null, true);
+    }
+
+    private static DaoConfig buildReplicaDaoConfig(final ConfigSource configSource) {
+        if (!PrefixedDaoConfigSource.isConfigured(configSource, PrefixedDaoConfigSource.REPLICA_PREFIX)) {
+            return null;
+        }
+        return PrefixedDaoConfigSource.buildDaoConfig(configSource, PrefixedDaoConfigSource.REPLICA_PREFIX);
+    }
+}
@@ -23,8 +23,9 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.sql.Blob;
@@ -33,13 +34,19 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
+import org.killbill.commons.jdbi.reflect.LambdaAccessors;
 import org.killbill.commons.utils.Strings;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.tweak.ResultSetMapper;
@@ -47,12 +54,33 @@ import org.skife.jdbi.v2.tweak.ResultSetMapper;
 // Identical to org.skife.jdbi.v2.BeanMapper but maps created_date to createdDate
 public class LowerToCamelBeanMapper<T> implements ResultSetMapper<T> {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
     private final Class<T> type;
+    private final MethodHandles.Lookup beanLookup;
     private final Map<String, PropertyDescriptor> properties = new HashMap<>();
     private final Map<String, PropertyMapper<ResultSet, ?>> propertiesMappers = new HashMap<>();
+    private final Map<String, BiConsumer<Object, Object>> setters = new ConcurrentHashMap<>();
+    // Default constructor (null if the type isn't instantiable)
+    private final Supplier<Object> constructor;
+    private final Exception constructorLookupException;
+    // Mappers are shared: each thread keeps the plan of the ResultSet it is iterating on
+    private final ThreadLocal<MappingPlan> lastMappingPlan = new ThreadLocal<>();
 
     public LowerToCamelBeanMapper(final Class<T> type) {
         this.type = type;
+        this.beanLookup = LambdaAccessors.lookupIn(type);
+
+        Supplier<Object> defaultConstructor = null;
+        Exception lookupException = null;
+        try {
+            defaultConstructor = LambdaAccessors.constructor(beanLookup, beanLookup.unreflectConstructor(type.getDeclaredConstructor()));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            lookupException = e;
+        }
+        this.constructor = defaultConstructor;
+        this.constructorLookupException = lookupException;
+
         try {
             final BeanInfo info = Introspector.getBeanInfo(type);
 
@@ -163,58 +191,135 @@ public class LowerToCamelBeanMapper<T> implements ResultSetMapper<T> {
         }
     }
 
-    @SuppressWarnings("rawtypes")
     public T map(final int row, final ResultSet rs, final StatementContext ctx) throws SQLException {
-        final T bean;
-        try {
-            bean = type.getDeclaredConstructor().newInstance();
-        } catch (final Exception e) {
-            throw new IllegalArgumentException(String.format("A bean, %s, was mapped which was not instantiable", type.getName()), e);
+        final MappingPlan plan = getMappingPlan(rs);
+
+        final T bean = newInstance();
+        for (final ColumnMapping columnMapping : plan.columnMappings) {
+            columnMapping.apply(bean, rs);
+        }
+        return bean;
+    }
+
+    // The plan is built on the first row of each ResultSet, subsequent rows don't look at the metadata anymore
+    private MappingPlan getMappingPlan(final ResultSet rs) throws SQLException {
+        final MappingPlan currentPlan = lastMappingPlan.get();
+        if (currentPlan != null && currentPlan.isFor(rs)) {
+            return currentPlan;
         }
 
-        final Class beanClass = bean.getClass();
-        final ResultSetMetaData metadata = rs.getMetaData();
+        final MappingPlan newPlan = new MappingPlan(rs, buildColumnMappings(rs.getMetaData()));
+        lastMappingPlan.set(newPlan);
+        return newPlan;
+    }
 
+    private ColumnMapping[] buildColumnMappings(final ResultSetMetaData metadata) throws SQLException {
+        final List<ColumnMapping> columnMappings = new ArrayList<>(metadata.getColumnCount());
         for (int i = 1; i <= metadata.getColumnCount(); ++i) {
             final String name = metadata.getColumnLabel(i).toLowerCase();
 
             final PropertyMapper<ResultSet, ?> propertyMapper = propertiesMappers.get(name);
             if (propertyMapper != null) {
-                Object value = propertyMapper.apply(rs, i);
-
-                // For h2, transform a JdbcBlob into a byte[]
-                if (value instanceof Blob) {
-                    final Blob blob = (Blob) value;
-                    value = blob.getBytes(1, (int) blob.length());
-                }
-                if (rs.wasNull() && !type.isPrimitive()) {
-                    value = null;
-                }
-
-                try {
-                    final PropertyDescriptor descriptor = properties.get(name);
-                    final Method writeMethod = descriptor.getWriteMethod();
-                    if (writeMethod != null) {
-                        writeMethod.invoke(bean, value);
-                    } else {
-                        final String camelCasedName = Strings.toCamelCase(name, false, '_');
-                        final Field field = getField(beanClass, camelCasedName);
-                        field.setAccessible(true); // Often private...
-                        field.set(bean, value);
-                    }
-                } catch (final IllegalArgumentException e) {
-                    throw new IllegalArgumentException(String.format("Unable to set field for property: name=%s, value=%s", name, value), e);
-                } catch (final NoSuchFieldException e) {
-                    throw new IllegalArgumentException(String.format("Unable to find field for property, %s", name), e);
-                } catch (final IllegalAccessException e) {
-                    throw new IllegalArgumentException(String.format("Unable to access setter for property, %s", name), e);
-                } catch (final InvocationTargetException e) {
-                    throw new IllegalArgumentException(String.format("Invocation target exception trying to invoker setter for the %s property", name), e);
-                }
+                final PropertyDescriptor descriptor = properties.get(name);
+                columnMappings.add(new ColumnMapping(i, name, propertyMapper, getSetter(name, descriptor), descriptor.getPropertyType().isPrimitive()));
             }
         }
+        return columnMappings.toArray(new ColumnMapping[0]);
+    }
 
-        return bean;
+    // Setters are resolved once per property, the first time a ResultSet has the matching column
+    private BiConsumer<Object, Object> getSetter(final String name, final PropertyDescriptor descriptor) {
+        return setters.computeIfAbsent(name, n -> buildSetter(n, descriptor));
+    }
+
+    // Setter or, if there is none, field
+    private BiConsumer<Object, Object> buildSetter(final String name, final PropertyDescriptor descriptor) {
+        try {
+            final Method writeMethod = descriptor.getWriteMethod();
+            if (writeMethod != null) {
+                return LambdaAccessors.setter(beanLookup, beanLookup.unreflect(writeMethod));
+            }
+
+            final String camelCasedName = Strings.toCamelCase(name, false, '_');
+            final Field field = getField(type, camelCasedName);
+            field.setAccessible(true); // Often private...
+            return LambdaAccessors.fromSetterHandle(LOOKUP.unreflectSetter(field));
+        } catch (final NoSuchFieldException e) {
+            throw new IllegalArgumentException(String.format("Unable to find field for property, %s", name), e);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalArgumentException(String.format("Unable to access setter for property, %s", name), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        if (constructor == null) {
+            throw new IllegalArgumentException(String.format("A bean, %s, was mapped which was not instantiable", type.getName()), constructorLookupException);
+        }
+
+        try {
+            return (T) constructor.get();
+        } catch (final Exception e) {
+            throw new IllegalArgumentException(String.format("A bean, %s, was mapped which was not instantiable", type.getName()), e);
+        }
+    }
+
+    private static final class MappingPlan {
+
+        // Don't prevent the ResultSet (and its buffered rows) from being garbage collected
+        private final WeakReference<ResultSet> resultSet;
+        private final ColumnMapping[] columnMappings;
+
+        private MappingPlan(final ResultSet resultSet, final ColumnMapping[] columnMappings) {
+            this.resultSet = new WeakReference<>(resultSet);
+            this.columnMappings = columnMappings;
+        }
+
+        private boolean isFor(final ResultSet rs) {
+            return resultSet.get() == rs;
+        }
+    }
+
+    private static final class ColumnMapping {
+
+        private final int index;
+        private final String name;
+        private final PropertyMapper<ResultSet, ?> propertyMapper;
+        private final BiConsumer<Object, Object> setter;
+        private final boolean isPrimitive;
+
+        private ColumnMapping(final int index, final String name, final PropertyMapper<ResultSet, ?> propertyMapper, final BiConsumer<Object, Object> setter, final boolean isPrimitive) {
+            this.index = index;
+            this.name = name;
+            this.propertyMapper = propertyMapper;
+            this.setter = setter;
+            this.isPrimitive = isPrimitive;
+        }
+
+        private void apply(final Object bean, final ResultSet rs) throws SQLException {
+            Object value = propertyMapper.apply(rs, index);
+
+            // For h2, transform a JdbcBlob into a byte[]
+            if (value instanceof Blob) {
+                final Blob blob = (Blob) value;
+                value = blob.getBytes(1, (int) blob.length());
+            }
+            if (rs.wasNull()) {
+                value = null;
+            }
+
+            if (value == null && isPrimitive) {
+                throw new IllegalArgumentException(String.format("Unable to set field for property: name=%s, value=null", name));
+            }
+
+            try {
+                setter.accept(bean, value);
+            } catch (final ClassCastException e) {
+                throw new IllegalArgumentException(String.format("Unable to set field for property: name=%s, value=%s", name, value), e);
+            } catch (final Exception e) {
+                throw new IllegalArgumentException(String.format("Invocation target exception trying to invoker setter for the %s property", name), e);
+            }
+        }
     }
 
     protected interface PropertyMapper<ResultSet, T> {
@@ -18,6 +18,8 @@
 package org.killbill.commons.jdbi.metrics;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.killbill.commons.metrics.api.MetricRegistry;
@@ -28,6 +30,8 @@ import org.skife.jdbi.v2.TimingCollector;
 public class KillBillTimingCollector implements TimingCollector {
 
     private final MetricRegistry registry;
+    // Timers of SqlObject methods, per SqlObject type (the same Method can be inherited by several types)
+    private final Map<Class<?>, Map<Method, Timer>> sqlObjectTimers = new ConcurrentHashMap<>();
 
     public KillBillTimingCollector(final MetricRegistry registry) {
         this.registry = registry;
@@ -39,7 +43,22 @@ public class KillBillTimingCollector implements TimingCollector {
     }
 
     private Timer getTimer(final StatementContext ctx) {
-        return this.registry.timer(getStatementName(ctx));
+        final Class<?> clazz = ctx.getSqlObjectType();
+        final Method method = ctx.getSqlObjectMethod();
+        if (clazz == null || method == null || ctx.getRawSql() == null || ctx.getRawSql().isEmpty()) {
+            return this.registry.timer(getStatementName(ctx));
+        }
+
+        // [OPTIMIZATION] Resolve the timer once per SqlObject method, instead of formatting its name and looking it up for each statement
+        Map<Method, Timer> timers = sqlObjectTimers.get(clazz);
+        if (timers == null) {
+            timers = sqlObjectTimers.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>());
+        }
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, m -> this.registry.timer(getStatementName(ctx)));
+        }
+        return timer;
     }
 
     private String getStatementName(final StatementContext ctx) {
@@ -21,9 +21,13 @@ package org.killbill.commons.jdbi.notification;
 
 import org.killbill.commons.eventbus.EventBus;
 
+/**
+ * Broadcasts every database transaction success/failure to all listeners.
+ * <p>
+ * To act upon the completion of specific transactions only, see {@link org.killbill.commons.jdbi.transaction.TransactionSynchronizationManager}.
+ */
 public class DatabaseTransactionNotificationApi {
 
-
     private final EventBus eventBus;
 
     public DatabaseTransactionNotificationApi() {
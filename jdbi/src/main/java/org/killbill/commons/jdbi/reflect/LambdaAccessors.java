@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.reflect;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bean accessors (constructor, getters, setters) as functional interfaces, spun via LambdaMetafactory.
+ * <p>
+ * Unlike a MethodHandle stored in a field, which goes through an invoker on each call, these can be inlined by the JIT.
+ * If the class can't be spun (e.g. inaccessible method), the accessor falls back to invoking the MethodHandle.
+ */
+public final class LambdaAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private LambdaAccessors() {}
+
+    /**
+     * @param type the bean class
+     * @return a lookup in the bean class, so the generated classes are defined in (and see the classes of) its class loader
+     */
+    public static MethodHandles.Lookup lookupIn(final Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, LOOKUP);
+        } catch (final IllegalAccessException e) {
+            return LOOKUP;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Supplier<Object> constructor(final MethodHandles.Lookup lookup, final MethodHandle constructorHandle) {
+        try {
+            final CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                                                                    "get",
+                                                                    MethodType.methodType(Supplier.class),
+                                                                    MethodType.methodType(Object.class),
+                                                                    constructorHandle,
+                                                                    constructorHandle.type());
+            return (Supplier<Object>) callSite.getTarget().invokeExact();
+        } catch (final Throwable e) {
+            final MethodHandle genericConstructor = constructorHandle.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return genericConstructor.invokeExact();
+                } catch (final RuntimeException | Error t) {
+                    throw t;
+                } catch (final Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * @param lookup       lookup in the bean class
+     * @param getterHandle (Bean)Value handle, primitive values are boxed
+     * @return the getter
+     */
+    @SuppressWarnings("unchecked")
+    public static Function<Object, Object> getter(final MethodHandles.Lookup lookup, final MethodHandle getterHandle) {
+        try {
+            final CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                                                                    "apply",
+                                                                    MethodType.methodType(Function.class),
+                                                                    MethodType.methodType(Object.class, Object.class),
+                                                                    getterHandle,
+                                                                    getterHandle.type().wrap());
+            return (Function<Object, Object>) callSite.getTarget().invokeExact();
+        } catch (final Throwable e) {
+            final MethodHandle genericGetter = getterHandle.asType(MethodType.methodType(Object.class, Object.class));
+            return bean -> {
+                try {
+                    return genericGetter.invokeExact(bean);
+                } catch (final RuntimeException | Error t) {
+                    throw t;
+                } catch (final Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            };
+        }
+    }
+
+    /**
+     * @param lookup       lookup in the bean class
+     * @param setterHandle (Bean, Value) handle, primitive values are unboxed (the return value, if any, is ignored)
+     * @return the setter
+     */
+    @SuppressWarnings("unchecked")
+    public static BiConsumer<Object, Object> setter(final MethodHandles.Lookup lookup, final MethodHandle setterHandle) {
+        try {
+            final MethodType setterType = setterHandle.type();
+            final CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                                                                    "accept",
+                                                                    MethodType.methodType(BiConsumer.class),
+                                                                    MethodType.methodType(void.class, Object.class, Object.class),
+                                                                    setterHandle,
+                                                                    MethodType.methodType(void.class, setterType.parameterType(0), setterType.wrap().parameterType(1)));
+            return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+        } catch (final Throwable e) {
+            return fromSetterHandle(setterHandle);
+        }
+    }
+
+    /**
+     * @param setterHandle (Bean, Value) handle, e.g. on a field
+     * @return a setter invoking the handle
+     */
+    public static BiConsumer<Object, Object> fromSetterHandle(final MethodHandle setterHandle) {
+        final MethodHandle genericSetter = setterHandle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                genericSetter.invokeExact(bean, value);
+            } catch (final RuntimeException | Error t) {
+                throw t;
+            } catch (final Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+}
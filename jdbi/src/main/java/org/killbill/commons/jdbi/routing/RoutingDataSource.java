@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.routing;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * DataSource handing out connections from the primary, or from the replica when requested by the current thread
+ * (see {@link ReadFromReplica} and {@link #withReplica(Callable)}). Replica connections are read-only. If the replica
+ * can't provide a connection, the primary is used instead.
+ */
+public class RoutingDataSource implements DataSource {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(RoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> routeToReplica = new ThreadLocal<Boolean>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder replicaFailures = new LongAdder();
+
+    public RoutingDataSource(final DataSource primary, final DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    /**
+     * Run the callable with connections opened by the current thread coming from the replica, e.g.
+     * {@code RoutingDataSource.withReplica(() -> dbi.withHandle(...))}.
+     *
+     * @param callable the callable
+     * @param <T>      the result type
+     * @return the result of the callable
+     * @throws Exception if the callable throws
+     */
+    public static <T> T withReplica(final Callable<T> callable) throws Exception {
+        final boolean previous = routeToReplica(true);
+        try {
+            return callable.call();
+        } finally {
+            routeToReplica(previous);
+        }
+    }
+
+    /**
+     * @param enabled whether connections opened by the current thread should come from the replica
+     * @return the previous value, to restore
+     */
+    public static boolean routeToReplica(final boolean enabled) {
+        final boolean previous = routeToReplica.get() != null;
+        if (enabled) {
+            routeToReplica.set(Boolean.TRUE);
+        } else {
+            routeToReplica.remove();
+        }
+        return previous;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (routeToReplica.get() != null) {
+            try {
+                return replicaConnection(replica.getConnection());
+            } catch (final SQLException e) {
+                replicaFailures.increment();
+                logger.warn("Unable to get a connection from the replica, using the primary", e);
+            }
+        }
+
+        final Connection connection = primary.getConnection();
+        primaryConnections.increment();
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        if (routeToReplica.get() != null) {
+            try {
+                return replicaConnection(replica.getConnection(username, password));
+            } catch (final SQLException e) {
+                replicaFailures.increment();
+                logger.warn("Unable to get a connection from the replica, using the primary", e);
+            }
+        }
+
+        final Connection connection = primary.getConnection(username, password);
+        primaryConnections.increment();
+        return connection;
+    }
+
+    private Connection replicaConnection(final Connection connection) throws SQLException {
+        try {
+            connection.setReadOnly(true);
+        } catch (final SQLException e) {
+            connection.close();
+            throw e;
+        }
+        replicaConnections.increment();
+        return connection;
+    }
+
+    public long getPrimaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    public long getReplicaConnections() {
+        return replicaConnections.sum();
+    }
+
+    public long getReplicaFailures() {
+        return replicaFailures.sum();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(final PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+        replica.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(final int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+        replica.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.statement;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.skife.jdbi.v2.DefaultStatementBuilder;
+import org.skife.jdbi.v2.StatementContext;
+import org.skife.jdbi.v2.tweak.StatementBuilder;
+import org.skife.jdbi.v2.tweak.StatementBuilderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches prepared statements for the lifetime of a handle, i.e. while its (pooled) connection is checked out.
+ * <p>
+ * Statements are prepared through the connection handed to the handle (e.g. the pool proxy), so the pool keeps
+ * tracking them: SQL errors still evict broken connections, and open statements are accounted for and closed on return.
+ * The cache of a handle is closed with it. Each handle keeps at most maxStatementsPerConnection idle statements,
+ * the least recently used ones being closed first. A statement is taken out of the cache while in use (so the same SQL
+ * can be executed in a nested way) and returned once JDBI is done with it, with its settings (fetch size, max rows, etc.)
+ * restored. Callable statements and statements returning generated keys are not cached.
+ * <p>
+ * This helps handles executing the same statements repeatedly (e.g. transactions iterating over entries): reusing
+ * statements across connection check-outs is left to the driver (e.g. cachePrepStmts for MySQL, prepareThreshold for PostgreSQL).
+ */
+public class PreparedStatementCacheFactory implements StatementBuilderFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreparedStatementCacheFactory.class);
+
+    private final StatementBuilder delegate = new DefaultStatementBuilder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final int maxStatementsPerConnection;
+
+    public PreparedStatementCacheFactory(final int maxStatementsPerConnection) {
+        if (maxStatementsPerConnection <= 0) {
+            throw new IllegalArgumentException("maxStatementsPerConnection should be greater than 0");
+        }
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+    }
+
+    @Override
+    public StatementBuilder createStatementBuilder(final Connection conn) {
+        return new CachingStatementBuilder();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getMaxStatementsPerConnection() {
+        return maxStatementsPerConnection;
+    }
+
+    private static void closeQuietly(final Statement stmt) {
+        try {
+            stmt.close();
+        } catch (final SQLException e) {
+            logger.debug("Unable to close cached statement", e);
+        }
+    }
+
+    /**
+     * Statement and its settings when prepared, restored before going back to the cache.
+     */
+    private static final class CachedStatement {
+
+        // Rewritten SQL
+        private final String sql;
+        private final PreparedStatement stmt;
+        private final int fetchSize;
+        private final int fetchDirection;
+        private final int maxRows;
+        private final int maxFieldSize;
+        private final int queryTimeout;
+
+        private CachedStatement(final String sql, final PreparedStatement stmt) throws SQLException {
+            this.sql = sql;
+            this.stmt = stmt;
+            this.fetchSize = stmt.getFetchSize();
+            this.fetchDirection = stmt.getFetchDirection();
+            this.maxRows = stmt.getMaxRows();
+            this.maxFieldSize = stmt.getMaxFieldSize();
+            this.queryTimeout = stmt.getQueryTimeout();
+        }
+
+        private void reset() throws SQLException {
+            if (stmt.getFetchSize() != fetchSize) {
+                stmt.setFetchSize(fetchSize);
+            }
+            if (stmt.getFetchDirection() != fetchDirection) {
+                stmt.setFetchDirection(fetchDirection);
+            }
+            if (stmt.getMaxRows() != maxRows) {
+                stmt.setMaxRows(maxRows);
+            }
+            if (stmt.getMaxFieldSize() != maxFieldSize) {
+                stmt.setMaxFieldSize(maxFieldSize);
+            }
+            if (stmt.getQueryTimeout() != queryTimeout) {
+                stmt.setQueryTimeout(queryTimeout);
+            }
+        }
+    }
+
+    /**
+     * One per handle (handles are used by one thread at a time): idle statements in access order, and the statements
+     * checked out, all closed with the handle.
+     */
+    private final class CachingStatementBuilder implements StatementBuilder {
+
+        private final LinkedHashMap<String, CachedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+        // The SQL passed to close(Connection, String, Statement) isn't the rewritten one, so we keep track of it
+        private final Map<Statement, CachedStatement> checkedOut = new IdentityHashMap<>();
+
+        @Override
+        public PreparedStatement create(final Connection conn, final String sql, final String[] columnNames, final StatementContext ctx) throws SQLException {
+            if (ctx.isReturningGeneratedKeys()) {
+                return delegate.create(conn, sql, columnNames, ctx);
+            }
+
+            CachedStatement cachedStatement = idle.remove(sql);
+            if (cachedStatement != null && !cachedStatement.stmt.isClosed()) {
+                hits.increment();
+                cachedStatement.stmt.clearParameters();
+            } else {
+                misses.increment();
+                cachedStatement = new CachedStatement(sql, conn.prepareStatement(sql));
+            }
+
+            checkedOut.put(cachedStatement.stmt, cachedStatement);
+            return cachedStatement.stmt;
+        }
+
+        @Override
+        public CallableStatement createCall(final Connection conn, final String sql, final StatementContext ctx) throws SQLException {
+            return delegate.createCall(conn, sql, ctx);
+        }
+
+        @Override
+        public void close(final Connection conn, final String sql, final Statement stmt) throws SQLException {
+            final CachedStatement cachedStatement = checkedOut.remove(stmt);
+            if (cachedStatement == null) {
+                delegate.close(conn, sql, stmt);
+                return;
+            }
+
+            if (stmt.isClosed()) {
+                return;
+            }
+            try {
+                cachedStatement.reset();
+            } catch (final SQLException e) {
+                closeQuietly(stmt);
+                throw e;
+            }
+            checkIn(cachedStatement);
+        }
+
+        private void checkIn(final CachedStatement cachedStatement) {
+            final CachedStatement previous = idle.put(cachedStatement.sql, cachedStatement);
+            if (previous != null) {
+                // The statement was executed in a nested way, keep only one
+                closeQuietly(previous.stmt);
+            }
+
+            if (idle.size() > maxStatementsPerConnection) {
+                final Iterator<CachedStatement> eldest = idle.values().iterator();
+                final CachedStatement evicted = eldest.next();
+                eldest.remove();
+                evictions.increment();
+                closeQuietly(evicted.stmt);
+            }
+        }
+
+        @Override
+        public void close(final Connection conn) {
+            // Before the connection goes back to the pool
+            for (final CachedStatement cachedStatement : idle.values()) {
+                closeQuietly(cachedStatement.stmt);
+            }
+            idle.clear();
+            // Statements not cleaned up by JDBI (e.g. ResultIterator not closed)
+            for (final Statement stmt : checkedOut.keySet()) {
+                closeQuietly(stmt);
+            }
+            checkedOut.clear();
+        }
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.killbill.commons.jdbi.transaction;
 
+import javax.annotation.Nullable;
+
 import org.killbill.commons.jdbi.notification.DatabaseTransactionEvent;
 import org.killbill.commons.jdbi.notification.DatabaseTransactionEventType;
 import org.killbill.commons.jdbi.notification.DatabaseTransactionNotificationApi;
@@ -30,30 +32,52 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * A transaction handler that allows to notify observers about database transaction success/failure.
+ * A transaction handler that invokes the {@link TransactionSynchronization} registered by the current thread
+ * (see {@link TransactionSynchronizationManager}) once the transaction is committed or rolled back.
+ * <p>
+ * Observers can also be notified about every database transaction success/failure through a {@link DatabaseTransactionNotificationApi},
+ * at the cost of a broadcast for each transaction: prefer synchronizations, which are only invoked for the transactions they registered in.
  */
 public class NotificationTransactionHandler extends DelegatingTransactionHandler implements TransactionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationTransactionHandler.class);
 
+    // Immutable, no need to allocate them for each transaction
+    private static final DatabaseTransactionEvent COMMIT_EVENT = new DatabaseTransactionEvent(DatabaseTransactionEventType.COMMIT);
+    private static final DatabaseTransactionEvent ROLLBACK_EVENT = new DatabaseTransactionEvent(DatabaseTransactionEventType.ROLLBACK);
+
     private final DatabaseTransactionNotificationApi transactionNotificationApi;
 
-    public NotificationTransactionHandler(final DatabaseTransactionNotificationApi transactionNotificationApi) {
+    public NotificationTransactionHandler() {
+        this(null);
+    }
+
+    public NotificationTransactionHandler(@Nullable final DatabaseTransactionNotificationApi transactionNotificationApi) {
         super(new LocalTransactionHandler());
         this.transactionNotificationApi = transactionNotificationApi;
     }
 
     public void commit(final Handle handle) {
         getDelegate().commit(handle);
-        dispatchEvent(new DatabaseTransactionEvent(DatabaseTransactionEventType.COMMIT));
+        TransactionSynchronizationManager.triggerAfterCommit();
+        dispatchEvent(COMMIT_EVENT);
     }
 
     public void rollback(final Handle handle) {
-        getDelegate().rollback(handle);
-        dispatchEvent(new DatabaseTransactionEvent(DatabaseTransactionEventType.ROLLBACK));
+        try {
+            getDelegate().rollback(handle);
+        } finally {
+            // Don't leak the synchronizations to the next transaction of the thread
+            TransactionSynchronizationManager.triggerAfterRollback();
+        }
+        dispatchEvent(ROLLBACK_EVENT);
     }
 
     private void dispatchEvent(final DatabaseTransactionEvent event) {
+        if (transactionNotificationApi == null) {
+            return;
+        }
+
         try {
             transactionNotificationApi.dispatchNotification(event);
         } catch (final Exception e) {
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the {@link TransactionSynchronization} registered by the current thread, until its transaction
+ * completes (see {@link NotificationTransactionHandler}).
+ * <p>
+ * Participants only register when they have something to do (e.g. a queue which inserted an entry), so completing
+ * a transaction which didn't involve any participant is a single ThreadLocal lookup.
+ * <p>
+ * Synchronizations are bound to the thread rather than to the Handle, as participants may write on the connection
+ * of the transaction through a different Handle (and DBI) than the one committing it.
+ */
+public final class TransactionSynchronizationManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSynchronizationManager.class);
+
+    private static final ThreadLocal<List<TransactionSynchronization>> synchronizations = ThreadLocal.withInitial(() -> new ArrayList<>(2));
+
+    private TransactionSynchronizationManager() {}
+
+    /**
+     * Register a callback for the completion of the current transaction. Registering the same instance several times
+     * within a transaction is a no-op.
+     *
+     * @param synchronization the callback
+     */
+    public static void registerSynchronization(final TransactionSynchronization synchronization) {
+        final List<TransactionSynchronization> current = synchronizations.get();
+        if (!current.contains(synchronization)) {
+            current.add(synchronization);
+        }
+    }
+
+    public static void triggerAfterCommit() {
+        trigger(true);
+    }
+
+    public static void triggerAfterRollback() {
+        trigger(false);
+    }
+
+    private static void trigger(final boolean committed) {
+        final List<TransactionSynchronization> current = synchronizations.get();
+        if (current.isEmpty()) {
+            return;
+        }
+
+        // Synchronizations registered by the callbacks are for the next transaction
+        final TransactionSynchronization[] toTrigger = current.toArray(new TransactionSynchronization[0]);
+        current.clear();
+        for (final TransactionSynchronization synchronization : toTrigger) {
+            try {
+                if (committed) {
+                    synchronization.afterCommit();
+                } else {
+                    synchronization.afterRollback();
+                }
+            } catch (final RuntimeException e) {
+                logger.warn("Failed to invoke {} after {}", synchronization, committed ? "commit" : "rollback", e);
+            }
+        }
+    }
+}
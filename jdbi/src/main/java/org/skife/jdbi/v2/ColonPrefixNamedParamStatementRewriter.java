@@ -31,10 +31,7 @@ import org.skife.jdbi.v2.tweak.StatementRewriter;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 import static org.skife.jdbi.rewriter.colon.ColonStatementLexer.DOUBLE_QUOTED_TEXT;
 import static org.skife.jdbi.rewriter.colon.ColonStatementLexer.ESCAPED_TEXT;
@@ -50,7 +47,21 @@ import static org.skife.jdbi.rewriter.colon.ColonStatementLexer.QUOTED_TEXT;
  */
 public class ColonPrefixNamedParamStatementRewriter implements StatementRewriter
 {
-    private final Map<String, ParsedStatement> cache = Collections.synchronizedMap(new WeakHashMap<String, ParsedStatement>());
+    // [OPTIMIZATION] Rendered templates are new String instances for each statement: a WeakHashMap would re-parse them after each GC
+    private final ParsedStatementCache<ParsedStatement> cache;
+
+    public ColonPrefixNamedParamStatementRewriter()
+    {
+        this(ParsedStatementCache.DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param cacheMaxSize max number of parsed statements to keep
+     */
+    public ColonPrefixNamedParamStatementRewriter(int cacheMaxSize)
+    {
+        this.cache = new ParsedStatementCache<ParsedStatement>(cacheMaxSize);
+    }
 
     /**
      * Munge up the SQL as desired. Responsible for figuring out ow to bind any
@@ -65,19 +76,24 @@ public class ColonPrefixNamedParamStatementRewriter implements StatementRewriter
     @Override
     public RewrittenStatement rewrite(String sql, Binding params, StatementContext ctx)
     {
-        ParsedStatement stmt = cache.get(sql);
-        if (stmt == null) {
-            try {
-                stmt = parseString(sql);
-                cache.put(sql, stmt);
-            }
-            catch (IllegalArgumentException e) {
-                throw new UnableToCreateStatementException("Exception parsing for named parameter replacement", e, ctx);
-            }
+        final ParsedStatement stmt;
+        try {
+            stmt = cache.get(sql, this::parseString);
+        }
+        catch (IllegalArgumentException e) {
+            throw new UnableToCreateStatementException("Exception parsing for named parameter replacement", e, ctx);
         }
         return new MyRewrittenStatement(stmt, ctx);
     }
 
+    /**
+     * @return the cache of parsed statements (e.g. for its hit and miss counts)
+     */
+    public ParsedStatementCache<?> getParsedStatementCache()
+    {
+        return cache;
+    }
+
     protected ParsedStatement parseString(final String sql) throws IllegalArgumentException
     {
         ParsedStatement stmt = new ParsedStatement();
@@ -128,6 +144,12 @@ public class ColonPrefixNamedParamStatementRewriter implements StatementRewriter
 
         @Override
         public void bind(Binding params, PreparedStatement statement) throws SQLException
+        {
+            bind(params, statement, 0);
+        }
+
+        @Override
+        public void bind(Binding params, PreparedStatement statement, int offset) throws SQLException
         {
             if (stmt.positionalOnly) {
                 // no named params, is easy
@@ -136,7 +158,7 @@ public class ColonPrefixNamedParamStatementRewriter implements StatementRewriter
                     final Argument a = params.forPosition(i);
                     if (a != null) {
                         try {
-                            a.apply(i + 1, statement, this.context);
+                            a.apply(offset + i + 1, statement, this.context);
                         }
                         catch (SQLException e) {
                             throw new UnableToExecuteStatementException(
@@ -170,7 +192,7 @@ public class ColonPrefixNamedParamStatementRewriter implements StatementRewriter
                     }
 
                     try {
-                        a.apply(i + 1, statement, this.context);
+                        a.apply(offset + i + 1, statement, this.context);
                     }
                     catch (SQLException e) {
                         throw new UnableToCreateStatementException(String.format("Exception while binding '%s'",
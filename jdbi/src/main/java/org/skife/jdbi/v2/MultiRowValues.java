@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.skife.jdbi.v2;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * [OPTIMIZATION] Single row INSERT ... VALUES (...) statement, expanded into multi-row statements
+ * (INSERT ... VALUES (...), (...), ...) to send a batch in a single statement.
+ * <p>
+ * Works on the rewritten SQL (i.e. on JDBC placeholders): the statement is expandable if it has a single VALUES
+ * tuple, with no placeholder after it.
+ */
+final class MultiRowValues
+{
+    // Lowest limit of bind parameters per statement across the supported databases (PostgreSQL)
+    static final int MAX_PARAMETERS = 32767;
+
+    private static final String VALUES = "values";
+    private static final ParsedStatementCache<MultiRowValues> CACHE = new ParsedStatementCache<MultiRowValues>(ParsedStatementCache.DEFAULT_MAX_SIZE);
+
+    private final String prefix;
+    private final String tuple;
+    private final String suffix;
+    private final int parametersPerRow;
+    // Expanded statements, for power of two numbers of rows only (bounded)
+    private final Map<Integer, String> expandedSql = new ConcurrentHashMap<Integer, String>();
+
+    private MultiRowValues(String prefix, String tuple, String suffix, int parametersPerRow)
+    {
+        this.prefix = prefix;
+        this.tuple = tuple;
+        this.suffix = suffix;
+        this.parametersPerRow = parametersPerRow;
+    }
+
+    /**
+     * @param sql rewritten SQL
+     * @return the expandable statement, or null if the statement can't be expanded
+     */
+    static MultiRowValues forSql(String sql)
+    {
+        return CACHE.get(sql, MultiRowValues::parse);
+    }
+
+    int getParametersPerRow()
+    {
+        return parametersPerRow;
+    }
+
+    /**
+     * @return the maximum number of rows per statement, as a power of two
+     */
+    int getMaxRows()
+    {
+        return parametersPerRow == 0 ? Integer.highestOneBit(Integer.MAX_VALUE) : Integer.highestOneBit(MAX_PARAMETERS / parametersPerRow);
+    }
+
+    String expand(int rows)
+    {
+        if (Integer.bitCount(rows) != 1) {
+            return doExpand(rows);
+        }
+        String sql = expandedSql.get(rows);
+        if (sql == null) {
+            sql = doExpand(rows);
+            expandedSql.put(rows, sql);
+        }
+        return sql;
+    }
+
+    private String doExpand(int rows)
+    {
+        final StringBuilder sql = new StringBuilder(prefix.length() + (tuple.length() + 2) * rows + suffix.length());
+        sql.append(prefix).append(tuple);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ").append(tuple);
+        }
+        return sql.append(suffix).toString();
+    }
+
+    static MultiRowValues parse(String sql)
+    {
+        final String lowerSql = sql.toLowerCase(Locale.ROOT);
+        int valuesIndex = -1;
+        int depth = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i);
+                if (i < 0) {
+                    return null;
+                }
+            }
+            else if (c == '(') {
+                depth++;
+            }
+            else if (c == ')') {
+                depth--;
+            }
+            else if (depth == 0 && lowerSql.startsWith(VALUES, i) && isWordBoundary(sql, i - 1) && isWordBoundary(sql, i + VALUES.length())) {
+                if (valuesIndex >= 0) {
+                    // Several VALUES clauses
+                    return null;
+                }
+                valuesIndex = i;
+                i += VALUES.length() - 1;
+            }
+        }
+        if (valuesIndex < 0) {
+            return null;
+        }
+
+        int tupleStart = valuesIndex + VALUES.length();
+        while (tupleStart < sql.length() && Character.isWhitespace(sql.charAt(tupleStart))) {
+            tupleStart++;
+        }
+        if (tupleStart == sql.length() || sql.charAt(tupleStart) != '(') {
+            return null;
+        }
+
+        int parametersPerRow = 0;
+        int tupleEnd = -1;
+        depth = 0;
+        for (int i = tupleStart; i < sql.length() && tupleEnd < 0; i++) {
+            final char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i);
+                if (i < 0) {
+                    return null;
+                }
+            }
+            else if (c == '?') {
+                parametersPerRow++;
+            }
+            else if (c == '(') {
+                depth++;
+            }
+            else if (c == ')' && --depth == 0) {
+                tupleEnd = i + 1;
+            }
+        }
+        if (tupleEnd < 0) {
+            return null;
+        }
+
+        final String suffix = sql.substring(tupleEnd);
+        if (hasPlaceholder(suffix)) {
+            // e.g. ON DUPLICATE KEY UPDATE col = ?, which would be bound once per row
+            return null;
+        }
+        return new MultiRowValues(sql.substring(0, tupleStart), sql.substring(tupleStart, tupleEnd), suffix, parametersPerRow);
+    }
+
+    private static boolean hasPlaceholder(String sql)
+    {
+        for (int i = 0; i < sql.length(); i++) {
+            final char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i);
+                if (i < 0) {
+                    return true;
+                }
+            }
+            else if (c == '?') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the index of the closing quote, -1 if none
+     */
+    private static int skipQuoted(String sql, int start)
+    {
+        final char quote = sql.charAt(start);
+        for (int i = start + 1; i < sql.length(); i++) {
+            if (sql.charAt(i) == quote) {
+                // Escaped quote ('')
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i++;
+                }
+                else {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWordBoundary(String sql, int index)
+    {
+        return index < 0 || index >= sql.length() || !(Character.isLetterOrDigit(sql.charAt(index)) || sql.charAt(index) == '_');
+    }
+}
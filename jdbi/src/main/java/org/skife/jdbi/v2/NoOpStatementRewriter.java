@@ -52,11 +52,17 @@ public class NoOpStatementRewriter implements StatementRewriter
 
         @Override
         public void bind(Binding params, PreparedStatement statement) throws SQLException
+        {
+            bind(params, statement, 0);
+        }
+
+        @Override
+        public void bind(Binding params, PreparedStatement statement, int offset) throws SQLException
         {
             for (int i = 0; ; i++) {
                 final Argument s = params.forPosition(i);
                 if (s == null) { break; }
-                s.apply(i + 1, statement, this.context);
+                s.apply(offset + i + 1, statement, this.context);
             }
         }
 
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.skife.jdbi.v2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * [OPTIMIZATION] Bounded cache of parsed statements, keyed by SQL content.
+ * <p>
+ * Reads are lock-free. When the cache grows over its max size, the least recently used entries are evicted
+ * (approximately: access times are logical and not synchronized) by a single thread, in batches, to amortize the cost.
+ *
+ * @param <V> the parsed statement type
+ */
+public final class ParsedStatementCache<V>
+{
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<String, Entry<V>>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Logical clock, ticking on each insertion: entries accessed between two insertions are as recent as each other
+    private final AtomicLong clock = new AtomicLong();
+    private final int maxSize;
+    // Size after an eviction round
+    private final int evictionTargetSize;
+
+    public ParsedStatementCache(int maxSize)
+    {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize should be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.evictionTargetSize = maxSize - Math.max(1, maxSize / 10);
+    }
+
+    /**
+     * @param sql    the raw SQL
+     * @param parser invoked on a miss (concurrent misses for the same SQL may each invoke it)
+     * @return the parsed statement
+     */
+    public V get(String sql, Function<String, V> parser)
+    {
+        final Entry<V> entry = entries.get(sql);
+        if (entry != null) {
+            hits.increment();
+            final long now = clock.get();
+            // Don't write the shared (hot) entry if there is nothing new
+            if (entry.lastAccess != now) {
+                entry.lastAccess = now;
+            }
+            return entry.value;
+        }
+
+        misses.increment();
+        // Parse outside of the map, to not block other lookups on the bin
+        final V value = parser.apply(sql);
+        entries.put(sql, new Entry<V>(value, clock.incrementAndGet()));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+        return value;
+    }
+
+    private void evict()
+    {
+        if (!evicting.compareAndSet(false, true)) {
+            // Another thread is on it
+            return;
+        }
+
+        try {
+            // Access times are captured first, as they keep changing while sorting
+            final List<EvictionCandidate<V>> candidates = new ArrayList<EvictionCandidate<V>>(entries.size());
+            for (final Map.Entry<String, Entry<V>> entry : entries.entrySet()) {
+                candidates.add(new EvictionCandidate<V>(entry.getKey(), entry.getValue()));
+            }
+            final int toEvict = candidates.size() - evictionTargetSize;
+            if (toEvict <= 0) {
+                return;
+            }
+
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+            for (int i = 0; i < toEvict; i++) {
+                final EvictionCandidate<V> candidate = candidates.get(i);
+                entries.remove(candidate.sql, candidate.entry);
+            }
+        }
+        finally {
+            evicting.set(false);
+        }
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    private static final class Entry<V>
+    {
+        private final V value;
+        // Racy on purpose, this is only a hint for the eviction
+        private long lastAccess;
+
+        private Entry(V value, long lastAccess)
+        {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static final class EvictionCandidate<V>
+    {
+        private final String sql;
+        private final Entry<V> entry;
+        private final long lastAccess;
+
+        private EvictionCandidate(String sql, Entry<V> entry)
+        {
+            this.sql = sql;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +50,7 @@ public class PreparedBatch extends SQLStatement<PreparedBatch>
 {
     private final List<PreparedBatchPart> parts = new ArrayList<PreparedBatchPart>();
     private Binding currentBinding;
+    private boolean multiRowValues = false;
 
     PreparedBatch(StatementLocator locator,
                   StatementRewriter rewriter,
@@ -96,6 +98,25 @@ public class PreparedBatch extends SQLStatement<PreparedBatch>
         return this;
     }
 
+    /**
+     * Execute the parts of an INSERT ... VALUES (...) batch as multi-row statements, INSERT ... VALUES (...), (...), ...
+     * instead of a JDBC batch. Parts are grouped by power of two numbers of rows (e.g. 100 parts are sent as
+     * 64 + 32 + 4 rows), to limit the number of distinct statements, unless generated keys are requested (single statement).
+     * Statements which can't be expanded (no or several VALUES clauses, parameters after the VALUES clause)
+     * are executed as a JDBC batch.
+     * <p>
+     * Parts need to bind all the parameters of the statement, and the statement rewriter needs to support
+     * {@link RewrittenStatement#bind(Binding, PreparedStatement, int)}.
+     *
+     * @param multiRowValues whether to use multi-row statements
+     * @return self
+     */
+    public PreparedBatch setMultiRowValues(boolean multiRowValues)
+    {
+        this.multiRowValues = multiRowValues;
+        return this;
+    }
+
     /**
      * Execute the batch
      *
@@ -140,6 +161,13 @@ public class PreparedBatch extends SQLStatement<PreparedBatch>
                                                                      getSql()), e, getContext());
         }
         final RewrittenStatement rewritten = getRewriter().rewrite(my_sql, current.getParams(), getContext());
+        if (multiRowValues && parts.size() > 1) {
+            final MultiRowValues multiRowStatement = MultiRowValues.forSql(rewritten.getSql());
+            if (multiRowStatement != null && (!generateKeys || parts.size() <= multiRowStatement.getMaxRows())) {
+                return internalMultiRowExecute(multiRowStatement, rewritten, munger, columnNames);
+            }
+        }
+
         PreparedStatement stmt = null;
         try {
             try {
@@ -199,6 +227,83 @@ public class PreparedBatch extends SQLStatement<PreparedBatch>
         }
     }
 
+    private <Result> Object internalMultiRowExecute(MultiRowValues multiRowStatement,
+                                                    RewrittenStatement rewritten,
+                                                    QueryResultMunger<Result> munger,
+                                                    String[] columnNames) {
+        final boolean generateKeys = munger != null;
+        final int[] updateCounts = new int[parts.size()];
+        try {
+            int index = 0;
+            while (index < parts.size()) {
+                final int remaining = parts.size() - index;
+                final int rows = generateKeys ? remaining : Math.min(Integer.highestOneBit(remaining), multiRowStatement.getMaxRows());
+                final String sql = multiRowStatement.expand(rows);
+
+                final PreparedStatement stmt;
+                try {
+                    final Connection connection = getHandle().getConnection();
+                    if (generateKeys) {
+                        if (columnNames != null && columnNames.length > 0) {
+                            stmt = connection.prepareStatement(sql, columnNames);
+                        } else {
+                            stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                        }
+                    } else {
+                        stmt = connection.prepareStatement(sql, Statement.NO_GENERATED_KEYS);
+                    }
+                    addCleanable(Cleanables.forStatement(stmt));
+                }
+                catch (SQLException e) {
+                    throw new UnableToCreateStatementException(e, getContext());
+                }
+
+                try {
+                    for (int row = 0; row < rows; row++) {
+                        rewritten.bind(parts.get(index + row).getParams(), stmt, row * multiRowStatement.getParametersPerRow());
+                    }
+                }
+                catch (SQLException e) {
+                    throw new UnableToExecuteStatementException("Exception while binding parameters", e, getContext());
+                }
+
+                beforeExecution(stmt);
+
+                try {
+                    final long start = System.nanoTime();
+                    final int updateCount = stmt.executeUpdate();
+                    final long elapsedTime = System.nanoTime() - start;
+                    getLog().logPreparedBatch(elapsedTime / 1000000L, sql, rows);
+                    getTimingCollector().collect(elapsedTime, getContext());
+
+                    afterExecution(stmt);
+
+                    // Counts per row aren't known, unless each row inserted exactly one row
+                    Arrays.fill(updateCounts, index, index + rows, updateCount == rows ? 1 : Statement.SUCCESS_NO_INFO);
+                    if (generateKeys) {
+                        return munger.munge(stmt);
+                    }
+                }
+                catch (SQLException e) {
+                    throw new UnableToExecuteStatementException(e, getContext());
+                }
+
+                index += rows;
+            }
+            return updateCounts;
+        }
+        finally {
+            try {
+                if (!generateKeys) {
+                    cleanup();
+                }
+            }
+            finally {
+                this.parts.clear();
+            }
+        }
+    }
+
     /**
      * Add a statement (part) to this batch. You'll need to bindBinaryStream any arguments to the
      * part.
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.skife.jdbi.v2;
+
+import org.skife.jdbi.v2.tweak.Argument;
+
+/**
+ * [OPTIMIZATION] Argument factory resolved once for a given argument class, see {@link SQLStatement#dynamicBind(ResolvedArgumentFactory, String, Object)}.
+ * Thread safe: it is meant to be cached along with the binding logic.
+ */
+public final class ResolvedArgumentFactory
+{
+    private final Class<?> argumentClass;
+
+    // Resolved lazily, by the Foreman of the first statement (DBI) using it
+    private volatile Foreman.Resolution resolution;
+
+    public ResolvedArgumentFactory(Class<?> argumentClass)
+    {
+        this.argumentClass = argumentClass;
+    }
+
+    public Class<?> getArgumentClass()
+    {
+        return argumentClass;
+    }
+
+    Argument build(Foreman foreman, Object value, StatementContext ctx)
+    {
+        Foreman.Resolution current = resolution;
+        if (current == null || !current.isFrom(foreman)) {
+            current = foreman.resolve(argumentClass, value, ctx);
+            resolution = current;
+        }
+        return current.build(value, ctx);
+    }
+}
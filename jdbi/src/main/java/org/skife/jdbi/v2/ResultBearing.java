@@ -20,6 +20,10 @@
 package org.skife.jdbi.v2;
 
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface ResultBearing<ResultType> extends Iterable<ResultType>
 {
@@ -30,4 +34,17 @@ public interface ResultBearing<ResultType> extends Iterable<ResultType>
     ResultIterator<ResultType> iterator();
     ResultType first();
     <T> T first(Class<T> containerType);
+
+    /**
+     * Lazily maps the results, without materializing them: the stream should be closed (e.g. try-with-resources) unless
+     * fully consumed, to release the underlying statement and result set.
+     *
+     * @return a sequential stream over the results
+     */
+    default Stream<ResultType> stream()
+    {
+        final ResultIterator<ResultType> iterator = iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                            .onClose(iterator::close);
+    }
 }
@@ -1230,6 +1230,21 @@ public abstract class SQLStatement<SelfType extends SQLStatement<SelfType>> exte
         return bind(name, getForeman().waffle(argumentClass, value, getContext()));
     }
 
+    /**
+     * Bind an argument dynamically by the class passed in, re-using the argument factory resolved by a previous call
+     * (for callers binding the same argument classes over and over).
+     *
+     * @param argumentFactory holder of the factory resolved for argumentClass (shared between statements)
+     * @param name            token name to bind the paramater to
+     * @param value           to bind
+     *
+     * @return the same Query instance
+     */
+    public final SelfType dynamicBind(ResolvedArgumentFactory argumentFactory, String name, Object value)
+    {
+        return bind(name, argumentFactory.build(getForeman(), value, getContext()));
+    }
+
     /**
      * Bind NULL to be set for a given argument.
      *
@@ -49,6 +49,7 @@ class BatchHandler extends CustomizingStatementHandler
 {
     private final String  sql;
     private final boolean transactional;
+    private final boolean multiRowValues;
     private final ChunkSizeFunction batchChunkSize;
     private final Returner returner;
 
@@ -59,6 +60,7 @@ class BatchHandler extends CustomizingStatementHandler
         SqlBatch anno = raw_method.getAnnotation(SqlBatch.class);
         this.sql = SqlObject.getSql(anno, raw_method);
         this.transactional = anno.transactional();
+        this.multiRowValues = anno.multiRowValues();
         this.batchChunkSize = determineBatchChunkSize(sqlObjectType, raw_method);
         final GetGeneratedKeys getGeneratedKeys = raw_method.getAnnotation(GetGeneratedKeys.class);
         if (getGeneratedKeys == null) {
@@ -192,7 +194,7 @@ class BatchHandler extends CustomizingStatementHandler
         int processed = 0;
         List<Object> results = new LinkedList<Object>();
 
-        PreparedBatch batch = handle.prepareBatch(sql);
+        PreparedBatch batch = handle.prepareBatch(sql).setMultiRowValues(multiRowValues);
         applyCustomizers(batch, args);
         Object[] _args;
         int chunk_size = batchChunkSize.call(args);
@@ -205,7 +207,7 @@ class BatchHandler extends CustomizingStatementHandler
                 // execute this chunk
                 processed = 0;
                 executeBatch(results, h, handle, batch);
-                batch = handle.prepareBatch(sql);
+                batch = handle.prepareBatch(sql).setMultiRowValues(multiRowValues);
                 applyCustomizers(batch, args);
             }
         }
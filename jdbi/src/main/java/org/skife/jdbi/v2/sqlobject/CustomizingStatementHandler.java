@@ -33,9 +33,9 @@ import java.util.List;
 abstract class CustomizingStatementHandler implements Handler
 {
     private final List<Bindifier>                    binders                        = new ArrayList<Bindifier>();
-    private final List<FactoryAnnotationPair>        typeBasedCustomizerFactories   = new ArrayList<FactoryAnnotationPair>();
-    private final List<FactoryAnnotationPair>        methodBasedCustomizerFactories = new ArrayList<FactoryAnnotationPair>();
     private final List<FactoryAnnotationIndexTriple> paramBasedCustomizerFactories  = new ArrayList<FactoryAnnotationIndexTriple>();
+    // [OPTIMIZATION] Type and method customizers only depend on the annotations: create them once, not on each call
+    private final SqlStatementCustomizer[]           staticCustomizers;
     private final Class<?> sqlObjectType;
     private final Method method;
 
@@ -44,6 +44,7 @@ abstract class CustomizingStatementHandler implements Handler
         this.sqlObjectType = sqlObjectType;
         this.method = method.getRawMember();
 
+        final List<SqlStatementCustomizer> customizers = new ArrayList<SqlStatementCustomizer>();
         for (final Annotation annotation : sqlObjectType.getAnnotations()) {
             if (annotation.annotationType().isAnnotationPresent(SqlStatementCustomizingAnnotation.class)) {
                 final SqlStatementCustomizingAnnotation a = annotation.annotationType()
@@ -55,7 +56,7 @@ abstract class CustomizingStatementHandler implements Handler
                 catch (Exception e) {
                     throw new IllegalStateException("unable to create sql statement customizer factory", e);
                 }
-                typeBasedCustomizerFactories.add(new FactoryAnnotationPair(f, annotation));
+                customizers.add(f.createForType(annotation, sqlObjectType));
             }
         }
 
@@ -73,10 +74,11 @@ abstract class CustomizingStatementHandler implements Handler
                 catch (Exception e) {
                     throw new IllegalStateException("unable to instantiate statement customizer factory", e);
                 }
-                methodBasedCustomizerFactories.add(new FactoryAnnotationPair(f, method_annotation));
+                customizers.add(f.createForMethod(method_annotation, sqlObjectType, this.method));
             }
 
         }
+        this.staticCustomizers = customizers.toArray(new SqlStatementCustomizer[0]);
 
         final Annotation[][] param_annotations = method.getRawMember().getParameterAnnotations();
         for (int param_idx = 0; param_idx < param_annotations.length; param_idx++) {
@@ -136,18 +138,9 @@ abstract class CustomizingStatementHandler implements Handler
 
     protected void applyCustomizers(SQLStatement<?> q, Object[] args)
     {
-        for (FactoryAnnotationPair pair : typeBasedCustomizerFactories) {
+        for (SqlStatementCustomizer customizer : staticCustomizers) {
             try {
-                pair.factory.createForType(pair.annotation, sqlObjectType).apply(q);
-            }
-            catch (SQLException e) {
-                throw new UnableToCreateStatementException("unable to apply customizer", e, q.getContext());
-            }
-        }
-
-        for (FactoryAnnotationPair pair : methodBasedCustomizerFactories) {
-            try {
-                pair.factory.createForMethod(pair.annotation, sqlObjectType, method).apply(q);
+                customizer.apply(q);
             }
             catch (SQLException e) {
                 throw new UnableToCreateStatementException("unable to apply customizer", e, q.getContext());
@@ -168,18 +161,6 @@ abstract class CustomizingStatementHandler implements Handler
         }
     }
 
-    private static class FactoryAnnotationPair
-    {
-        private final SqlStatementCustomizerFactory factory;
-        private final Annotation                    annotation;
-
-        FactoryAnnotationPair(SqlStatementCustomizerFactory factory, Annotation annotation)
-        {
-            this.factory = factory;
-            this.annotation = annotation;
-        }
-    }
-
     private static class FactoryAnnotationIndexTriple
     {
         private final SqlStatementCustomizerFactory factory;
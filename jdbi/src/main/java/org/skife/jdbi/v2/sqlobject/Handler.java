@@ -25,4 +25,11 @@ import java.util.concurrent.Callable;
 interface Handler {
 
     Object invoke(HandleDing h, Object target, Object[] args, Callable<?> methodProxy);
+
+    /**
+     * @return true if a connection opened for this method should come from the replica (see RoutingDataSource)
+     */
+    default boolean isReadFromReplica() {
+        return false;
+    }
 }
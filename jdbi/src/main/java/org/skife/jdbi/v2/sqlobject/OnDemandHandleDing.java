@@ -19,6 +19,7 @@
  */
 package org.skife.jdbi.v2.sqlobject;
 
+import org.killbill.commons.jdbi.routing.RoutingDataSource;
 import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.IDBI;
 
@@ -62,6 +63,57 @@ class OnDemandHandleDing implements HandleDing
 
     }
 
+    /**
+     * Ding for a read from the replica: the handle of the thread if there is one (e.g. in a transaction), otherwise
+     * a replica handle of its own, so that the other calls of the thread never end up on the replica.
+     */
+    HandleDing replicaDing()
+    {
+        if (threadDing.get() != null) {
+            return this;
+        }
+
+        final boolean previous = RoutingDataSource.routeToReplica(true);
+        try {
+            return new ReplicaDing(dbi.open());
+        }
+        finally {
+            RoutingDataSource.routeToReplica(previous);
+        }
+    }
+
+    static class ReplicaDing implements HandleDing {
+
+        private final Set<String> retentions = new HashSet<String>();
+        private final Handle handle;
+
+        ReplicaDing(Handle handle)
+        {
+            this.handle = handle;
+        }
+
+        @Override
+        public Handle getHandle()
+        {
+            return handle;
+        }
+
+        @Override
+        public void release(String name)
+        {
+            retentions.remove(name);
+            if (retentions.isEmpty()) {
+                handle.close();
+            }
+        }
+
+        @Override
+        public void retain(String name)
+        {
+            retentions.add(name);
+        }
+    }
+
     class LocalDing implements HandleDing {
 
         private final Set<String> retentions = new HashSet<String>();
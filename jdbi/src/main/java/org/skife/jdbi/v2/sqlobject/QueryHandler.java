@@ -21,6 +21,7 @@ package org.skife.jdbi.v2.sqlobject;
 
 import java.util.concurrent.Callable;
 
+import org.killbill.commons.jdbi.routing.ReadFromReplica;
 import org.skife.jdbi.v2.ConcreteStatementContext;
 import org.skife.jdbi.v2.Query;
 
@@ -31,6 +32,7 @@ class QueryHandler extends CustomizingStatementHandler
     private final String            sql;
     private final ResolvedMethod    method;
     private final ResultReturnThing magic;
+    private final boolean           readFromReplica;
 
     public QueryHandler(Class<?> sqlObjectType, ResolvedMethod method, ResultReturnThing magic)
     {
@@ -38,6 +40,14 @@ class QueryHandler extends CustomizingStatementHandler
         this.method = method;
         this.magic = magic;
         this.sql = SqlObject.getSql(method.getRawMember().getAnnotation(SqlQuery.class), method.getRawMember());
+        this.readFromReplica = method.getRawMember().isAnnotationPresent(ReadFromReplica.class) ||
+                               sqlObjectType.isAnnotationPresent(ReadFromReplica.class);
+    }
+
+    @Override
+    public boolean isReadFromReplica()
+    {
+        return readFromReplica;
     }
 
     @Override
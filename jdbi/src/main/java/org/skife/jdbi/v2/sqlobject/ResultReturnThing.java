@@ -33,6 +33,10 @@ import org.skife.jdbi.v2.tweak.ResultSetMapper;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 abstract class ResultReturnThing
 {
@@ -70,6 +74,9 @@ abstract class ResultReturnThing
         else if (return_type.isInstanceOf(Iterator.class)) {
             return new IteratorResultReturnThing(method);
         }
+        else if (return_type.isInstanceOf(Stream.class)) {
+            return new StreamReturningThing(method);
+        }
         else {
             return new SingleValueResultReturnThing(method);
         }
@@ -155,9 +162,14 @@ abstract class ResultReturnThing
         private final ResolvedType resolvedType;
 
         public IteratorResultReturnThing(ResolvedMethod method)
+        {
+            this(method, Iterator.class);
+        }
+
+        protected IteratorResultReturnThing(ResolvedMethod method, Class<?> returnType)
         {
             ResolvedType query_type = method.getReturnType();
-            List<ResolvedType> query_return_types = query_type.typeParametersFor(Iterator.class);
+            List<ResolvedType> query_return_types = query_type.typeParametersFor(returnType);
             this.resolvedType = query_return_types.get(0);
 
         }
@@ -239,6 +251,25 @@ abstract class ResultReturnThing
         }
     }
 
+    /**
+     * Like the iterator, the handle is kept open until the stream is exhausted or closed.
+     */
+    static class StreamReturningThing extends IteratorResultReturnThing
+    {
+        public StreamReturningThing(ResolvedMethod method)
+        {
+            super(method, Stream.class);
+        }
+
+        @Override
+        protected Object result(ResultBearing q, final HandleDing baton)
+        {
+            final ResultIterator<?> itty = (ResultIterator<?>) super.result(q, baton);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(itty, Spliterator.ORDERED), false)
+                                .onClose(itty::close);
+        }
+    }
+
     static class IterableReturningThing extends ResultReturnThing
     {
         private final ResolvedType resolvedType;
@@ -52,4 +52,11 @@ public @interface SqlBatch
      * true (and it will be strange if you want otherwise).
      */
     boolean transactional() default true;
+
+    /**
+     * Should INSERT ... VALUES (...) batches (or batch chunks) be sent as multi-row statements,
+     * INSERT ... VALUES (...), (...), ..., instead of JDBC batches. Default is false.
+     * See {@link org.skife.jdbi.v2.PreparedBatch#setMultiRowValues(boolean)}
+     */
+    boolean multiRowValues() default false;
 }
@@ -22,8 +22,8 @@ package org.skife.jdbi.v2.sqlobject;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -37,11 +37,14 @@ import com.fasterxml.classmate.members.ResolvedMethod;
 import net.bytebuddy.ByteBuddy;
 import net.bytebuddy.TypeCache;
 import net.bytebuddy.TypeCache.WithInlineExpunction;
+import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.loading.ClassLoadingStrategy.Default;
 import net.bytebuddy.implementation.MethodDelegation;
 
-import static net.bytebuddy.matcher.ElementMatchers.any;
+import static net.bytebuddy.matcher.ElementMatchers.definedMethod;
+import static net.bytebuddy.matcher.ElementMatchers.hasSignature;
 
 class SqlObject
 {
@@ -59,15 +62,9 @@ class SqlObject
     static <T> T buildSqlObject(final Class<T> sqlObjectType, final HandleDing handle)
     {
         final T sqlObjectProxy;
-        final Class<?> loadedClass = typeCache.findOrInsert(sqlObjectType.getClassLoader(), sqlObjectType, () -> new ByteBuddy()
-                .subclass(sqlObjectType)
-                .implement(CloseInternalDoNotUseThisClass.class)
-                .defineField("delegateToSqlObjectInterceptor", SqlObjectInterceptor.class, Visibility.PUBLIC)
-                .method(any())
-                .intercept(MethodDelegation.toField("delegateToSqlObjectInterceptor"))
-                .make()
-                .load(sqlObjectType.getClassLoader(), Default.INJECTION)
-                .getLoaded());
+        // Outside of the type cache, which would wrap the exceptions for invalid sql objects
+        final Map<Method, Handler> handlers = buildHandlersFor(sqlObjectType);
+        final Class<?> loadedClass = typeCache.findOrInsert(sqlObjectType.getClassLoader(), sqlObjectType, () -> buildProxyClass(sqlObjectType, handlers));
 
         try {
             sqlObjectProxy = sqlObjectType.cast(loadedClass.getConstructor().newInstance());
@@ -75,19 +72,42 @@ class SqlObject
             throw new AssertionError("Failed to instantiate proxy class for " + sqlObjectType.getName(), e);
         }
 
-        final SqlObject sqlObject = new SqlObject(buildHandlersFor(sqlObjectType), handle);
-        final SqlObjectInterceptor sqlObjectInterceptor = new SqlObjectInterceptor(sqlObject);
+        final SqlObject sqlObject = new SqlObject(handle);
         try {
-            final Field sqlObjectField = sqlObjectProxy.getClass().getField("delegateToSqlObjectInterceptor");
+            final Field sqlObjectField = sqlObjectProxy.getClass().getField(SqlObjectInterceptor.SQL_OBJECT_FIELD);
             sqlObjectField.setAccessible(true);
-            sqlObjectField.set(sqlObjectProxy, sqlObjectInterceptor);
+            sqlObjectField.set(sqlObjectProxy, sqlObject);
         } catch (final NoSuchFieldException | IllegalAccessException e) {
-            throw new AssertionError("Failed to delegate a method call to " + SqlObjectInterceptor.class.getName(), e);
+            throw new AssertionError("Failed to delegate a method call to " + SqlObject.class.getName(), e);
         }
 
         return sqlObjectProxy;
     }
 
+    private static <T> Class<? extends T> buildProxyClass(final Class<T> sqlObjectType, final Map<Method, Handler> handlers)
+    {
+        DynamicType.Builder<T> builder = new ByteBuddy()
+                .subclass(sqlObjectType)
+                .implement(CloseInternalDoNotUseThisClass.class)
+                .defineField(SqlObjectInterceptor.SQL_OBJECT_FIELD, Object.class, Visibility.PUBLIC);
+
+        // [OPTIMIZATION] Bind each method directly to its handler (methods without one are simply inherited).
+        // Latest matchers take precedence in ByteBuddy, hence the handlers order (e.g. the Object methods come last).
+        // Methods are matched on their declaration, as type variables are resolved in the proxy (e.g. QueueSqlDao<T>)
+        int i = 0;
+        for (final Map.Entry<Method, Handler> entry : handlers.entrySet()) {
+            final Method method = entry.getKey();
+            builder = builder.method(definedMethod(hasSignature(new MethodDescription.ForLoadedMethod(method).asSignatureToken())))
+                             .intercept(MethodDelegation.to(new SqlObjectInterceptor(method, entry.getValue()),
+                                                            SqlObjectInterceptor.class,
+                                                            "sqlObjectInterceptor$" + i++));
+        }
+
+        return builder.make()
+                      .load(sqlObjectType.getClassLoader(), Default.INJECTION)
+                      .getLoaded();
+    }
+
     private static Map<Method, Handler> buildHandlersFor(Class<?> sqlObjectType)
     {
         if (handlersCache.containsKey(sqlObjectType)) {
@@ -99,7 +119,7 @@ class SqlObject
 
         final ResolvedTypeWithMembers d = mr.resolve(sql_object_type, null, null);
 
-        final Map<Method, Handler> handlers = new HashMap<Method, Handler>();
+        final Map<Method, Handler> handlers = new LinkedHashMap<Method, Handler>();
         for (final ResolvedMethod method : d.getMemberMethods()) {
             final Method raw_method = method.getRawMember();
 
@@ -145,34 +165,21 @@ class SqlObject
     }
 
 
-    private final Map<Method, Handler> handlers;
-    private final HandleDing           ding;
+    private final HandleDing ding;
 
     private static final AtomicLong RETAINER = new AtomicLong();
 
-    public SqlObject(Map<Method, Handler> handlers, HandleDing ding)
+    public SqlObject(HandleDing ding)
     {
-        this.handlers = handlers;
         this.ding = ding;
     }
 
-    public Object invoke(Object proxy, Method method, Object[] args, Callable<?> methodProxy) throws Throwable
+    public Object invoke(Handler handler, Object proxy, Object[] args, Callable<?> methodProxy) throws Throwable
     {
-        Handler handler = handlers.get(method);
-
-        // If there is no handler, pretend we are just an Object and don't open a connection (Issue #82)
-        if (handler == null || handler instanceof PassThroughHandler) {
-            if (Objects.isNull(methodProxy)) {
-                throw new AbstractMethodError("Method " + method.getDeclaringClass().getName() + "#" + method.getName() +
-                                              " doesn't make sense -- it probably needs a @Sql* annotation of some kind.");
-            }
-
-            return methodProxy.call();
-        }
-
         Throwable doNotMask = null;
         // [OPTIMIZATION] method.toString() is expensive
         final String retainName = String.valueOf(RETAINER.getAndIncrement());
+        final HandleDing ding = handler.isReadFromReplica() ? replicaDing() : this.ding;
         try {
             ding.retain(retainName);
             return handler.invoke(ding, proxy, args, methodProxy);
@@ -193,6 +200,15 @@ class SqlObject
         }
     }
 
+    // Only on-demand sql objects open their handle (hence the connection): attached ones keep theirs
+    private HandleDing replicaDing()
+    {
+        if (ding instanceof OnDemandHandleDing) {
+            return ((OnDemandHandleDing) ding).replicaDing();
+        }
+        return ding;
+    }
+
     public static void close(Object sqlObject)
     {
         if (!(sqlObject instanceof CloseInternalDoNotUseThisClass)) {
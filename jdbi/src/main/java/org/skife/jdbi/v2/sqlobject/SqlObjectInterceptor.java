@@ -21,27 +21,44 @@ import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
 
 import net.bytebuddy.implementation.bind.annotation.AllArguments;
-import net.bytebuddy.implementation.bind.annotation.Origin;
+import net.bytebuddy.implementation.bind.annotation.FieldValue;
 import net.bytebuddy.implementation.bind.annotation.RuntimeType;
 import net.bytebuddy.implementation.bind.annotation.SuperCall;
 import net.bytebuddy.implementation.bind.annotation.This;
 
+/**
+ * [OPTIMIZATION] Invocation plan of a single sql object method: the generated proxy class delegates each method
+ * to its own interceptor, with the handler (SQL name, binders and customizers) resolved once per method,
+ * instead of looking up the handler on each call.
+ */
 public class SqlObjectInterceptor {
 
-    SqlObject so;
+    // Per-instance field of the generated proxy class, holding the SqlObject (typed as Object, as SqlObject isn't public)
+    static final String SQL_OBJECT_FIELD = "delegateToSqlObject";
+
+    private final Method method;
+    private final Handler handler;
 
-    public SqlObjectInterceptor(final SqlObject so) {this.so = so;}
+    SqlObjectInterceptor(final Method method, final Handler handler) {
+        this.method = method;
+        // If there is no handler, pretend we are just an Object and don't open a connection (Issue #82)
+        this.handler = handler instanceof PassThroughHandler ? null : handler;
+    }
 
     /**
      * This method intercepts all abstract methods with any annotations.
      */
     @RuntimeType
-    public Object intercept(@This Object target,
-                            @Origin Method method,
+    public Object intercept(@FieldValue(SQL_OBJECT_FIELD) Object sqlObject,
+                            @This Object target,
                             @AllArguments Object[] args) throws Throwable {
+        if (handler == null) {
+            throw new AbstractMethodError("Method " + method.getDeclaringClass().getName() + "#" + method.getName() +
+                                          " doesn't make sense -- it probably needs a @Sql* annotation of some kind.");
+        }
 
         // Method proxy is null as super method invocation is not needed for abstract methods.
-        return so.invoke(target, method, args, null);
+        return ((SqlObject) sqlObject).invoke(handler, target, args, null);
     }
 
     /**
@@ -49,11 +66,14 @@ public class SqlObjectInterceptor {
      * It passes callable method proxy reference to downstream logic so that the actual super method can be invoked.
      */
     @RuntimeType
-    public Object intercept(@Origin Method method,
+    public Object intercept(@FieldValue(SQL_OBJECT_FIELD) Object sqlObject,
                             @SuperCall Callable<?> methodProxy,
                             @This Object target,
                             @AllArguments Object[] args) throws Throwable {
+        if (handler == null) {
+            return methodProxy.call();
+        }
 
-        return so.invoke(target, method, args, methodProxy);
+        return ((SqlObject) sqlObject).invoke(handler, target, args, methodProxy);
     }
-}
\ No newline at end of file
+}
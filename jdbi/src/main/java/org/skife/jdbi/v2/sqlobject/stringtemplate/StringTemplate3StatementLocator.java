@@ -265,7 +265,8 @@ public class StringTemplate3StatementLocator implements StatementLocator
             if (!literals.isDefined(key)) {
                 literals.defineTemplate(key, name);
             }
-            StringTemplate t = literals.lookupTemplate(key);
+            // Fresh instance: the locator is shared across statements (and threads)
+            StringTemplate t = literals.getInstanceOf(key);
             for (Map.Entry<String, Object> entry : ctx.getAttributes().entrySet()) {
                 t.setAttribute(entry.getKey(), entry.getValue());
             }
@@ -39,6 +39,22 @@ public interface RewrittenStatement
      */
     void bind(Binding params, PreparedStatement statement) throws SQLException;
 
+    /**
+     * Called to bind a set of parameters to a prepared statement, starting after the
+     * first <code>offset</code> parameters (e.g. one row of a multi-row insert)
+     * @param params
+     * @param statement
+     * @param offset number of parameters before the first one of this set
+     * @throws SQLException
+     */
+    default void bind(Binding params, PreparedStatement statement, int offset) throws SQLException
+    {
+        if (offset != 0) {
+            throw new UnsupportedOperationException(getClass().getName() + " doesn't support binding at an offset");
+        }
+        bind(params, statement);
+    }
+
     /**
      * Obtain the SQL in valid (rewritten) form to be used to prepare a statement
      */
@@ -44,8 +44,23 @@ public @interface BindIn
 {
     String value();
 
+    /**
+     * [OPTIMIZATION] Pad the list of placeholders to the next power of two, by repeating the last value: a handful of
+     * statements (instead of one per collection size) then cover all sizes, which keeps the located SQL, parsed statement
+     * and prepared statement caches effective. Only valid when duplicate values don't change the result (e.g. IN clauses).
+     */
+    boolean padToPowerOfTwo() default false;
+
     public static final class CustomizerFactory implements SqlStatementCustomizerFactory
     {
+        // Number of placeholders (and bound values) for a collection of that size
+        static int boundSize(BindIn in, int collectionSize)
+        {
+            if (!in.padToPowerOfTwo() || collectionSize <= 1) {
+                return collectionSize;
+            }
+            return Integer.highestOneBit(collectionSize - 1) << 1;
+        }
 
         @Override
         public SqlStatementCustomizer createForMethod(Annotation annotation, Class sqlObjectType, Method method)
@@ -68,8 +83,9 @@ public @interface BindIn
             Collection<?> coll = (Collection<?>) arg;
             BindIn in = (BindIn) annotation;
             final String key = in.value();
+            final int size = boundSize(in, coll.size());
             final List<String> ids = new ArrayList<String>();
-            for (int idx = 0; idx < coll.size(); idx++) {
+            for (int idx = 0; idx < size; idx++) {
                 ids.add("__" + key + "_" + idx);
             }
 
@@ -107,10 +123,16 @@ public @interface BindIn
                 @Override
                 public void bind(SQLStatement q, Annotation bind, Object arg)
                 {
-                    Iterable<?> coll = (Iterable<?>) arg;
+                    Collection<?> coll = (Collection<?>) arg;
                     int idx = 0;
+                    Object last = null;
                     for (Object s : coll) {
                         q.bind("__" + key + "_" + idx++, s);
+                        last = s;
+                    }
+                    final int size = CustomizerFactory.boundSize(in, coll.size());
+                    while (idx < size) {
+                        q.bind("__" + key + "_" + idx++, last);
                     }
                 }
             };
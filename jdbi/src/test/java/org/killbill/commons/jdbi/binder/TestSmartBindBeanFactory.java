@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.binder;
+
+import java.util.List;
+
+import org.killbill.commons.jdbi.JDBITestBase;
+import org.killbill.commons.jdbi.mapper.LowerToCamelBeanMapperFactory;
+import org.skife.jdbi.v2.sqlobject.SqlQuery;
+import org.skife.jdbi.v2.sqlobject.SqlUpdate;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestSmartBindBeanFactory extends JDBITestBase {
+
+    @BeforeMethod(groups = "slow")
+    public void cleanupDb() throws Exception {
+        cleanupDb("drop table if exists something;\n" +
+                  "create table something (id int primary key, lower_cased_field varchar(100), another_lower_cased_field int)");
+    }
+
+    @Test(groups = "slow")
+    public void testBareAndPrefixedBindings() throws Exception {
+        dbi.registerMapper(new LowerToCamelBeanMapperFactory(SomethingBean.class));
+
+        final SomethingSqlDao somethingSqlDao = dbi.onDemand(SomethingSqlDao.class);
+        // The binding plan of SomethingBean is shared by both methods
+        somethingSqlDao.create(new SomethingBean(1, "pierre", 12));
+        somethingSqlDao.createPrefixed(new SomethingBean(2, "stephane", 29361));
+        somethingSqlDao.create(new SomethingBean(3, null, 0));
+
+        final List<SomethingBean> all = somethingSqlDao.getAll();
+        Assert.assertEquals(all.size(), 3);
+        Assert.assertEquals(all.get(0).getId(), 1);
+        Assert.assertEquals(all.get(0).getLowerCasedField(), "pierre");
+        Assert.assertEquals(all.get(0).getAnotherLowerCasedField(), 12);
+        Assert.assertEquals(all.get(1).getId(), 2);
+        Assert.assertEquals(all.get(1).getLowerCasedField(), "stephane");
+        Assert.assertEquals(all.get(1).getAnotherLowerCasedField(), 29361);
+        Assert.assertEquals(all.get(2).getId(), 3);
+        Assert.assertNull(all.get(2).getLowerCasedField());
+    }
+
+    private interface SomethingSqlDao {
+
+        @SqlUpdate("insert into something (id, lower_cased_field, another_lower_cased_field) values (:id, :lowerCasedField, :anotherLowerCasedField)")
+        public void create(@SmartBindBean final SomethingBean somethingBean);
+
+        @SqlUpdate("insert into something (id, lower_cased_field, another_lower_cased_field) values (:s.id, :s.lowerCasedField, :s.anotherLowerCasedField)")
+        public void createPrefixed(@SmartBindBean("s") final SomethingBean somethingBean);
+
+        @SqlQuery("select id, lower_cased_field, another_lower_cased_field from something order by id")
+        public List<SomethingBean> getAll();
+    }
+
+    // Needs to be public for the reflection magic
+    public static final class SomethingBean {
+
+        private int id;
+        private String lowerCasedField;
+        private long anotherLowerCasedField;
+
+        public SomethingBean() {
+        }
+
+        public SomethingBean(final int id, final String lowerCasedField, final long anotherLowerCasedField) {
+            this.id = id;
+            this.lowerCasedField = lowerCasedField;
+            this.anotherLowerCasedField = anotherLowerCasedField;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getLowerCasedField() {
+            return lowerCasedField;
+        }
+
+        public long getAnotherLowerCasedField() {
+            return anotherLowerCasedField;
+        }
+    }
+}
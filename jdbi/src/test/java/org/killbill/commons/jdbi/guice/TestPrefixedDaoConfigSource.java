@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.guice;
+
+import java.util.Properties;
+
+import org.skife.config.ConfigSource;
+import org.skife.config.SimplePropertyConfigSource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestPrefixedDaoConfigSource {
+
+    @Test(groups = "fast")
+    public void testFallbackToMainProperties() {
+        final Properties properties = new Properties();
+        properties.setProperty("org.killbill.dao.url", "jdbc:mysql://primary:3306/killbill");
+        properties.setProperty("org.killbill.dao.user", "killbill");
+        properties.setProperty("org.killbill.dao.maxActive", "50");
+        properties.setProperty("org.killbill.dao.replica.url", "jdbc:mysql://replica:3306/killbill");
+        properties.setProperty("org.killbill.dao.replica.maxActive", "20");
+        final ConfigSource configSource = new SimplePropertyConfigSource(properties);
+
+        Assert.assertTrue(PrefixedDaoConfigSource.isConfigured(configSource, PrefixedDaoConfigSource.REPLICA_PREFIX));
+        Assert.assertFalse(PrefixedDaoConfigSource.isConfigured(configSource, "org.killbill.dao.other."));
+
+        final DaoConfig replicaConfig = PrefixedDaoConfigSource.buildDaoConfig(configSource, PrefixedDaoConfigSource.REPLICA_PREFIX);
+        Assert.assertEquals(replicaConfig.getJdbcUrl(), "jdbc:mysql://replica:3306/killbill");
+        Assert.assertEquals(replicaConfig.getMaxActive(), 20);
+        Assert.assertEquals(replicaConfig.getUsername(), "killbill");
+    }
+}
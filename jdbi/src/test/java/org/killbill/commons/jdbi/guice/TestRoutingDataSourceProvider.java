@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.guice;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.killbill.commons.health.api.HealthCheckRegistry;
+import org.killbill.commons.jdbi.routing.RoutingDataSource;
+import org.killbill.commons.metrics.api.Gauge;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
+import org.skife.config.ConfigSource;
+import org.skife.config.ConfigurationObjectFactory;
+import org.skife.config.SimplePropertyConfigSource;
+import org.skife.jdbi.v2.IDBI;
+import org.skife.jdbi.v2.ResultSetMapperFactory;
+import org.skife.jdbi.v2.TimingCollector;
+import org.skife.jdbi.v2.tweak.ArgumentFactory;
+import org.skife.jdbi.v2.tweak.ResultSetMapper;
+import org.skife.jdbi.v2.tweak.SQLLog;
+import org.skife.jdbi.v2.tweak.StatementBuilderFactory;
+import org.skife.jdbi.v2.tweak.StatementRewriter;
+import org.skife.jdbi.v2.tweak.TransactionHandler;
+import org.skife.jdbi.v2.tweak.transactions.LocalTransactionHandler;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.TypeLiteral;
+import com.google.inject.util.Providers;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class TestRoutingDataSourceProvider {
+
+    @Test(groups = "slow")
+    public void testWithoutReplica() {
+        final Properties properties = new Properties();
+        properties.setProperty("org.killbill.dao.url", "jdbc:h2:mem:testWithoutReplica;DB_CLOSE_DELAY=-1");
+        final Injector injector = createInjector(properties, new GaugesMetricRegistry());
+
+        final DataSource dataSource = injector.getInstance(DataSource.class);
+        try {
+            Assert.assertTrue(dataSource instanceof HikariDataSource);
+        } finally {
+            ((HikariDataSource) dataSource).close();
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testWithReplica() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("org.killbill.dao.url", "jdbc:h2:mem:testWithReplicaPrimary;DB_CLOSE_DELAY=-1");
+        properties.setProperty("org.killbill.dao.replica.url", "jdbc:h2:mem:testWithReplicaReplica;DB_CLOSE_DELAY=-1");
+        final GaugesMetricRegistry metricRegistry = new GaugesMetricRegistry();
+        final Injector injector = createInjector(properties, metricRegistry);
+
+        final IDBI dbi = injector.getInstance(IDBI.class);
+        final DataSource dataSource = injector.getInstance(DataSource.class);
+        Assert.assertTrue(dataSource instanceof RoutingDataSource);
+        Assert.assertEquals(dbi.withHandle(handle -> handle.createQuery("select 1").mapTo(Integer.class).first()), (Integer) 1);
+
+        final Gauge<?> primaryConnections = metricRegistry.getGauges().get(RoutingDataSource.class.getName() + ".primaryConnections");
+        Assert.assertNotNull(primaryConnections);
+        Assert.assertEquals(primaryConnections.getValue(), 1L);
+        Assert.assertNotNull(metricRegistry.getGauges().get(RoutingDataSource.class.getName() + ".replicaConnections"));
+        Assert.assertNotNull(metricRegistry.getGauges().get(RoutingDataSource.class.getName() + ".replicaFailures"));
+
+        final Long replicaValue = RoutingDataSource.withReplica(() -> dbi.withHandle(handle -> handle.createQuery("select 1").mapTo(Long.class).first()));
+        Assert.assertEquals(replicaValue, (Long) 1L);
+        Assert.assertEquals(metricRegistry.getGauges().get(RoutingDataSource.class.getName() + ".replicaConnections").getValue(), 1L);
+    }
+
+    private Injector createInjector(final Properties properties, final MetricRegistry metricRegistry) {
+        final ConfigSource configSource = new SimplePropertyConfigSource(properties);
+        return Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(ConfigSource.class).toInstance(configSource);
+                bind(DaoConfig.class).toInstance(new ConfigurationObjectFactory(configSource).build(DaoConfig.class));
+                bind(MetricRegistry.class).toInstance(metricRegistry);
+                bind(HealthCheckRegistry.class).toProvider(Providers.of(null));
+                bind(DataSource.class).toProvider(RoutingDataSourceProvider.class).asEagerSingleton();
+                bind(TransactionHandler.class).to(LocalTransactionHandler.class);
+                bind(new TypeLiteral<Set<ArgumentFactory>>() {}).toProvider(Providers.of(null));
+                bind(new TypeLiteral<Set<ResultSetMapperFactory>>() {}).toProvider(Providers.of(null));
+                bind(new TypeLiteral<Set<ResultSetMapper>>() {}).toProvider(Providers.of(null));
+                bind(SQLLog.class).toProvider(Providers.of(null));
+                bind(TimingCollector.class).toProvider(Providers.of(null));
+                bind(StatementRewriter.class).toProvider(Providers.of(null));
+                bind(StatementBuilderFactory.class).toProvider(Providers.of(null));
+                bind(IDBI.class).toProvider(DBIProvider.class).asEagerSingleton();
+            }
+        });
+    }
+
+    private static final class GaugesMetricRegistry extends NoOpMetricRegistry {
+
+        private final Map<String, Gauge<?>> gauges = new ConcurrentHashMap<>();
+
+        @Override
+        public <T> Gauge<T> gauge(final String name, final Gauge<T> gauge) {
+            gauges.put(name, gauge);
+            return gauge;
+        }
+
+        @Override
+        public Map<String, Gauge<?>> getGauges() {
+            return gauges;
+        }
+    }
+}
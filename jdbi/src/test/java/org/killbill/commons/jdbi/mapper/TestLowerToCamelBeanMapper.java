@@ -20,6 +20,7 @@
 package org.killbill.commons.jdbi.mapper;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.skife.jdbi.v2.exceptions.DBIException;
 import org.skife.jdbi.v2.sqlobject.Bind;
@@ -70,6 +71,28 @@ public class TestLowerToCamelBeanMapper extends JDBITestBase {
         Assert.assertEquals(foundStephane.getAnotherLowerCasedField(), fieldBStephane);
     }
 
+    @Test(groups = "slow")
+    public void testWithDifferentColumnsAcrossQueries() throws Exception {
+        dbi.registerMapper(new LowerToCamelBeanMapperFactory(SomethingBean.class));
+
+        final SomethingSqlDao somethingSqlDao = dbi.onDemand(SomethingSqlDao.class);
+        somethingSqlDao.create(1, "pierre", 12);
+        somethingSqlDao.create(2, "stephane", 29361);
+
+        // Same (cached) mapper, the columns of each ResultSet are resolved again
+        final List<SomethingBean> all = somethingSqlDao.getAll();
+        Assert.assertEquals(all.size(), 2);
+        Assert.assertEquals(all.get(0).getLowerCasedField(), "pierre");
+        Assert.assertEquals(all.get(0).getAnotherLowerCasedField(), 12);
+        Assert.assertEquals(all.get(1).getLowerCasedField(), "stephane");
+        Assert.assertEquals(all.get(1).getAnotherLowerCasedField(), 29361);
+
+        final List<SomethingBean> lowerCasedFieldsOnly = somethingSqlDao.getAllLowerCasedFields();
+        Assert.assertEquals(lowerCasedFieldsOnly.size(), 2);
+        Assert.assertEquals(lowerCasedFieldsOnly.get(1).getLowerCasedField(), "stephane");
+        Assert.assertEquals(lowerCasedFieldsOnly.get(1).getAnotherLowerCasedField(), 0);
+    }
+
     private interface SomethingSqlDao {
 
         @SqlUpdate("insert into something (id, lower_cased_field, another_lower_cased_field) values (:id, :fieldA, :fieldB)")
@@ -79,6 +102,12 @@ public class TestLowerToCamelBeanMapper extends JDBITestBase {
 
         @SqlQuery("select lower_cased_field, another_lower_cased_field from something where id = :id")
         public SomethingBean getSomething(@Bind("id") final int id);
+
+        @SqlQuery("select another_lower_cased_field, lower_cased_field from something order by id")
+        public List<SomethingBean> getAll();
+
+        @SqlQuery("select lower_cased_field from something order by id")
+        public List<SomethingBean> getAllLowerCasedFields();
     }
 
     // Needs to be public for the reflection magic
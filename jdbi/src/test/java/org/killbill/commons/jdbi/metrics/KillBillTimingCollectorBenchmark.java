@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.metrics;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.commons.metrics.api.Timer;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
+import org.killbill.commons.metrics.impl.NoOpTimer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.skife.jdbi.v2.ConcreteStatementContext;
+
+/**
+ * Cost of KillBillTimingCollector#collect for a SqlObject statement (the registry returns existing timers, like the
+ * Codahale one, and the timers themselves are no-op).
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KillBillTimingCollectorBenchmark {
+
+    private KillBillTimingCollector timingCollector;
+    private ConcreteStatementContext ctx;
+
+    public interface SomethingSqlDao {
+
+        int getSomething(int id);
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        final Map<String, Timer> timers = new ConcurrentHashMap<>();
+        timingCollector = new KillBillTimingCollector(new NoOpMetricRegistry() {
+            @Override
+            public Timer timer(final String name) {
+                return timers.computeIfAbsent(name, n -> new NoOpTimer());
+            }
+        });
+
+        // Not public, normally set up by the Handle
+        final Constructor<ConcreteStatementContext> constructor = ConcreteStatementContext.class.getDeclaredConstructor(Map.class);
+        constructor.setAccessible(true);
+        ctx = constructor.newInstance(new HashMap<String, Object>());
+        final Method setRawSql = ConcreteStatementContext.class.getDeclaredMethod("setRawSql", String.class);
+        setRawSql.setAccessible(true);
+        setRawSql.invoke(ctx, "select something from somewhere where id = :id");
+        ctx.setSqlObjectType(SomethingSqlDao.class);
+        ctx.setSqlObjectMethod(SomethingSqlDao.class.getMethod("getSomething", int.class));
+    }
+
+    @Benchmark
+    public void collect() {
+        timingCollector.collect(1000L, ctx);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(KillBillTimingCollectorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.killbill.commons.jdbi.JDBITestBase;
+import org.killbill.commons.metrics.api.Timer;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.sqlobject.Bind;
+import org.skife.jdbi.v2.sqlobject.SqlQuery;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestKillBillTimingCollector extends JDBITestBase {
+
+    private final List<String> resolvedTimers = new ArrayList<>();
+
+    @BeforeMethod(groups = "slow")
+    public void cleanupDb() throws Exception {
+        cleanupDb("drop table if exists something;\n" +
+                  "create table something (id int primary key)");
+        resolvedTimers.clear();
+    }
+
+    @Test(groups = "slow")
+    public void testTimersResolvedOncePerSqlObjectMethod() throws Exception {
+        dbi.setTimingCollector(new KillBillTimingCollector(new NoOpMetricRegistry() {
+            @Override
+            public Timer timer(final String name) {
+                resolvedTimers.add(name);
+                return super.timer(name);
+            }
+        }));
+
+        final FirstSqlDao firstSqlDao = dbi.onDemand(FirstSqlDao.class);
+        final SecondSqlDao secondSqlDao = dbi.onDemand(SecondSqlDao.class);
+        for (int i = 0; i < 5; i++) {
+            firstSqlDao.count(i);
+            secondSqlDao.count(i);
+        }
+        // Same (inherited) method, different SqlObject types
+        Assert.assertEquals(resolvedTimers, List.of("org.killbill.commons.jdbi.metrics.FirstSqlDao.count",
+                                                    "org.killbill.commons.jdbi.metrics.SecondSqlDao.count"));
+
+        // Raw statements are resolved each time
+        try (final Handle handle = dbi.open()) {
+            handle.select("select count(*) from something");
+            handle.select("select count(*) from something");
+        }
+        Assert.assertEquals(resolvedTimers.size(), 4);
+        Assert.assertEquals(resolvedTimers.get(3), "sql.raw.select count(*) from something");
+    }
+
+    private interface BaseSqlDao {
+
+        @SqlQuery("select count(*) from something where id > :id")
+        public int count(@Bind("id") final int id);
+    }
+
+    private interface FirstSqlDao extends BaseSqlDao {}
+
+    private interface SecondSqlDao extends BaseSqlDao {}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.routing;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.killbill.commons.embeddeddb.h2.H2EmbeddedDB;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.sqlobject.Bind;
+import org.skife.jdbi.v2.sqlobject.SqlQuery;
+import org.skife.jdbi.v2.sqlobject.SqlUpdate;
+import org.skife.jdbi.v2.sqlobject.mixins.Transactional;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestRoutingDataSource {
+
+    private H2EmbeddedDB primaryDB;
+    private H2EmbeddedDB replicaDB;
+    private RoutingDataSource routingDataSource;
+    private DBI dbi;
+
+    @BeforeClass(groups = "slow")
+    public void setUp() throws Exception {
+        primaryDB = startDB("primary");
+        replicaDB = startDB("replica");
+    }
+
+    @BeforeMethod(groups = "slow")
+    public void setUpMethod() throws Exception {
+        routingDataSource = new RoutingDataSource(primaryDB.getDataSource(), replicaDB.getDataSource());
+        dbi = new DBI(routingDataSource);
+    }
+
+    @AfterClass(groups = "slow")
+    public void tearDown() throws Exception {
+        primaryDB.stop();
+        replicaDB.stop();
+    }
+
+    @Test(groups = "slow")
+    public void testOnDemand() {
+        final SomethingSqlDao sqlDao = dbi.onDemand(SomethingSqlDao.class);
+        Assert.assertEquals(sqlDao.getNameFromReplica(), "replica");
+        Assert.assertEquals(sqlDao.getName(), "primary");
+
+        Assert.assertEquals(routingDataSource.getReplicaConnections(), 1);
+        Assert.assertEquals(routingDataSource.getPrimaryConnections(), 1);
+    }
+
+    @Test(groups = "slow")
+    public void testWritesWhileReplicaIteratorOpen() {
+        final SomethingSqlDao sqlDao = dbi.onDemand(SomethingSqlDao.class);
+        final Iterator<String> names = sqlDao.iterateNamesFromReplica();
+        Assert.assertTrue(names.hasNext());
+        try {
+            // The replica handle isn't shared with the other calls of the thread
+            sqlDao.updateName("updated");
+            Assert.assertEquals(sqlDao.inTransaction((transactional, status) -> transactional.getName()), "updated");
+            Assert.assertEquals(names.next(), "replica");
+            Assert.assertFalse(names.hasNext());
+        } finally {
+            sqlDao.updateName("primary");
+        }
+
+        Assert.assertEquals(routingDataSource.getReplicaConnections(), 1);
+        Assert.assertEquals(routingDataSource.getPrimaryConnections(), 3);
+        Assert.assertEquals(dbi.withHandle(handle -> getName(handle)), "primary");
+    }
+
+    @Test(groups = "slow")
+    public void testReplicaConnectionsReadOnly() throws Exception {
+        // H2 ignores the read-only hint, record it instead
+        final AtomicBoolean readOnly = new AtomicBoolean();
+        final DataSource replica = replicaDB.getDataSource();
+        final DataSource recordingReplica = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                                                                                new Class<?>[]{DataSource.class},
+                                                                                (proxy, method, args) -> {
+                                                                                    final Object result = method.invoke(replica, args);
+                                                                                    if (!"getConnection".equals(method.getName())) {
+                                                                                        return result;
+                                                                                    }
+                                                                                    return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                                                                                                                  new Class<?>[]{Connection.class},
+                                                                                                                  (connectionProxy, connectionMethod, connectionArgs) -> {
+                                                                                                                      if ("setReadOnly".equals(connectionMethod.getName())) {
+                                                                                                                          readOnly.set((Boolean) connectionArgs[0]);
+                                                                                                                      }
+                                                                                                                      return connectionMethod.invoke(result, connectionArgs);
+                                                                                                                  });
+                                                                                });
+        routingDataSource = new RoutingDataSource(primaryDB.getDataSource(), recordingReplica);
+        dbi = new DBI(routingDataSource);
+
+        Assert.assertEquals(dbi.onDemand(SomethingSqlDao.class).getNameFromReplica(), "replica");
+        Assert.assertTrue(readOnly.get());
+    }
+
+    @Test(groups = "slow")
+    public void testTransactionsPinnedToPrimary() {
+        final String name = dbi.inTransaction((handle, status) -> handle.attach(SomethingSqlDao.class).getNameFromReplica());
+        Assert.assertEquals(name, "primary");
+
+        final SomethingSqlDao sqlDao = dbi.onDemand(SomethingSqlDao.class);
+        sqlDao.begin();
+        try {
+            Assert.assertEquals(sqlDao.getNameFromReplica(), "primary");
+        } finally {
+            sqlDao.commit();
+        }
+
+        Assert.assertEquals(routingDataSource.getReplicaConnections(), 0);
+    }
+
+    @Test(groups = "slow")
+    public void testReplicaSqlObjectType() {
+        Assert.assertEquals(dbi.onDemand(ReplicaSqlDao.class).getName(), "replica");
+    }
+
+    @Test(groups = "slow")
+    public void testWithReplica() throws Exception {
+        final String name = RoutingDataSource.withReplica(() -> dbi.withHandle(handle -> getName(handle)));
+        Assert.assertEquals(name, "replica");
+
+        // Reset
+        Assert.assertEquals(dbi.withHandle(handle -> getName(handle)), "primary");
+    }
+
+    @Test(groups = "slow")
+    public void testFallbackToPrimary() throws Exception {
+        final DataSource unavailableReplica = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                                                                                  new Class<?>[]{DataSource.class},
+                                                                                  (proxy, method, args) -> {
+                                                                                      throw new SQLException("Replica unavailable");
+                                                                                  });
+        routingDataSource = new RoutingDataSource(primaryDB.getDataSource(), unavailableReplica);
+        dbi = new DBI(routingDataSource);
+
+        Assert.assertEquals(dbi.onDemand(SomethingSqlDao.class).getNameFromReplica(), "primary");
+        Assert.assertEquals(routingDataSource.getReplicaFailures(), 1);
+        Assert.assertEquals(routingDataSource.getPrimaryConnections(), 1);
+    }
+
+    private static String getName(final Handle handle) {
+        return handle.createQuery("select name from something").map((index, r, ctx) -> r.getString(1)).first();
+    }
+
+    private static H2EmbeddedDB startDB(final String name) throws Exception {
+        final H2EmbeddedDB embeddedDB = new H2EmbeddedDB();
+        embeddedDB.initialize();
+        embeddedDB.start();
+        embeddedDB.executeScript("create table something (id int primary key, name varchar(100));\n" +
+                                 "insert into something values (1, '" + name + "');");
+        return embeddedDB;
+    }
+
+    public interface SomethingSqlDao extends Transactional<SomethingSqlDao> {
+
+        @SqlQuery("select name from something")
+        String getName();
+
+        @SqlQuery("select name from something")
+        @ReadFromReplica
+        String getNameFromReplica();
+
+        @SqlQuery("select name from something")
+        @ReadFromReplica
+        Iterator<String> iterateNamesFromReplica();
+
+        @SqlUpdate("update something set name = :name")
+        void updateName(@Bind("name") String name);
+    }
+
+    @ReadFromReplica
+    public interface ReplicaSqlDao {
+
+        @SqlQuery("select name from something")
+        String getName();
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.statement;
+
+import java.sql.Statement;
+
+import org.killbill.commons.jdbi.JDBITestBase;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.Query;
+import org.skife.jdbi.v2.ResultIterator;
+import org.skife.jdbi.v2.util.IntegerMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class TestPreparedStatementCacheFactory extends JDBITestBase {
+
+    private static final String COUNT_SQL = "select count(*) from something where id > :id";
+
+    private HikariDataSource dataSource;
+    private PreparedStatementCacheFactory statementCacheFactory;
+
+    @BeforeMethod(groups = "slow")
+    public void setUpDataSource() throws Exception {
+        cleanupDb("drop table if exists something;\n" +
+                  "create table something (id int primary key);\n" +
+                  "insert into something values (1), (2), (3);");
+
+        // Single connection, to verify statements aren't reused across handles
+        final HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(embeddedDB.getJdbcConnectionString());
+        hikariConfig.setUsername(embeddedDB.getUsername());
+        hikariConfig.setPassword(embeddedDB.getPassword());
+        hikariConfig.setMaximumPoolSize(1);
+        dataSource = new HikariDataSource(hikariConfig);
+
+        statementCacheFactory = new PreparedStatementCacheFactory(2);
+        dbi = new DBI(dataSource);
+        dbi.setStatementBuilderFactory(statementCacheFactory);
+    }
+
+    @AfterMethod(groups = "slow")
+    public void tearDownDataSource() {
+        dataSource.close();
+    }
+
+    @Test(groups = "slow")
+    public void testReuseWithinHandle() throws Exception {
+        try (final Handle handle = dbi.open()) {
+            final Statement first = count(handle, 0);
+            final Statement second = count(handle, 1);
+
+            Assert.assertSame(second, first);
+            Assert.assertFalse(first.isClosed());
+            // Prepared through the pool proxy
+            Assert.assertSame(first.getConnection(), handle.getConnection());
+        }
+
+        Assert.assertEquals(statementCacheFactory.getMisses(), 1);
+        Assert.assertEquals(statementCacheFactory.getHits(), 1);
+    }
+
+    @Test(groups = "slow")
+    public void testCacheClosedWithHandle() throws Exception {
+        final Statement first;
+        try (final Handle handle = dbi.open()) {
+            first = count(handle, 0);
+        }
+        Assert.assertTrue(first.isClosed());
+
+        // Same physical connection (single connection pool), but the cache didn't survive the previous handle
+        try (final Handle handle = dbi.open()) {
+            Assert.assertNotSame(count(handle, 0), first);
+        }
+        Assert.assertEquals(statementCacheFactory.getMisses(), 2);
+        Assert.assertEquals(statementCacheFactory.getHits(), 0);
+    }
+
+    @Test(groups = "slow")
+    public void testSettingsRestored() throws Exception {
+        try (final Handle handle = dbi.open()) {
+            final Query<Integer> limitedQuery = handle.createQuery("select id from something order by id")
+                                                      .setMaxRows(1)
+                                                      .map(IntegerMapper.FIRST);
+            Assert.assertEquals(limitedQuery.list().size(), 1);
+            final Statement stmt = limitedQuery.getContext().getStatement();
+            Assert.assertEquals(stmt.getMaxRows(), 0);
+
+            final Query<Integer> query = handle.createQuery("select id from something order by id").map(IntegerMapper.FIRST);
+            Assert.assertEquals(query.list().size(), 3);
+            Assert.assertSame(query.getContext().getStatement(), stmt);
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testNestedExecutions() throws Exception {
+        try (final Handle handle = dbi.open()) {
+            final Query<Integer> outer = handle.createQuery("select id from something order by id").map(IntegerMapper.FIRST);
+            int nbRows = 0;
+            try (final ResultIterator<Integer> iterator = outer.iterator()) {
+                while (iterator.hasNext()) {
+                    iterator.next();
+                    nbRows++;
+                    // Same SQL while the outer statement is still in use
+                    final Query<Integer> inner = handle.createQuery("select id from something order by id").map(IntegerMapper.FIRST);
+                    Assert.assertEquals(inner.list().size(), 3);
+                    if (iterator.hasNext()) {
+                        Assert.assertNotSame(inner.getContext().getStatement(), outer.getContext().getStatement());
+                    } else {
+                        // The outer statement has been returned after reading the last row
+                        Assert.assertSame(inner.getContext().getStatement(), outer.getContext().getStatement());
+                    }
+                }
+            }
+            Assert.assertEquals(nbRows, 3);
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testEviction() throws Exception {
+        try (final Handle handle = dbi.open()) {
+            final Statement first = count(handle, 0);
+            handle.select("select count(*) from something where id > 1");
+            handle.select("select count(*) from something where id > 2");
+
+            Assert.assertEquals(statementCacheFactory.getEvictions(), 1);
+            Assert.assertTrue(first.isClosed());
+            Assert.assertNotSame(count(handle, 0), first);
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testStatementsInUseClosedWithHandle() throws Exception {
+        final Handle handle = dbi.open();
+        final Query<Integer> query = handle.createQuery("select id from something order by id").map(IntegerMapper.FIRST);
+        final ResultIterator<Integer> iterator = query.iterator();
+        Assert.assertTrue(iterator.hasNext());
+        handle.close();
+
+        Assert.assertTrue(query.getContext().getStatement().isClosed());
+    }
+
+    @Test(groups = "slow")
+    public void testGeneratedKeysNotCached() throws Exception {
+        try (final Handle handle = dbi.open()) {
+            handle.createStatement("insert into something values (4)").executeAndReturnGeneratedKeys();
+        }
+
+        Assert.assertEquals(statementCacheFactory.getMisses(), 0);
+    }
+
+    private Statement count(final Handle handle, final int id) {
+        final Query<Integer> query = handle.createQuery(COUNT_SQL).bind("id", id).map(IntegerMapper.FIRST);
+        Assert.assertEquals((int) query.first(), 3 - id);
+        return query.getContext().getStatement();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.killbill.commons.jdbi.JDBITestBase;
+import org.skife.jdbi.v2.exceptions.CallbackFailedException;
+import org.skife.jdbi.v2.exceptions.TransactionFailedException;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestTransactionSynchronizationManager extends JDBITestBase {
+
+    private List<String> completions;
+
+    @BeforeMethod(groups = "slow")
+    public void setUpTransactionHandler() throws Exception {
+        cleanupDb("drop table if exists something;\n" +
+                  "create table something (id int primary key);");
+        dbi.setTransactionHandler(new NotificationTransactionHandler());
+        // Flush anything left behind by a previous (failed) test
+        TransactionSynchronizationManager.triggerAfterRollback();
+        completions = new ArrayList<>();
+    }
+
+    @Test(groups = "slow")
+    public void testAfterCommit() {
+        final TransactionSynchronization synchronization = new RecordingSynchronization("first");
+        dbi.inTransaction((handle, status) -> {
+            handle.execute("insert into something values (1)");
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+            TransactionSynchronizationManager.registerSynchronization(new RecordingSynchronization("second"));
+            Assert.assertTrue(completions.isEmpty());
+            return null;
+        });
+        Assert.assertEquals(completions, List.of("first-commit", "second-commit"));
+
+        // Only invoked for the transaction they registered in
+        dbi.inTransaction((handle, status) -> {
+            handle.execute("insert into something values (2)");
+            return null;
+        });
+        Assert.assertEquals(completions.size(), 2);
+    }
+
+    @Test(groups = "slow")
+    public void testAfterRollback() {
+        try {
+            dbi.inTransaction((handle, status) -> {
+                TransactionSynchronizationManager.registerSynchronization(new RecordingSynchronization("first"));
+                throw new IllegalStateException("Rollback");
+            });
+            Assert.fail();
+        } catch (final CallbackFailedException e) {
+            Assert.assertEquals(completions, List.of("first-rollback"));
+        }
+
+        try {
+            dbi.inTransaction((handle, status) -> {
+                TransactionSynchronizationManager.registerSynchronization(new RecordingSynchronization("second"));
+                status.setRollbackOnly();
+                return null;
+            });
+            Assert.fail();
+        } catch (final CallbackFailedException e) {
+            Assert.assertTrue(e.getCause() instanceof TransactionFailedException);
+            Assert.assertEquals(completions, List.of("first-rollback", "second-rollback"));
+        }
+
+        // Nothing left for the next transaction
+        dbi.inTransaction((handle, status) -> null);
+        Assert.assertEquals(completions.size(), 2);
+    }
+
+    @Test(groups = "slow")
+    public void testFailingSynchronization() {
+        dbi.inTransaction((handle, status) -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    throw new IllegalStateException("Failing synchronization");
+                }
+            });
+            TransactionSynchronizationManager.registerSynchronization(new RecordingSynchronization("second"));
+            return null;
+        });
+        Assert.assertEquals(completions, List.of("second-commit"));
+    }
+
+    private final class RecordingSynchronization implements TransactionSynchronization {
+
+        private final String name;
+
+        private RecordingSynchronization(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void afterCommit() {
+            completions.add(name + "-commit");
+        }
+
+        @Override
+        public void afterRollback() {
+            completions.add(name + "-rollback");
+        }
+    }
+}
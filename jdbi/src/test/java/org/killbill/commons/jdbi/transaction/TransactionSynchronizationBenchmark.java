@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.jdbi.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.commons.eventbus.AllowConcurrentEvents;
+import org.killbill.commons.eventbus.Subscribe;
+import org.killbill.commons.jdbi.notification.DatabaseTransactionEvent;
+import org.killbill.commons.jdbi.notification.DatabaseTransactionEventType;
+import org.killbill.commons.jdbi.notification.DatabaseTransactionNotificationApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-transaction cost of notifying the queues on commit, when nbQueues queues exist and the transaction wrote to
+ * one of them (if any): broadcast posts the event to all the queues subscribed to the DatabaseTransactionNotificationApi
+ * (each checking its ThreadLocal), synchronizations only invokes the queue which registered. The commit itself isn't measured.
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionSynchronizationBenchmark {
+
+    private static final DatabaseTransactionEvent COMMIT_EVENT = new DatabaseTransactionEvent(DatabaseTransactionEventType.COMMIT);
+
+    @Param({"0", "1", "8"})
+    public int nbQueues;
+
+    private DatabaseTransactionNotificationApi transactionNotificationApi;
+    private List<Queue> queues;
+
+    @Setup
+    public void setUp() {
+        transactionNotificationApi = new DatabaseTransactionNotificationApi();
+        queues = new ArrayList<>(nbQueues);
+        for (int i = 0; i < nbQueues; i++) {
+            final Queue queue = new Queue();
+            transactionNotificationApi.registerForNotification(queue);
+            queues.add(queue);
+        }
+    }
+
+    @Benchmark
+    public long broadcast() {
+        if (nbQueues > 0) {
+            queues.get(0).pendingRowIds.set(1L);
+        }
+        transactionNotificationApi.dispatchNotification(COMMIT_EVENT);
+        return nbQueues > 0 ? queues.get(0).dispatched : 0;
+    }
+
+    @Benchmark
+    public long synchronizations() {
+        if (nbQueues > 0) {
+            final Queue queue = queues.get(0);
+            queue.pendingRowIds.set(1L);
+            TransactionSynchronizationManager.registerSynchronization(queue);
+        }
+        TransactionSynchronizationManager.triggerAfterCommit();
+        return nbQueues > 0 ? queues.get(0).dispatched : 0;
+    }
+
+    public static final class Queue implements TransactionSynchronization {
+
+        private final ThreadLocal<Long> pendingRowIds = new ThreadLocal<>();
+        private long dispatched;
+
+        @AllowConcurrentEvents
+        @Subscribe
+        public void handleDatabaseTransactionEvent(final DatabaseTransactionEvent event) {
+            if (pendingRowIds.get() == null) {
+                return;
+            }
+            afterCommit();
+        }
+
+        @Override
+        public void afterCommit() {
+            dispatched += pendingRowIds.get();
+            pendingRowIds.remove();
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TransactionSynchronizationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
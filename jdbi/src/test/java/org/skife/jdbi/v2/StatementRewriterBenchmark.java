@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.skife.jdbi.v2;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Hot query loop through the default statement rewriter: each statement is a new String instance, as rendered
+ * by the string templates. The parses counter is the number of times the SQL was lexed again.
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class StatementRewriterBenchmark {
+
+    private static final String[] QUERIES = new String[20];
+
+    static {
+        for (int i = 0; i < QUERIES.length; i++) {
+            QUERIES[i] = "select record_id, class_name, event_json, user_token, created_date, creating_owner, processing_owner, processing_available_date, " +
+                         "processing_state, error_count, search_key1, search_key2 from bus_events_" + i + " where processing_state = 'AVAILABLE' " +
+                         "and (processing_owner = :owner or processing_owner is null) and search_key1 = :searchKey1 order by record_id asc limit :max";
+        }
+    }
+
+    private ColonPrefixNamedParamStatementRewriter rewriter;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Parses {
+
+        public long parses;
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            parses = 0;
+        }
+    }
+
+    private final ThreadLocal<Parses> currentParses = new ThreadLocal<Parses>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rewriter = new ColonPrefixNamedParamStatementRewriter() {
+            @Override
+            protected ParsedStatement parseString(final String sql) {
+                currentParses.get().parses++;
+                return super.parseString(sql);
+            }
+        };
+    }
+
+    @Benchmark
+    public String rewrite(final Parses parses) {
+        currentParses.set(parses);
+        // Fresh String, equal to one of the queries
+        final String sql = new String(QUERIES[parses.next++ % QUERIES.length].toCharArray());
+        return rewriter.rewrite(sql, new Binding(), new ConcreteStatementContext(new HashMap<String, Object>())).getSql();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StatementRewriterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.skife.jdbi.v2;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@Category(JDBITests.class)
+public class TestMultiRowValues
+{
+    @Test
+    public void testExpand() throws Exception
+    {
+        MultiRowValues statement = MultiRowValues.parse("insert into something (id, name) values (?, lower(?))");
+
+        assertEquals(2, statement.getParametersPerRow());
+        assertEquals(8192, statement.getMaxRows());
+        assertEquals("insert into something (id, name) values (?, lower(?))", statement.expand(1));
+        assertEquals("insert into something (id, name) values (?, lower(?)), (?, lower(?)), (?, lower(?))", statement.expand(3));
+    }
+
+    @Test
+    public void testExpandWithSuffixAndQuotes() throws Exception
+    {
+        MultiRowValues statement = MultiRowValues.parse("INSERT INTO \"values\" (id, name) VALUES (?, 'it''s (?)') ON CONFLICT DO NOTHING");
+
+        assertEquals(1, statement.getParametersPerRow());
+        assertEquals("INSERT INTO \"values\" (id, name) VALUES (?, 'it''s (?)'), (?, 'it''s (?)') ON CONFLICT DO NOTHING", statement.expand(2));
+    }
+
+    @Test
+    public void testNotExpandable() throws Exception
+    {
+        assertNull(MultiRowValues.parse("insert into something (id, name) select id, name from something_else"));
+        assertNull(MultiRowValues.parse("insert into something (id, name) values (?, ?), (?, ?)"));
+        assertNull(MultiRowValues.parse("insert into something (id, name) values (?, ?) on duplicate key update name = ?"));
+        assertNull(MultiRowValues.parse("insert into something (id, name) values (?, 'unterminated)"));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.skife.jdbi.v2;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Category(JDBITests.class)
+public class TestParsedStatementCache
+{
+    @Test
+    public void testKeyedByContent() throws Exception
+    {
+        final AtomicInteger parses = new AtomicInteger();
+        final ColonPrefixNamedParamStatementRewriter rw = new ColonPrefixNamedParamStatementRewriter()
+        {
+            @Override
+            protected ParsedStatement parseString(String sql)
+            {
+                parses.incrementAndGet();
+                return super.parseString(sql);
+            }
+        };
+
+        for (int i = 0; i < 100; i++) {
+            // Like rendered templates, a new String instance each time
+            final String sql = new StringBuilder("select * from something where id = :id").toString();
+            assertEquals("select * from something where id = ?",
+                         rw.rewrite(sql, new Binding(), new ConcreteStatementContext(new HashMap<String, Object>())).getSql());
+            System.gc();
+        }
+
+        assertEquals(1, parses.get());
+        assertEquals(1, rw.getParsedStatementCache().getMisses());
+        assertEquals(99, rw.getParsedStatementCache().getHits());
+    }
+
+    @Test
+    public void testBounded() throws Exception
+    {
+        final ParsedStatementCache<String> cache = new ParsedStatementCache<String>(10);
+
+        // Keep the first one hot
+        for (int i = 0; i < 100; i++) {
+            final String hot = cache.get("hot", String::toUpperCase);
+            assertEquals("HOT", hot);
+            assertSame(hot, cache.get("hot", String::toUpperCase));
+            cache.get("sql" + i, String::toUpperCase);
+            assertTrue(cache.size() <= 10);
+        }
+
+        assertEquals(101, cache.getMisses());
+        assertEquals(199, cache.getHits());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxSize() throws Exception
+    {
+        new ParsedStatementCache<String>(0);
+    }
+}
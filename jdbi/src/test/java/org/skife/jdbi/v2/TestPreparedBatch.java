@@ -30,7 +30,9 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 
@@ -180,4 +182,66 @@ public class TestPreparedBatch extends DBITestCase
         assertEquals(h.createQuery("select name from something order by id").map(StringMapper.FIRST).list(),
                      Arrays.asList("Jeff", "Tom"));
     }
+
+    @Test
+    public void testMultiRowValues() throws Exception
+    {
+        Handle h = openHandle();
+        final AtomicInteger nbStatements = new AtomicInteger();
+        h.setTimingCollector((elapsedTime, ctx) -> nbStatements.incrementAndGet());
+        PreparedBatch b = h.prepareBatch("insert into something (id, name) values (:id, :name)").setMultiRowValues(true);
+
+        int count = 100;
+        for (int i = 0; i < count; ++i) {
+            b.add().bind("id", i).bind("name", "Name " + i);
+        }
+        int[] updateCounts = b.execute();
+
+        // 64 + 32 + 4 rows
+        assertEquals(3, nbStatements.get());
+        int[] expectedUpdateCounts = new int[count];
+        Arrays.fill(expectedUpdateCounts, 1);
+        assertArrayEquals(expectedUpdateCounts, updateCounts);
+
+        List<Something> r = h.createQuery("select * from something order by id").map(Something.class).list();
+        assertEquals(count, r.size());
+        for (int i = 0; i < count; ++i) {
+            assertEquals(i, r.get(i).getId());
+            assertEquals("Name " + i, r.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testMultiRowValuesPositional() throws Exception
+    {
+        Handle h = openHandle();
+        PreparedBatch b = h.prepareBatch("insert into something (id, name) values (?, ?)").setMultiRowValues(true);
+
+        b.add(0, "Keith");
+        b.add(1, "Eric");
+        b.add(2, "Brian");
+
+        b.execute();
+
+        assertEquals(Arrays.asList("Keith", "Eric", "Brian"),
+                     h.createQuery("select name from something order by id").map(StringMapper.FIRST).list());
+    }
+
+    @Test
+    public void testMultiRowValuesFallsBackToBatch() throws Exception
+    {
+        Handle h = openHandle();
+        final AtomicInteger nbStatements = new AtomicInteger();
+        h.setTimingCollector((elapsedTime, ctx) -> nbStatements.incrementAndGet());
+        // No VALUES clause
+        PreparedBatch b = h.prepareBatch("insert into something (id, name) select :id, :name from sysibm.sysdummy1").setMultiRowValues(true);
+
+        b.add().bind("id", 1).bind("name", "Jeff");
+        b.add().bind("id", 2).bind("name", "Tom");
+        b.execute();
+
+        assertEquals(1, nbStatements.get());
+        assertEquals(Arrays.asList("Jeff", "Tom"),
+                     h.createQuery("select name from something order by id").map(StringMapper.FIRST).list());
+    }
 }
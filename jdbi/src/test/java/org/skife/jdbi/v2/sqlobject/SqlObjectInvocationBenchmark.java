@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.skife.jdbi.v2.sqlobject;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.sqlobject.customizers.FetchSize;
+import org.skife.jdbi.v2.sqlobject.customizers.QueryTimeOut;
+import org.skife.jdbi.v2.sqlobject.stringtemplate.UseStringTemplate3StatementLocator;
+
+/**
+ * Trivial @SqlQuery round trip against an in-memory H2, through a sql object attached to an open handle: plain has
+ * no statement customizer, customized has type and method customizers (like the Kill Bill DAOs).
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlObjectInvocationBenchmark {
+
+    public interface PlainDao {
+
+        @SqlQuery("select id from something where id = :id")
+        Integer findId(@Bind("id") int id);
+    }
+
+    @UseStringTemplate3StatementLocator
+    public interface CustomizedDao {
+
+        @SqlQuery("select id from something where id = :id")
+        @FetchSize(10)
+        @QueryTimeOut(30)
+        Integer findId(@Bind("id") int id);
+    }
+
+    private Handle handle;
+    private PlainDao plainDao;
+    private CustomizedDao customizedDao;
+
+    @Setup
+    public void setUp() {
+        final DBI dbi = new DBI("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        handle = dbi.open();
+        handle.execute("create table something (id int primary key)");
+        handle.execute("insert into something (id) values (1)");
+
+        plainDao = handle.attach(PlainDao.class);
+        customizedDao = handle.attach(CustomizedDao.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        handle.close();
+    }
+
+    @Benchmark
+    public Integer plain() {
+        return plainDao.findId(1);
+    }
+
+    @Benchmark
+    public Integer customized() {
+        return customizedDao.findId(1);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SqlObjectInvocationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
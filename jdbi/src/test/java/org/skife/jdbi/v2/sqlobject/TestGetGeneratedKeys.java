@@ -27,12 +27,18 @@ import org.junit.experimental.categories.Category;
 import org.skife.jdbi.v2.DBI;
 import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.JDBITests;
+import org.skife.jdbi.v2.PreparedBatch;
+import org.skife.jdbi.v2.logging.FormattedLog;
 import org.skife.jdbi.v2.sqlobject.mixins.CloseMe;
 import org.skife.jdbi.v2.tweak.HandleCallback;
+import org.skife.jdbi.v2.util.LongMapper;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 @Category(JDBITests.class)
@@ -89,4 +95,72 @@ public class TestGetGeneratedKeys
         dao.close();
     }
 
+    @Test
+    public void testMultiRowValuesGeneratedKeys() throws Exception
+    {
+        try (Handle h = dbi.open()) {
+            final List<String> batchLogs = logPreparedBatches(h);
+            PreparedBatch b = h.prepareBatch("insert into something (name) values (:name)").setMultiRowValues(true);
+            b.add().bind("name", "Brian");
+            b.add().bind("name", "Keith");
+            b.add().bind("name", "Eric");
+
+            List<Long> ids = b.executeAndGenerateKeys(LongMapper.FIRST).list();
+
+            // Single multi-row statement
+            assertThat(batchLogs.size(), equalTo(1));
+            assertThat(batchLogs.get(0), startsWith("prepared batch with 3 parts:[insert into something (name) values (?), (?), (?)]"));
+            assertThat(ids.size(), equalTo(3));
+            DAO dao = h.attach(DAO.class);
+            assertThat(dao.findNameById(ids.get(0)), equalTo("Brian"));
+            assertThat(dao.findNameById(ids.get(1)), equalTo("Keith"));
+            assertThat(dao.findNameById(ids.get(2)), equalTo("Eric"));
+        }
+    }
+
+    @Test
+    public void testMultiRowValuesGeneratedKeysFallsBackToBatch() throws Exception
+    {
+        try (Handle h = dbi.open()) {
+            final List<String> batchLogs = logPreparedBatches(h);
+            PreparedBatch b = h.prepareBatch("insert into something (name) values (:name)").setMultiRowValues(true);
+            // One more row than a single statement can bind (32767 parameters, rounded down to a power of two)
+            int count = 16385;
+            for (int i = 0; i < count; i++) {
+                b.add().bind("name", "Name " + i);
+            }
+
+            List<Long> ids = b.executeAndGenerateKeys(LongMapper.FIRST).list();
+
+            // Keys can't be collected across statements: JDBC batch
+            assertThat(batchLogs.size(), equalTo(1));
+            assertThat(batchLogs.get(0), startsWith("prepared batch with " + count + " parts:[insert into something (name) values (?)]"));
+            assertThat(ids.size(), equalTo(count));
+            DAO dao = h.attach(DAO.class);
+            assertThat(dao.findNameById(ids.get(0)), equalTo("Name 0"));
+            assertThat(dao.findNameById(ids.get(count - 1)), equalTo("Name " + (count - 1)));
+        }
+    }
+
+    private static List<String> logPreparedBatches(Handle h)
+    {
+        final List<String> batchLogs = new ArrayList<String>();
+        h.setSQLLog(new FormattedLog()
+        {
+            @Override
+            protected boolean isEnabled()
+            {
+                return true;
+            }
+
+            @Override
+            protected void log(String msg)
+            {
+                if (msg.startsWith("prepared batch")) {
+                    batchLogs.add(msg);
+                }
+            }
+        });
+        return batchLogs;
+    }
 }
@@ -194,6 +194,31 @@ public class TestMixinInterfaces
         assertThat(s, equalTo(new Something(2, "Cora")));
     }
 
+    @Test
+    public void testGenericBaseInterface() throws Exception
+    {
+        SomethingDao dao = SqlObjectBuilder.attach(handle, SomethingDao.class);
+        dao.insert(new Something(3, "Brian"));
+
+        // Through the erased signature
+        GenericDao<Something> generic = dao;
+        generic.insert(new Something(4, "Keith"));
+
+        assertEquals(2, dao.count());
+    }
+
+    public static interface GenericDao<T>
+    {
+        @SqlUpdate("insert into something (id, name) values (:id, :name)")
+        public void insert(@BindBean T it);
+    }
+
+    public static interface SomethingDao extends GenericDao<Something>
+    {
+        @SqlQuery("select count(*) from something")
+        public int count();
+    }
+
     public static interface WithGetHandle extends CloseMe, GetHandle
     {
 
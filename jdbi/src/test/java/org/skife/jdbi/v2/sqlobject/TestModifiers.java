@@ -27,6 +27,7 @@ import org.junit.experimental.categories.Category;
 import org.skife.jdbi.v2.DBI;
 import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.JDBITests;
+import org.skife.jdbi.v2.SQLStatement;
 import org.skife.jdbi.v2.Something;
 import org.skife.jdbi.v2.TransactionIsolationLevel;
 import org.skife.jdbi.v2.sqlobject.customizers.FetchSize;
@@ -36,8 +37,15 @@ import org.skife.jdbi.v2.sqlobject.customizers.TransactionIsolation;
 import org.skife.jdbi.v2.sqlobject.mixins.CloseMe;
 import org.skife.jdbi.v2.sqlobject.mixins.Transactional;
 
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -193,6 +201,75 @@ public class TestModifiers
         iso.close();
     }
 
+    @Test
+    @Category(JDBITests.class)
+    public void testCustomizersCreatedOncePerMethod() throws Exception
+    {
+        CountCustomizers.Factory.CREATED.set(0);
+        CountCustomizers.Factory.APPLIED.set(0);
+        Counted counted = SqlObjectBuilder.attach(handle, Counted.class);
+        assertEquals(2, CountCustomizers.Factory.CREATED.get());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, counted.findAll().size());
+            SqlObjectBuilder.attach(handle, Counted.class).findAll();
+        }
+        // Type and method customizers, applied on each call
+        assertEquals(2, CountCustomizers.Factory.CREATED.get());
+        assertEquals(12, CountCustomizers.Factory.APPLIED.get());
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    @SqlStatementCustomizingAnnotation(CountCustomizers.Factory.class)
+    public static @interface CountCustomizers
+    {
+        static class Factory implements SqlStatementCustomizerFactory
+        {
+            static final AtomicInteger CREATED = new AtomicInteger();
+            static final AtomicInteger APPLIED = new AtomicInteger();
+
+            @Override
+            public SqlStatementCustomizer createForMethod(Annotation annotation, Class sqlObjectType, Method method)
+            {
+                return create();
+            }
+
+            @Override
+            public SqlStatementCustomizer createForType(Annotation annotation, Class sqlObjectType)
+            {
+                return create();
+            }
+
+            @Override
+            public SqlStatementCustomizer createForParameter(Annotation annotation, Class sqlObjectType, Method method, Object arg)
+            {
+                throw new UnsupportedOperationException("Not defined on parameter");
+            }
+
+            private SqlStatementCustomizer create()
+            {
+                CREATED.incrementAndGet();
+                return new SqlStatementCustomizer()
+                {
+                    @Override
+                    public void apply(SQLStatement q)
+                    {
+                        APPLIED.incrementAndGet();
+                    }
+                };
+            }
+        }
+    }
+
+    @CountCustomizers
+    public static interface Counted
+    {
+        @SqlQuery("select id, name from something")
+        @CountCustomizers
+        public List<Something> findAll();
+    }
+
     public static interface Spiffy extends CloseMe, Transactional<Spiffy>
     {
         @SqlQuery("select id, name from something where id = :id")
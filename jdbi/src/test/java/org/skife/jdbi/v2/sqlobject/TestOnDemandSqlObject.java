@@ -48,11 +48,14 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 @Category(JDBITests.class)
@@ -214,6 +217,37 @@ public class TestOnDemandSqlObject
         assertFalse( dbi.hasOpenedHandle() );
     }
 
+    @Test
+    public void testStreamReleasesHandleWhenExhausted() throws Exception {
+        HandleTrackerDBI dbi = new HandleTrackerDBI(ds);
+
+        Spiffy spiffy = SqlObjectBuilder.onDemand(dbi, Spiffy.class);
+        spiffy.insert(1, "Tom");
+        spiffy.insert(2, "Sam");
+
+        Stream<Something> all = spiffy.streamAll();
+        assertTrue(dbi.hasOpenedHandle());
+
+        assertEquals(2, all.map(Something::getName).collect(Collectors.toList()).size());
+        assertFalse(dbi.hasOpenedHandle());
+    }
+
+    @Test
+    public void testStreamPrematureClose() throws Exception {
+        HandleTrackerDBI dbi = new HandleTrackerDBI(ds);
+
+        Spiffy spiffy = SqlObjectBuilder.onDemand(dbi, Spiffy.class);
+        spiffy.insert(1, "Tom");
+        spiffy.insert(2, "Sam");
+
+        try (Stream<Something> all = spiffy.streamAll()) {
+            assertTrue(all.findFirst().isPresent());
+            assertTrue(dbi.hasOpenedHandle());
+        }
+
+        assertFalse(dbi.hasOpenedHandle());
+    }
+
     @Test
     public void testSqlFromExternalFileWorks() throws Exception
     {
@@ -239,6 +273,10 @@ public class TestOnDemandSqlObject
         @Mapper(SomethingMapper.class)
         ResultIterator<Something> findAll();
 
+        @SqlQuery("select name, id from something")
+        @Mapper(SomethingMapper.class)
+        Stream<Something> streamAll();
+
         @SqlQuery("select * from crash now")
         @Mapper(SomethingMapper.class)
         Iterator<Something> crashNow();
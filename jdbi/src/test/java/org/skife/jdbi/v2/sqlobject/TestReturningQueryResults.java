@@ -36,6 +36,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -97,6 +99,34 @@ public class TestReturningQueryResults
         assertTrue(all.contains(new Something(3, "Diego")));
     }
 
+    @Test
+    public void testStream() throws Exception
+    {
+        handle.execute("insert into something (id, name) values (7, 'Tim')");
+        handle.execute("insert into something (id, name) values (3, 'Diego')");
+
+        Spiffy spiffy = SqlObjectBuilder.open(dbi, Spiffy.class);
+
+        Set<Something> all;
+        try (Stream<Something> stream = spiffy.streamByIdRange(2, 10)) {
+            all = stream.collect(Collectors.toSet());
+        }
+
+        assertEquals(2, all.size());
+        assertTrue(all.contains(new Something(7, "Tim")));
+        assertTrue(all.contains(new Something(3, "Diego")));
+    }
+
+    @Test
+    public void testQueryStream() throws Exception
+    {
+        handle.execute("insert into something (id, name) values (7, 'Tim')");
+        handle.execute("insert into something (id, name) values (3, 'Diego')");
+
+        try (Stream<Something> stream = handle.createQuery("select id, name from something order by id").map(new SomethingMapper()).stream()) {
+            assertEquals("Diego", stream.findFirst().get().getName());
+        }
+    }
 
     @Test
     public void testList() throws Exception
@@ -124,6 +154,10 @@ public class TestReturningQueryResults
         @Mapper(SomethingMapper.class)
         public Iterator<Something> findByIdRange(@Bind("from") int from, @Bind("to") int to);
 
+        @SqlQuery("select id, name from something where id >= :from and id <= :to")
+        @Mapper(SomethingMapper.class)
+        public Stream<Something> streamByIdRange(@Bind("from") int from, @Bind("to") int to);
+
         @SqlQuery("select id, name from something where id = :first or id = :second")
         @Mapper(SomethingMapper.class)
         public List<Something> findTwoByIds(@Bind("first") int from, @Bind("second") int to);
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.skife.jdbi.v2.unstable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.JDBITests;
+import org.skife.jdbi.v2.StatementContext;
+import org.skife.jdbi.v2.TimingCollector;
+import org.skife.jdbi.v2.sqlobject.SqlQuery;
+import org.skife.jdbi.v2.sqlobject.stringtemplate.UseStringTemplate3StatementLocator;
+
+@Category(JDBITests.class)
+public class TestBindIn
+{
+    private DBI dbi;
+    private Handle handle;
+    private final Set<String> statements = new HashSet<String>();
+
+    @Before
+    public void setUp()
+    {
+        dbi = new DBI("jdbc:h2:mem:" + UUID.randomUUID());
+        dbi.setTimingCollector(new TimingCollector()
+        {
+            @Override
+            public void collect(long elapsedTime, StatementContext ctx)
+            {
+                statements.add(ctx.getRewrittenSql());
+            }
+        });
+        handle = dbi.open();
+        handle.execute("create table foo (id int)");
+        for (int i = 0; i < 10; i++) {
+            handle.insert("insert into foo (id) values (?)", i);
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        handle.execute("drop table foo");
+        handle.close();
+    }
+
+    @Test
+    public void testPadToPowerOfTwo()
+    {
+        final MyDAO dao = handle.attach(MyDAO.class);
+        statements.clear();
+
+        final List<Integer> ids = new ArrayList<Integer>();
+        for (int i = 0; i < 9; i++) {
+            ids.add(i);
+            Assert.assertEquals(ids, dao.padded(ids));
+        }
+        // 1, 2, 4, 8 and 16 placeholders
+        Assert.assertEquals(5, statements.size());
+
+        statements.clear();
+        ids.clear();
+        for (int i = 0; i < 9; i++) {
+            ids.add(i);
+            Assert.assertEquals(ids, dao.exact(ids));
+        }
+        Assert.assertEquals(9, statements.size());
+    }
+
+    @Test
+    public void testBoundSize()
+    {
+        final BindIn padded = getBindIn("padded");
+        Assert.assertEquals(0, BindIn.CustomizerFactory.boundSize(padded, 0));
+        Assert.assertEquals(1, BindIn.CustomizerFactory.boundSize(padded, 1));
+        Assert.assertEquals(2, BindIn.CustomizerFactory.boundSize(padded, 2));
+        Assert.assertEquals(4, BindIn.CustomizerFactory.boundSize(padded, 3));
+        Assert.assertEquals(4, BindIn.CustomizerFactory.boundSize(padded, 4));
+        Assert.assertEquals(128, BindIn.CustomizerFactory.boundSize(padded, 100));
+
+        final BindIn exact = getBindIn("exact");
+        Assert.assertEquals(3, BindIn.CustomizerFactory.boundSize(exact, 3));
+        Assert.assertEquals(100, BindIn.CustomizerFactory.boundSize(exact, 100));
+    }
+
+    private static BindIn getBindIn(String methodName)
+    {
+        try {
+            return (BindIn) MyDAO.class.getMethod(methodName, List.class).getParameterAnnotations()[0][0];
+        }
+        catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @UseStringTemplate3StatementLocator
+    public interface MyDAO
+    {
+        @SqlQuery("select id from foo where id in (<ids>) order by id")
+        List<Integer> padded(@BindIn(value = "ids", padToPowerOfTwo = true) List<Integer> ids);
+
+        @SqlQuery("select id from foo where id in (<ids>) order by id")
+        List<Integer> exact(@BindIn("ids") List<Integer> ids);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.api;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable metric identity: a name and an ordered set of tags (dimensions), e.g. the queue name.
+ * <p>
+ * The hash code and the flat name are computed once, so identities can be created upfront and looked up in a
+ * registry without building strings. Tags are ordered: the same tags in a different order are a different identity.
+ * <p>
+ * The flat name is the name of the metric for registries without tags (e.g. Dropwizard): by default, the name
+ * followed by the tag values, separated by dots (dots in values are replaced by underscores). It can be overridden
+ * to keep pre-existing flat names.
+ */
+public final class MetricId {
+
+    private static final String[] NO_TAGS = new String[0];
+
+    private final String name;
+    private final String[] tagKeys;
+    private final String[] tagValues;
+    private final String flatName;
+    private final int hash;
+
+    private MetricId(final String name, final String[] tagKeys, final String[] tagValues, final String flatName) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.tagKeys = tagKeys;
+        this.tagValues = tagValues;
+        this.flatName = flatName == null ? flatten(name, tagValues) : flatName;
+        this.hash = 31 * (31 * name.hashCode() + Arrays.hashCode(tagKeys)) + Arrays.hashCode(tagValues);
+    }
+
+    public static MetricId of(final String name) {
+        return new MetricId(name, NO_TAGS, NO_TAGS, name);
+    }
+
+    /**
+     * @param name      metric name
+     * @param keyValues tag keys and values, alternated (null values are tagged as "null")
+     * @return the identity
+     */
+    public static MetricId of(final String name, final String... keyValues) {
+        if (keyValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags should be key/value pairs: " + Arrays.toString(keyValues));
+        }
+
+        final String[] tagKeys = new String[keyValues.length / 2];
+        final String[] tagValues = new String[keyValues.length / 2];
+        for (int i = 0; i < tagKeys.length; i++) {
+            tagKeys[i] = Objects.requireNonNull(keyValues[2 * i], "tag key");
+            tagValues[i] = String.valueOf(keyValues[2 * i + 1]);
+        }
+        return new MetricId(name, tagKeys, tagValues, null);
+    }
+
+    /**
+     * @param key   tag key
+     * @param value tag value (null is tagged as "null")
+     * @return a new identity, with this additional tag
+     */
+    public MetricId tagged(final String key, final String value) {
+        final String[] newTagKeys = Arrays.copyOf(tagKeys, tagKeys.length + 1);
+        final String[] newTagValues = Arrays.copyOf(tagValues, tagValues.length + 1);
+        newTagKeys[tagKeys.length] = Objects.requireNonNull(key, "tag key");
+        newTagValues[tagValues.length] = String.valueOf(value);
+        return new MetricId(name, newTagKeys, newTagValues, null);
+    }
+
+    /**
+     * @param flatName name to use in registries without tags
+     * @return a new identity, equal to this one, with this flat name
+     */
+    public MetricId withFlatName(final String flatName) {
+        return new MetricId(name, tagKeys, tagValues, Objects.requireNonNull(flatName, "flatName"));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTagsCount() {
+        return tagKeys.length;
+    }
+
+    public String getTagKey(final int index) {
+        return tagKeys[index];
+    }
+
+    public String getTagValue(final int index) {
+        return tagValues[index];
+    }
+
+    public String getFlatName() {
+        return flatName;
+    }
+
+    private static String flatten(final String name, final String[] tagValues) {
+        if (tagValues.length == 0) {
+            return name;
+        }
+
+        final StringBuilder flatName = new StringBuilder(name);
+        for (final String tagValue : tagValues) {
+            flatName.append('.').append(tagValue.replace('.', '_'));
+        }
+        return flatName.toString();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricId)) {
+            return false;
+        }
+        final MetricId metricId = (MetricId) o;
+        // The flat name is not part of the identity
+        return hash == metricId.hash &&
+               name.equals(metricId.name) &&
+               Arrays.equals(tagKeys, metricId.tagKeys) &&
+               Arrays.equals(tagValues, metricId.tagValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(name).append('{');
+        for (int i = 0; i < tagKeys.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(tagKeys[i]).append('=').append(tagValues[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.killbill.commons.metrics.api;
 
+import java.util.Collections;
 import java.util.Map;
 
 public interface MetricRegistry {
@@ -67,6 +68,72 @@ public interface MetricRegistry {
      */
     Timer timer(String name);
 
+    /**
+     * Return the {@link Counter} registered under this identity; or create and register
+     * a new {@link Counter} if none is registered.
+     * <p>
+     * Registries without native support for tags register it under its flat name.
+     *
+     * @param id the identity of the metric
+     * @return a new or pre-existing {@link Counter}
+     */
+    default Counter counter(final MetricId id) {
+        return counter(id.getFlatName());
+    }
+
+    /**
+     * Return the {@link Gauge} registered under this identity; or create and register
+     * a new {@link Gauge} if none is registered.
+     * <p>
+     * Registries without native support for tags register it under its flat name.
+     *
+     * @param id the identity of the metric
+     * @param supplier the underlying Gauge
+     * @return a new or pre-existing {@link Gauge}
+     */
+    default <T> Gauge<T> gauge(final MetricId id, final Gauge<T> supplier) {
+        return gauge(id.getFlatName(), supplier);
+    }
+
+    /**
+     * Return the {@link Histogram} registered under this identity; or create and register
+     * a new {@link Histogram} if none is registered.
+     * <p>
+     * Registries without native support for tags register it under its flat name.
+     *
+     * @param id the identity of the metric
+     * @return a new or pre-existing {@link Histogram}
+     */
+    default Histogram histogram(final MetricId id) {
+        return histogram(id.getFlatName());
+    }
+
+    /**
+     * Return the {@link Meter} registered under this identity; or create and register
+     * a new {@link Meter} if none is registered.
+     * <p>
+     * Registries without native support for tags register it under its flat name.
+     *
+     * @param id the identity of the metric
+     * @return a new or pre-existing {@link Meter}
+     */
+    default Meter meter(final MetricId id) {
+        return meter(id.getFlatName());
+    }
+
+    /**
+     * Return the {@link Timer} registered under this identity; or create and register
+     * a new {@link Timer} if none is registered.
+     * <p>
+     * Registries without native support for tags register it under its flat name.
+     *
+     * @param id the identity of the metric
+     * @return a new or pre-existing {@link Timer}
+     */
+    default Timer timer(final MetricId id) {
+        return timer(id.getFlatName());
+    }
+
     /**
      * Removes the metric with the given name.
      *
@@ -86,4 +153,14 @@ public interface MetricRegistry {
     Map<String, Meter> getMeters();
 
     Map<String, Timer> getTimers();
+
+    /**
+     * Metrics registered with tags, by name then identity. They are also returned by the other getters, by flat
+     * name, except {@link #getMetrics()}.
+     *
+     * @return the tagged metrics, empty if the registry doesn't support tags natively
+     */
+    default Map<String, Map<MetricId, Metric>> getTaggedMetrics() {
+        return Collections.emptyMap();
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.dropwizard;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.killbill.commons.metrics.registry.HistogramBuckets;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+/**
+ * Reservoir recording every value in {@link HistogramBuckets}, instead of sampling them.
+ * <p>
+ * Recording is wait-free: writers increment a bucket of the active interval histogram, between two increments of a
+ * writer-reader phaser. Taking a snapshot swaps the active and inactive histograms, waits for the writers still on
+ * the previous one and folds it into the current time window. Snapshots cover the current and the previous window,
+ * i.e. between one and two windows of data.
+ * <p>
+ * Memory is bounded: four arrays of {@link HistogramBuckets#NB_BUCKETS} longs.
+ */
+public class IntervalHistogramReservoir implements Reservoir {
+
+    private static final int NB_BUCKETS = HistogramBuckets.NB_BUCKETS;
+
+    private final long windowNanos;
+    private final Clock clock;
+
+    // Writer-reader phaser: writers are tracked in the even or odd phase depending on the sign of startEpoch
+    private final AtomicLong startEpoch = new AtomicLong(0);
+    private final AtomicLong evenEndEpoch = new AtomicLong(0);
+    private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+    private volatile AtomicLongArray activeCounts = new AtomicLongArray(NB_BUCKETS);
+    // Below fields are only accessed by readers, under the reservoir lock
+    private AtomicLongArray inactiveCounts = new AtomicLongArray(NB_BUCKETS);
+    private long[] currentWindowCounts = new long[NB_BUCKETS];
+    private long[] previousWindowCounts = new long[NB_BUCKETS];
+    private long currentWindowStart;
+
+    public IntervalHistogramReservoir() {
+        this(1, TimeUnit.MINUTES, Clock.defaultClock());
+    }
+
+    public IntervalHistogramReservoir(final long window, final TimeUnit windowUnit, final Clock clock) {
+        this.windowNanos = windowUnit.toNanos(window);
+        this.clock = clock;
+        this.currentWindowStart = clock.getTick();
+    }
+
+    @Override
+    public int size() {
+        return getSnapshot().size();
+    }
+
+    @Override
+    public void update(final long value) {
+        final long criticalValueAtEnter = startEpoch.getAndIncrement();
+        try {
+            activeCounts.getAndIncrement(HistogramBuckets.indexOf(value));
+        } finally {
+            (criticalValueAtEnter < 0 ? oddEndEpoch : evenEndEpoch).getAndIncrement();
+        }
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        final AtomicLongArray intervalCounts = flip();
+
+        final long now = clock.getTick();
+        final long elapsedWindows = (now - currentWindowStart) / windowNanos;
+        if (elapsedWindows > 0) {
+            final long[] expired = previousWindowCounts;
+            if (elapsedWindows == 1) {
+                previousWindowCounts = currentWindowCounts;
+            } else {
+                // Nothing was read for more than a window, the current one is stale too
+                clear(currentWindowCounts);
+                previousWindowCounts = currentWindowCounts;
+            }
+            clear(expired);
+            currentWindowCounts = expired;
+            currentWindowStart += elapsedWindows * windowNanos;
+        }
+
+        final long[] counts = new long[NB_BUCKETS];
+        for (int i = 0; i < NB_BUCKETS; i++) {
+            final long intervalCount = intervalCounts.get(i);
+            if (intervalCount != 0) {
+                currentWindowCounts[i] += intervalCount;
+                intervalCounts.set(i, 0);
+            }
+            counts[i] = currentWindowCounts[i] + previousWindowCounts[i];
+        }
+        return new IntervalHistogramSnapshot(counts);
+    }
+
+    /**
+     * Swap the active and inactive histograms, then wait for in-flight writers on the previously active one.
+     *
+     * @return the previously active histogram, not written to anymore until the next flip
+     */
+    private AtomicLongArray flip() {
+        final AtomicLongArray intervalCounts = activeCounts;
+        activeCounts = inactiveCounts;
+        inactiveCounts = intervalCounts;
+
+        final boolean nextPhaseIsEven = startEpoch.get() < 0;
+        final long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+        (nextPhaseIsEven ? evenEndEpoch : oddEndEpoch).set(initialStartValue);
+        final long startValueAtFlip = startEpoch.getAndSet(initialStartValue);
+        final AtomicLong previousEndEpoch = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+        while (previousEndEpoch.get() != startValueAtFlip) {
+            Thread.yield();
+        }
+
+        return intervalCounts;
+    }
+
+    private static void clear(final long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+    }
+}
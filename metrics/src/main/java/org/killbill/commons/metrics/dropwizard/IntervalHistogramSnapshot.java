@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.dropwizard;
+
+import java.io.OutputStream;
+
+import org.killbill.commons.metrics.registry.BucketSnapshot;
+
+import com.codahale.metrics.Snapshot;
+
+/**
+ * Snapshot of the bucket counts of an {@link IntervalHistogramReservoir}, see {@link BucketSnapshot}.
+ */
+public class IntervalHistogramSnapshot extends Snapshot {
+
+    private final BucketSnapshot bucketSnapshot;
+
+    IntervalHistogramSnapshot(final long[] counts) {
+        this.bucketSnapshot = new BucketSnapshot(counts);
+    }
+
+    @Override
+    public double getValue(final double quantile) {
+        return bucketSnapshot.getValue(quantile);
+    }
+
+    @Override
+    public long[] getValues() {
+        return bucketSnapshot.getValues();
+    }
+
+    @Override
+    public int size() {
+        return bucketSnapshot.size();
+    }
+
+    @Override
+    public long getMax() {
+        return bucketSnapshot.getMax();
+    }
+
+    @Override
+    public double getMean() {
+        return bucketSnapshot.getMean();
+    }
+
+    @Override
+    public long getMin() {
+        return bucketSnapshot.getMin();
+    }
+
+    @Override
+    public double getStdDev() {
+        return bucketSnapshot.getStdDev();
+    }
+
+    @Override
+    public void dump(final OutputStream output) {
+        bucketSnapshot.dump(output);
+    }
+}
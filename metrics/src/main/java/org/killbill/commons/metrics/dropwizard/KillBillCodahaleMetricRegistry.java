@@ -17,9 +17,12 @@
 
 package org.killbill.commons.metrics.dropwizard;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.regex.Pattern;
 
 import org.killbill.commons.metrics.api.Counter;
 import org.killbill.commons.metrics.api.Gauge;
@@ -29,18 +32,37 @@ import org.killbill.commons.metrics.api.Metric;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.metrics.api.Timer;
 
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
 import com.codahale.metrics.MetricRegistry.MetricSupplier;
+import com.codahale.metrics.Reservoir;
 
 public class KillBillCodahaleMetricRegistry implements MetricRegistry {
 
+    /**
+     * Comma separated regular expressions: histograms and timers with a matching name are backed by an
+     * {@link IntervalHistogramReservoir} instead of the default (exponentially decaying) reservoir.
+     */
+    public static final String INTERVAL_HISTOGRAM_PATTERNS_PROPERTY = "org.killbill.metrics.intervalHistogram.patterns";
+
     private final com.codahale.metrics.MetricRegistry dwMetricRegistry;
+    private final List<Pattern> intervalHistogramPatterns;
 
     public KillBillCodahaleMetricRegistry() {
         this(new com.codahale.metrics.MetricRegistry());
     }
 
     public KillBillCodahaleMetricRegistry(final com.codahale.metrics.MetricRegistry dwMetricRegistry) {
+        this(dwMetricRegistry, System.getProperty(INTERVAL_HISTOGRAM_PATTERNS_PROPERTY, ""));
+    }
+
+    public KillBillCodahaleMetricRegistry(final com.codahale.metrics.MetricRegistry dwMetricRegistry, final String intervalHistogramPatterns) {
         this.dwMetricRegistry = dwMetricRegistry;
+        this.intervalHistogramPatterns = new ArrayList<>();
+        for (final String pattern : intervalHistogramPatterns.split(",")) {
+            if (!pattern.isBlank()) {
+                this.intervalHistogramPatterns.add(Pattern.compile(pattern.trim()));
+            }
+        }
     }
 
     @Override
@@ -61,7 +83,11 @@ public class KillBillCodahaleMetricRegistry implements MetricRegistry {
 
     @Override
     public Histogram histogram(final String name) {
-        return new KillBillCodahaleHistogram(dwMetricRegistry.histogram(name));
+        if (intervalHistogramPatterns.isEmpty()) {
+            return new KillBillCodahaleHistogram(dwMetricRegistry.histogram(name));
+        }
+        // The patterns are only evaluated when the histogram is created
+        return new KillBillCodahaleHistogram(dwMetricRegistry.histogram(name, () -> new com.codahale.metrics.Histogram(newReservoir(name))));
     }
 
     @Override
@@ -71,7 +97,11 @@ public class KillBillCodahaleMetricRegistry implements MetricRegistry {
 
     @Override
     public Timer timer(final String name) {
-        return new KillBillCodahaleTimer(dwMetricRegistry.timer(name));
+        if (intervalHistogramPatterns.isEmpty()) {
+            return new KillBillCodahaleTimer(dwMetricRegistry.timer(name));
+        }
+        // The patterns are only evaluated when the timer is created
+        return new KillBillCodahaleTimer(dwMetricRegistry.timer(name, () -> new com.codahale.metrics.Timer(newReservoir(name))));
     }
 
     @Override
@@ -128,4 +158,14 @@ public class KillBillCodahaleMetricRegistry implements MetricRegistry {
         }
         return timers;
     }
+
+    private Reservoir newReservoir(final String name) {
+        for (final Pattern pattern : intervalHistogramPatterns) {
+            if (pattern.matcher(name).matches()) {
+                return new IntervalHistogramReservoir();
+            }
+        }
+        // Same as the Dropwizard default
+        return new ExponentiallyDecayingReservoir();
+    }
 }
@@ -19,6 +19,7 @@ package org.killbill.commons.metrics.modules;
 
 import org.killbill.commons.metrics.servlets.HealthCheckServlet;
 import org.killbill.commons.metrics.servlets.MetricsServlet;
+import org.killbill.commons.metrics.servlets.PrometheusMetricsServlet;
 import org.killbill.commons.metrics.servlets.ThreadDumpServlet;
 
 import com.google.inject.servlet.ServletModule;
@@ -27,13 +28,22 @@ public class AdminServletModule extends ServletModule {
 
     private final String healthcheckUri;
     private final String metricsUri;
+    private final String prometheusMetricsUri;
     private final String threadsUri;
 
     public AdminServletModule(final String healthcheckUri,
                               final String metricsUri,
                               final String threadsUri) {
+        this(healthcheckUri, metricsUri, metricsUri + "/prometheus", threadsUri);
+    }
+
+    public AdminServletModule(final String healthcheckUri,
+                              final String metricsUri,
+                              final String prometheusMetricsUri,
+                              final String threadsUri) {
         this.healthcheckUri = healthcheckUri;
         this.metricsUri = metricsUri;
+        this.prometheusMetricsUri = prometheusMetricsUri;
         this.threadsUri = threadsUri;
     }
 
@@ -41,10 +51,12 @@ public class AdminServletModule extends ServletModule {
     protected void configureServlets() {
         bind(HealthCheckServlet.class).asEagerSingleton();
         bind(MetricsServlet.class).asEagerSingleton();
+        bind(PrometheusMetricsServlet.class).asEagerSingleton();
         bind(ThreadDumpServlet.class).asEagerSingleton();
 
         serve(healthcheckUri).with(HealthCheckServlet.class);
         serve(metricsUri).with(MetricsServlet.class);
+        serve(prometheusMetricsUri).with(PrometheusMetricsServlet.class);
         serve(threadsUri).with(ThreadDumpServlet.class);
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.killbill.commons.metrics.api.Snapshot;
+
+/**
+ * Snapshot of {@link HistogramBuckets} counts.
+ * <p>
+ * As the histogram doesn't keep the recorded values, {@link #getValues()} returns at most {@link #MAX_VALUES} values,
+ * evenly spread over the distribution (the size of the default Dropwizard reservoir).
+ */
+public class BucketSnapshot implements Snapshot {
+
+    public static final int MAX_VALUES = 1028;
+
+    private final long[] counts;
+    private final long totalCount;
+    private final int minIndex;
+    private final int maxIndex;
+
+    /**
+     * @param counts bucket counts, owned by the snapshot
+     */
+    public BucketSnapshot(final long[] counts) {
+        this.counts = counts;
+
+        long total = 0;
+        int min = -1;
+        int max = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                total += counts[i];
+                if (min < 0) {
+                    min = i;
+                }
+                max = i;
+            }
+        }
+        this.totalCount = total;
+        this.minIndex = min;
+        this.maxIndex = max;
+    }
+
+    @Override
+    public double getValue(final double quantile) {
+        if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+            throw new IllegalArgumentException(quantile + " is not in [0..1]");
+        }
+        if (totalCount == 0) {
+            return 0.0;
+        }
+        return valueAtRank(Math.max(1, (long) Math.ceil(quantile * totalCount)));
+    }
+
+    @Override
+    public long[] getValues() {
+        final int nbValues = (int) Math.min(totalCount, MAX_VALUES);
+        final long[] values = new long[nbValues];
+        if (nbValues == 0) {
+            return values;
+        }
+
+        // Values are sorted, walk the buckets once
+        int index = minIndex;
+        long cumulativeCount = counts[index];
+        for (int i = 0; i < nbValues; i++) {
+            final long rank = totalCount == nbValues ? i + 1 : Math.min(totalCount, (long) Math.ceil((i + 1) * ((double) totalCount / nbValues)));
+            while (cumulativeCount < rank) {
+                index++;
+                cumulativeCount += counts[index];
+            }
+            values[i] = HistogramBuckets.valueOf(index);
+        }
+        return values;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(totalCount, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getMax() {
+        return maxIndex < 0 ? 0 : HistogramBuckets.valueOf(maxIndex);
+    }
+
+    @Override
+    public double getMean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+        for (int i = minIndex; i <= maxIndex; i++) {
+            if (counts[i] != 0) {
+                sum += (double) HistogramBuckets.valueOf(i) * counts[i];
+            }
+        }
+        return sum / totalCount;
+    }
+
+    @Override
+    public long getMin() {
+        return minIndex < 0 ? 0 : HistogramBuckets.valueOf(minIndex);
+    }
+
+    @Override
+    public double getStdDev() {
+        // Sample standard deviation, as UniformSnapshot
+        if (totalCount <= 1) {
+            return 0;
+        }
+
+        final double mean = getMean();
+        double sum = 0;
+        for (int i = minIndex; i <= maxIndex; i++) {
+            if (counts[i] != 0) {
+                final double diff = HistogramBuckets.valueOf(i) - mean;
+                sum += diff * diff * counts[i];
+            }
+        }
+        return Math.sqrt(sum / (totalCount - 1));
+    }
+
+    @Override
+    public void dump(final OutputStream output) {
+        try (final PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            for (final long value : getValues()) {
+                out.printf("%d%n", value);
+            }
+        }
+    }
+
+    private long valueAtRank(final long rank) {
+        long cumulativeCount = 0;
+        for (int i = minIndex; i <= maxIndex; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= rank) {
+                return HistogramBuckets.valueOf(i);
+            }
+        }
+        return getMax();
+    }
+}
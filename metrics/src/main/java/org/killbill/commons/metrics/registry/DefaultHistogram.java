@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.killbill.commons.metrics.api.Histogram;
+import org.killbill.commons.metrics.api.Snapshot;
+
+/**
+ * Histogram recording every value in {@link HistogramBuckets}, snapshots cover the last one to two minutes.
+ */
+public class DefaultHistogram implements Histogram {
+
+    private final LongAdder count = new LongAdder();
+    private final StripedBucketHistogram histogram;
+
+    public DefaultHistogram() {
+        this(System::nanoTime);
+    }
+
+    public DefaultHistogram(final LongSupplier nanoTime) {
+        this.histogram = new StripedBucketHistogram(nanoTime);
+    }
+
+    @Override
+    public void update(final long value) {
+        count.increment();
+        histogram.update(value);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        return histogram.getSnapshot();
+    }
+}
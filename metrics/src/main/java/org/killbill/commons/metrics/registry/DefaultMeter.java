@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.killbill.commons.metrics.api.Meter;
+
+/**
+ * Meter with 1, 5 and 15 minute exponentially weighted moving average rates, ticked every 5 seconds (as Dropwizard).
+ * <p>
+ * Marks since the last tick are accumulated in a single adder, shared by the three averages.
+ */
+public class DefaultMeter implements Meter {
+
+    private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private static final double SECONDS_PER_TICK = (double) TICK_INTERVAL / TimeUnit.SECONDS.toNanos(1);
+    private static final double M1_ALPHA = 1 - Math.exp(-SECONDS_PER_TICK / 60 / 1);
+    private static final double M5_ALPHA = 1 - Math.exp(-SECONDS_PER_TICK / 60 / 5);
+    private static final double M15_ALPHA = 1 - Math.exp(-SECONDS_PER_TICK / 60 / 15);
+
+    private final LongSupplier nanoTime;
+    private final long startTime;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder uncounted = new LongAdder();
+    private final AtomicLong lastTick;
+
+    // Events per second, only written by the ticking thread
+    private volatile boolean initialized = false;
+    private volatile double m1Rate = 0.0;
+    private volatile double m5Rate = 0.0;
+    private volatile double m15Rate = 0.0;
+
+    public DefaultMeter() {
+        this(System::nanoTime);
+    }
+
+    public DefaultMeter(final LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.startTime = nanoTime.getAsLong();
+        this.lastTick = new AtomicLong(startTime);
+    }
+
+    @Override
+    public void mark(final long n) {
+        tickIfNecessary();
+        count.add(n);
+        uncounted.add(n);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getFifteenMinuteRate() {
+        tickIfNecessary();
+        return m15Rate;
+    }
+
+    @Override
+    public double getFiveMinuteRate() {
+        tickIfNecessary();
+        return m5Rate;
+    }
+
+    @Override
+    public double getMeanRate() {
+        final long count = getCount();
+        if (count == 0) {
+            return 0.0;
+        }
+        final double elapsedSeconds = (double) (nanoTime.getAsLong() - startTime) / TimeUnit.SECONDS.toNanos(1);
+        return elapsedSeconds <= 0 ? 0.0 : count / elapsedSeconds;
+    }
+
+    @Override
+    public double getOneMinuteRate() {
+        tickIfNecessary();
+        return m1Rate;
+    }
+
+    private void tickIfNecessary() {
+        final long oldTick = lastTick.get();
+        final long newTick = nanoTime.getAsLong();
+        final long age = newTick - oldTick;
+        if (age > TICK_INTERVAL) {
+            final long newIntervalStartTick = newTick - age % TICK_INTERVAL;
+            if (lastTick.compareAndSet(oldTick, newIntervalStartTick)) {
+                final long requiredTicks = age / TICK_INTERVAL;
+                for (long i = 0; i < requiredTicks; i++) {
+                    tick(i == 0 ? uncounted.sumThenReset() : 0);
+                }
+            }
+        }
+    }
+
+    private void tick(final long nbEvents) {
+        final double instantRate = nbEvents / SECONDS_PER_TICK;
+        if (initialized) {
+            m1Rate += M1_ALPHA * (instantRate - m1Rate);
+            m5Rate += M5_ALPHA * (instantRate - m5Rate);
+            m15Rate += M15_ALPHA * (instantRate - m15Rate);
+        } else {
+            m1Rate = instantRate;
+            m5Rate = instantRate;
+            m15Rate = instantRate;
+            initialized = true;
+        }
+    }
+}
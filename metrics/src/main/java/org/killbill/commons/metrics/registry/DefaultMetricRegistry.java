@@ -0,0 +1,278 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.killbill.commons.metrics.api.Counter;
+import org.killbill.commons.metrics.api.Gauge;
+import org.killbill.commons.metrics.api.Histogram;
+import org.killbill.commons.metrics.api.Meter;
+import org.killbill.commons.metrics.api.Metric;
+import org.killbill.commons.metrics.api.MetricId;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.api.Timer;
+
+/**
+ * {@link MetricRegistry} without Dropwizard: metrics are registered as is, by name or by {@link MetricId}, so
+ * repeated lookups return the same instance and don't allocate.
+ * <p>
+ * Tagged metrics are grouped by name (see {@link #getTaggedMetrics()}) and are returned by the typed getters under
+ * their flat name. Flat names are unique across both kinds of metrics.
+ */
+public class DefaultMetricRegistry implements MetricRegistry {
+
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    private final Map<String, Metric> unmodifiableMetrics = Collections.unmodifiableMap(metrics);
+    private final Map<MetricId, Metric> taggedMetrics = new ConcurrentHashMap<>();
+    private final Map<String, MetricId> taggedFlatNames = new ConcurrentHashMap<>();
+    // Tagged metrics by name, and their read-only views
+    private final Map<String, Map<MetricId, Metric>> families = new ConcurrentHashMap<>();
+    private final Map<String, Map<MetricId, Metric>> unmodifiableFamilies = new ConcurrentHashMap<>();
+    private final Map<String, Map<MetricId, Metric>> unmodifiableTaggedMetrics = Collections.unmodifiableMap(unmodifiableFamilies);
+    // Registrations and removals (the slow path) are serialized, as flat names are checked across all the maps
+    private final Object registrationLock = new Object();
+
+    // Capturing lambdas, created once to not allocate on lookups
+    private final Supplier<DefaultHistogram> histogramFactory;
+    private final Supplier<DefaultMeter> meterFactory;
+    private final Supplier<DefaultTimer> timerFactory;
+
+    public DefaultMetricRegistry() {
+        this(System::nanoTime);
+    }
+
+    public DefaultMetricRegistry(final LongSupplier nanoTime) {
+        this.histogramFactory = () -> new DefaultHistogram(nanoTime);
+        this.meterFactory = () -> new DefaultMeter(nanoTime);
+        this.timerFactory = () -> new DefaultTimer(nanoTime);
+    }
+
+    @Override
+    public Counter counter(final String name) {
+        return getOrAdd(name, Counter.class, DefaultCounter::new);
+    }
+
+    @Override
+    public Counter counter(final MetricId id) {
+        return getOrAdd(id, Counter.class, DefaultCounter::new);
+    }
+
+    @Override
+    public <T> Gauge<T> gauge(final String name, final Gauge<T> supplier) {
+        // Look up first: the factory capturing the supplier is only needed to register it
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            metric = register(name, () -> supplier);
+        }
+        return checkType(name, metric, Gauge.class);
+    }
+
+    @Override
+    public <T> Gauge<T> gauge(final MetricId id, final Gauge<T> supplier) {
+        Metric metric = taggedMetrics.get(id);
+        if (metric == null) {
+            metric = register(id, () -> supplier);
+        }
+        return checkType(id, metric, Gauge.class);
+    }
+
+    @Override
+    public Histogram histogram(final String name) {
+        return getOrAdd(name, Histogram.class, histogramFactory);
+    }
+
+    @Override
+    public Histogram histogram(final MetricId id) {
+        return getOrAdd(id, Histogram.class, histogramFactory);
+    }
+
+    @Override
+    public Meter meter(final String name) {
+        return getOrAdd(name, Meter.class, meterFactory);
+    }
+
+    @Override
+    public Meter meter(final MetricId id) {
+        return getOrAdd(id, Meter.class, meterFactory);
+    }
+
+    @Override
+    public Timer timer(final String name) {
+        return getOrAdd(name, Timer.class, timerFactory);
+    }
+
+    @Override
+    public Timer timer(final MetricId id) {
+        return getOrAdd(id, Timer.class, timerFactory);
+    }
+
+    /**
+     * Removes the metric with the given name, or flat name for tagged metrics.
+     *
+     * @param name the name of the metric
+     * @return whether or not the metric was removed
+     */
+    @Override
+    public boolean remove(final String name) {
+        synchronized (registrationLock) {
+            if (metrics.remove(name) != null) {
+                return true;
+            }
+
+            final MetricId id = taggedFlatNames.remove(name);
+            if (id == null) {
+                return false;
+            }
+            taggedMetrics.remove(id);
+            final Map<MetricId, Metric> family = families.get(id.getName());
+            family.remove(id);
+            if (family.isEmpty()) {
+                families.remove(id.getName());
+                unmodifiableFamilies.remove(id.getName());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return the metrics registered by name (tagged metrics are returned by {@link #getTaggedMetrics()})
+     */
+    @Override
+    public Map<String, ?> getMetrics() {
+        return unmodifiableMetrics;
+    }
+
+    @Override
+    public Map<String, Map<MetricId, Metric>> getTaggedMetrics() {
+        return unmodifiableTaggedMetrics;
+    }
+
+    @Override
+    public Map<String, Counter> getCounters() {
+        return getMetrics(Counter.class);
+    }
+
+    @Override
+    public Map<String, Histogram> getHistograms() {
+        return getMetrics(Histogram.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<String, Gauge<?>> getGauges() {
+        return (Map<String, Gauge<?>>) (Map<String, ?>) getMetrics(Gauge.class);
+    }
+
+    @Override
+    public Map<String, Meter> getMeters() {
+        return getMetrics(Meter.class);
+    }
+
+    @Override
+    public Map<String, Timer> getTimers() {
+        return getMetrics(Timer.class);
+    }
+
+    private <T extends Metric> T getOrAdd(final String name, final Class<? super T> type, final Supplier<? extends Metric> factory) {
+        // Lock-free lookup first, registering is the slow path
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            metric = register(name, factory);
+        }
+        return checkType(name, metric, type);
+    }
+
+    private <T extends Metric> T getOrAdd(final MetricId id, final Class<? super T> type, final Supplier<? extends Metric> factory) {
+        Metric metric = taggedMetrics.get(id);
+        if (metric == null) {
+            metric = register(id, factory);
+        }
+        return checkType(id, metric, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Metric> T checkType(final Object nameOrId, final Metric metric, final Class<? super T> type) {
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(nameOrId + " is already used for a different type of metric");
+        }
+        return (T) metric;
+    }
+
+    private Metric register(final String name, final Supplier<? extends Metric> factory) {
+        synchronized (registrationLock) {
+            final Metric existing = metrics.get(name);
+            if (existing != null) {
+                return existing;
+            }
+            if (taggedFlatNames.containsKey(name)) {
+                throw new IllegalArgumentException(name + " is already used by a tagged metric");
+            }
+
+            final Metric metric = factory.get();
+            metrics.put(name, metric);
+            return metric;
+        }
+    }
+
+    private Metric register(final MetricId id, final Supplier<? extends Metric> factory) {
+        synchronized (registrationLock) {
+            final Metric existing = taggedMetrics.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            if (metrics.containsKey(id.getFlatName()) || taggedFlatNames.containsKey(id.getFlatName())) {
+                throw new IllegalArgumentException(id.getFlatName() + " is already used by another metric");
+            }
+
+            final Metric metric = factory.get();
+            Map<MetricId, Metric> family = families.get(id.getName());
+            if (family == null) {
+                family = new ConcurrentHashMap<>();
+                families.put(id.getName(), family);
+                unmodifiableFamilies.put(id.getName(), Collections.unmodifiableMap(family));
+            }
+            family.put(id, metric);
+            taggedFlatNames.put(id.getFlatName(), id);
+            taggedMetrics.put(id, metric);
+            return metric;
+        }
+    }
+
+    private <T extends Metric> Map<String, T> getMetrics(final Class<T> type) {
+        final SortedMap<String, T> filtered = new TreeMap<>();
+        for (final Entry<String, Metric> entry : metrics.entrySet()) {
+            if (type.isInstance(entry.getValue())) {
+                filtered.put(entry.getKey(), type.cast(entry.getValue()));
+            }
+        }
+        for (final Entry<MetricId, Metric> entry : taggedMetrics.entrySet()) {
+            if (type.isInstance(entry.getValue())) {
+                filtered.put(entry.getKey().getFlatName(), type.cast(entry.getValue()));
+            }
+        }
+        return Collections.unmodifiableSortedMap(filtered);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.killbill.commons.metrics.api.Snapshot;
+import org.killbill.commons.metrics.api.Timer;
+
+/**
+ * Timer recording durations (in nanoseconds) in {@link HistogramBuckets}, snapshots cover the last one to two minutes.
+ */
+public class DefaultTimer implements Timer {
+
+    private final DefaultMeter meter;
+    private final StripedBucketHistogram histogram;
+
+    public DefaultTimer() {
+        this(System::nanoTime);
+    }
+
+    public DefaultTimer(final LongSupplier nanoTime) {
+        this.meter = new DefaultMeter(nanoTime);
+        this.histogram = new StripedBucketHistogram(nanoTime);
+    }
+
+    @Override
+    public void update(final long duration, final TimeUnit unit) {
+        if (duration >= 0) {
+            histogram.update(unit.toNanos(duration));
+            meter.mark(1);
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return meter.getCount();
+    }
+
+    @Override
+    public double getFifteenMinuteRate() {
+        return meter.getFifteenMinuteRate();
+    }
+
+    @Override
+    public double getFiveMinuteRate() {
+        return meter.getFiveMinuteRate();
+    }
+
+    @Override
+    public double getMeanRate() {
+        return meter.getMeanRate();
+    }
+
+    @Override
+    public double getOneMinuteRate() {
+        return meter.getOneMinuteRate();
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        return histogram.getSnapshot();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+/**
+ * Log-linear bucketing of recorded values (HdrHistogram layout, two significant digits).
+ * <p>
+ * Buckets have a relative width of at most 1/64 and are represented by their middle value (error below 0.8%).
+ * Values are tracked up to {@link #HIGHEST_TRACKABLE_VALUE} (about 73 minutes in nanoseconds), larger ones are
+ * counted in the last bucket and negative ones in the first.
+ */
+public final class HistogramBuckets {
+
+    public static final long HIGHEST_TRACKABLE_VALUE = (1L << 42) - 1;
+
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 6;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final long SUB_BUCKET_MASK = (2L * SUB_BUCKET_HALF_COUNT) - 1;
+
+    public static final int NB_BUCKETS = indexOf(HIGHEST_TRACKABLE_VALUE) + 1;
+
+    private HistogramBuckets() {}
+
+    public static int indexOf(final long value) {
+        final long trackedValue = value < 0 ? 0 : Math.min(value, HIGHEST_TRACKABLE_VALUE);
+        final int bucketIndex = 63 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - Long.numberOfLeadingZeros(trackedValue | SUB_BUCKET_MASK);
+        final int subBucketIndex = (int) (trackedValue >>> bucketIndex);
+        return (bucketIndex << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + subBucketIndex;
+    }
+
+    /**
+     * @param index bucket index
+     * @return the middle of the range of values counted in that bucket
+     */
+    public static long valueOf(final int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex << bucketIndex) + ((1L << bucketIndex) >> 1);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Cumulative {@link HistogramBuckets} counts, striped under contention (as a LongAdder).
+ * <p>
+ * Counts are never reset, so recording doesn't need any coordination with readers: a snapshot sums the stripes and
+ * subtracts the counts at the start of the previous window. Snapshots cover the current and the previous window,
+ * i.e. between one and two windows of data. Values recorded between two snapshots are attributed to the window of
+ * the latest one.
+ */
+final class StripedBucketHistogram {
+
+    private static final int MAX_STRIPES = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()));
+
+    private final long windowNanos;
+    private final LongSupplier nanoTime;
+
+    private volatile AtomicLongArray[] stripes = new AtomicLongArray[]{new AtomicLongArray(HistogramBuckets.NB_BUCKETS)};
+
+    // Below fields are only accessed by readers, under the histogram lock
+    private long[] previousWindowBaseline = new long[HistogramBuckets.NB_BUCKETS];
+    private long[] currentWindowBaseline = previousWindowBaseline;
+    private long[] lastRead = previousWindowBaseline;
+    private long currentWindowStart;
+
+    StripedBucketHistogram(final LongSupplier nanoTime) {
+        this(1, TimeUnit.MINUTES, nanoTime);
+    }
+
+    StripedBucketHistogram(final long window, final TimeUnit windowUnit, final LongSupplier nanoTime) {
+        this.windowNanos = windowUnit.toNanos(window);
+        this.nanoTime = nanoTime;
+        this.currentWindowStart = nanoTime.getAsLong();
+    }
+
+    void update(final long value) {
+        final int index = HistogramBuckets.indexOf(value);
+        final AtomicLongArray[] currentStripes = stripes;
+        final AtomicLongArray counts = currentStripes[(int) Thread.currentThread().getId() & (currentStripes.length - 1)];
+        final long count = counts.get(index);
+        if (!counts.compareAndSet(index, count, count + 1)) {
+            // Contended
+            if (currentStripes.length < MAX_STRIPES) {
+                grow(currentStripes);
+            }
+            counts.getAndIncrement(index);
+        }
+    }
+
+    private synchronized void grow(final AtomicLongArray[] currentStripes) {
+        if (stripes != currentStripes) {
+            // Somebody else did it
+            return;
+        }
+
+        final AtomicLongArray[] newStripes = new AtomicLongArray[currentStripes.length * 2];
+        System.arraycopy(currentStripes, 0, newStripes, 0, currentStripes.length);
+        for (int i = currentStripes.length; i < newStripes.length; i++) {
+            newStripes[i] = new AtomicLongArray(HistogramBuckets.NB_BUCKETS);
+        }
+        stripes = newStripes;
+    }
+
+    synchronized BucketSnapshot getSnapshot() {
+        final long[] cumulativeCounts = new long[HistogramBuckets.NB_BUCKETS];
+        for (final AtomicLongArray counts : stripes) {
+            for (int i = 0; i < HistogramBuckets.NB_BUCKETS; i++) {
+                cumulativeCounts[i] += counts.get(i);
+            }
+        }
+
+        final long elapsedWindows = (nanoTime.getAsLong() - currentWindowStart) / windowNanos;
+        if (elapsedWindows == 1) {
+            previousWindowBaseline = currentWindowBaseline;
+            currentWindowBaseline = lastRead;
+        } else if (elapsedWindows > 1) {
+            // Nothing was read for more than a window, the current one is stale too
+            previousWindowBaseline = lastRead;
+            currentWindowBaseline = lastRead;
+        }
+        currentWindowStart += elapsedWindows * windowNanos;
+        lastRead = cumulativeCounts;
+
+        final long[] counts = new long[HistogramBuckets.NB_BUCKETS];
+        for (int i = 0; i < HistogramBuckets.NB_BUCKETS; i++) {
+            counts[i] = cumulativeCounts[i] - previousWindowBaseline[i];
+        }
+        return new BucketSnapshot(counts);
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.servlets;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.killbill.commons.metrics.api.Counter;
+import org.killbill.commons.metrics.api.Gauge;
+import org.killbill.commons.metrics.api.Histogram;
+import org.killbill.commons.metrics.api.Meter;
+import org.killbill.commons.metrics.api.Metric;
+import org.killbill.commons.metrics.api.MetricId;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.api.Snapshot;
+import org.killbill.commons.metrics.api.Timer;
+import org.killbill.commons.metrics.dropwizard.KillBillCodahaleSnapshot;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exposes the registry in the OpenMetrics text format, written straight to the response stream.
+ * <p>
+ * Metric names are sanitized (characters other than [a-zA-Z0-9_:] are replaced by _). Counters and meters are
+ * exposed as counters, gauges with a numeric or boolean value as gauges, histograms and timers (in seconds) as
+ * summaries (the sum is estimated from the snapshot mean). Tags of metrics registered with a {@link MetricId} are
+ * exposed as labels. When several metrics end up with the same exposed name, only the first one is written.
+ * Query parameters:
+ * <ul>
+ *     <li>name[]: exposed (sanitized) names of the metrics to include, can be repeated</li>
+ *     <li>prefix: only include the metrics whose registry name (without tags) starts with this prefix</li>
+ * </ul>
+ */
+public class PrometheusMetricsServlet extends HttpServlet {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrometheusMetricsServlet.class);
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final long serialVersionUID = 3617427914529154563L;
+    private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"quantile=\"0.5\"", "quantile=\"0.75\"", "quantile=\"0.95\"",
+                                                     "quantile=\"0.98\"", "quantile=\"0.99\"", "quantile=\"0.999\""};
+    private static final double SECONDS_PER_NANO = 1.0 / TimeUnit.SECONDS.toNanos(1);
+
+    protected transient MetricRegistry registry;
+
+    @Override
+    public void init(final ServletConfig config) throws ServletException {
+        super.init(config);
+
+        final ServletContext context = config.getServletContext();
+        if (null == registry) {
+            final Object registryAttr = context.getAttribute(MetricsServlet.METRICS_REGISTRY);
+            if (registryAttr instanceof MetricRegistry) {
+                if (registryAttr instanceof NoOpMetricRegistry) {
+                    logger.warn("Metrics are not enabled");
+                } else {
+                    this.registry = (MetricRegistry) registryAttr;
+                }
+            } else {
+                throw new ServletException("Couldn't find a MetricRegistry instance.");
+            }
+        }
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest req,
+                         final HttpServletResponse resp) throws IOException {
+        resp.setContentType(CONTENT_TYPE);
+        resp.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        resp.setStatus(HttpServletResponse.SC_OK);
+
+        final String[] names = req.getParameterValues("name[]");
+        try (final Writer writer = new BufferedWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            write(writer, registry, names == null ? null : Set.of(names), req.getParameter("prefix"));
+        }
+    }
+
+    /**
+     * @param writer   output
+     * @param registry registry to expose, if any
+     * @param names    exposed names to include, all if null
+     * @param prefix   prefix of the registry names to include, all if null
+     * @throws IOException if the output can't be written
+     */
+    public static void write(final Writer writer,
+                             @Nullable final MetricRegistry registry,
+                             @Nullable final Set<String> names,
+                             @Nullable final String prefix) throws IOException {
+        if (registry != null) {
+            // A family must only be described once: names differing only by sanitized characters are skipped
+            final Set<String> writtenFamilies = new HashSet<>();
+            for (final Entry<String, ?> entry : registry.getMetrics().entrySet()) {
+                final String name = entry.getKey();
+                if (isIncluded(name, names, prefix) && !isDuplicate(name, writtenFamilies) && writeMetric(writer, name, entry.getValue())) {
+                    writtenFamilies.add(sanitize(name));
+                }
+            }
+
+            // Tagged metrics are grouped by name, their tags are exposed as labels
+            for (final Entry<String, Map<MetricId, Metric>> family : registry.getTaggedMetrics().entrySet()) {
+                final String name = family.getKey();
+                if (isIncluded(name, names, prefix) && !isDuplicate(name, writtenFamilies) && writeTaggedMetrics(writer, name, family.getValue())) {
+                    writtenFamilies.add(sanitize(name));
+                }
+            }
+        }
+        writer.write("# EOF\n");
+    }
+
+    private static boolean isIncluded(final String name, @Nullable final Set<String> names, @Nullable final String prefix) {
+        return (prefix == null || name.startsWith(prefix)) && (names == null || names.contains(sanitize(name)));
+    }
+
+    private static boolean isDuplicate(final String name, final Set<String> writtenFamilies) {
+        if (writtenFamilies.contains(sanitize(name))) {
+            logger.warn("Skipping metric {}: another metric is already exposed as {}", name, sanitize(name));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the metric was written
+     */
+    private static boolean writeMetric(final Writer writer, final String name, final Object metric) throws IOException {
+        final String type = typeOf(metric);
+        if (type == null) {
+            return false;
+        }
+        final double gaugeValue = "gauge".equals(type) ? getGaugeValue(name, metric) : 0;
+        if (Double.isNaN(gaugeValue)) {
+            return false;
+        }
+
+        writeType(writer, name, type);
+        writeSamples(writer, name, null, metric, gaugeValue);
+        return true;
+    }
+
+    /**
+     * @return whether at least one metric of the family was written
+     */
+    private static boolean writeTaggedMetrics(final Writer writer, final String name, final Map<MetricId, Metric> family) throws IOException {
+        String familyType = null;
+        for (final Entry<MetricId, Metric> entry : family.entrySet()) {
+            final String type = typeOf(entry.getValue());
+            // All metrics of a family must have the same type
+            if (type == null || (familyType != null && !familyType.equals(type))) {
+                continue;
+            }
+            final double gaugeValue = "gauge".equals(type) ? getGaugeValue(name, entry.getValue()) : 0;
+            if (Double.isNaN(gaugeValue)) {
+                continue;
+            }
+
+            if (familyType == null) {
+                familyType = type;
+                writeType(writer, name, type);
+            }
+            writeSamples(writer, name, entry.getKey(), entry.getValue(), gaugeValue);
+        }
+        return familyType != null;
+    }
+
+    @Nullable
+    private static String typeOf(final Object metric) {
+        // The Dropwizard backed registry exposes the Dropwizard metrics
+        if (metric instanceof Counter || metric instanceof com.codahale.metrics.Counter ||
+            metric instanceof Meter || metric instanceof com.codahale.metrics.Meter) {
+            return "counter";
+        } else if (metric instanceof Gauge || metric instanceof com.codahale.metrics.Gauge) {
+            return "gauge";
+        } else if (metric instanceof Histogram || metric instanceof com.codahale.metrics.Histogram ||
+                   metric instanceof Timer || metric instanceof com.codahale.metrics.Timer) {
+            return "summary";
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return the value of the gauge, NaN if it isn't numeric or can't be read
+     */
+    private static double getGaugeValue(final String name, final Object gauge) {
+        final Object value;
+        try {
+            value = gauge instanceof Gauge ? ((Gauge<?>) gauge).getValue() : ((com.codahale.metrics.Gauge<?>) gauge).getValue();
+        } catch (final RuntimeException e) {
+            logger.debug("Unable to read gauge {}", name, e);
+            return Double.NaN;
+        }
+
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else {
+            // Not representable
+            return Double.NaN;
+        }
+    }
+
+    private static void writeSamples(final Writer writer,
+                                     final String name,
+                                     @Nullable final MetricId id,
+                                     final Object metric,
+                                     final double gaugeValue) throws IOException {
+        if (metric instanceof Counter) {
+            writeCounter(writer, name, id, ((Counter) metric).getCount());
+        } else if (metric instanceof com.codahale.metrics.Counter) {
+            writeCounter(writer, name, id, ((com.codahale.metrics.Counter) metric).getCount());
+        } else if (metric instanceof Meter) {
+            writeCounter(writer, name, id, ((Meter) metric).getCount());
+        } else if (metric instanceof com.codahale.metrics.Meter) {
+            writeCounter(writer, name, id, ((com.codahale.metrics.Meter) metric).getCount());
+        } else if (metric instanceof Gauge || metric instanceof com.codahale.metrics.Gauge) {
+            writeName(writer, name);
+            writeLabels(writer, id, null);
+            writer.write(' ');
+            writeDouble(writer, gaugeValue);
+            writer.write('\n');
+        } else if (metric instanceof Histogram) {
+            writeSummary(writer, name, id, ((Histogram) metric).getSnapshot(), ((Histogram) metric).getCount(), 1.0);
+        } else if (metric instanceof com.codahale.metrics.Histogram) {
+            final com.codahale.metrics.Histogram histogram = (com.codahale.metrics.Histogram) metric;
+            writeSummary(writer, name, id, new KillBillCodahaleSnapshot(histogram.getSnapshot()), histogram.getCount(), 1.0);
+        } else if (metric instanceof Timer) {
+            writeSummary(writer, name, id, ((Timer) metric).getSnapshot(), ((Timer) metric).getCount(), SECONDS_PER_NANO);
+        } else if (metric instanceof com.codahale.metrics.Timer) {
+            final com.codahale.metrics.Timer timer = (com.codahale.metrics.Timer) metric;
+            writeSummary(writer, name, id, new KillBillCodahaleSnapshot(timer.getSnapshot()), timer.getCount(), SECONDS_PER_NANO);
+        }
+    }
+
+    private static void writeCounter(final Writer writer, final String name, @Nullable final MetricId id, final long count) throws IOException {
+        writeName(writer, name);
+        writer.write("_total");
+        writeLabels(writer, id, null);
+        writer.write(' ');
+        writer.write(Long.toString(count));
+        writer.write('\n');
+    }
+
+    private static void writeSummary(final Writer writer,
+                                     final String name,
+                                     @Nullable final MetricId id,
+                                     final Snapshot snapshot,
+                                     final long count,
+                                     final double factor) throws IOException {
+        for (int i = 0; i < QUANTILES.length; i++) {
+            writeName(writer, name);
+            writeLabels(writer, id, QUANTILE_LABELS[i]);
+            writer.write(' ');
+            writeDouble(writer, snapshot.getValue(QUANTILES[i]) * factor);
+            writer.write('\n');
+        }
+        writeName(writer, name);
+        writer.write("_count");
+        writeLabels(writer, id, null);
+        writer.write(' ');
+        writer.write(Long.toString(count));
+        writer.write('\n');
+        // No exact sum is tracked, estimate it from the (sampled) mean
+        writeName(writer, name);
+        writer.write("_sum");
+        writeLabels(writer, id, null);
+        writer.write(' ');
+        writeDouble(writer, count == 0 ? 0 : snapshot.getMean() * count * factor);
+        writer.write('\n');
+    }
+
+    private static void writeLabels(final Writer writer, @Nullable final MetricId id, @Nullable final String extraLabel) throws IOException {
+        final int nbTags = id == null ? 0 : id.getTagsCount();
+        if (nbTags == 0 && extraLabel == null) {
+            return;
+        }
+
+        writer.write('{');
+        for (int i = 0; i < nbTags; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeName(writer, id.getTagKey(i));
+            writer.write("=\"");
+            writeLabelValue(writer, id.getTagValue(i));
+            writer.write('"');
+        }
+        if (extraLabel != null) {
+            if (nbTags > 0) {
+                writer.write(',');
+            }
+            writer.write(extraLabel);
+        }
+        writer.write('}');
+    }
+
+    private static void writeLabelValue(final Writer writer, final String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\') {
+                writer.write("\\\\");
+            } else if (c == '"') {
+                writer.write("\\\"");
+            } else if (c == '\n') {
+                writer.write("\\n");
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
+    private static void writeType(final Writer writer, final String name, final String type) throws IOException {
+        writer.write("# TYPE ");
+        writeName(writer, name);
+        writer.write(' ');
+        writer.write(type);
+        writer.write('\n');
+    }
+
+    private static void writeDouble(final Writer writer, final double value) throws IOException {
+        if (Double.isNaN(value)) {
+            writer.write("NaN");
+        } else if (Double.isInfinite(value)) {
+            writer.write(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            writer.write(Double.toString(value));
+        }
+    }
+
+    private static void writeName(final Writer writer, final String name) throws IOException {
+        for (int i = 0; i < name.length(); i++) {
+            writer.write(sanitize(name.charAt(i), i));
+        }
+    }
+
+    static String sanitize(final String name) {
+        final char[] sanitized = new char[name.length()];
+        for (int i = 0; i < name.length(); i++) {
+            sanitized[i] = sanitize(name.charAt(i), i);
+        }
+        return new String(sanitized);
+    }
+
+    private static char sanitize(final char c, final int position) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':' || (position > 0 && c >= '0' && c <= '9')) {
+            return c;
+        }
+        return '_';
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.dropwizard;
+
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.commons.metrics.api.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 32 threads updating the same timer, backed by the default (exponentially decaying) reservoir or by an
+ * {@link IntervalHistogramReservoir}. Values are spread over a few orders of magnitude, as queue timings are.
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class IntervalHistogramReservoirBenchmark {
+
+    private static final String TIMER_NAME = "org.killbill.bus.DefaultPersistentBus.dispatchTime";
+
+    @Param({"default", "interval"})
+    public String reservoir;
+
+    private Timer timer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final KillBillCodahaleMetricRegistry registry = new KillBillCodahaleMetricRegistry(new com.codahale.metrics.MetricRegistry(),
+                                                                                           "interval".equals(reservoir) ? TIMER_NAME : "");
+        timer = registry.timer(TIMER_NAME);
+    }
+
+    @State(Scope.Thread)
+    public static class Durations {
+
+        private long seed;
+
+        @Setup(Level.Trial)
+        public void setUp(final ThreadParams threadParams) {
+            seed = threadParams.getThreadIndex() + 1;
+        }
+
+        long next() {
+            // xorshift, between 1µs and ~33ms
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return (1000L << ((seed >>> 60) & 0xF)) + (seed & 0x3FF);
+        }
+    }
+
+    @Benchmark
+    public void update(final Durations durations) {
+        timer.update(durations.next(), TimeUnit.NANOSECONDS);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IntervalHistogramReservoirBenchmark.class.getSimpleName()).build()).run();
+    }
+}
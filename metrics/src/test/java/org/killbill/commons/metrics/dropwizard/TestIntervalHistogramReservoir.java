@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.dropwizard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.killbill.commons.metrics.api.Timer;
+import org.killbill.commons.metrics.registry.BucketSnapshot;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+
+public class TestIntervalHistogramReservoir {
+
+    @Test(groups = "fast")
+    public void testSnapshot() {
+        final IntervalHistogramReservoir reservoir = new IntervalHistogramReservoir();
+        Assert.assertEquals(reservoir.getSnapshot().size(), 0);
+        Assert.assertEquals(reservoir.getSnapshot().getValues().length, 0);
+        Assert.assertEquals(reservoir.getSnapshot().get99thPercentile(), 0.0);
+
+        for (int i = 1; i <= 100000; i++) {
+            reservoir.update(i);
+        }
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+        Assert.assertEquals(snapshot.size(), 100000);
+        Assert.assertEquals(snapshot.getMin(), 1);
+        assertWithinPrecision(snapshot.getMax(), 100000);
+        assertWithinPrecision(snapshot.getMedian(), 50000);
+        assertWithinPrecision(snapshot.get99thPercentile(), 99000);
+        assertWithinPrecision(snapshot.get999thPercentile(), 99900);
+        assertWithinPrecision(snapshot.getMean(), 50000);
+        assertWithinPrecision(snapshot.getStdDev(), 28868);
+
+        final long[] values = snapshot.getValues();
+        Assert.assertEquals(values.length, BucketSnapshot.MAX_VALUES);
+        for (int i = 1; i < values.length; i++) {
+            Assert.assertTrue(values[i - 1] <= values[i]);
+        }
+        assertWithinPrecision(values[values.length / 2], 50000);
+        assertWithinPrecision(values[values.length - 1], 100000);
+    }
+
+    @Test(groups = "fast")
+    public void testWindows() {
+        final AtomicLong tick = new AtomicLong();
+        final Clock clock = new Clock() {
+            @Override
+            public long getTick() {
+                return tick.get();
+            }
+        };
+        final IntervalHistogramReservoir reservoir = new IntervalHistogramReservoir(1, TimeUnit.MINUTES, clock);
+
+        reservoir.update(10);
+        Assert.assertEquals(reservoir.getSnapshot().size(), 1);
+
+        // Values of the previous window are kept
+        tick.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        reservoir.update(20);
+        Assert.assertEquals(reservoir.getSnapshot().getValues(), new long[]{10, 20});
+
+        tick.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        reservoir.update(30);
+        Assert.assertEquals(reservoir.getSnapshot().getValues(), new long[]{20, 30});
+
+        // No snapshot for more than a window
+        tick.addAndGet(TimeUnit.SECONDS.toNanos(150));
+        reservoir.update(40);
+        Assert.assertEquals(reservoir.getSnapshot().getValues(), new long[]{40});
+    }
+
+    @Test(groups = "fast")
+    public void testConcurrentUpdates() throws Exception {
+        final IntervalHistogramReservoir reservoir = new IntervalHistogramReservoir();
+        final int nbThreads = 8;
+        final int nbUpdates = 100000;
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < nbThreads; i++) {
+            final Thread thread = new Thread(() -> {
+                for (int j = 0; j < nbUpdates; j++) {
+                    reservoir.update(j);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // Snapshots while recording: no value is lost nor counted twice
+        long previousSize = 0;
+        for (final Thread thread : threads) {
+            while (thread.isAlive()) {
+                final int size = reservoir.getSnapshot().size();
+                Assert.assertTrue(size >= previousSize);
+                previousSize = size;
+            }
+            thread.join();
+        }
+        Assert.assertEquals(reservoir.getSnapshot().size(), nbThreads * nbUpdates);
+    }
+
+    @Test(groups = "fast")
+    public void testRegistryPatterns() {
+        final KillBillCodahaleMetricRegistry registry = new KillBillCodahaleMetricRegistry(new com.codahale.metrics.MetricRegistry(),
+                                                                                           "org\\.killbill\\.bus\\..*, .*\\.dispatchTime");
+        registry.timer("org.killbill.bus.DefaultPersistentBus.rawGetEntriesTime").update(1, TimeUnit.MILLISECONDS);
+        registry.timer("org.killbill.notificationq.dispatchTime").update(1, TimeUnit.MILLISECONDS);
+        registry.timer("org.killbill.notificationq.rawGetEntriesTime").update(1, TimeUnit.MILLISECONDS);
+        registry.histogram("org.killbill.bus.DefaultPersistentBus.size").update(1);
+
+        final Timer timer = registry.timer("org.killbill.notificationq.dispatchTime");
+        Assert.assertEquals(timer.getCount(), 1);
+        Assert.assertEquals(timer.getSnapshot().getValues().length, 1);
+
+        Assert.assertTrue(getTimerSnapshot(registry, "org.killbill.bus.DefaultPersistentBus.rawGetEntriesTime") instanceof IntervalHistogramSnapshot);
+        Assert.assertTrue(getTimerSnapshot(registry, "org.killbill.notificationq.dispatchTime") instanceof IntervalHistogramSnapshot);
+        Assert.assertFalse(getTimerSnapshot(registry, "org.killbill.notificationq.rawGetEntriesTime") instanceof IntervalHistogramSnapshot);
+        Assert.assertTrue(((com.codahale.metrics.Histogram) registry.getMetrics().get("org.killbill.bus.DefaultPersistentBus.size")).getSnapshot() instanceof IntervalHistogramSnapshot);
+    }
+
+    private static Snapshot getTimerSnapshot(final KillBillCodahaleMetricRegistry registry, final String name) {
+        return ((com.codahale.metrics.Timer) registry.getMetrics().get(name)).getSnapshot();
+    }
+
+    private static void assertWithinPrecision(final double actual, final double expected) {
+        Assert.assertEquals(actual, expected, expected / 64, actual + " != " + expected);
+    }
+}
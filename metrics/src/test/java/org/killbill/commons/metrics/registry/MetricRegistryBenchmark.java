@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.api.Timer;
+import org.killbill.commons.metrics.dropwizard.KillBillCodahaleMetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Hot lookup paths (timer lookup and update, counter lookup and increment) and a scrape of the timers, with the
+ * Dropwizard backed registry or the native one. Run with -prof gc to see the allocation rates.
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricRegistryBenchmark {
+
+    private static final int NB_TIMERS = 100;
+
+    @Param({"codahale", "default"})
+    public String registryType;
+
+    private MetricRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = "codahale".equals(registryType) ? new KillBillCodahaleMetricRegistry() : new DefaultMetricRegistry();
+        for (int i = 0; i < NB_TIMERS; i++) {
+            registry.timer("org.killbill.bus.DefaultPersistentBus.timer" + i).update(i, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Benchmark
+    public void timerLookupAndUpdate() {
+        registry.timer("org.killbill.bus.DefaultPersistentBus.timer0").update(10, TimeUnit.MICROSECONDS);
+    }
+
+    @Benchmark
+    public void counterLookupAndIncrement() {
+        registry.counter("org.killbill.bus.DefaultPersistentBus.counter").inc(1);
+    }
+
+    @Benchmark
+    public Map<String, Timer> getTimers() {
+        return registry.getTimers();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MetricRegistryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
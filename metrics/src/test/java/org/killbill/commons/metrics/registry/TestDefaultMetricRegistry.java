@@ -0,0 +1,281 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.killbill.commons.metrics.api.Counter;
+import org.killbill.commons.metrics.api.Gauge;
+import org.killbill.commons.metrics.api.Meter;
+import org.killbill.commons.metrics.api.MetricId;
+import org.killbill.commons.metrics.api.Timer;
+import org.killbill.commons.metrics.servlets.MetricsJacksonModule;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestDefaultMetricRegistry {
+
+    private AtomicLong nanoTime;
+    private DefaultMetricRegistry registry;
+
+    @BeforeMethod(groups = "fast")
+    public void setUp() {
+        nanoTime = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+        registry = new DefaultMetricRegistry(nanoTime::get);
+    }
+
+    @Test(groups = "fast")
+    public void testBuckets() {
+        for (long value = 0; value < 128; value++) {
+            Assert.assertEquals(HistogramBuckets.valueOf(HistogramBuckets.indexOf(value)), value);
+        }
+
+        for (long value = 128; value < HistogramBuckets.HIGHEST_TRACKABLE_VALUE; value = value * 3 / 2 + 7) {
+            final long bucketValue = HistogramBuckets.valueOf(HistogramBuckets.indexOf(value));
+            Assert.assertTrue(Math.abs(bucketValue - value) <= value / 64, value + " recorded as " + bucketValue);
+        }
+
+        Assert.assertEquals(HistogramBuckets.indexOf(-1), 0);
+        Assert.assertEquals(HistogramBuckets.indexOf(Long.MAX_VALUE), HistogramBuckets.NB_BUCKETS - 1);
+    }
+
+    @Test(groups = "fast")
+    public void testLookups() {
+        final Counter counter = registry.counter("counter");
+        counter.inc(2);
+        Assert.assertSame(registry.counter("counter"), counter);
+        Assert.assertEquals(registry.counter("counter").getCount(), 2);
+        Assert.assertSame(registry.timer("timer"), registry.timer("timer"));
+        Assert.assertSame(registry.histogram("histogram"), registry.histogram("histogram"));
+        Assert.assertSame(registry.meter("meter"), registry.meter("meter"));
+
+        final Gauge<Integer> gauge = () -> 12;
+        Assert.assertSame(registry.gauge("gauge", gauge), gauge);
+        Assert.assertSame(registry.gauge("gauge", () -> 13), gauge);
+
+        try {
+            registry.timer("counter");
+            Assert.fail();
+        } catch (final IllegalArgumentException e) {
+            Assert.assertEquals(e.getMessage(), "counter is already used for a different type of metric");
+        }
+
+        Assert.assertEquals(registry.getCounters().keySet(), List.of("counter"));
+        Assert.assertEquals(registry.getTimers().keySet(), List.of("timer"));
+        Assert.assertEquals(registry.getHistograms().keySet(), List.of("histogram"));
+        Assert.assertEquals(registry.getMeters().keySet(), List.of("meter"));
+        Assert.assertEquals(registry.getGauges().keySet(), List.of("gauge"));
+        Assert.assertEquals(registry.getMetrics().size(), 5);
+
+        Assert.assertTrue(registry.remove("counter"));
+        Assert.assertFalse(registry.remove("counter"));
+        Assert.assertNotSame(registry.counter("counter"), counter);
+    }
+
+    @Test(groups = "fast")
+    public void testMetricIds() {
+        final MetricId id = MetricId.of("org.killbill.queue.DBBackedQueue.rawGetEntriesTime", "queue", "bus.events");
+        Assert.assertEquals(id.getFlatName(), "org.killbill.queue.DBBackedQueue.rawGetEntriesTime.bus_events");
+        Assert.assertEquals(id, MetricId.of("org.killbill.queue.DBBackedQueue.rawGetEntriesTime").tagged("queue", "bus.events"));
+        Assert.assertEquals(id.hashCode(), MetricId.of("org.killbill.queue.DBBackedQueue.rawGetEntriesTime").tagged("queue", "bus.events").hashCode());
+        Assert.assertEquals(id.withFlatName("flat"), id);
+        Assert.assertEquals(id.withFlatName("flat").getFlatName(), "flat");
+        Assert.assertNotEquals(MetricId.of("name", "a", "1", "b", "2"), MetricId.of("name", "b", "2", "a", "1"));
+        Assert.assertEquals(MetricId.of("name", "a", null).getTagValue(0), "null");
+        Assert.assertEquals(MetricId.of("name", "a", "1", "b", "2").toString(), "name{a=1,b=2}");
+
+        try {
+            MetricId.of("name", "a");
+            Assert.fail();
+        } catch (final IllegalArgumentException e) {
+            Assert.assertEquals(e.getMessage(), "Tags should be key/value pairs: [a]");
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testTaggedLookups() {
+        final Timer timer = registry.timer(MetricId.of("timer", "queue", "q1"));
+        Assert.assertSame(registry.timer(MetricId.of("timer", "queue", "q1")), timer);
+        Assert.assertNotSame(registry.timer(MetricId.of("timer", "queue", "q2")), timer);
+        registry.counter(MetricId.of("counter", "queue", "q1")).inc(1);
+        registry.timer("timer");
+
+        try {
+            registry.counter(MetricId.of("timer", "queue", "q1"));
+            Assert.fail();
+        } catch (final IllegalArgumentException e) {
+            Assert.assertEquals(e.getMessage(), "timer{queue=q1} is already used for a different type of metric");
+        }
+        try {
+            registry.counter("timer.q1");
+            Assert.fail();
+        } catch (final IllegalArgumentException e) {
+            Assert.assertEquals(e.getMessage(), "timer.q1 is already used by a tagged metric");
+        }
+        try {
+            registry.counter(MetricId.of("other").withFlatName("timer"));
+            Assert.fail();
+        } catch (final IllegalArgumentException e) {
+            Assert.assertEquals(e.getMessage(), "timer is already used by another metric");
+        }
+
+        Assert.assertEquals(registry.getMetrics().keySet(), Set.of("timer"));
+        Assert.assertEquals(registry.getTimers().keySet(), List.of("timer", "timer.q1", "timer.q2"));
+        Assert.assertEquals(registry.getCounters().keySet(), List.of("counter.q1"));
+        Assert.assertEquals(registry.getTaggedMetrics().keySet(), Set.of("timer", "counter"));
+        Assert.assertEquals(registry.getTaggedMetrics().get("timer").size(), 2);
+        Assert.assertSame(registry.getTaggedMetrics().get("timer").get(MetricId.of("timer", "queue", "q1")), timer);
+
+        Assert.assertTrue(registry.remove("timer.q1"));
+        Assert.assertTrue(registry.remove("counter.q1"));
+        Assert.assertEquals(registry.getTaggedMetrics().keySet(), Set.of("timer"));
+        Assert.assertNotSame(registry.timer(MetricId.of("timer", "queue", "q1")), timer);
+    }
+
+    @Test(groups = "fast")
+    public void testMeter() {
+        final Meter meter = registry.meter("meter");
+        meter.mark(100);
+        Assert.assertEquals(meter.getOneMinuteRate(), 0.0);
+
+        // First tick
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(5) + 1);
+        Assert.assertEquals(meter.getCount(), 100);
+        Assert.assertEquals(meter.getOneMinuteRate(), 20.0, 0.001);
+        Assert.assertEquals(meter.getFifteenMinuteRate(), 20.0, 0.001);
+        Assert.assertEquals(meter.getMeanRate(), 20.0, 0.001);
+
+        // Decay, as Dropwizard
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        Assert.assertEquals(meter.getOneMinuteRate(), 20.0 * Math.exp(-1), 0.01);
+        Assert.assertEquals(meter.getFiveMinuteRate(), 20.0 * Math.exp(-1.0 / 5), 0.01);
+        Assert.assertEquals(meter.getFifteenMinuteRate(), 20.0 * Math.exp(-1.0 / 15), 0.01);
+    }
+
+    @Test(groups = "fast")
+    public void testTimer() {
+        final Timer timer = registry.timer("timer");
+        for (int i = 1; i <= 1000; i++) {
+            timer.update(i, TimeUnit.MILLISECONDS);
+        }
+        timer.update(-1, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(timer.getCount(), 1000);
+        Assert.assertEquals(timer.getSnapshot().size(), 1000);
+        Assert.assertEquals(timer.getSnapshot().get99thPercentile(), TimeUnit.MILLISECONDS.toNanos(990), TimeUnit.MILLISECONDS.toNanos(990) / 64.0);
+        Assert.assertEquals(timer.getSnapshot().getMax(), TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(1) / 64.0);
+
+        // Values of the previous window are kept
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        timer.update(2, TimeUnit.SECONDS);
+        Assert.assertEquals(timer.getSnapshot().size(), 1001);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        Assert.assertEquals(timer.getSnapshot().size(), 1);
+        Assert.assertEquals(timer.getSnapshot().getMin(), TimeUnit.SECONDS.toNanos(2), TimeUnit.SECONDS.toNanos(2) / 64.0);
+
+        // No snapshot for more than a window
+        timer.update(3, TimeUnit.SECONDS);
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(150));
+        timer.update(4, TimeUnit.SECONDS);
+        Assert.assertEquals(timer.getSnapshot().size(), 2);
+        Assert.assertEquals(timer.getCount(), 1003);
+    }
+
+    @Test(groups = "fast")
+    public void testConcurrentUpdates() throws Exception {
+        final Timer timer = new DefaultMetricRegistry().timer("timer");
+        final int nbThreads = 8;
+        final int nbUpdates = 100000;
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < nbThreads; i++) {
+            final Thread thread = new Thread(() -> {
+                for (int j = 0; j < nbUpdates; j++) {
+                    // Same bucket, to create contention
+                    timer.update(1, TimeUnit.MILLISECONDS);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(timer.getCount(), nbThreads * nbUpdates);
+        Assert.assertEquals(timer.getSnapshot().size(), nbThreads * nbUpdates);
+    }
+
+    @Test(groups = "fast")
+    public void testConcurrentFlatAndTaggedRegistrations() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            final DefaultMetricRegistry registry = new DefaultMetricRegistry();
+            final CyclicBarrier barrier = new CyclicBarrier(2);
+            final AtomicInteger nbRegistered = new AtomicInteger();
+            final Thread flat = new Thread(() -> register(barrier, nbRegistered, () -> registry.counter("counter.q1")));
+            final Thread tagged = new Thread(() -> register(barrier, nbRegistered, () -> registry.counter(MetricId.of("counter", "queue", "q1"))));
+            flat.start();
+            tagged.start();
+            flat.join();
+            tagged.join();
+
+            // The flat name can only be taken once
+            Assert.assertEquals(nbRegistered.get(), 1);
+            Assert.assertEquals(registry.getCounters().size(), 1);
+        }
+    }
+
+    private static void register(final CyclicBarrier barrier, final AtomicInteger nbRegistered, final Runnable registration) {
+        try {
+            barrier.await();
+            registration.run();
+            nbRegistered.incrementAndGet();
+        } catch (final IllegalArgumentException e) {
+            // Already used by the other thread
+        } catch (final Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testMetricsJacksonModule() throws Exception {
+        registry.counter("counter").inc(3);
+        registry.timer("timer").update(10, TimeUnit.MILLISECONDS);
+        registry.gauge("gauge", () -> "value");
+
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new MetricsJacksonModule(TimeUnit.SECONDS, TimeUnit.MILLISECONDS, false));
+        final JsonNode json = mapper.readTree(mapper.writeValueAsString(registry));
+
+        Assert.assertEquals(json.get("counters").get("counter").get("count").asLong(), 3);
+        Assert.assertEquals(json.get("gauges").get("gauge").get("value").asText(), "value");
+        Assert.assertEquals(json.get("timers").get("timer").get("count").asLong(), 1);
+        Assert.assertEquals(json.get("timers").get("timer").get("max").asDouble(), 10.0, 10.0 / 64);
+    }
+}
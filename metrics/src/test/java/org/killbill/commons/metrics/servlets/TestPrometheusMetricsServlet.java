@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.metrics.servlets;
+
+import java.io.StringWriter;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.killbill.commons.metrics.api.MetricId;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.dropwizard.KillBillCodahaleMetricRegistry;
+import org.killbill.commons.metrics.registry.DefaultMetricRegistry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestPrometheusMetricsServlet {
+
+    @Test(groups = "fast")
+    public void testDefaultMetricRegistry() throws Exception {
+        final MetricRegistry registry = new DefaultMetricRegistry();
+        registerMetrics(registry);
+
+        final String output = write(registry, null, null);
+        Assert.assertTrue(output.contains("# TYPE org_killbill_bus_DefaultPersistentBus_timer summary\n" +
+                                          "org_killbill_bus_DefaultPersistentBus_timer{quantile=\"0.5\"} 0.001"), output);
+        Assert.assertTrue(output.contains("org_killbill_bus_DefaultPersistentBus_timer_count 1\n" +
+                                          "org_killbill_bus_DefaultPersistentBus_timer_sum 0.001"), output);
+        assertCommonMetrics(output);
+    }
+
+    @Test(groups = "fast")
+    public void testCodahaleMetricRegistry() throws Exception {
+        final MetricRegistry registry = new KillBillCodahaleMetricRegistry();
+        registerMetrics(registry);
+
+        final String output = write(registry, null, null);
+        Assert.assertTrue(output.contains("# TYPE org_killbill_bus_DefaultPersistentBus_timer summary\n" +
+                                          "org_killbill_bus_DefaultPersistentBus_timer{quantile=\"0.5\"} 0.001\n"), output);
+        Assert.assertTrue(output.contains("org_killbill_bus_DefaultPersistentBus_timer_count 1\n" +
+                                          "org_killbill_bus_DefaultPersistentBus_timer_sum 0.001\n"), output);
+        assertCommonMetrics(output);
+    }
+
+    @Test(groups = "fast")
+    public void testTaggedMetrics() throws Exception {
+        final MetricRegistry registry = new DefaultMetricRegistry();
+        registry.counter(MetricId.of("org.killbill.queue.entries", "queue", "bus_events")).inc(1);
+        registry.counter(MetricId.of("org.killbill.queue.entries", "queue", "notifications\"\\")).inc(2);
+        // Different type, skipped
+        registry.timer(MetricId.of("org.killbill.queue.entries", "queue", "other"));
+        registry.histogram(MetricId.of("org.killbill.queue.size", "queue", "bus_events", "priority", "high")).update(3);
+
+        final String output = write(registry, null, null);
+        Assert.assertTrue(output.contains("# TYPE org_killbill_queue_entries counter\n"), output);
+        Assert.assertTrue(output.contains("org_killbill_queue_entries_total{queue=\"bus_events\"} 1\n"), output);
+        Assert.assertTrue(output.contains("org_killbill_queue_entries_total{queue=\"notifications\\\"\\\\\"} 2\n"), output);
+        Assert.assertFalse(output.contains("other"), output);
+        Assert.assertTrue(output.contains("# TYPE org_killbill_queue_size summary\n" +
+                                          "org_killbill_queue_size{queue=\"bus_events\",priority=\"high\",quantile=\"0.5\"} 3.0\n"), output);
+        Assert.assertTrue(output.contains("org_killbill_queue_size_count{queue=\"bus_events\",priority=\"high\"} 1\n" +
+                                          "org_killbill_queue_size_sum{queue=\"bus_events\",priority=\"high\"} 3.0\n"), output);
+
+        Assert.assertEquals(write(registry, Set.of("org_killbill_queue_size"), null),
+                            write(registry, null, "org.killbill.queue.size"));
+        Assert.assertEquals(output.split("# TYPE org_killbill_queue_entries ").length, 2);
+    }
+
+    @Test(groups = "fast")
+    public void testDuplicateExposedNames() throws Exception {
+        final MetricRegistry registry = new DefaultMetricRegistry();
+        registry.counter("org.killbill.queue.processed").inc(1);
+        registry.counter("org-killbill-queue-processed").inc(2);
+        registry.counter("org_killbill_queue_processed").inc(3);
+        // Same name as a flat metric
+        registry.gauge("org.killbill.queue.size", () -> 4);
+        registry.counter(MetricId.of("org.killbill.queue.size", "queue", "bus_events")).inc(5);
+        // Empty summary
+        registry.histogram("org.killbill.queue.latency");
+
+        final String output = write(registry, null, null);
+        Assert.assertEquals(output.split("# TYPE org_killbill_queue_processed ").length, 2, output);
+        Assert.assertEquals(output.split("\norg_killbill_queue_processed_total ").length, 2, output);
+        Assert.assertTrue(output.contains("# TYPE org_killbill_queue_size gauge\n" +
+                                          "org_killbill_queue_size 4.0\n"), output);
+        Assert.assertFalse(output.contains("bus_events"), output);
+        Assert.assertTrue(output.contains("org_killbill_queue_latency_count 0\n" +
+                                          "org_killbill_queue_latency_sum 0.0\n"), output);
+    }
+
+    @Test(groups = "fast")
+    public void testFilters() throws Exception {
+        final MetricRegistry registry = new DefaultMetricRegistry();
+        registerMetrics(registry);
+
+        Assert.assertEquals(write(registry, Set.of("kb_resource_hello_GET_2xx_200", "unknown"), null),
+                            "# TYPE kb_resource_hello_GET_2xx_200 counter\n" +
+                            "kb_resource_hello_GET_2xx_200_total 3\n" +
+                            "# EOF\n");
+        Assert.assertEquals(write(registry, null, "org.killbill.notificationq."),
+                            "# TYPE org_killbill_notificationq_size gauge\n" +
+                            "org_killbill_notificationq_size 12.0\n" +
+                            "# EOF\n");
+        Assert.assertEquals(write(null, null, null), "# EOF\n");
+    }
+
+    private static void registerMetrics(final MetricRegistry registry) {
+        registry.counter("kb_resource.hello.GET.2xx.200").inc(3);
+        registry.meter("org.killbill.bus.DefaultPersistentBus.meter").mark(2);
+        registry.timer("org.killbill.bus.DefaultPersistentBus.timer").update(1, TimeUnit.MILLISECONDS);
+        registry.histogram("org.killbill.bus.DefaultPersistentBus.histogram").update(5);
+        registry.gauge("org.killbill.notificationq.size", () -> 12);
+        registry.gauge("org.killbill.bus.DefaultPersistentBus.name", () -> "not a number");
+    }
+
+    private static void assertCommonMetrics(final String output) {
+        Assert.assertTrue(output.contains("# TYPE kb_resource_hello_GET_2xx_200 counter\n" +
+                                          "kb_resource_hello_GET_2xx_200_total 3\n"), output);
+        Assert.assertTrue(output.contains("# TYPE org_killbill_bus_DefaultPersistentBus_meter counter\n" +
+                                          "org_killbill_bus_DefaultPersistentBus_meter_total 2\n"), output);
+        Assert.assertTrue(output.contains("# TYPE org_killbill_bus_DefaultPersistentBus_histogram summary\n" +
+                                          "org_killbill_bus_DefaultPersistentBus_histogram{quantile=\"0.5\"} 5.0\n"), output);
+        Assert.assertTrue(output.contains("org_killbill_bus_DefaultPersistentBus_histogram{quantile=\"0.999\"} 5.0\n" +
+                                          "org_killbill_bus_DefaultPersistentBus_histogram_count 1\n" +
+                                          "org_killbill_bus_DefaultPersistentBus_histogram_sum 5.0\n"), output);
+        Assert.assertTrue(output.contains("# TYPE org_killbill_notificationq_size gauge\n" +
+                                          "org_killbill_notificationq_size 12.0\n"), output);
+        Assert.assertFalse(output.contains("DefaultPersistentBus_name"), output);
+        Assert.assertTrue(output.endsWith("\n# EOF\n"), output);
+    }
+
+    private static String write(@Nullable final MetricRegistry registry, @Nullable final Set<String> names, @Nullable final String prefix) throws Exception {
+        final StringWriter writer = new StringWriter();
+        PrometheusMetricsServlet.write(writer, registry, names, prefix);
+        return writer.toString();
+    }
+}
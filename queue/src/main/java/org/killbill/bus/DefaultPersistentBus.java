@@ -24,7 +24,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -47,20 +46,22 @@ import org.killbill.bus.dispatching.BusCallableCallback;
 import org.killbill.clock.Clock;
 import org.killbill.clock.DefaultClock;
 import org.killbill.commons.eventbus.EventBus;
-import org.killbill.commons.jdbi.notification.DatabaseTransactionNotificationApi;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.metrics.api.Timer;
 import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
 import org.killbill.commons.profiling.Profiling;
 import org.killbill.commons.profiling.ProfilingFeature;
 import org.killbill.commons.utils.collect.Iterables;
+import org.killbill.commons.utils.collect.Iterators;
 import org.killbill.queue.DBBackedQueue;
 import org.killbill.queue.DBBackedQueue.ReadyEntriesWithMetrics;
 import org.killbill.queue.DBBackedQueueWithInflightQueue;
 import org.killbill.queue.DBBackedQueueWithPolling;
 import org.killbill.queue.DefaultQueueLifecycle;
 import org.killbill.queue.InTransaction;
+import org.killbill.queue.KeysetPaginatedIterable;
 import org.killbill.queue.api.PersistentQueueConfig.PersistentQueueMode;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.api.QueueEvent;
 import org.killbill.queue.dao.EventEntryModelDao;
 import org.killbill.queue.dispatching.BlockingRejectionExecutionHandler;
@@ -78,12 +79,19 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
 
     private static final Logger log = LoggerFactory.getLogger(DefaultPersistentBus.class);
 
+    // Number of bus events fetched per query when iterating over search key2 results
+    private static final int SEARCH_KEY2_PAGE_SIZE = 1000;
+
+    // Keyset of the (virtual) entry preceding all bus events, used to fetch the first page
+    private static final Long BEFORE_FIRST_ENTRY_RECORD_ID = -1L;
+
     private final DBI dbi;
     private final EventBus eventBusDelegate;
     private final DBBackedQueue<BusEventModelDao> dao;
     private final Clock clock;
     private final PersistentBusConfig config;
     private final Profiling<Iterable<BusEventModelDao>, RuntimeException> prof;
+    private final Profiling<List<BusEventModelDao>, RuntimeException> pageProf;
     private final BusReaper reaper;
 
     private final Dispatcher<BusEvent, BusEventModelDao> dispatcher;
@@ -105,17 +113,18 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
     }
 
     @Inject
-    public DefaultPersistentBus(@Named(QUEUE_NAME) final IDBI dbi, final Clock clock, final PersistentBusConfig config, final MetricRegistry metricRegistry, final DatabaseTransactionNotificationApi databaseTransactionNotificationApi) {
+    public DefaultPersistentBus(@Named(QUEUE_NAME) final IDBI dbi, final Clock clock, final PersistentBusConfig config, final MetricRegistry metricRegistry) {
         super(config.getTableName(), config, metricRegistry);
         this.dbi = (DBI) dbi;
         this.clock = clock;
         this.config = config;
         this.dbBackedQId = config.getTableName();
         this.dao = config.getPersistentQueueMode() == PersistentQueueMode.STICKY_EVENTS ?
-                   new DBBackedQueueWithInflightQueue<>(clock, dbi, PersistentBusSqlDao.class, config, dbBackedQId, metricRegistry, databaseTransactionNotificationApi) :
+                   new DBBackedQueueWithInflightQueue<>(clock, dbi, PersistentBusSqlDao.class, config, dbBackedQId, metricRegistry) :
                    new DBBackedQueueWithPolling<>(clock, dbi, PersistentBusSqlDao.class, config, dbBackedQId, metricRegistry);
 
         this.prof = new Profiling<>();
+        this.pageProf = new Profiling<>();
         final ThreadFactory busThreadFactory = new ThreadFactory() {
             @Override
             public Thread newThread(final Runnable r) {
@@ -139,12 +148,13 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
                                            TimeUnit.MINUTES,
                                            config.getShutdownTimeout().getPeriod(),
                                            config.getShutdownTimeout().getUnit(),
-                                           new LinkedBlockingQueue<>(config.getEventQueueCapacity()),
+                                           config.getEventQueueCapacity(),
                                            busThreadFactory,
                                            new BlockingRejectionExecutionHandler(),
                                            clock,
                                            busCallableCallback,
-                                           this);
+                                           this,
+                                           metricRegistry);
 
     }
 
@@ -152,8 +162,7 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
         this(InTransaction.buildDDBI(dataSource),
              new DefaultClock(),
              new ConfigurationObjectFactory(properties).buildWithReplacements(PersistentBusConfig.class, Map.of("instanceName", "main")),
-             new NoOpMetricRegistry(),
-             new DatabaseTransactionNotificationApi());
+             new NoOpMetricRegistry());
     }
 
     @Override
@@ -257,6 +266,11 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
         }
     }
 
+    @Override
+    public long getApproximateNbReadyEntries() {
+        return dao.getApproximateNbReadyEntries();
+    }
+
     @Override
     public boolean isStarted() {
         return isStarted.get();
@@ -282,11 +296,17 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
 
     @Override
     public void post(final BusEvent event) throws EventBusException {
+        post(event, PersistentQueueEntryPriority.NORMAL);
+    }
+
+    @Override
+    public void post(final BusEvent event, final PersistentQueueEntryPriority priority) throws EventBusException {
         try {
             if (isInitialized.get()) {
                 final String json = objectWriter.writeValueAsString(event);
                 final BusEventModelDao entry = new BusEventModelDao(CreatorName.get(), clock.getUTCNow(), event.getClass().getName(), json,
                                                                     event.getUserToken(), event.getSearchKey1(), event.getSearchKey2());
+                entry.setPriority(priority.getValue());
                 dao.insertEntry(entry);
 
             } else {
@@ -299,6 +319,11 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
 
     @Override
     public void postFromTransaction(final BusEvent event, final Connection connection) throws EventBusException {
+        postFromTransaction(event, PersistentQueueEntryPriority.NORMAL, connection);
+    }
+
+    @Override
+    public void postFromTransaction(final BusEvent event, final PersistentQueueEntryPriority priority, final Connection connection) throws EventBusException {
         if (!isInitialized.get()) {
             log.warn("Attempting to post event " + event + " in a non initialized bus");
             return;
@@ -319,6 +344,7 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
                                                             event.getUserToken(),
                                                             event.getSearchKey1(),
                                                             event.getSearchKey2());
+        entry.setPriority(priority.getValue());
 
         final InTransaction.InTransactionHandler<PersistentBusSqlDao, Void> handler = new InTransaction.InTransactionHandler<PersistentBusSqlDao, Void>() {
 
@@ -358,7 +384,8 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
         final InTransaction.InTransactionHandler<PersistentBusSqlDao, Iterable<BusEventWithMetadata<T>>> handler = new InTransaction.InTransactionHandler<PersistentBusSqlDao, Iterable<BusEventWithMetadata<T>>>() {
             @Override
             public Iterable<BusEventWithMetadata<T>> withSqlDao(final PersistentBusSqlDao transactional) {
-                return getAvailableBusEventsForSearchKeysInternal(transactional, maxCreatedDate, null, searchKey2);
+                // The connection belongs to the caller, fetch all pages before handing back the result
+                return Iterables.toUnmodifiableList(getAvailableBusEventsForSearchKeysInternal(transactional, maxCreatedDate, null, searchKey2));
             }
         };
         return InTransaction.execute(dbi, connection, handler, PersistentBusSqlDao.class);
@@ -395,7 +422,8 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
         final InTransaction.InTransactionHandler<PersistentBusSqlDao, Iterable<BusEventWithMetadata<T>>> handler = new InTransaction.InTransactionHandler<PersistentBusSqlDao, Iterable<BusEventWithMetadata<T>>>() {
             @Override
             public Iterable<BusEventWithMetadata<T>> withSqlDao(final PersistentBusSqlDao transactional) {
-                return getAvailableOrInProcessingBusEventsForSearchKeysInternal(transactional, maxCreatedDate, null, searchKey2);
+                // The connection belongs to the caller, fetch all pages before handing back the result
+                return Iterables.toUnmodifiableList(getAvailableOrInProcessingBusEventsForSearchKeysInternal(transactional, maxCreatedDate, null, searchKey2));
             }
         };
         return InTransaction.execute(dbi, connection, handler, PersistentBusSqlDao.class);
@@ -411,11 +439,36 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
         return getHistoricalBusEventsForSearchKeysInternal((PersistentBusSqlDao) dao.getSqlDao(), minCreatedDate, null, searchKey2);
     }
 
+    @Override
+    public <T extends BusEvent> List<BusEventWithMetadata<T>> getAvailableBusEventsPageForSearchKey2(final DateTime maxCreatedDate, final Long searchKey2, @Nullable final BusEventWithMetadata<?> lastEntry, final int pageSize) {
+        final List<BusEventModelDao> entries = getReadyQueueEntriesPageWithProfiling((PersistentBusSqlDao) dao.getSqlDao(),
+                                                                                     maxCreatedDate,
+                                                                                     searchKey2,
+                                                                                     lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(),
+                                                                                     pageSize);
+        return toBusEventWithMetadata(entries);
+    }
+
+    @Override
+    public <T extends BusEvent> List<BusEventWithMetadata<T>> getHistoricalBusEventsPageForSearchKey2(final DateTime minCreatedDate, final Long searchKey2, @Nullable final BusEventWithMetadata<?> lastEntry, final int pageSize) {
+        final List<BusEventModelDao> entries = getHistoricalQueueEntriesPageWithProfiling((PersistentBusSqlDao) dao.getSqlDao(),
+                                                                                          minCreatedDate,
+                                                                                          searchKey2,
+                                                                                          lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(),
+                                                                                          pageSize);
+        return toBusEventWithMetadata(entries);
+    }
+
     @Override
     public long getNbReadyEntries(final DateTime maxCreatedDate) {
         return dao.getNbReadyEntries(maxCreatedDate.toDate());
     }
 
+    @Override
+    public long getNbReadyEntries(final DateTime maxCreatedDate, final long max) {
+        return dao.getNbReadyEntries(maxCreatedDate.toDate(), max);
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("DefaultPersistentBus{");
@@ -434,16 +487,40 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
     }
 
     private <T extends BusEvent> Iterable<BusEventWithMetadata<T>> getAvailableBusEventsForSearchKeysInternal(final PersistentBusSqlDao transactionalDao, @Nullable final DateTime maxCreatedDate, @Nullable final Long searchKey1, final Long searchKey2) {
+        if (searchKey1 == null) {
+            return toLazyBusEventWithMetadata(new KeysetPaginatedIterable<BusEventModelDao>(new KeysetPaginatedIterable.PageFetcher<>() {
+                @Override
+                public List<BusEventModelDao> fetchPage(@Nullable final BusEventModelDao lastEntry, final int pageSize) {
+                    return getReadyQueueEntriesPageWithProfiling(transactionalDao, maxCreatedDate, searchKey2, lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(), pageSize);
+                }
+            }, SEARCH_KEY2_PAGE_SIZE));
+        }
         final Iterable<BusEventModelDao> entries = getReadyQueueEntriesForSearchKeysWithProfiling(transactionalDao, maxCreatedDate, searchKey1, searchKey2);
         return toBusEventWithMetadata(entries);
     }
 
     private <T extends BusEvent> Iterable<BusEventWithMetadata<T>> getAvailableOrInProcessingBusEventsForSearchKeysInternal(final PersistentBusSqlDao transactionalDao, @Nullable final DateTime maxCreatedDate, @Nullable final Long searchKey1, final Long searchKey2) {
+        if (searchKey1 == null) {
+            return toLazyBusEventWithMetadata(new KeysetPaginatedIterable<BusEventModelDao>(new KeysetPaginatedIterable.PageFetcher<>() {
+                @Override
+                public List<BusEventModelDao> fetchPage(@Nullable final BusEventModelDao lastEntry, final int pageSize) {
+                    return getReadyOrInProcessingQueueEntriesPageWithProfiling(transactionalDao, maxCreatedDate, searchKey2, lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(), pageSize);
+                }
+            }, SEARCH_KEY2_PAGE_SIZE));
+        }
         final Iterable<BusEventModelDao> entries = getReadyOrInProcessingQueueEntriesForSearchKeysWithProfiling(transactionalDao, maxCreatedDate, searchKey1, searchKey2);
         return toBusEventWithMetadata(entries);
     }
 
     private <T extends BusEvent> Iterable<BusEventWithMetadata<T>> getHistoricalBusEventsForSearchKeysInternal(final PersistentBusSqlDao transactionalDao, @Nullable final DateTime minCreatedDate, @Nullable final Long searchKey1, final Long searchKey2) {
+        if (searchKey1 == null) {
+            return toLazyBusEventWithMetadata(new KeysetPaginatedIterable<BusEventModelDao>(new KeysetPaginatedIterable.PageFetcher<>() {
+                @Override
+                public List<BusEventModelDao> fetchPage(@Nullable final BusEventModelDao lastEntry, final int pageSize) {
+                    return getHistoricalQueueEntriesPageWithProfiling(transactionalDao, minCreatedDate, searchKey2, lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(), pageSize);
+                }
+            }, SEARCH_KEY2_PAGE_SIZE));
+        }
         final Iterable<BusEventModelDao> entries = getHistoricalQueueEntriesForSearchKeysWithProfiling(transactionalDao, minCreatedDate, searchKey1, searchKey2);
         return toBusEventWithMetadata(entries);
     }
@@ -496,17 +573,56 @@ public class DefaultPersistentBus extends DefaultQueueLifecycle implements Persi
         });
     }
 
-    private <T extends BusEvent> Iterable<BusEventWithMetadata<T>> toBusEventWithMetadata(final Iterable<BusEventModelDao> entries) {
+    private List<BusEventModelDao> getReadyQueueEntriesPageWithProfiling(final PersistentBusSqlDao transactionalDao, @Nullable final DateTime maxCreatedDate, final Long searchKey2, final Long lastRecordId, final int pageSize) {
+        return pageProf.executeWithProfiling(ProfilingFeature.ProfilingFeatureType.DAO, "DAO:PersistentBusSqlDao:getReadyQueueEntriesPageForSearchKey2", new Profiling.WithProfilingCallback<List<BusEventModelDao>, RuntimeException>() {
+            @Override
+            public List<BusEventModelDao> execute() throws RuntimeException {
+                return transactionalDao.getReadyQueueEntriesPageForSearchKey2(maxCreatedDate, searchKey2, lastRecordId, pageSize, config.getTableName());
+            }
+        });
+    }
+
+    private List<BusEventModelDao> getReadyOrInProcessingQueueEntriesPageWithProfiling(final PersistentBusSqlDao transactionalDao, @Nullable final DateTime maxCreatedDate, final Long searchKey2, final Long lastRecordId, final int pageSize) {
+        return pageProf.executeWithProfiling(ProfilingFeature.ProfilingFeatureType.DAO, "DAO:PersistentBusSqlDao:getReadyOrInProcessingQueueEntriesPageForSearchKey2", new Profiling.WithProfilingCallback<List<BusEventModelDao>, RuntimeException>() {
+            @Override
+            public List<BusEventModelDao> execute() throws RuntimeException {
+                return transactionalDao.getReadyOrInProcessingQueueEntriesPageForSearchKey2(maxCreatedDate, searchKey2, lastRecordId, pageSize, config.getTableName());
+            }
+        });
+    }
+
+    private List<BusEventModelDao> getHistoricalQueueEntriesPageWithProfiling(final PersistentBusSqlDao transactionalDao, @Nullable final DateTime minCreatedDate, final Long searchKey2, final Long lastRecordId, final int pageSize) {
+        return pageProf.executeWithProfiling(ProfilingFeature.ProfilingFeatureType.DAO, "DAO:PersistentBusSqlDao:getHistoricalQueueEntriesPageForSearchKey2", new Profiling.WithProfilingCallback<List<BusEventModelDao>, RuntimeException>() {
+            @Override
+            public List<BusEventModelDao> execute() throws RuntimeException {
+                return transactionalDao.getHistoricalQueueEntriesPageForSearchKey2(minCreatedDate, searchKey2, lastRecordId, pageSize, config.getHistoryTableName());
+            }
+        });
+    }
+
+    // Lazy: entries are deserialized as the caller iterates
+    private <T extends BusEvent> Iterable<BusEventWithMetadata<T>> toLazyBusEventWithMetadata(final KeysetPaginatedIterable<BusEventModelDao> entries) {
+        return new Iterable<BusEventWithMetadata<T>>() {
+            @Override
+            public Iterator<BusEventWithMetadata<T>> iterator() {
+                return Iterators.transform(entries.iterator(), entry -> DefaultPersistentBus.this.<T>toBusEventWithMetadata(entry));
+            }
+        };
+    }
+
+    private <T extends BusEvent> BusEventWithMetadata<T> toBusEventWithMetadata(final BusEventModelDao entry) {
+        final T event = EventEntryDeserializer.deserialize(entry, objectReader);
+        return new BusEventWithMetadata<T>(entry.getRecordId(),
+                                           entry.getUserToken(),
+                                           entry.getCreatedDate(),
+                                           entry.getSearchKey1(),
+                                           entry.getSearchKey2(),
+                                           event);
+    }
+
+    private <T extends BusEvent> List<BusEventWithMetadata<T>> toBusEventWithMetadata(final Iterable<BusEventModelDao> entries) {
         return Iterables.toStream(entries)
-                .map(entry -> {
-                    final T event = EventEntryDeserializer.deserialize(entry, objectReader);
-                    return new BusEventWithMetadata<T>(entry.getRecordId(),
-                                                       entry.getUserToken(),
-                                                       entry.getCreatedDate(),
-                                                       entry.getSearchKey1(),
-                                                       entry.getSearchKey2(),
-                                                       event);
-                })
+                .map(entry -> this.<T>toBusEventWithMetadata(entry))
                 .collect(Collectors.toUnmodifiableList());
     }
 
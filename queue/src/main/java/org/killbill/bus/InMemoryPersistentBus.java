@@ -31,6 +31,7 @@ import org.killbill.bus.api.BusEventWithMetadata;
 import org.killbill.bus.api.PersistentBus;
 import org.killbill.bus.api.PersistentBusConfig;
 import org.killbill.commons.eventbus.EventBus;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -105,6 +106,17 @@ public class InMemoryPersistentBus implements PersistentBus {
         }
     }
 
+    @Override
+    public void post(final BusEvent event, final PersistentQueueEntryPriority priority) throws EventBusException {
+        // Events are dispatched synchronously, priority is irrelevant
+        post(event);
+    }
+
+    @Override
+    public void postFromTransaction(final BusEvent event, final PersistentQueueEntryPriority priority, final Connection connection) throws EventBusException {
+        postFromTransaction(event, connection);
+    }
+
     @Override
     public boolean initQueue() {
         if (config.isProcessingOff()) {
@@ -210,8 +222,23 @@ public class InMemoryPersistentBus implements PersistentBus {
         throw new UnsupportedOperationException("Guava doesn't expose the events to dispatch");
     }
 
+    @Override
+    public <T extends BusEvent> List<BusEventWithMetadata<T>> getAvailableBusEventsPageForSearchKey2(final DateTime maxCreatedDate, final Long searchKey2, final BusEventWithMetadata<?> lastEntry, final int pageSize) {
+        throw new UnsupportedOperationException("Guava doesn't expose the events to dispatch");
+    }
+
+    @Override
+    public <T extends BusEvent> List<BusEventWithMetadata<T>> getHistoricalBusEventsPageForSearchKey2(final DateTime minCreatedDate, final Long searchKey2, final BusEventWithMetadata<?> lastEntry, final int pageSize) {
+        throw new UnsupportedOperationException("Guava doesn't expose the events to dispatch");
+    }
+
     @Override
     public long getNbReadyEntries(final DateTime maxCreatedDate) {
         throw new UnsupportedOperationException("Guava doesn't expose the events to dispatch");
     }
+
+    @Override
+    public long getNbReadyEntries(final DateTime maxCreatedDate, final long max) {
+        throw new UnsupportedOperationException("Guava doesn't expose the events to dispatch");
+    }
 }
@@ -20,8 +20,12 @@
 package org.killbill.bus.api;
 
 import java.sql.Connection;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 import org.joda.time.DateTime;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.api.QueueLifecycle;
 
 /**
@@ -88,6 +92,26 @@ public interface PersistentBus extends QueueLifecycle {
      */
     void postFromTransaction(BusEvent event, Connection connection) throws EventBusException;
 
+    /**
+     * Post an event asynchronously
+     *
+     * @param event    to be posted
+     * @param priority dispatch lane of the event
+     * @throws EventBusException if bus not been started yet
+     */
+    void post(BusEvent event, PersistentQueueEntryPriority priority) throws EventBusException;
+
+    /**
+     * Post an event from within a transaction.
+     * Guarantees that the event is persisted on disk from within the same transaction
+     *
+     * @param event      to be posted
+     * @param priority   dispatch lane of the event
+     * @param connection current connection
+     * @throws EventBusException if bus not been started yet
+     */
+    void postFromTransaction(BusEvent event, PersistentQueueEntryPriority priority, Connection connection) throws EventBusException;
+
     /**
      * Retrieve all available bus events matching that search key
      *
@@ -187,6 +211,28 @@ public interface PersistentBus extends QueueLifecycle {
      */
     <T extends BusEvent> Iterable<BusEventWithMetadata<T>> getHistoricalBusEventsForSearchKey2(DateTime minCreatedDate, Long searchKey2);
 
+    /**
+     * Retrieve one page of bus events matching that search key
+     *
+     * @param maxCreatedDate created_date cutoff, to limit the search
+     * @param searchKey2     the value for key2
+     * @param lastEntry      the last bus event of the previous page, null for the first page
+     * @param pageSize       the max number of bus events to return
+     * @return a list of BusEventWithMetadata objects matching the search, following lastEntry
+     */
+    <T extends BusEvent> List<BusEventWithMetadata<T>> getAvailableBusEventsPageForSearchKey2(DateTime maxCreatedDate, Long searchKey2, @Nullable BusEventWithMetadata<?> lastEntry, int pageSize);
+
+    /**
+     * Retrieve one page of historical bus events matching that search key
+     *
+     * @param minCreatedDate created_date cutoff, to limit the search
+     * @param searchKey2     the value for key2
+     * @param lastEntry      the last bus event of the previous page, null for the first page
+     * @param pageSize       the max number of bus events to return
+     * @return a list of BusEventWithMetadata objects matching the search, following lastEntry
+     */
+    <T extends BusEvent> List<BusEventWithMetadata<T>> getHistoricalBusEventsPageForSearchKey2(DateTime minCreatedDate, Long searchKey2, @Nullable BusEventWithMetadata<?> lastEntry, int pageSize);
+
     /**
      * Count the number of bus entries ready to be processed
      *
@@ -194,4 +240,13 @@ public interface PersistentBus extends QueueLifecycle {
      * @return the number of ready entries
      */
     long getNbReadyEntries(final DateTime maxCreatedDate);
+
+    /**
+     * Count the number of bus entries ready to be processed, without scanning more than max entries
+     *
+     * @param maxCreatedDate created_date cutoff (typically now())
+     * @param max            the max number of entries to count
+     * @return the number of ready entries, or max if there are at least max ready entries
+     */
+    long getNbReadyEntries(final DateTime maxCreatedDate, final long max);
 }
@@ -23,6 +23,7 @@ import java.util.UUID;
 
 import org.joda.time.DateTime;
 import org.killbill.queue.api.PersistentQueueEntryLifecycleState;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.dao.EventEntryModelDao;
 
 public class BusEventModelDao implements EventEntryModelDao {
@@ -39,6 +40,7 @@ public class BusEventModelDao implements EventEntryModelDao {
     private PersistentQueueEntryLifecycleState processingState;
     private Long searchKey1;
     private Long searchKey2;
+    private int priority = PersistentQueueEntryPriority.NORMAL.getValue();
 
     public BusEventModelDao() { /* DAO mapper */ }
 
@@ -66,10 +68,12 @@ public class BusEventModelDao implements EventEntryModelDao {
 
     public BusEventModelDao(final BusEventModelDao in, final String owner, final DateTime nextAvailable, final PersistentQueueEntryLifecycleState state) {
         this(in.getRecordId(), in.getCreatingOwner(), owner, in.getCreatedDate(), nextAvailable, state, in.getClassName(), in.getEventJson(), in.getErrorCount(), in.getUserToken(), in.getSearchKey1(), in.getSearchKey2());
+        this.priority = in.getPriority();
     }
 
     public BusEventModelDao(final BusEventModelDao in, final String owner, final DateTime nextAvailable, final PersistentQueueEntryLifecycleState state, final Long errorCount) {
         this(in.getRecordId(), in.getCreatingOwner(), owner, in.getCreatedDate(), nextAvailable, state, in.getClassName(), in.getEventJson(), errorCount, in.getUserToken(), in.getSearchKey1(), in.getSearchKey2());
+        this.priority = in.getPriority();
     }
 
     @Override
@@ -179,6 +183,16 @@ public class BusEventModelDao implements EventEntryModelDao {
         this.searchKey2 = searchKey2;
     }
 
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setPriority(final int priority) {
+        this.priority = priority;
+    }
+
     @Override
     public boolean isAvailableForProcessing(final DateTime now) {
         switch (processingState) {
@@ -228,6 +242,7 @@ public class BusEventModelDao implements EventEntryModelDao {
         sb.append(", processingState=").append(processingState);
         sb.append(", searchKey1=").append(searchKey1);
         sb.append(", searchKey2=").append(searchKey2);
+        sb.append(", priority=").append(priority);
         sb.append('}');
         return sb.toString();
     }
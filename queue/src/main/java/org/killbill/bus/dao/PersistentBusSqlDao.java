@@ -26,6 +26,7 @@ import java.util.List;
 import javax.annotation.Nullable;
 
 import org.joda.time.DateTime;
+import org.killbill.commons.jdbi.routing.ReadFromReplica;
 import org.killbill.commons.jdbi.statement.SmartFetchSize;
 import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
 import org.killbill.queue.dao.QueueSqlDao;
@@ -71,13 +72,37 @@ public interface PersistentBusSqlDao extends QueueSqlDao<BusEventModelDao> {
 
     @SqlQuery
     @SmartFetchSize(shouldStream = true)
+    @ReadFromReplica
     public Iterator<BusEventModelDao> getHistoricalQueueEntriesForSearchKeys(@Bind("searchKey1") final Long searchKey1,
                                                                              @Bind("searchKey2") final Long searchKey2,
                                                                              @Define("historyTableName") final String historyTableName);
 
     @SqlQuery
     @SmartFetchSize(shouldStream = true)
+    @ReadFromReplica
     public Iterator<BusEventModelDao> getHistoricalQueueEntriesForSearchKey2(@Bind("minCreatedDate") final DateTime minCreatedDate,
                                                                              @Bind("searchKey2") final Long searchKey2,
                                                                              @Define("historyTableName") final String historyTableName);
+
+    @SqlQuery
+    public List<BusEventModelDao> getReadyQueueEntriesPageForSearchKey2(@Bind("maxCreatedDate") final DateTime maxCreatedDate,
+                                                                        @Bind("searchKey2") final Long searchKey2,
+                                                                        @Bind("lastRecordId") final Long lastRecordId,
+                                                                        @Bind("max") final int max,
+                                                                        @Define("tableName") final String tableName);
+
+    @SqlQuery
+    public List<BusEventModelDao> getReadyOrInProcessingQueueEntriesPageForSearchKey2(@Bind("maxCreatedDate") final DateTime maxCreatedDate,
+                                                                                      @Bind("searchKey2") final Long searchKey2,
+                                                                                      @Bind("lastRecordId") final Long lastRecordId,
+                                                                                      @Bind("max") final int max,
+                                                                                      @Define("tableName") final String tableName);
+
+    @SqlQuery
+    @ReadFromReplica
+    public List<BusEventModelDao> getHistoricalQueueEntriesPageForSearchKey2(@Bind("minCreatedDate") final DateTime minCreatedDate,
+                                                                             @Bind("searchKey2") final Long searchKey2,
+                                                                             @Bind("lastRecordId") final Long lastRecordId,
+                                                                             @Bind("max") final int max,
+                                                                             @Define("historyTableName") final String historyTableName);
 }
@@ -21,9 +21,10 @@ package org.killbill.notificationq;
 
 import java.io.IOException;
 import java.sql.Connection;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -32,6 +33,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.killbill.CreatorName;
 import org.killbill.clock.Clock;
 import org.killbill.commons.profiling.Profiling;
@@ -48,14 +50,18 @@ import org.killbill.notificationq.dao.NotificationEventModelDao;
 import org.killbill.notificationq.dao.NotificationSqlDao;
 import org.killbill.queue.DBBackedQueue;
 import org.killbill.queue.InTransaction;
+import org.killbill.queue.KeysetPaginatedIterable;
 import org.killbill.queue.QueueObjectMapper;
 import org.killbill.queue.api.PersistentQueueEntryLifecycleState;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.dao.QueueSqlDao;
 import org.killbill.queue.dispatching.CallableCallbackBase;
 import org.killbill.queue.dispatching.EventEntryDeserializer;
 import org.skife.jdbi.v2.DBI;
 import org.skife.jdbi.v2.Transaction;
 import org.skife.jdbi.v2.TransactionStatus;
+import org.skife.jdbi.v2.exceptions.TransactionException;
+import org.skife.jdbi.v2.exceptions.UnableToExecuteStatementException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,6 +73,13 @@ public class DefaultNotificationQueue implements NotificationQueue {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultNotificationQueue.class);
 
+    // Number of notifications fetched per query when iterating over search key2 results
+    private static final int SEARCH_KEY2_PAGE_SIZE = 1000;
+
+    // Keyset of the (virtual) entry preceding all notifications, used to fetch the first page
+    private static final DateTime BEFORE_FIRST_ENTRY_DATE = new DateTime(0, DateTimeZone.UTC);
+    private static final Long BEFORE_FIRST_ENTRY_RECORD_ID = -1L;
+
     private final DBI dbi;
     private final DBBackedQueue<NotificationEventModelDao> dao;
     private final String svcName;
@@ -78,6 +91,7 @@ public class DefaultNotificationQueue implements NotificationQueue {
     private final Clock clock;
     private final NotificationQueueConfig config;
     private final Profiling<Iterable<NotificationEventModelDao>, RuntimeException> prof;
+    private final Profiling<List<NotificationEventModelDao>, RuntimeException> pageProf;
 
     private AtomicBoolean isInitialized;
     private AtomicBoolean isStarted;
@@ -104,35 +118,142 @@ public class DefaultNotificationQueue implements NotificationQueue {
         this.clock = clock;
         this.config = config;
         this.prof = new Profiling<Iterable<NotificationEventModelDao>, RuntimeException>();
+        this.pageProf = new Profiling<List<NotificationEventModelDao>, RuntimeException>();
     }
 
     @Override
     public void recordFutureNotification(final DateTime futureNotificationTime, final NotificationEvent event, final UUID userToken, final Long searchKey1, final Long searchKey2) throws IOException {
+        recordFutureNotification(futureNotificationTime, event, userToken, searchKey1, searchKey2, PersistentQueueEntryPriority.NORMAL);
+    }
+
+    @Override
+    public void recordFutureNotification(final DateTime futureNotificationTime, final NotificationEvent event, final UUID userToken, final Long searchKey1, final Long searchKey2, final PersistentQueueEntryPriority priority) throws IOException {
         final String eventJson = objectWriter.writeValueAsString(event);
         final UUID futureUserToken = UUID.randomUUID();
         final Long searchKey2WithNull = Objects.requireNonNullElse(searchKey2, 0L);
         final NotificationEventModelDao notification = new NotificationEventModelDao(CreatorName.get(), clock.getUTCNow(), event.getClass().getName(), eventJson, userToken, searchKey1, searchKey2WithNull, futureUserToken, futureNotificationTime, getFullQName());
-        dao.insertEntry(notification);
+        notification.setDedupKey(event.getDedupKey());
+        notification.setPriority(priority.getValue());
+        if (notification.getDedupKey() == null) {
+            dao.insertEntry(notification);
+            return;
+        }
+
+        dao.getSqlDao().inTransaction(new Transaction<Void, QueueSqlDao<NotificationEventModelDao>>() {
+            @Override
+            public Void inTransaction(final QueueSqlDao<NotificationEventModelDao> transactional, final TransactionStatus status) throws Exception {
+                recordFutureNotificationInternal((NotificationSqlDao) transactional, notification);
+                return null;
+            }
+        });
     }
 
     @Override
     public void recordFutureNotificationFromTransaction(final Connection connection, final DateTime futureNotificationTime, final NotificationEvent event,
                                                         final UUID userToken, final Long searchKey1, final Long searchKey2) throws IOException {
+        recordFutureNotificationFromTransaction(connection, futureNotificationTime, event, userToken, searchKey1, searchKey2, PersistentQueueEntryPriority.NORMAL);
+    }
+
+    @Override
+    public void recordFutureNotificationFromTransaction(final Connection connection, final DateTime futureNotificationTime, final NotificationEvent event,
+                                                        final UUID userToken, final Long searchKey1, final Long searchKey2, final PersistentQueueEntryPriority priority) throws IOException {
         final String eventJson = objectWriter.writeValueAsString(event);
         final UUID futureUserToken = UUID.randomUUID();
         final Long searchKey2WithNull = Objects.requireNonNullElse(searchKey2, 0L);
         final NotificationEventModelDao notification = new NotificationEventModelDao(CreatorName.get(), clock.getUTCNow(), event.getClass().getName(), eventJson, userToken, searchKey1, searchKey2WithNull, futureUserToken, futureNotificationTime, getFullQName());
+        notification.setDedupKey(event.getDedupKey());
+        notification.setPriority(priority.getValue());
 
         final InTransaction.InTransactionHandler<NotificationSqlDao, Void> handler = new InTransaction.InTransactionHandler<NotificationSqlDao, Void>() {
             @Override
             public Void withSqlDao(final NotificationSqlDao transactional) {
-                dao.insertEntryFromTransaction(transactional, notification);
+                recordFutureNotificationInternal(transactional, notification);
                 return null;
             }
         };
         InTransaction.execute(dbi, connection, handler, NotificationSqlDao.class);
     }
 
+    private void recordFutureNotificationInternal(final NotificationSqlDao transactional, final NotificationEventModelDao notification) {
+        if (notification.getDedupKey() == null) {
+            dao.insertEntryFromTransaction(transactional, notification);
+            return;
+        }
+
+        if (coalesceIntoEntryForDedupKey(transactional, notification)) {
+            return;
+        }
+
+        // Another transaction may insert an entry with the same key concurrently: the unique index makes us wait for it and fail
+        // if it commits. The insert is attempted within a savepoint, so that the (caller's) transaction can go on and coalesce instead.
+        final Connection connection = transactional.getHandle().getConnection();
+        final Savepoint savepoint = setSavepoint(connection);
+        try {
+            dao.insertEntryFromTransaction(transactional, notification);
+            releaseSavepoint(connection, savepoint);
+            return;
+        } catch (final UnableToExecuteStatementException e) {
+            if (!isIntegrityConstraintViolation(e)) {
+                throw e;
+            }
+            // Rolling back keeps the savepoint, it isn't needed anymore either
+            rollbackToSavepoint(connection, savepoint);
+            releaseSavepoint(connection, savepoint);
+        }
+
+        if (coalesceIntoEntryForDedupKey(transactional, notification)) {
+            return;
+        }
+        // The key is held by an entry which is not AVAILABLE anymore (e.g. claimed before claims released it): it can't absorb the notification
+        final int nbReleased = transactional.releaseDedupKey(getFullQName(), notification.getDedupKey(), config.getTableName());
+        logger.info("Released dedupKey={} from {} entries not available anymore", notification.getDedupKey(), nbReleased);
+        dao.insertEntryFromTransaction(transactional, notification);
+    }
+
+    private boolean coalesceIntoEntryForDedupKey(final NotificationSqlDao transactional, final NotificationEventModelDao notification) {
+        // Coalesce with the entry not yet dispatched, keeping the earliest effective date
+        final int nbCoalesced = transactional.coalesceIntoEntryForDedupKey(getFullQName(), notification.getDedupKey(), notification.getEffectiveDate(), config.getTableName());
+        if (nbCoalesced > 0) {
+            logger.debug("Coalesced notification with dedupKey={}", notification.getDedupKey());
+            return true;
+        }
+        return false;
+    }
+
+    private static Savepoint setSavepoint(final Connection connection) {
+        try {
+            return connection.setSavepoint();
+        } catch (final SQLException e) {
+            throw new TransactionException("Unable to create savepoint", e);
+        }
+    }
+
+    private static void rollbackToSavepoint(final Connection connection, final Savepoint savepoint) {
+        try {
+            connection.rollback(savepoint);
+        } catch (final SQLException e) {
+            throw new TransactionException("Unable to rollback to savepoint", e);
+        }
+    }
+
+    private static void releaseSavepoint(final Connection connection, final Savepoint savepoint) {
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (final SQLException e) {
+            throw new TransactionException("Unable to release savepoint", e);
+        }
+    }
+
+    private static boolean isIntegrityConstraintViolation(final Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            // SQL standard class 23: integrity constraint violation (e.g. 23505 on H2 and PostgreSQL, 23000 on MySQL)
+            if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null && ((SQLException) cause).getSQLState().startsWith("23")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void updateFutureNotification(final Long recordId, final NotificationEvent event, final Long searchKey1, final Long searchKey2) throws IOException {
         final String eventJson = objectWriter.writeValueAsString(event);
@@ -188,7 +309,8 @@ public class DefaultNotificationQueue implements NotificationQueue {
         final InTransaction.InTransactionHandler<NotificationSqlDao, Iterable<NotificationEventWithMetadata<T>>> handler = new InTransaction.InTransactionHandler<NotificationSqlDao, Iterable<NotificationEventWithMetadata<T>>>() {
             @Override
             public Iterable<NotificationEventWithMetadata<T>> withSqlDao(final NotificationSqlDao transactional) {
-                return getFutureNotificationsInternal(transactional, maxEffectiveDate, null, searchKey2);
+                // The connection belongs to the caller, fetch all pages before handing back the result
+                return Iterables.toUnmodifiableList(getFutureNotificationsInternal(transactional, maxEffectiveDate, null, searchKey2));
             }
         };
         return InTransaction.execute(dbi, connection, handler, NotificationSqlDao.class);
@@ -225,7 +347,8 @@ public class DefaultNotificationQueue implements NotificationQueue {
         final InTransaction.InTransactionHandler<NotificationSqlDao, Iterable<NotificationEventWithMetadata<T>>> handler = new InTransaction.InTransactionHandler<NotificationSqlDao, Iterable<NotificationEventWithMetadata<T>>>() {
             @Override
             public Iterable<NotificationEventWithMetadata<T>> withSqlDao(final NotificationSqlDao transactional) {
-                return getFutureOrInProcessingNotificationsInternal(transactional, maxEffectiveDate, null, searchKey2);
+                // The connection belongs to the caller, fetch all pages before handing back the result
+                return Iterables.toUnmodifiableList(getFutureOrInProcessingNotificationsInternal(transactional, maxEffectiveDate, null, searchKey2));
             }
         };
         return InTransaction.execute(dbi, connection, handler, NotificationSqlDao.class);
@@ -241,17 +364,83 @@ public class DefaultNotificationQueue implements NotificationQueue {
         return getHistoricalNotificationsInternal((NotificationSqlDao) dao.getSqlDao(), minEffectiveDate, null, searchKey2);
     }
 
+    @Override
+    public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getFutureNotificationPageForSearchKey2(final DateTime maxEffectiveDate, final Long searchKey2, @Nullable final NotificationEventWithMetadata<?> lastEntry, final int pageSize) {
+        final List<NotificationEventModelDao> entries = getFutureNotificationsPageWithProfiling((NotificationSqlDao) dao.getSqlDao(),
+                                                                                                maxEffectiveDate,
+                                                                                                searchKey2,
+                                                                                                lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getEffectiveDate(),
+                                                                                                lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getCreatedDate(),
+                                                                                                lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(),
+                                                                                                pageSize);
+        return toNotificationEventWithMetadata(entries);
+    }
+
+    @Override
+    public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getHistoricalNotificationPageForSearchKey2(final DateTime minEffectiveDate, final Long searchKey2, @Nullable final NotificationEventWithMetadata<?> lastEntry, final int pageSize) {
+        final List<NotificationEventModelDao> entries = getHistoricalNotificationsPageWithProfiling((NotificationSqlDao) dao.getSqlDao(),
+                                                                                                    minEffectiveDate,
+                                                                                                    searchKey2,
+                                                                                                    lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getEffectiveDate(),
+                                                                                                    lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getCreatedDate(),
+                                                                                                    lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(),
+                                                                                                    pageSize);
+        return toNotificationEventWithMetadata(entries);
+    }
+
     private <T extends NotificationEvent> Iterable<NotificationEventWithMetadata<T>> getFutureNotificationsInternal(final NotificationSqlDao transactionalDao, @Nullable final DateTime maxEffectiveDate, @Nullable final Long searchKey1, final Long searchKey2) {
+        if (searchKey1 == null) {
+            return toLazyNotificationEventWithMetadata(new KeysetPaginatedIterable<NotificationEventModelDao>(new KeysetPaginatedIterable.PageFetcher<>() {
+                @Override
+                public List<NotificationEventModelDao> fetchPage(@Nullable final NotificationEventModelDao lastEntry, final int pageSize) {
+                    return getFutureNotificationsPageWithProfiling(transactionalDao,
+                                                                   maxEffectiveDate,
+                                                                   searchKey2,
+                                                                   lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getEffectiveDate(),
+                                                                   lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getCreatedDate(),
+                                                                   lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(),
+                                                                   pageSize);
+                }
+            }, SEARCH_KEY2_PAGE_SIZE));
+        }
         final Iterable<NotificationEventModelDao> entries = getFutureNotificationsInternalWithProfiling(transactionalDao, maxEffectiveDate, searchKey1, searchKey2);
         return toNotificationEventWithMetadata(entries);
     }
 
     private <T extends NotificationEvent> Iterable<NotificationEventWithMetadata<T>> getFutureOrInProcessingNotificationsInternal(final NotificationSqlDao transactionalDao, @Nullable final DateTime maxEffectiveDate, @Nullable final Long searchKey1, final Long searchKey2) {
+        if (searchKey1 == null) {
+            return toLazyNotificationEventWithMetadata(new KeysetPaginatedIterable<NotificationEventModelDao>(new KeysetPaginatedIterable.PageFetcher<>() {
+                @Override
+                public List<NotificationEventModelDao> fetchPage(@Nullable final NotificationEventModelDao lastEntry, final int pageSize) {
+                    return getFutureOrInProcessingNotificationsPageWithProfiling(transactionalDao,
+                                                                                 maxEffectiveDate,
+                                                                                 searchKey2,
+                                                                                 lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getEffectiveDate(),
+                                                                                 lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getCreatedDate(),
+                                                                                 lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(),
+                                                                                 pageSize);
+                }
+            }, SEARCH_KEY2_PAGE_SIZE));
+        }
         final Iterable<NotificationEventModelDao> entries = getFutureOrInProcessingNotificationsInternalWithProfiling(transactionalDao, maxEffectiveDate, searchKey1, searchKey2);
         return toNotificationEventWithMetadata(entries);
     }
 
     private <T extends NotificationEvent> Iterable<NotificationEventWithMetadata<T>> getHistoricalNotificationsInternal(final NotificationSqlDao transactionalDao, @Nullable final DateTime minEffectiveDate, @Nullable final Long searchKey1, final Long searchKey2) {
+        if (searchKey1 == null) {
+            return toLazyNotificationEventWithMetadata(new KeysetPaginatedIterable<NotificationEventModelDao>(new KeysetPaginatedIterable.PageFetcher<>() {
+                @Override
+                public List<NotificationEventModelDao> fetchPage(@Nullable final NotificationEventModelDao lastEntry, final int pageSize) {
+                    return getHistoricalNotificationsPageWithProfiling(transactionalDao,
+                                                                       minEffectiveDate,
+                                                                       searchKey2,
+                                                                       lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getEffectiveDate(),
+                                                                       lastEntry == null ? BEFORE_FIRST_ENTRY_DATE : lastEntry.getCreatedDate(),
+                                                                       lastEntry == null ? BEFORE_FIRST_ENTRY_RECORD_ID : lastEntry.getRecordId(),
+                                                                       pageSize);
+                }
+            }, SEARCH_KEY2_PAGE_SIZE));
+        }
         final Iterable<NotificationEventModelDao> entries = getHistoricalNotificationsInternalWithProfiling(transactionalDao, minEffectiveDate, searchKey1, searchKey2);
         return toNotificationEventWithMetadata(entries);
     }
@@ -304,20 +493,63 @@ public class DefaultNotificationQueue implements NotificationQueue {
         });
     }
 
-    private <T extends NotificationEvent> Iterable<NotificationEventWithMetadata<T>> toNotificationEventWithMetadata(final Iterable<NotificationEventModelDao> entries) {
+    private List<NotificationEventModelDao> getFutureNotificationsPageWithProfiling(final NotificationSqlDao transactionalDao, @Nullable final DateTime maxEffectiveDate, final Long searchKey2,
+                                                                                    final DateTime lastEffectiveDate, final DateTime lastCreatedDate, final Long lastRecordId, final int pageSize) {
+        return pageProf.executeWithProfiling(ProfilingFeature.ProfilingFeatureType.DAO, "DAO:NotificationSqlDao:getReadyQueueEntriesPageForSearchKey2", new Profiling.WithProfilingCallback<List<NotificationEventModelDao>, RuntimeException>() {
+            @Override
+            public List<NotificationEventModelDao> execute() throws RuntimeException {
+                return transactionalDao.getReadyQueueEntriesPageForSearchKey2(getFullQName(), maxEffectiveDate, searchKey2, lastEffectiveDate, lastCreatedDate, lastRecordId, pageSize, config.getTableName());
+            }
+        });
+    }
+
+    private List<NotificationEventModelDao> getFutureOrInProcessingNotificationsPageWithProfiling(final NotificationSqlDao transactionalDao, @Nullable final DateTime maxEffectiveDate, final Long searchKey2,
+                                                                                                  final DateTime lastEffectiveDate, final DateTime lastCreatedDate, final Long lastRecordId, final int pageSize) {
+        return pageProf.executeWithProfiling(ProfilingFeature.ProfilingFeatureType.DAO, "DAO:NotificationSqlDao:getReadyOrInProcessingQueueEntriesPageForSearchKey2", new Profiling.WithProfilingCallback<List<NotificationEventModelDao>, RuntimeException>() {
+            @Override
+            public List<NotificationEventModelDao> execute() throws RuntimeException {
+                return transactionalDao.getReadyOrInProcessingQueueEntriesPageForSearchKey2(getFullQName(), maxEffectiveDate, searchKey2, lastEffectiveDate, lastCreatedDate, lastRecordId, pageSize, config.getTableName());
+            }
+        });
+    }
+
+    private List<NotificationEventModelDao> getHistoricalNotificationsPageWithProfiling(final NotificationSqlDao transactionalDao, @Nullable final DateTime minEffectiveDate, final Long searchKey2,
+                                                                                        final DateTime lastEffectiveDate, final DateTime lastCreatedDate, final Long lastRecordId, final int pageSize) {
+        return pageProf.executeWithProfiling(ProfilingFeature.ProfilingFeatureType.DAO, "DAO:NotificationSqlDao:getHistoricalQueueEntriesPageForSearchKey2", new Profiling.WithProfilingCallback<List<NotificationEventModelDao>, RuntimeException>() {
+            @Override
+            public List<NotificationEventModelDao> execute() throws RuntimeException {
+                return transactionalDao.getHistoricalQueueEntriesPageForSearchKey2(getFullQName(), minEffectiveDate, searchKey2, lastEffectiveDate, lastCreatedDate, lastRecordId, pageSize, config.getHistoryTableName());
+            }
+        });
+    }
+
+    // Lazy: entries are deserialized as the caller iterates
+    private <T extends NotificationEvent> Iterable<NotificationEventWithMetadata<T>> toLazyNotificationEventWithMetadata(final KeysetPaginatedIterable<NotificationEventModelDao> entries) {
+        return new Iterable<NotificationEventWithMetadata<T>>() {
+            @Override
+            public Iterator<NotificationEventWithMetadata<T>> iterator() {
+                return Iterators.transform(entries.iterator(), cur -> DefaultNotificationQueue.this.<T>toNotificationEventWithMetadata(cur));
+            }
+        };
+    }
+
+    private <T extends NotificationEvent> NotificationEventWithMetadata<T> toNotificationEventWithMetadata(final NotificationEventModelDao cur) {
+        final T event = EventEntryDeserializer.deserialize(cur, objectReader);
+        return new NotificationEventWithMetadata<T>(cur.getRecordId(),
+                                                    cur.getUserToken(),
+                                                    cur.getCreatedDate(),
+                                                    cur.getSearchKey1(),
+                                                    cur.getSearchKey2(),
+                                                    event,
+                                                    cur.getFutureUserToken(),
+                                                    cur.getEffectiveDate(),
+                                                    cur.getQueueName());
+    }
+
+    private <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> toNotificationEventWithMetadata(final Iterable<NotificationEventModelDao> entries) {
         return Iterables.toStream(entries)
-                .map(cur -> {
-                    final T event = EventEntryDeserializer.deserialize(cur, objectReader);
-                    return new NotificationEventWithMetadata<T>(cur.getRecordId(),
-                                                                cur.getUserToken(),
-                                                                cur.getCreatedDate(),
-                                                                cur.getSearchKey1(),
-                                                                cur.getSearchKey2(),
-                                                                event,
-                                                                cur.getFutureUserToken(),
-                                                                cur.getEffectiveDate(),
-                                                                cur.getQueueName());
-                }).collect(Collectors.toUnmodifiableList());
+                .map(cur -> this.<T>toNotificationEventWithMetadata(cur))
+                .collect(Collectors.toUnmodifiableList());
     }
 
     @Override
@@ -325,6 +557,11 @@ public class DefaultNotificationQueue implements NotificationQueue {
         return dao.getNbReadyEntries(maxCreatedDate.toDate());
     }
 
+    @Override
+    public long getNbReadyEntries(final DateTime maxCreatedDate, final long max) {
+        return dao.getNbReadyEntries(maxCreatedDate.toDate(), max);
+    }
+
     @Override
     public void removeNotification(final Long recordId) {
         final NotificationEventModelDao existing = dao.getSqlDao().getByRecordId(recordId, config.getTableName());
@@ -349,42 +586,50 @@ public class DefaultNotificationQueue implements NotificationQueue {
 
     @Override
     public void removeFutureNotificationsForSearchKeys(final Long searchKey1, final Long searchKey2) {
+        removeFutureNotificationsForSearchKeys(searchKey1, searchKey2, null);
+    }
+
+    @Override
+    public void removeFutureNotificationsForSearchKeys(final Long searchKey1, final Long searchKey2, @Nullable final DateTime maxEffectiveDate) {
         dao.getSqlDao().inTransaction(new Transaction<Void, QueueSqlDao<NotificationEventModelDao>>() {
             @Override
             public Void inTransaction(final QueueSqlDao<NotificationEventModelDao> transactional, final TransactionStatus status) throws Exception {
-                // Move entries by batch into the history table
-                final int batchSize = 25;
-                final Collection<NotificationEventModelDao> currentBatch = new ArrayList<NotificationEventModelDao>(batchSize);
-
-                // Note that we don't claim them here, so it could be possible that some of these entries end up being processed nonetheless
-                final Iterator<NotificationEventModelDao> futureQueueEntriesForSearchKeys = ((NotificationSqlDao) transactional).getReadyQueueEntriesForSearchKeys(getFullQName(),
-                                                                                                                                                                   searchKey1,
-                                                                                                                                                                   searchKey2,
-                                                                                                                                                                   config.getTableName());
-                try {
-                    while (futureQueueEntriesForSearchKeys.hasNext()) {
-                        final NotificationEventModelDao notificationEventModelDao = futureQueueEntriesForSearchKeys.next();
-                        notificationEventModelDao.setProcessingState(PersistentQueueEntryLifecycleState.REMOVED);
-                        currentBatch.add(notificationEventModelDao);
-
-                        if (currentBatch.size() >= batchSize || !futureQueueEntriesForSearchKeys.hasNext()) {
-                            dao.moveEntriesToHistoryFromTransaction(transactional, currentBatch);
-                            currentBatch.clear();
-                        }
-                    }
-                } finally {
-                    // This will go through all results to close the connection
-                    final int nbNotificationsLeft = Iterators.size(futureQueueEntriesForSearchKeys);
-                    if (nbNotificationsLeft > 0) {
-                        logger.warn("Unable to remove {} notifications for searchKey1={}, searchKey2={}", searchKey1, searchKey2);
-                    }
-                }
-
+                removeFutureNotificationsForSearchKeysInternal((NotificationSqlDao) transactional, searchKey1, searchKey2, maxEffectiveDate);
                 return null;
             }
         });
     }
 
+    @Override
+    public void removeFutureNotificationsFromTransactionForSearchKeys(final Long searchKey1, final Long searchKey2, final Connection connection) {
+        removeFutureNotificationsFromTransactionForSearchKeys(searchKey1, searchKey2, null, connection);
+    }
+
+    @Override
+    public void removeFutureNotificationsFromTransactionForSearchKeys(final Long searchKey1, final Long searchKey2, @Nullable final DateTime maxEffectiveDate, final Connection connection) {
+        final InTransaction.InTransactionHandler<NotificationSqlDao, Void> handler = new InTransaction.InTransactionHandler<NotificationSqlDao, Void>() {
+            @Override
+            public Void withSqlDao(final NotificationSqlDao transactional) {
+                removeFutureNotificationsForSearchKeysInternal(transactional, searchKey1, searchKey2, maxEffectiveDate);
+                return null;
+            }
+        };
+        InTransaction.execute(dbi, connection, handler, NotificationSqlDao.class);
+    }
+
+    private void removeFutureNotificationsForSearchKeysInternal(final NotificationSqlDao transactional, final Long searchKey1, final Long searchKey2, @Nullable final DateTime maxEffectiveDate) {
+        // Marking the entries as REMOVED first guarantees they can't be claimed anymore: only these are then moved into history.
+        // The entries aren't claimed, so their processing owner and available date are left untouched
+        final int nbRemoved = transactional.markFutureEntriesAsRemovedForSearchKeys(getFullQName(), searchKey1, searchKey2, maxEffectiveDate, config.getTableName());
+        if (nbRemoved == 0) {
+            return;
+        }
+
+        transactional.insertRemovedEntriesIntoHistoryForSearchKeys(getFullQName(), searchKey1, searchKey2, maxEffectiveDate, config.getTableName(), config.getHistoryTableName());
+        transactional.removeRemovedEntriesForSearchKeys(getFullQName(), searchKey1, searchKey2, maxEffectiveDate, config.getTableName());
+        logger.debug("Removed {} future notifications for searchKey1={}, searchKey2={}", nbRemoved, searchKey1, searchKey2);
+    }
+
     @Override
     public String getFullQName() {
         return NotificationQueueServiceBase.getCompositeName(svcName, queueName);
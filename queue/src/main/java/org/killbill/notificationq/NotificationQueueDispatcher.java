@@ -21,12 +21,11 @@ package org.killbill.notificationq;
 
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -34,6 +33,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.killbill.clock.Clock;
 import org.killbill.commons.metrics.api.Histogram;
+import org.killbill.commons.metrics.api.MetricId;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.notificationq.api.NotificationEvent;
 import org.killbill.notificationq.api.NotificationQueue;
@@ -105,7 +105,7 @@ public class NotificationQueueDispatcher extends DefaultQueueLifecycle {
 
         this.queues = new TreeMap<String, NotificationQueue>();
 
-        this.perQueueProcessingTime = new HashMap<String, Histogram>();
+        this.perQueueProcessingTime = new ConcurrentHashMap<String, Histogram>();
 
         this.metricRegistry = metricRegistry;
         this.isInitialized = new AtomicBoolean(false);
@@ -121,12 +121,13 @@ public class NotificationQueueDispatcher extends DefaultQueueLifecycle {
                                            TimeUnit.MINUTES,
                                            config.getShutdownTimeout().getPeriod(),
                                            config.getShutdownTimeout().getUnit(),
-                                           new LinkedBlockingQueue<Runnable>(config.getEventQueueCapacity()),
+                                           config.getEventQueueCapacity(),
                                            notificationQThreadFactory,
                                            new BlockingRejectionExecutionHandler(),
                                            clock,
                                            notificationCallableCallback,
-                                           this);
+                                           this,
+                                           metricRegistry);
     }
 
     @Override
@@ -212,6 +213,11 @@ public class NotificationQueueDispatcher extends DefaultQueueLifecycle {
         return isStarted;
     }
 
+    @Override
+    public long getApproximateNbReadyEntries() {
+        return dao.getApproximateNbReadyEntries();
+    }
+
     @Override
     public DispatchResultMetrics doDispatchEvents() {
         final List<NotificationEventModelDao> notifications = getReadyNotifications();
@@ -243,24 +249,9 @@ public class NotificationQueueDispatcher extends DefaultQueueLifecycle {
 
     public void handleNotificationWithMetrics(final NotificationQueueHandler handler, final NotificationEventModelDao notification, final NotificationEvent key) throws NotificationQueueException {
 
-        // Create specific metric name because:
-        // - ':' is not allowed for metric name
-        // - name would be too long (e.g entitlement-service:subscription-events-process-time -> ent-subscription-events-process-time)
-        //
-        final String[] parts = notification.getQueueName().split(":");
-        final String metricName = new StringBuilder(parts[0].substring(0, 3))
-                .append("-")
-                .append(parts[1])
-                .append("-ProcessingTime").toString();
-
         Histogram perQueueHistogramProcessingTime = perQueueProcessingTime.get(notification.getQueueName());
         if (perQueueHistogramProcessingTime == null) {
-            synchronized (perQueueProcessingTime) {
-                if (!perQueueProcessingTime.containsKey(notification.getQueueName())) {
-                    perQueueProcessingTime.put(notification.getQueueName(), metricRegistry.histogram(String.format("%s.%s", NotificationQueueDispatcher.class.getName(), metricName)));
-                }
-                perQueueHistogramProcessingTime = perQueueProcessingTime.get(notification.getQueueName());
-            }
+            perQueueHistogramProcessingTime = perQueueProcessingTime.computeIfAbsent(notification.getQueueName(), queueName -> metricRegistry.histogram(processingTimeMetricId(queueName)));
         }
 
         final long beforeProcessing = System.nanoTime();
@@ -275,6 +266,22 @@ public class NotificationQueueDispatcher extends DefaultQueueLifecycle {
         }
     }
 
+    private static MetricId processingTimeMetricId(final String queueName) {
+        // Create specific flat metric name because:
+        // - ':' is not allowed for metric name
+        // - name would be too long (e.g entitlement-service:subscription-events-process-time -> ent-subscription-events-process-time)
+        //
+        final String[] parts = queueName.split(":");
+        final String flatName = new StringBuilder(NotificationQueueDispatcher.class.getName())
+                .append(".")
+                .append(parts[0].substring(0, 3))
+                .append("-")
+                .append(parts[1])
+                .append("-ProcessingTime").toString();
+        return MetricId.of(String.format("%s.%s", NotificationQueueDispatcher.class.getName(), "processingTime"), "service", parts[0], "queue", parts[1])
+                       .withFlatName(flatName);
+    }
+
     public NotificationQueueHandler getHandlerForActiveQueue(final String compositeName) {
         final NotificationQueue queue = queues.get(compositeName);
         if (queue == null || !queue.isStarted()) {
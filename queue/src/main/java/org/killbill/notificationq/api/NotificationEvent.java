@@ -19,8 +19,12 @@
 
 package org.killbill.notificationq.api;
 
+import javax.annotation.Nullable;
+
 import org.killbill.queue.api.QueueEvent;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * The interface that needs to be implemented for any notification event
  * <p/>
@@ -29,4 +33,16 @@ import org.killbill.queue.api.QueueEvent;
  */
 
 public interface NotificationEvent extends QueueEvent {
+
+    /**
+     * Optional key identifying the notification within its queue: recording a notification while a future one with the same key
+     * is still waiting to be dispatched doesn't create a new entry, the existing one is kept (with the earliest effective date).
+     *
+     * @return the dedup key, or null if each notification should be recorded
+     */
+    @JsonIgnore
+    @Nullable
+    default String getDedupKey() {
+        return null;
+    }
 }
@@ -21,10 +21,14 @@ package org.killbill.notificationq.api;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
 import org.joda.time.DateTime;
 import org.killbill.notificationq.api.NotificationQueueService.NotificationQueueHandler;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.api.QueueLifecycle;
 
 
@@ -75,6 +79,42 @@ public interface NotificationQueue extends QueueLifecycle {
                                                  final Long searchKey2)
             throws IOException;
 
+    /**
+     * @param futureNotificationTime the time at which the notification is ready
+     * @param eventJson              the event to be serailzed on disk
+     * @param userToken              a opaque token that can be attached to that event
+     * @param searchKey1             a key that can be used for search
+     * @param searchKey2             a key that can be used for search
+     * @param priority               dispatch lane of the notification once ready
+     * @throws IOException if the serialization of the event fails
+     */
+    void recordFutureNotification(final DateTime futureNotificationTime,
+                                  final NotificationEvent eventJson,
+                                  final UUID userToken,
+                                  final Long searchKey1,
+                                  final Long searchKey2,
+                                  final PersistentQueueEntryPriority priority)
+            throws IOException;
+
+    /**
+     * @param connection             the transaction that should be used to record the event
+     * @param futureNotificationTime the time at which the notification is ready
+     * @param eventJson              the event to be serailzed on disk
+     * @param userToken              a opaque token that can be attached to that event
+     * @param searchKey1             a key that can be used for search
+     * @param searchKey2             a key that can be used for search
+     * @param priority               dispatch lane of the notification once ready
+     * @throws IOException if the serialization of the event fails
+     */
+    void recordFutureNotificationFromTransaction(final Connection connection,
+                                                 final DateTime futureNotificationTime,
+                                                 final NotificationEvent eventJson,
+                                                 final UUID userToken,
+                                                 final Long searchKey1,
+                                                 final Long searchKey2,
+                                                 final PersistentQueueEntryPriority priority)
+            throws IOException;
+
 
     void updateFutureNotification(final Long recordId,
                                   final NotificationEvent eventJson,
@@ -186,6 +226,28 @@ public interface NotificationQueue extends QueueLifecycle {
      */
     <T extends NotificationEvent> Iterable<NotificationEventWithMetadata<T>> getHistoricalNotificationForSearchKey2(final DateTime minEffectiveDate, final Long searchKey2);
 
+    /**
+     * Retrieve one page of future notifications associated with that queue and matching that search key
+     *
+     * @param maxEffectiveDate effective_date cutoff, to limit the search
+     * @param searchKey2       the value for key2
+     * @param lastEntry        the last notification of the previous page, null for the first page
+     * @param pageSize         the max number of notifications to return
+     * @return a list of NotificationEventWithMetadata objects matching the search, following lastEntry
+     */
+    <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getFutureNotificationPageForSearchKey2(final DateTime maxEffectiveDate, final Long searchKey2, @Nullable final NotificationEventWithMetadata<?> lastEntry, final int pageSize);
+
+    /**
+     * Retrieve one page of historical notifications associated with that queue and matching that search key
+     *
+     * @param minEffectiveDate effective_date cutoff, to limit the search
+     * @param searchKey2       the value for key2
+     * @param lastEntry        the last notification of the previous page, null for the first page
+     * @param pageSize         the max number of notifications to return
+     * @return a list of NotificationEventWithMetadata objects matching the search, following lastEntry
+     */
+    <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getHistoricalNotificationPageForSearchKey2(final DateTime minEffectiveDate, final Long searchKey2, @Nullable final NotificationEventWithMetadata<?> lastEntry, final int pageSize);
+
     /**
      * Count the number of notifications ready to be processed
      *
@@ -194,6 +256,15 @@ public interface NotificationQueue extends QueueLifecycle {
      */
     long getNbReadyEntries(final DateTime maxEffectiveDate);
 
+    /**
+     * Count the number of notifications ready to be processed, without scanning more than max entries
+     *
+     * @param maxEffectiveDate effective_date cutoff (typically now())
+     * @param max              the max number of entries to count
+     * @return the number of ready entries, or max if there are at least max ready entries
+     */
+    long getNbReadyEntries(final DateTime maxEffectiveDate, final long max);
+
     /**
      * Move the notification to history table and mark it as 'removed'
      *
@@ -212,6 +283,34 @@ public interface NotificationQueue extends QueueLifecycle {
      */
     void removeFutureNotificationsForSearchKeys(final Long searchKey1, final Long searchKey2);
 
+    /**
+     * Remove all future notifications associated with that queue, matching these search keys and with an effective date before maxEffectiveDate
+     *
+     * @param searchKey1       the value for key1
+     * @param searchKey2       the value for key2
+     * @param maxEffectiveDate effective_date cutoff, null to remove all future notifications
+     */
+    void removeFutureNotificationsForSearchKeys(final Long searchKey1, final Long searchKey2, @Nullable final DateTime maxEffectiveDate);
+
+    /**
+     * Remove all future notifications associated with that queue and matching these search keys
+     *
+     * @param searchKey1 the value for key1
+     * @param searchKey2 the value for key2
+     * @param connection the transaction that should be used to remove the notifications
+     */
+    void removeFutureNotificationsFromTransactionForSearchKeys(final Long searchKey1, final Long searchKey2, final Connection connection);
+
+    /**
+     * Remove all future notifications associated with that queue, matching these search keys and with an effective date before maxEffectiveDate
+     *
+     * @param searchKey1       the value for key1
+     * @param searchKey2       the value for key2
+     * @param maxEffectiveDate effective_date cutoff, null to remove all future notifications
+     * @param connection       the transaction that should be used to remove the notifications
+     */
+    void removeFutureNotificationsFromTransactionForSearchKeys(final Long searchKey1, final Long searchKey2, @Nullable final DateTime maxEffectiveDate, final Connection connection);
+
     /**
      * @return the name of that queue
      */
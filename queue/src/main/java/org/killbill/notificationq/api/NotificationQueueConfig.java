@@ -142,4 +142,44 @@ public abstract class NotificationQueueConfig implements PersistentQueueConfig {
     @Default("15s")
     @Description("Shutdown sequence timeout")
     public abstract TimeSpan getShutdownTimeout();
+
+    @Override
+    @Config("org.killbill.notificationq.${instanceName}.readyEntries.countLimit")
+    @Default("10000")
+    @Description("Max number of ready notifications counted for the ready entries gauge (the gauge reports at least that value for larger backlogs)")
+    public long getReadyEntriesCountLimit() {
+        return PersistentQueueConfig.super.getReadyEntriesCountLimit();
+    }
+
+    @Override
+    @Config("org.killbill.notificationq.${instanceName}.readyEntries.countRefresh")
+    @Default("10s")
+    @Description("Min time between two database counts backing the ready entries gauge")
+    public TimeSpan getReadyEntriesCountRefresh() {
+        return PersistentQueueConfig.super.getReadyEntriesCountRefresh();
+    }
+
+    @Override
+    @Config("org.killbill.notificationq.${instanceName}.groupCommit.maxDelay")
+    @Default("0ms")
+    @Description("Group commit of the notifications recorded outside of a transaction: max time to wait for other notifications while a previous group is being committed (0ms disables group commit)")
+    public TimeSpan getGroupCommitMaxDelay() {
+        return PersistentQueueConfig.super.getGroupCommitMaxDelay();
+    }
+
+    @Override
+    @Config("org.killbill.notificationq.${instanceName}.groupCommit.maxEntries")
+    @Default("100")
+    @Description("Max number of notifications written together in a single transaction when group commit is enabled")
+    public int getGroupCommitMaxEntries() {
+        return PersistentQueueConfig.super.getGroupCommitMaxEntries();
+    }
+
+    @Override
+    @Config("org.killbill.notificationq.${instanceName}.multiRowValuesInsert")
+    @Default("false")
+    @Description("Whether batched notifications inserts (e.g. into the history table) are sent as multi-row INSERT ... VALUES statements instead of JDBC batches")
+    public boolean isMultiRowValuesInsertEnabled() {
+        return PersistentQueueConfig.super.isMultiRowValuesInsertEnabled();
+    }
 }
@@ -30,6 +30,7 @@ public class NotificationEventModelDao extends BusEventModelDao {
     private UUID futureUserToken;
     private DateTime effectiveDate;
     private String queueName;
+    private String dedupKey;
 
     public NotificationEventModelDao() { /* Default ctor for jdbi mapper */ }
 
@@ -49,10 +50,14 @@ public class NotificationEventModelDao extends BusEventModelDao {
 
     public NotificationEventModelDao(final NotificationEventModelDao in, final String owner, final DateTime nextAvailable, final PersistentQueueEntryLifecycleState state) {
         this(in.getRecordId(), in.getCreatingOwner(), owner, in.getCreatedDate(), nextAvailable, state, in.getClassName(), in.getEventJson(), in.getErrorCount(), in.getUserToken(), in.getSearchKey1(), in.getSearchKey2(), in.getFutureUserToken(), in.getEffectiveDate(), in.getQueueName());
+        this.dedupKey = in.getDedupKey();
+        setPriority(in.getPriority());
     }
 
     public NotificationEventModelDao(final NotificationEventModelDao in, final String owner, final DateTime nextAvailable, final PersistentQueueEntryLifecycleState state, final Long errorCount) {
         this(in.getRecordId(), in.getCreatingOwner(), owner, in.getCreatedDate(), nextAvailable, state, in.getClassName(), in.getEventJson(), errorCount, in.getUserToken(), in.getSearchKey1(), in.getSearchKey2(), in.getFutureUserToken(), in.getEffectiveDate(), in.getQueueName());
+        this.dedupKey = in.getDedupKey();
+        setPriority(in.getPriority());
     }
 
     public UUID getFutureUserToken() {
@@ -79,6 +84,14 @@ public class NotificationEventModelDao extends BusEventModelDao {
         this.queueName = queueName;
     }
 
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    public void setDedupKey(final String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("NotificationEventModelDao{");
@@ -94,9 +107,11 @@ public class NotificationEventModelDao extends BusEventModelDao {
         sb.append(", processingState=").append(getProcessingState());
         sb.append(", searchKey1=").append(getSearchKey1());
         sb.append(", searchKey2=").append(getSearchKey2());
+        sb.append(", priority=").append(getPriority());
         sb.append(", futureUserToken=").append(futureUserToken);
         sb.append(", effectiveDate=").append(effectiveDate);
         sb.append(", queueName='").append(queueName).append('\'');
+        sb.append(", dedupKey='").append(dedupKey).append('\'');
         sb.append('}');
         return sb.toString();
     }
@@ -20,8 +20,10 @@
 package org.killbill.notificationq.dao;
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.joda.time.DateTime;
+import org.killbill.commons.jdbi.routing.ReadFromReplica;
 import org.killbill.commons.jdbi.statement.SmartFetchSize;
 import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
 import org.killbill.queue.dao.QueueSqlDao;
@@ -29,9 +31,10 @@ import org.skife.jdbi.v2.sqlobject.Bind;
 import org.skife.jdbi.v2.sqlobject.SqlQuery;
 import org.skife.jdbi.v2.sqlobject.SqlUpdate;
 import org.skife.jdbi.v2.sqlobject.customizers.Define;
+import org.skife.jdbi.v2.sqlobject.mixins.GetHandle;
 
 @KillBillSqlDaoStringTemplate
-public interface NotificationSqlDao extends QueueSqlDao<NotificationEventModelDao> {
+public interface NotificationSqlDao extends QueueSqlDao<NotificationEventModelDao>, GetHandle {
 
     @SqlQuery
     @SmartFetchSize(shouldStream = true)
@@ -63,6 +66,7 @@ public interface NotificationSqlDao extends QueueSqlDao<NotificationEventModelDa
 
     @SqlQuery
     @SmartFetchSize(shouldStream = true)
+    @ReadFromReplica
     Iterator<NotificationEventModelDao> getHistoricalQueueEntriesForSearchKeys(@Bind("queueName") String queueName,
                                                                                @Bind("searchKey1") final Long searchKey1,
                                                                                @Bind("searchKey2") final Long searchKey2,
@@ -70,11 +74,76 @@ public interface NotificationSqlDao extends QueueSqlDao<NotificationEventModelDa
 
     @SqlQuery
     @SmartFetchSize(shouldStream = true)
+    @ReadFromReplica
     Iterator<NotificationEventModelDao> getHistoricalQueueEntriesForSearchKey2(@Bind("queueName") String queueName,
                                                                                @Bind("minEffectiveDate") final DateTime minEffectiveDate,
                                                                                @Bind("searchKey2") final Long searchKey2,
                                                                                @Define("historyTableName") final String historyTableName);
 
+    @SqlQuery
+    List<NotificationEventModelDao> getReadyQueueEntriesPageForSearchKey2(@Bind("queueName") String queueName,
+                                                                          @Bind("maxEffectiveDate") final DateTime maxEffectiveDate,
+                                                                          @Bind("searchKey2") final Long searchKey2,
+                                                                          @Bind("lastEffectiveDate") final DateTime lastEffectiveDate,
+                                                                          @Bind("lastCreatedDate") final DateTime lastCreatedDate,
+                                                                          @Bind("lastRecordId") final Long lastRecordId,
+                                                                          @Bind("max") final int max,
+                                                                          @Define("tableName") final String tableName);
+
+    @SqlQuery
+    List<NotificationEventModelDao> getReadyOrInProcessingQueueEntriesPageForSearchKey2(@Bind("queueName") String queueName,
+                                                                                        @Bind("maxEffectiveDate") final DateTime maxEffectiveDate,
+                                                                                        @Bind("searchKey2") final Long searchKey2,
+                                                                                        @Bind("lastEffectiveDate") final DateTime lastEffectiveDate,
+                                                                                        @Bind("lastCreatedDate") final DateTime lastCreatedDate,
+                                                                                        @Bind("lastRecordId") final Long lastRecordId,
+                                                                                        @Bind("max") final int max,
+                                                                                        @Define("tableName") final String tableName);
+
+    @SqlQuery
+    @ReadFromReplica
+    List<NotificationEventModelDao> getHistoricalQueueEntriesPageForSearchKey2(@Bind("queueName") String queueName,
+                                                                               @Bind("minEffectiveDate") final DateTime minEffectiveDate,
+                                                                               @Bind("searchKey2") final Long searchKey2,
+                                                                               @Bind("lastEffectiveDate") final DateTime lastEffectiveDate,
+                                                                               @Bind("lastCreatedDate") final DateTime lastCreatedDate,
+                                                                               @Bind("lastRecordId") final Long lastRecordId,
+                                                                               @Bind("max") final int max,
+                                                                               @Define("historyTableName") final String historyTableName);
+
+    @SqlUpdate
+    int markFutureEntriesAsRemovedForSearchKeys(@Bind("queueName") String queueName,
+                                                @Bind("searchKey1") final Long searchKey1,
+                                                @Bind("searchKey2") final Long searchKey2,
+                                                @Bind("maxEffectiveDate") final DateTime maxEffectiveDate,
+                                                @Define("tableName") final String tableName);
+
+    @SqlUpdate
+    int insertRemovedEntriesIntoHistoryForSearchKeys(@Bind("queueName") String queueName,
+                                                     @Bind("searchKey1") final Long searchKey1,
+                                                     @Bind("searchKey2") final Long searchKey2,
+                                                     @Bind("maxEffectiveDate") final DateTime maxEffectiveDate,
+                                                     @Define("tableName") final String tableName,
+                                                     @Define("historyTableName") final String historyTableName);
+
+    @SqlUpdate
+    int removeRemovedEntriesForSearchKeys(@Bind("queueName") String queueName,
+                                          @Bind("searchKey1") final Long searchKey1,
+                                          @Bind("searchKey2") final Long searchKey2,
+                                          @Bind("maxEffectiveDate") final DateTime maxEffectiveDate,
+                                          @Define("tableName") final String tableName);
+
+    @SqlUpdate
+    int coalesceIntoEntryForDedupKey(@Bind("queueName") String queueName,
+                                     @Bind("dedupKey") final String dedupKey,
+                                     @Bind("effectiveDate") final DateTime effectiveDate,
+                                     @Define("tableName") final String tableName);
+
+    @SqlUpdate
+    int releaseDedupKey(@Bind("queueName") String queueName,
+                        @Bind("dedupKey") final String dedupKey,
+                        @Define("tableName") final String tableName);
+
     @SqlUpdate
     void updateEntry(@Bind("recordId") Long id,
                      @Bind("eventJson") String eventJson,
@@ -27,11 +27,14 @@ import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.joda.time.DateTime;
 import org.killbill.CreatorName;
 import org.killbill.clock.Clock;
+import org.killbill.commons.metrics.api.MetricId;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.metrics.api.Timer;
 import org.killbill.commons.profiling.Profiling;
@@ -91,6 +94,13 @@ public abstract class DBBackedQueue<T extends EventEntryModelDao> {
 
     protected final Profiling<Long, RuntimeException> prof;
 
+    // Last bounded count of ready entries and the time (System.nanoTime()) it was computed, see getApproximateNbReadyEntries
+    private final AtomicLong approximateNbReadyEntries;
+    private final AtomicLong approximateNbReadyEntriesRefreshTime;
+
+    // Null unless group commit is enabled, see insertEntry
+    private final GroupCommitBatcher<T> groupCommitBatcher;
+
     public DBBackedQueue(final Clock clock,
                          final IDBI dbi,
                          final Class<? extends QueueSqlDao<T>> sqlDaoClass,
@@ -104,23 +114,37 @@ public abstract class DBBackedQueue<T extends EventEntryModelDao> {
         this.clock = clock;
         this.prof = new Profiling<Long, RuntimeException>();
 
-        this.rawGetEntriesTime = metricRegistry.timer(String.format("%s.%s.%s", DBBackedQueue.class.getName(), dbBackedQId, "rawGetEntriesTime"));
-        this.rawInsertEntryTime = metricRegistry.timer(String.format("%s.%s.%s", DBBackedQueue.class.getName(), dbBackedQId, "rawInsertEntryTime"));
-        this.rawClaimEntriesTime = metricRegistry.timer(String.format("%s.%s.%s", DBBackedQueue.class.getName(), dbBackedQId, "rawClaimEntriesTime"));
-        this.rawClaimEntryTime = metricRegistry.timer(String.format("%s.%s.%s", DBBackedQueue.class.getName(), dbBackedQId, "rawClaimEntryTime"));
-        this.rawDeleteEntriesTime = metricRegistry.timer(String.format("%s.%s.%s", DBBackedQueue.class.getName(), dbBackedQId, "rawDeleteEntriesTime"));
-        this.rawDeleteEntryTime = metricRegistry.timer(String.format("%s.%s.%s", DBBackedQueue.class.getName(), dbBackedQId, "rawDeleteEntryTime"));
+        this.rawGetEntriesTime = metricRegistry.timer(metricId(dbBackedQId, "rawGetEntriesTime"));
+        this.rawInsertEntryTime = metricRegistry.timer(metricId(dbBackedQId, "rawInsertEntryTime"));
+        this.rawClaimEntriesTime = metricRegistry.timer(metricId(dbBackedQId, "rawClaimEntriesTime"));
+        this.rawClaimEntryTime = metricRegistry.timer(metricId(dbBackedQId, "rawClaimEntryTime"));
+        this.rawDeleteEntriesTime = metricRegistry.timer(metricId(dbBackedQId, "rawDeleteEntriesTime"));
+        this.rawDeleteEntryTime = metricRegistry.timer(metricId(dbBackedQId, "rawDeleteEntryTime"));
+
+        this.approximateNbReadyEntries = new AtomicLong(0);
+        // Make sure the first call triggers a database count
+        this.approximateNbReadyEntriesRefreshTime = new AtomicLong(System.nanoTime() - config.getReadyEntriesCountRefresh().getMillis() * 1000000L);
+
+        this.groupCommitBatcher = config.getGroupCommitMaxDelay().getMillis() > 0 ?
+                                  new GroupCommitBatcher<T>(config.getGroupCommitMaxDelay().getMillis(), TimeUnit.MILLISECONDS, config.getGroupCommitMaxEntries(), this::insertEntries) :
+                                  null;
 
         this.DB_QUEUE_LOG_ID = "DBBackedQueue-" + dbBackedQId;
     }
 
+    private static MetricId metricId(final String dbBackedQId, final String metricName) {
+        // Keep the pre-existing flat name
+        return MetricId.of(String.format("%s.%s", DBBackedQueue.class.getName(), metricName), "queue", dbBackedQId)
+                       .withFlatName(String.format("%s.%s.%s", DBBackedQueue.class.getName(), dbBackedQId, metricName));
+    }
+
     public static class ReadyEntriesWithMetrics<T extends EventEntryModelDao> {
 
         private final List<T> entries;
         private final long time;
 
         public ReadyEntriesWithMetrics(final List<T> entries, final long time) {
-            this.entries = new ArrayList<>(entries);
+            this.entries = entries;
             this.time = time;
         }
 
@@ -146,6 +170,12 @@ public abstract class DBBackedQueue<T extends EventEntryModelDao> {
     protected abstract void insertReapedEntriesFromTransaction(final QueueSqlDao<T> transactional, final List<T> entriesLeftBehind, final DateTime now);
 
     public void insertEntry(final T entry) {
+        if (groupCommitBatcher != null) {
+            // Returns once the transaction containing the entry (and the ones inserted concurrently) has been committed
+            groupCommitBatcher.add(entry);
+            return;
+        }
+
         executeTransaction(new Transaction<Void, QueueSqlDao<T>>() {
             @Override
             public Void inTransaction(final QueueSqlDao<T> transactional, final TransactionStatus status) {
@@ -155,6 +185,23 @@ public abstract class DBBackedQueue<T extends EventEntryModelDao> {
         });
     }
 
+    private void insertEntries(final List<T> entries) {
+        executeTransaction(new Transaction<Void, QueueSqlDao<T>>() {
+            @Override
+            public Void inTransaction(final QueueSqlDao<T> transactional, final TransactionStatus status) {
+                insertEntriesFromTransaction(transactional, entries);
+                return null;
+            }
+        });
+    }
+
+    // Group commit: one insert per entry by default, as the implementation may need the recordIds
+    protected void insertEntriesFromTransaction(final QueueSqlDao<T> transactional, final List<T> entries) {
+        for (final T entry : entries) {
+            insertEntryFromTransaction(transactional, entry);
+        }
+    }
+
     public void moveEntryToHistory(final T entry) {
         executeTransaction(new Transaction<Void, QueueSqlDao<T>>() {
             @Override
@@ -228,11 +275,19 @@ public abstract class DBBackedQueue<T extends EventEntryModelDao> {
                 .collect(Collectors.toUnmodifiableList());
 
         final long ini = System.nanoTime();
-        transactional.insertEntries(entries, config.getHistoryTableName());
+        batchInsertEntries(transactional, entries, config.getHistoryTableName());
         transactional.removeEntries(toBeRemovedRecordIds, config.getTableName());
         rawDeleteEntriesTime.update(System.nanoTime() - ini, TimeUnit.NANOSECONDS);
     }
 
+    protected void batchInsertEntries(final QueueSqlDao<T> transactional, final Iterable<T> entries, final String tableName) {
+        if (config.isMultiRowValuesInsertEnabled()) {
+            transactional.insertEntriesWithMultiRowValues(entries, tableName);
+        } else {
+            transactional.insertEntries(entries, tableName);
+        }
+    }
+
     protected long getNbReadyEntries() {
         final Date now = clock.getUTCNow().toDate();
         return getNbReadyEntries(now);
@@ -248,6 +303,44 @@ public abstract class DBBackedQueue<T extends EventEntryModelDao> {
         });
     }
 
+    /**
+     * Count the number of ready entries, scanning at most max entries
+     *
+     * @param now the cutoff date
+     * @param max the max number of entries to count
+     * @return the number of ready entries, or max if there are at least max ready entries
+     */
+    public long getNbReadyEntries(final Date now, final long max) {
+        final String owner = config.getPersistentQueueMode() == PersistentQueueMode.POLLING ? null : CreatorName.get();
+        return executeQuery(new Query<Long, QueueSqlDao<T>>() {
+            @Override
+            public Long execute(final QueueSqlDao<T> queueSqlDao) {
+                return queueSqlDao.getNbReadyEntriesUpTo(now, max, owner, config.getTableName());
+            }
+        });
+    }
+
+    /**
+     * Cheap version of getNbReadyEntries, suitable for frequent monitoring: the value is a count bounded by
+     * config.getReadyEntriesCountLimit() and the database is hit at most once per config.getReadyEntriesCountRefresh().
+     *
+     * @return the last bounded count of ready entries
+     */
+    public long getApproximateNbReadyEntries() {
+        final long refreshTime = approximateNbReadyEntriesRefreshTime.get();
+        final long now = System.nanoTime();
+        // Only one caller refreshes the value, the others return the previous count
+        if (now - refreshTime >= config.getReadyEntriesCountRefresh().getMillis() * 1000000L &&
+            approximateNbReadyEntriesRefreshTime.compareAndSet(refreshTime, now)) {
+            try {
+                approximateNbReadyEntries.set(getNbReadyEntries(clock.getUTCNow().toDate(), config.getReadyEntriesCountLimit()));
+            } catch (final RuntimeException e) {
+                log.warn("{} Failed to count ready entries", DB_QUEUE_LOG_ID, e);
+            }
+        }
+        return approximateNbReadyEntries.get();
+    }
+
     protected Long safeInsertEntry(final QueueSqlDao<T> transactional, final T entry) {
         return prof.executeWithProfiling(ProfilingFeature.ProfilingFeatureType.DAO, "QueueSqlDao:insert", new Profiling.WithProfilingCallback<Long, RuntimeException>() {
 
@@ -269,6 +362,32 @@ public abstract class DBBackedQueue<T extends EventEntryModelDao> {
         });
     }
 
+    // Batched version of safeInsertEntry: the recordIds aren't returned. rawInsertEntryTime is still updated once
+    // per entry (with the amortized duration) so that its count is the number of inserted entries in both cases
+    protected void safeInsertEntries(final QueueSqlDao<T> transactional, final List<T> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        prof.executeWithProfiling(ProfilingFeature.ProfilingFeatureType.DAO, "QueueSqlDao:insertEntries", new Profiling.WithProfilingCallback<Long, RuntimeException>() {
+
+            @Override
+            public Long execute() throws RuntimeException {
+                final long init = System.nanoTime();
+
+                batchInsertEntries(transactional, entries, config.getTableName());
+                log.debug("{} Inserting entries: nbEntries={}, entries={}", DB_QUEUE_LOG_ID, entries.size(), entries);
+
+                final long durationPerEntry = (System.nanoTime() - init) / entries.size();
+                for (int i = 0; i < entries.size(); i++) {
+                    rawInsertEntryTime.update(durationPerEntry, TimeUnit.NANOSECONDS);
+                }
+
+                return (long) entries.size();
+            }
+        });
+    }
+
     // It is a good idea to monitor reapEntries in logs as these entries should rarely happen
     public void reapEntries(final Date reapingDate) {
         executeTransaction(new Transaction<Void, QueueSqlDao<T>>() {
@@ -276,25 +395,23 @@ public abstract class DBBackedQueue<T extends EventEntryModelDao> {
             public Void inTransaction(final QueueSqlDao<T> transactional, final TransactionStatus status) throws Exception {
                 final DateTime now = clock.getUTCNow();
                 final String owner = CreatorName.get();
-                final List<T> entriesLeftBehind = transactional.getEntriesLeftBehind(config.getMaxReDispatchCount(), now.toDate(), reapingDate, config.getTableName());
-
-                if (entriesLeftBehind.isEmpty()) {
-                    return null;
-                }
 
-                final List<T> entriesToReInsert = new ArrayList<T>(entriesLeftBehind.size());
+                final List<T> entriesToReInsert = new ArrayList<T>();
                 final List<T> lateEntries = new LinkedList<T>();
-                for (final T entryLeftBehind : entriesLeftBehind) {
-                    // entryIsBeingProcessedByThisNode is a sign of a stuck entry on this node
-                    // entryCreatedByThisNodeAndNeverProcessed is likely a sign of the queue being late
-                    final boolean entryCreatedByThisNodeAndNeverProcessed = owner.equals(entryLeftBehind.getCreatingOwner()) && entryLeftBehind.getProcessingOwner() == null;
-                    if (entryCreatedByThisNodeAndNeverProcessed) {
-                        lateEntries.add(entryLeftBehind);
-                    } else { /* This includes entryIsBeingProcessedByThisNode (owner.equals(entryLeftBehind.getProcessingOwner())). See https://github.com/killbill/killbill-commons/issues/169 */
-                        // Set the status to REAPED in the history table
-                        entryLeftBehind.setProcessingState(PersistentQueueEntryLifecycleState.REAPED);
-                        entriesToReInsert.add(entryLeftBehind);
-                    }
+                // The rows are streamed: the stream needs to be closed before issuing other statements (MySQL)
+                try (final Stream<T> entriesLeftBehind = transactional.getEntriesLeftBehind(config.getMaxReDispatchCount(), now.toDate(), reapingDate, config.getTableName())) {
+                    entriesLeftBehind.forEach(entryLeftBehind -> {
+                        // entryIsBeingProcessedByThisNode is a sign of a stuck entry on this node
+                        // entryCreatedByThisNodeAndNeverProcessed is likely a sign of the queue being late
+                        final boolean entryCreatedByThisNodeAndNeverProcessed = owner.equals(entryLeftBehind.getCreatingOwner()) && entryLeftBehind.getProcessingOwner() == null;
+                        if (entryCreatedByThisNodeAndNeverProcessed) {
+                            lateEntries.add(entryLeftBehind);
+                        } else { /* This includes entryIsBeingProcessedByThisNode (owner.equals(entryLeftBehind.getProcessingOwner())). See https://github.com/killbill/killbill-commons/issues/169 */
+                            // Set the status to REAPED in the history table
+                            entryLeftBehind.setProcessingState(PersistentQueueEntryLifecycleState.REAPED);
+                            entriesToReInsert.add(entryLeftBehind);
+                        }
+                    });
                 }
 
                 if (!lateEntries.isEmpty()) {
@@ -31,11 +31,8 @@ import org.joda.time.DateTime;
 import org.killbill.CreatorName;
 import org.killbill.bus.dao.PersistentBusSqlDao;
 import org.killbill.clock.Clock;
-import org.killbill.commons.eventbus.AllowConcurrentEvents;
-import org.killbill.commons.eventbus.Subscribe;
-import org.killbill.commons.jdbi.notification.DatabaseTransactionEvent;
-import org.killbill.commons.jdbi.notification.DatabaseTransactionEventType;
-import org.killbill.commons.jdbi.notification.DatabaseTransactionNotificationApi;
+import org.killbill.commons.jdbi.transaction.TransactionSynchronization;
+import org.killbill.commons.jdbi.transaction.TransactionSynchronizationManager;
 import org.killbill.commons.metrics.api.Gauge;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.utils.Preconditions;
@@ -62,8 +59,6 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
 
     private final LinkedBlockingQueue<Long> inflightEvents;
 
-    private final DatabaseTransactionNotificationApi databaseTransactionNotificationApi;
-
     protected final Gauge<Integer> inflightEventsGauge;
 
     //
@@ -73,14 +68,15 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
     private static final AtomicInteger QUEUE_ID_CNT = new AtomicInteger(0);
     private final int queueId;
     private final TransientInflightQRowIdCache transientInflightQRowIdCache;
+    // Registered by the threads which wrote to the queue, to move the recordIds to the inflightQ once the transaction is committed
+    private final TransactionSynchronization inflightQSynchronization;
 
     public DBBackedQueueWithInflightQueue(final Clock clock,
                                           final IDBI dbi,
                                           final Class<? extends QueueSqlDao<T>> sqlDaoClass,
                                           final PersistentQueueConfig config,
                                           final String dbBackedQId,
-                                          final MetricRegistry metricRegistry,
-                                          final DatabaseTransactionNotificationApi databaseTransactionNotificationApi) {
+                                          final MetricRegistry metricRegistry) {
         super(clock, dbi, sqlDaoClass, config, dbBackedQId, metricRegistry);
 
         Preconditions.checkArgument(config.getMinInFlightEntries() <= config.getMaxInFlightEntries(),
@@ -90,9 +86,6 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
         // We use an unboundedQ - the risk of running OUtOfMemory exists for a very large number of entries showing a more systematic problem...
         this.inflightEvents = new LinkedBlockingQueue<Long>();
 
-        this.databaseTransactionNotificationApi = databaseTransactionNotificationApi;
-        databaseTransactionNotificationApi.registerForNotification(this);
-
         // Metrics the size of the inflightQ
         this.inflightEventsGauge = metricRegistry.gauge(String.format("%s.%s.%s.%s", DBBackedQueueWithInflightQueue.class.getName(), dbBackedQId, "inflightQ", "size"), new Gauge<>() {
             @Override
@@ -101,7 +94,18 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
             }
         });
 
-        this.transientInflightQRowIdCache = new TransientInflightQRowIdCache(queueId);
+        this.transientInflightQRowIdCache = new TransientInflightQRowIdCache();
+        this.inflightQSynchronization = new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                moveRowIdsToInflightQ();
+            }
+
+            @Override
+            public void afterRollback() {
+                transientInflightQRowIdCache.reset();
+            }
+        };
     }
 
     @Override
@@ -114,7 +118,6 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
 
     @Override
     public void close() {
-        databaseTransactionNotificationApi.unregisterForNotification(this);
     }
 
 
@@ -129,7 +132,7 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
         // The current thread is in the middle of  a transaction and this is the only times it knows about the recordId for the queue event;
         // It keeps track of it as a per thread data. Very soon, when the transaction gets committed/rolled back it can then extract the info
         // and insert the recordId into a blockingQ that is highly optimized to dispatch events.
-        transientInflightQRowIdCache.addRowId(lastInsertId);
+        addRowIdFromTransaction(lastInsertId);
     }
 
     private long pollEntriesFromInflightQ(final List<Long> result) {
@@ -192,7 +195,7 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
             @Override
             public Void inTransaction(final QueueSqlDao<T> transactional, final TransactionStatus status) throws Exception {
                 transactional.updateOnError(entry.getRecordId(), clock.getUTCNow().toDate(), entry.getErrorCount(), config.getTableName());
-                transientInflightQRowIdCache.addRowId(entry.getRecordId());
+                addRowIdFromTransaction(entry.getRecordId());
                 return null;
             }
         });
@@ -209,20 +212,14 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
         }
     }
 
-    @AllowConcurrentEvents
-    @Subscribe
-    public void handleDatabaseTransactionEvent(final DatabaseTransactionEvent event) {
-        // Either a transaction we are not interested in, or for the wrong queue; just return.
-        if (transientInflightQRowIdCache == null || !transientInflightQRowIdCache.isValid()) {
-            return;
-        }
-
-        // This is a ROLLBACK, clear the threadLocal and return
-        if (event.getType() == DatabaseTransactionEventType.ROLLBACK) {
-            transientInflightQRowIdCache.reset();
-            return;
+    private void addRowIdFromTransaction(final Long rowId) {
+        if (transientInflightQRowIdCache.addRowId(rowId)) {
+            // First write of the transaction to that queue
+            TransactionSynchronizationManager.registerSynchronization(inflightQSynchronization);
         }
+    }
 
+    private void moveRowIdsToInflightQ() {
         try {
             // Add entry in the inflightQ and clear threadlocal
             final Iterator<Long> entries = transientInflightQRowIdCache.iterator();
@@ -251,24 +248,17 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
     private static class TransientInflightQRowIdCache {
 
         private final ThreadLocal<RowRef> rowRefThreadLocal = new ThreadLocal<RowRef>();
-        private final int queueId;
-
-        private TransientInflightQRowIdCache(final int queueId) {
-            this.queueId = queueId;
-        }
-
-        public boolean isValid() {
-            final RowRef entry = rowRefThreadLocal.get();
-            return (entry != null && entry.queueId == queueId);
-        }
 
-        public void addRowId(final Long rowId) {
+        // Returns true if this is the first rowId since the last reset
+        public boolean addRowId(final Long rowId) {
             RowRef entry = rowRefThreadLocal.get();
-            if (entry == null) {
-                entry = new RowRef(queueId);
+            final boolean first = entry == null;
+            if (first) {
+                entry = new RowRef();
                 rowRefThreadLocal.set(entry);
             }
             entry.addRowId(rowId);
+            return first;
         }
 
         public void reset() {
@@ -284,11 +274,9 @@ public class DBBackedQueueWithInflightQueue<T extends EventEntryModelDao> extend
         // Internal structure to keep track of recordId per queue
         private static final class RowRef {
 
-            private final int queueId;
             private final List<Long> rowIds;
 
-            public RowRef(final int queueId) {
-                this.queueId = queueId;
+            public RowRef() {
                 this.rowIds = new ArrayList<Long>();
             }
 
@@ -65,6 +65,12 @@ public class DBBackedQueueWithPolling<T extends EventEntryModelDao> extends DBBa
         safeInsertEntry(transactional, entry);
     }
 
+    @Override
+    protected void insertEntriesFromTransaction(final QueueSqlDao<T> transactional, final List<T> entries) {
+        // The recordIds aren't needed, the entries can be batched
+        safeInsertEntries(transactional, entries);
+    }
+
     @Override
     public ReadyEntriesWithMetrics<T> getReadyEntries() {
         final long ini = System.nanoTime();
@@ -106,7 +112,7 @@ public class DBBackedQueueWithPolling<T extends EventEntryModelDao> extends DBBa
             entry.setCreatingOwner(CreatorName.get());
             entry.setProcessingOwner(null);
         }
-        transactional.insertEntries(entriesLeftBehind, config.getTableName());
+        batchInsertEntries(transactional, entriesLeftBehind, config.getTableName());
     }
 
     private List<T> fetchReadyEntries(final DateTime now, final int maxEntries, final QueueSqlDao<T> queueSqlDao) {
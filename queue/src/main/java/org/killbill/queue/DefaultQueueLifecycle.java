@@ -20,7 +20,9 @@
 package org.killbill.queue;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -31,6 +33,7 @@ import org.killbill.commons.metrics.api.Histogram;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.metrics.api.Timer;
 import org.killbill.queue.api.PersistentQueueConfig;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.api.QueueLifecycle;
 import org.killbill.queue.dao.EventEntryModelDao;
 import org.skife.jdbi.v2.exceptions.DBIException;
@@ -68,6 +71,8 @@ public abstract class DefaultQueueLifecycle implements QueueLifecycle {
     private final Histogram dispatchedEntries;
     // Nb of entries completed at each loop
     private final Histogram completeEntries;
+    // Time spent by entries in the Dispatcher work queue of their priority lane
+    private final Map<PersistentQueueEntryPriority, Timer> dispatchLatencyPerPriority;
     private final boolean isStickyEvent;
     private volatile boolean isDispatchingEvents;
     private volatile boolean isCompletingEvents;
@@ -76,6 +81,8 @@ public abstract class DefaultQueueLifecycle implements QueueLifecycle {
     private ExecutorService lifecycleCompletionExecutor;
 
     protected final Gauge<Integer> completedOrFailedEventsGauge;
+    // Approximate nb of entries ready to be dispatched (bounded count, refreshed periodically)
+    protected final Gauge<Long> readyEntriesGauge;
 
     public DefaultQueueLifecycle(final String svcQName,
                                  final PersistentQueueConfig config,
@@ -103,12 +110,28 @@ public abstract class DefaultQueueLifecycle implements QueueLifecycle {
         this.dispatchedEntries = metricRegistry.histogram(String.format("%s.%s.%s", DefaultQueueLifecycle.class.getName(), svcQName, "dispatchedEntries"));
         this.completeEntries = metricRegistry.histogram(String.format("%s.%s.%s", DefaultQueueLifecycle.class.getName(), svcQName, "completeEntries"));
 
+        this.dispatchLatencyPerPriority = new EnumMap<>(PersistentQueueEntryPriority.class);
+        for (final PersistentQueueEntryPriority priority : PersistentQueueEntryPriority.values()) {
+            dispatchLatencyPerPriority.put(priority, metricRegistry.timer(String.format("%s.%s.%s.%s", DefaultQueueLifecycle.class.getName(), svcQName, "dispatchLatency", priority.name().toLowerCase())));
+        }
+
         this.completedOrFailedEventsGauge = metricRegistry.gauge(String.format("%s.%s.%s.%s", DefaultQueueLifecycle.class.getName(), svcQName, "completedOrFailedEvents", "size"), new Gauge<Integer>() {
             @Override
             public Integer getValue() {
                 return completedOrFailedEvents.size();
             }
         });
+
+        this.readyEntriesGauge = metricRegistry.gauge(String.format("%s.%s.%s.%s", DefaultQueueLifecycle.class.getName(), svcQName, "readyEntries", "count"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return getApproximateNbReadyEntries();
+            }
+        });
+    }
+
+    public void recordDispatchLatency(final PersistentQueueEntryPriority priority, final long latencyNanos) {
+        dispatchLatencyPerPriority.get(priority).update(latencyNanos, TimeUnit.NANOSECONDS);
     }
 
     @Override
@@ -180,6 +203,8 @@ public abstract class DefaultQueueLifecycle implements QueueLifecycle {
 
     public abstract void doProcessRetriedEvents(final Iterable<? extends EventEntryModelDao> retried);
 
+    public abstract long getApproximateNbReadyEntries();
+
     public ObjectReader getObjectReader() {
         return objectReader;
     }
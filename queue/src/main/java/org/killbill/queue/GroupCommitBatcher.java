@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects the elements added concurrently and writes them at once, to pay for a single commit.
+ * <p>
+ * There is no background thread: the first caller of a batch (the leader) writes it, the other callers wait for the
+ * write to complete. If no other batch is being written, the leader writes right away (no latency is added when
+ * there is no concurrency). Otherwise, it collects elements until the previous write completes, maxDelay elapses or
+ * maxEntries elements have been added. Every caller returns once its element has been written (or throws if the
+ * write failed, i.e. a single failure fails the whole batch).
+ *
+ * @param <E> the element type
+ */
+final class GroupCommitBatcher<E> {
+
+    private final long maxDelayNanos;
+    private final int maxEntries;
+    private final Consumer<List<E>> writer;
+
+    private final Object lock = new Object();
+    // Batch being collected, guarded by lock
+    private Batch<E> collecting;
+    // Number of batches being written, guarded by lock
+    private int writing;
+
+    /**
+     * @param maxDelay   max time to wait for other elements while another batch is being written
+     * @param unit       unit of maxDelay
+     * @param maxEntries max number of elements per batch
+     * @param writer     writes a batch (e.g. in a single transaction)
+     */
+    GroupCommitBatcher(final long maxDelay, final TimeUnit unit, final int maxEntries, final Consumer<List<E>> writer) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries should be greater than 0");
+        }
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.maxEntries = maxEntries;
+        this.writer = writer;
+    }
+
+    /**
+     * @param element the element to write
+     * @throws RuntimeException if the batch couldn't be written
+     */
+    void add(final E element) {
+        final Batch<E> batch;
+        final boolean leader;
+        synchronized (lock) {
+            leader = collecting == null;
+            if (leader) {
+                collecting = new Batch<E>(maxEntries);
+            }
+            batch = collecting;
+            batch.elements.add(element);
+            if (batch.elements.size() >= maxEntries) {
+                // Full, wake up the leader
+                collecting = null;
+                lock.notifyAll();
+            }
+        }
+
+        if (leader) {
+            final boolean interrupted = awaitBatch(batch);
+            try {
+                writer.accept(batch.elements);
+            } catch (final RuntimeException | Error e) {
+                batch.failure = e;
+            } finally {
+                synchronized (lock) {
+                    writing--;
+                    // Wake up the leader of the next batch
+                    lock.notifyAll();
+                }
+                batch.written.countDown();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            awaitWritten(batch);
+        }
+
+        if (batch.failure instanceof Error) {
+            throw (Error) batch.failure;
+        } else if (batch.failure != null) {
+            throw (RuntimeException) batch.failure;
+        }
+    }
+
+    // Returns true if the thread was interrupted: the batch is closed early, as it needs to be written anyway
+    private boolean awaitBatch(final Batch<E> batch) {
+        synchronized (lock) {
+            try {
+                final long deadline = System.nanoTime() + maxDelayNanos;
+                long remaining;
+                while (collecting == batch && writing > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+                return false;
+            } catch (final InterruptedException e) {
+                return true;
+            } finally {
+                if (collecting == batch) {
+                    collecting = null;
+                }
+                writing++;
+            }
+        }
+    }
+
+    // The element will be written regardless, so the caller can't give up on it
+    private static void awaitWritten(final Batch<?> batch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                batch.written.await();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Batch<E> {
+
+        private final List<E> elements;
+        private final CountDownLatch written = new CountDownLatch(1);
+        // Published by the countDown
+        private Throwable failure;
+
+        private Batch(final int maxEntries) {
+            this.elements = new ArrayList<E>(Math.min(maxEntries, 16));
+        }
+    }
+}
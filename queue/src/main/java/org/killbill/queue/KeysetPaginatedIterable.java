@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.queue;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.killbill.commons.utils.Preconditions;
+import org.killbill.commons.utils.collect.AbstractIterator;
+
+/**
+ * Lazy Iterable over the result of a search query, fetched one page at a time.
+ * <p>
+ * Each page is a separate (short) query returning the entries strictly after the last entry of the previous page
+ * (keyset pagination), so neither the memory used nor the time a connection is held depend on the total number of entries.
+ *
+ * @param <T> the entry type
+ */
+public class KeysetPaginatedIterable<T> implements Iterable<T> {
+
+    public interface PageFetcher<T> {
+
+        /**
+         * @param lastEntry the last entry of the previous page, null for the first page
+         * @param pageSize  the max number of entries to return
+         * @return the entries following lastEntry
+         */
+        List<T> fetchPage(@Nullable T lastEntry, int pageSize);
+    }
+
+    private final PageFetcher<T> pageFetcher;
+    private final int pageSize;
+
+    public KeysetPaginatedIterable(final PageFetcher<T> pageFetcher, final int pageSize) {
+        Preconditions.checkArgument(pageSize > 0, "pageSize should be greater than 0");
+        this.pageFetcher = pageFetcher;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new AbstractIterator<T>() {
+
+            private Iterator<T> currentPage = Collections.emptyIterator();
+            private T lastEntry = null;
+            private boolean isLastPage = false;
+
+            @Override
+            protected T computeNext() {
+                if (!currentPage.hasNext()) {
+                    if (isLastPage) {
+                        return endOfData();
+                    }
+
+                    final List<T> page = pageFetcher.fetchPage(lastEntry, pageSize);
+                    // A short page means there is nothing left, save the extra round trip
+                    isLastPage = page.size() < pageSize;
+                    if (page.isEmpty()) {
+                        return endOfData();
+                    }
+                    currentPage = page.iterator();
+                }
+
+                lastEntry = currentPage.next();
+                return lastEntry;
+            }
+        };
+    }
+}
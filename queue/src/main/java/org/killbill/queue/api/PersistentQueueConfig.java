@@ -19,6 +19,8 @@
 
 package org.killbill.queue.api;
 
+import java.util.concurrent.TimeUnit;
+
 import org.skife.config.TimeSpan;
 
 public interface PersistentQueueConfig {
@@ -70,4 +72,26 @@ public interface PersistentQueueConfig {
     TimeSpan getReapSchedule();
 
     TimeSpan getShutdownTimeout();
+
+    default long getReadyEntriesCountLimit() {
+        return 10000;
+    }
+
+    default TimeSpan getReadyEntriesCountRefresh() {
+        return new TimeSpan(10, TimeUnit.SECONDS);
+    }
+
+    // Group commit disabled
+    default TimeSpan getGroupCommitMaxDelay() {
+        return new TimeSpan(0, TimeUnit.MILLISECONDS);
+    }
+
+    default int getGroupCommitMaxEntries() {
+        return 100;
+    }
+
+    // Batched inserts sent as JDBC batches
+    default boolean isMultiRowValuesInsertEnabled() {
+        return false;
+    }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.queue.api;
+
+/**
+ * Dispatch lane of a queue entry: ready entries are dispatched by priority first, and each priority has its own work queue.
+ */
+public enum PersistentQueueEntryPriority {
+    HIGH(0),
+    NORMAL(1),
+    LOW(2);
+
+    // Value stored in the priority column (lower is dispatched first)
+    private final int value;
+
+    PersistentQueueEntryPriority(final int value) {
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public static PersistentQueueEntryPriority fromValue(final int value) {
+        for (final PersistentQueueEntryPriority priority : values()) {
+            if (priority.value == value) {
+                return priority;
+            }
+        }
+        return NORMAL;
+    }
+}
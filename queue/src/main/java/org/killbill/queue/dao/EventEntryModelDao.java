@@ -51,6 +51,9 @@ public interface EventEntryModelDao {
 
     Long getSearchKey2();
 
+    // See PersistentQueueEntryPriority
+    int getPriority();
+
     // setters
     void setClassName(final String className);
 
@@ -71,4 +74,6 @@ public interface EventEntryModelDao {
     void setSearchKey1(final Long searchKey1);
 
     void setSearchKey2(final Long searchKey2);
+
+    void setPriority(final int priority);
 }
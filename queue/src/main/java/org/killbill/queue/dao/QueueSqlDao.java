@@ -22,10 +22,12 @@ package org.killbill.queue.dao;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
 import org.killbill.commons.jdbi.binder.SmartBindBean;
+import org.killbill.commons.jdbi.statement.SmartFetchSize;
 import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
 import org.skife.jdbi.v2.sqlobject.Bind;
 import org.skife.jdbi.v2.sqlobject.GetGeneratedKeys;
@@ -50,7 +52,7 @@ public interface QueueSqlDao<T extends EventEntryModelDao> extends Transactional
                     @Define("tableName") final String tableName);
 
     @SqlQuery
-    List<T> getEntriesFromIds(@BindIn("record_ids") final List<Long> recordIds,
+    List<T> getEntriesFromIds(@BindIn(value = "record_ids", padToPowerOfTwo = true) final List<Long> recordIds,
                               @Define("tableName") final String tableName);
 
     @SqlQuery
@@ -69,14 +71,21 @@ public interface QueueSqlDao<T extends EventEntryModelDao> extends Transactional
                             @Nullable @Define("owner") String owner,
                             @Define("tableName") final String tableName);
 
+    @SqlQuery
+    long getNbReadyEntriesUpTo(@Bind("now") Date now,
+                               @Bind("max") long max,
+                               @Nullable @Define("owner") String owner,
+                               @Define("tableName") final String tableName);
+
     @SqlQuery
     List<T> getInProcessingEntries(@Define("tableName") final String tableName);
 
     @SqlQuery
-    List<T> getEntriesLeftBehind(@Bind("max") int max,
-                                 @Bind("now") Date now,
-                                 @Bind("reapingDate") Date reapingDate,
-                                 @Define("tableName") final String tableName);
+    @SmartFetchSize(shouldStream = true)
+    Stream<T> getEntriesLeftBehind(@Bind("max") int max,
+                                   @Bind("now") Date now,
+                                   @Bind("reapingDate") Date reapingDate,
+                                   @Define("tableName") final String tableName);
 
     @SqlUpdate
     int claimEntry(@Bind("recordId") Long id,
@@ -85,7 +94,7 @@ public interface QueueSqlDao<T extends EventEntryModelDao> extends Transactional
                    @Define("tableName") final String tableName);
 
     @SqlUpdate
-    int claimEntries(@BindIn("record_ids") final Collection<Long> recordIds,
+    int claimEntries(@BindIn(value = "record_ids", padToPowerOfTwo = true) final Collection<Long> recordIds,
                      @Bind("owner") String owner,
                      @Bind("nextAvailable") Date nextAvailable,
                      @Define("tableName") final String tableName);
@@ -101,7 +110,7 @@ public interface QueueSqlDao<T extends EventEntryModelDao> extends Transactional
                      @Define("tableName") final String tableName);
 
     @SqlUpdate
-    void removeEntries(@BindIn("record_ids") final Collection<Long> recordIds,
+    void removeEntries(@BindIn(value = "record_ids", padToPowerOfTwo = true) final Collection<Long> recordIds,
                        @Define("tableName") final String tableName);
 
     @SqlUpdate
@@ -113,4 +122,9 @@ public interface QueueSqlDao<T extends EventEntryModelDao> extends Transactional
     @BatchChunkSize(100)
     void insertEntries(@SmartBindBean Iterable<T> evts,
                        @Define("tableName") final String tableName);
+
+    @SqlBatch(value = "insertEntries", multiRowValues = true)
+    @BatchChunkSize(100)
+    void insertEntriesWithMultiRowValues(@SmartBindBean Iterable<T> evts,
+                                         @Define("tableName") final String tableName);
 }
@@ -20,19 +20,28 @@
 package org.killbill.queue.dispatching;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.killbill.clock.Clock;
 import org.killbill.commons.concurrent.DynamicThreadPoolExecutorWithLoggingOnExceptions;
+import org.killbill.commons.metrics.api.Gauge;
+import org.killbill.commons.metrics.api.MetricId;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
 import org.killbill.queue.DefaultQueueLifecycle;
 import org.killbill.queue.api.PersistentQueueConfig;
 import org.killbill.queue.api.PersistentQueueEntryLifecycleState;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.api.QueueEvent;
 import org.killbill.queue.dao.EventEntryModelDao;
 import org.killbill.queue.retry.RetryableInternalException;
@@ -44,6 +53,10 @@ public class Dispatcher<E extends QueueEvent, M extends EventEntryModelDao> {
 
     private static final Logger log = LoggerFactory.getLogger(Dispatcher.class);
 
+    // The NORMAL lane (default priority) gets the configured dispatch threads and work queue capacity, the HIGH and LOW lanes
+    // each get this share of them (at least 1) on top
+    private static final int EXTRA_LANE_SHARE_PERCENT = 10;
+
     // Dynamic ThreadPool Executor
     private final int corePoolSize;
     private final int maximumPoolSize;
@@ -51,7 +64,7 @@ public class Dispatcher<E extends QueueEvent, M extends EventEntryModelDao> {
     private final TimeUnit keepAliveTimeUnit;
     private final long shutdownTimeout;
     private final TimeUnit shutdownTimeUnit;
-    private final BlockingQueue<Runnable> workQueue;
+    private final int workQueueCapacity;
     private final ThreadFactory threadFactory;
     private final RejectedExecutionHandler rejectionHandler;
 
@@ -59,9 +72,15 @@ public class Dispatcher<E extends QueueEvent, M extends EventEntryModelDao> {
     private final CallableCallback<E, M> handlerCallback;
     private final DefaultQueueLifecycle parentLifeCycle;
     private final Clock clock;
+    private final MetricRegistry metricRegistry;
+    private final String queueName;
 
+    // One executor (and work queue) per priority, so that a full lane doesn't delay the entries of the other ones.
+    // The HIGH and LOW lanes are only created once an entry with that priority is dispatched.
     // Deferred in start sequence to allow for restart, which is not possible after the shutdown (mostly for test purpose)
-    private ExecutorService handlerExecutor;
+    private volatile Map<PersistentQueueEntryPriority, ExecutorService> handlerExecutors;
+    // Guarded by this
+    private boolean stopped;
 
     public Dispatcher(final int corePoolSize,
                       final PersistentQueueConfig config,
@@ -69,46 +88,129 @@ public class Dispatcher<E extends QueueEvent, M extends EventEntryModelDao> {
                       final TimeUnit keepAliveTimeUnit,
                       final long shutdownTimeout,
                       final TimeUnit shutdownTimeUnit,
-                      final BlockingQueue<Runnable> workQueue,
+                      final int workQueueCapacity,
                       final ThreadFactory threadFactory,
                       final RejectedExecutionHandler rejectionHandler,
                       final Clock clock,
                       final CallableCallback<E, M> handlerCallback,
                       final DefaultQueueLifecycle parentLifeCycle) {
+        this(corePoolSize, config, keepAliveTime, keepAliveTimeUnit, shutdownTimeout, shutdownTimeUnit, workQueueCapacity, threadFactory, rejectionHandler, clock, handlerCallback, parentLifeCycle, new NoOpMetricRegistry());
+    }
+
+    public Dispatcher(final int corePoolSize,
+                      final PersistentQueueConfig config,
+                      final long keepAliveTime,
+                      final TimeUnit keepAliveTimeUnit,
+                      final long shutdownTimeout,
+                      final TimeUnit shutdownTimeUnit,
+                      final int workQueueCapacity,
+                      final ThreadFactory threadFactory,
+                      final RejectedExecutionHandler rejectionHandler,
+                      final Clock clock,
+                      final CallableCallback<E, M> handlerCallback,
+                      final DefaultQueueLifecycle parentLifeCycle,
+                      final MetricRegistry metricRegistry) {
         this.corePoolSize = corePoolSize;
         this.maximumPoolSize = config.geMaxDispatchThreads();
         this.keepAliveTime = keepAliveTime;
         this.keepAliveTimeUnit = keepAliveTimeUnit;
         this.shutdownTimeout = shutdownTimeout;
         this.shutdownTimeUnit = shutdownTimeUnit;
-        this.workQueue = workQueue;
+        this.workQueueCapacity = workQueueCapacity;
         this.threadFactory = threadFactory;
         this.rejectionHandler = rejectionHandler;
         this.clock = clock;
         this.maxFailureRetries = config.getMaxFailureRetries();
         this.handlerCallback = handlerCallback;
         this.parentLifeCycle = parentLifeCycle;
+        this.metricRegistry = metricRegistry;
+        this.queueName = config.getTableName();
     }
 
     public void start() {
-        this.handlerExecutor = new DynamicThreadPoolExecutorWithLoggingOnExceptions(corePoolSize, maximumPoolSize, keepAliveTime, keepAliveTimeUnit, workQueue, threadFactory, rejectionHandler);
+        synchronized (this) {
+            handlerExecutors = new ConcurrentHashMap<>();
+            stopped = false;
+        }
+        addLane(PersistentQueueEntryPriority.NORMAL);
+    }
+
+    private synchronized ExecutorService addLane(final PersistentQueueEntryPriority priority) {
+        final ExecutorService existingExecutor = handlerExecutors.get(priority);
+        if (existingExecutor != null) {
+            return existingExecutor;
+        }
+        if (stopped) {
+            // Shut down, rejects the entry
+            return handlerExecutors.get(PersistentQueueEntryPriority.NORMAL);
+        }
+
+        final DynamicThreadPoolExecutorWithLoggingOnExceptions executor;
+        if (priority == PersistentQueueEntryPriority.NORMAL) {
+            executor = createExecutor(maximumPoolSize, workQueueCapacity);
+        } else {
+            executor = createExecutor(extraLaneSize(maximumPoolSize), extraLaneSize(workQueueCapacity));
+        }
+        handlerExecutors.put(priority, executor);
+
+        registerGauge("poolSize", priority, executor::getPoolSize);
+        registerGauge("corePoolSize", priority, executor::getCorePoolSize);
+        registerGauge("currentTasks", priority, executor::getCurrentTaskCount);
+        registerGauge("workQueueSize", priority, () -> executor.getQueue().size());
+        registerGauge("corePoolSizeAdjustments", priority, executor::getCorePoolSizeAdjustmentCount);
+        registerGauge("corePoolSizeAdjustmentContentions", priority, executor::getCorePoolSizeAdjustmentContentionCount);
+        return executor;
+    }
+
+    private DynamicThreadPoolExecutorWithLoggingOnExceptions createExecutor(final int laneMaximumPoolSize, final int laneWorkQueueCapacity) {
+        // Core threads are only started on the first dispatch
+        return new DynamicThreadPoolExecutorWithLoggingOnExceptions(Math.min(corePoolSize, laneMaximumPoolSize), laneMaximumPoolSize, keepAliveTime, keepAliveTimeUnit, new LinkedBlockingQueue<>(laneWorkQueueCapacity), threadFactory, rejectionHandler);
+    }
+
+    static int extraLaneSize(final int total) {
+        return Math.max(1, total * EXTRA_LANE_SHARE_PERCENT / 100);
+    }
+
+    private <T> void registerGauge(final String metricName, final PersistentQueueEntryPriority priority, final Gauge<T> gauge) {
+        final MetricId metricId = MetricId.of(String.format("%s.%s", Dispatcher.class.getName(), metricName), "queue", queueName, "priority", priority.name());
+        // Registries keep existing gauges: replace the ones of a previous executor (restart, or previous dispatcher for the same queue)
+        metricRegistry.remove(metricId.getFlatName());
+        metricRegistry.gauge(metricId, gauge);
     }
 
     // Stop the dispatcher threads, which are doing the work
     public boolean stopDispatcher() {
-        handlerExecutor.shutdown();
+        final List<ExecutorService> executors;
+        synchronized (this) {
+            stopped = true;
+            executors = new ArrayList<>(handlerExecutors.values());
+        }
+        for (final ExecutorService handlerExecutor : executors) {
+            handlerExecutor.shutdown();
+        }
+
+        final long deadlineNanos = System.nanoTime() + shutdownTimeUnit.toNanos(shutdownTimeout);
+        boolean terminated = true;
         try {
-            return handlerExecutor.awaitTermination(shutdownTimeout, shutdownTimeUnit);
+            for (final ExecutorService handlerExecutor : executors) {
+                terminated = handlerExecutor.awaitTermination(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS) && terminated;
+            }
         } catch (final InterruptedException e) {
             log.info("Stop sequence, handlerExecutor has been interrupted");
             return false;
         }
+        return terminated;
     }
 
     public void dispatch(final M modelDao) {
         log.debug("Dispatching entry {}", modelDao);
-        final CallableQueueHandler<E, M> entry = new CallableQueueHandler<E, M>(modelDao, handlerCallback, parentLifeCycle, clock, maxFailureRetries);
-        handlerExecutor.submit(entry);
+        final PersistentQueueEntryPriority priority = PersistentQueueEntryPriority.fromValue(modelDao.getPriority());
+        final CallableQueueHandler<E, M> entry = new CallableQueueHandler<E, M>(modelDao, priority, handlerCallback, parentLifeCycle, clock, maxFailureRetries);
+        ExecutorService executor = handlerExecutors.get(priority);
+        if (executor == null) {
+            executor = addLane(priority);
+        }
+        executor.submit(entry);
     }
 
     public static class CallableQueueHandler<E extends QueueEvent, M extends EventEntryModelDao> implements Callable<E> {
@@ -118,13 +220,17 @@ public class Dispatcher<E extends QueueEvent, M extends EventEntryModelDao> {
         private static final Logger log = LoggerFactory.getLogger(CallableQueueHandler.class);
 
         private final M entry;
+        private final PersistentQueueEntryPriority priority;
+        private final long dispatchedNanos;
         private final CallableCallback<E, M> callback;
         private final DefaultQueueLifecycle parentLifeCycle;
         private final int maxFailureRetries;
         private final Clock clock;
 
-        public CallableQueueHandler(final M entry, final CallableCallback<E, M> callback, final DefaultQueueLifecycle parentLifeCycle, final Clock clock, final int maxFailureRetries) {
+        public CallableQueueHandler(final M entry, final PersistentQueueEntryPriority priority, final CallableCallback<E, M> callback, final DefaultQueueLifecycle parentLifeCycle, final Clock clock, final int maxFailureRetries) {
             this.entry = entry;
+            this.priority = priority;
+            this.dispatchedNanos = System.nanoTime();
             this.callback = callback;
             this.parentLifeCycle = parentLifeCycle;
             this.clock = clock;
@@ -133,6 +239,10 @@ public class Dispatcher<E extends QueueEvent, M extends EventEntryModelDao> {
 
         @Override
         public E call() throws Exception {
+            if (parentLifeCycle != null) {
+                parentLifeCycle.recordDispatchLatency(priority, System.nanoTime() - dispatchedNanos);
+            }
+
             try {
                 final UUID userToken = entry.getUserToken();
                 MDC.put(MDC_KB_USER_TOKEN, userToken != null ? userToken.toString() : null);
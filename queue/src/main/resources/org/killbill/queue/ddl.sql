@@ -31,17 +31,21 @@ CREATE TABLE notifications (
     processing_available_date datetime DEFAULT NULL,
     processing_state varchar(14) DEFAULT 'AVAILABLE',
     error_count int /*! unsigned */ DEFAULT 0,
+    priority smallint /*! unsigned */ DEFAULT 1,
     search_key1 bigint /*! unsigned */ default null,
     search_key2 bigint /*! unsigned */ default null,
     queue_name varchar(64) NOT NULL,
     effective_date datetime NOT NULL,
     future_user_token varchar(36),
+    dedup_key varchar(255) DEFAULT NULL,
     PRIMARY KEY(record_id)
 ) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
 CREATE INDEX idx_comp_where ON notifications(effective_date, processing_state, processing_owner, processing_available_date);
 CREATE INDEX idx_update ON notifications(processing_state, processing_owner, processing_available_date);
 CREATE INDEX idx_get_ready ON notifications(effective_date, created_date);
+CREATE INDEX idx_get_ready_priority ON notifications(processing_state, priority, effective_date, created_date);
 CREATE INDEX notifications_search_keys ON notifications(search_key2, search_key1);
+CREATE UNIQUE INDEX notifications_dedup_key ON notifications(queue_name, dedup_key);
 
 DROP TABLE IF EXISTS notifications_history;
 CREATE TABLE notifications_history (
@@ -55,11 +59,13 @@ CREATE TABLE notifications_history (
     processing_available_date datetime DEFAULT NULL,
     processing_state varchar(14) DEFAULT 'AVAILABLE',
     error_count int /*! unsigned */ DEFAULT 0,
+    priority smallint /*! unsigned */ DEFAULT 1,
     search_key1 bigint /*! unsigned */ default null,
     search_key2 bigint /*! unsigned */ default null,
     queue_name varchar(64) NOT NULL,
     effective_date datetime NOT NULL,
     future_user_token varchar(36),
+    dedup_key varchar(255) DEFAULT NULL,
     PRIMARY KEY(record_id)
 ) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
 CREATE INDEX notifications_history_search_keys ON notifications_history(search_key2, search_key1);
@@ -76,11 +82,13 @@ CREATE TABLE bus_events (
     processing_available_date datetime DEFAULT NULL,
     processing_state varchar(14) DEFAULT 'AVAILABLE',
     error_count int /*! unsigned */ DEFAULT 0,
+    priority smallint /*! unsigned */ DEFAULT 1,
     search_key1 bigint /*! unsigned */ default null,
     search_key2 bigint /*! unsigned */ default null,
     PRIMARY KEY(record_id)
 ) /*! CHARACTER SET utf8 COLLATE utf8_bin */;
 CREATE INDEX idx_bus_where ON bus_events(processing_state, processing_owner, processing_available_date);
+CREATE INDEX idx_bus_ready_priority ON bus_events(processing_state, priority, record_id);
 CREATE INDEX bus_events_tenant_account_record_id ON bus_events(search_key2, search_key1);
 
 DROP TABLE IF EXISTS bus_events_history;
@@ -95,6 +103,7 @@ CREATE TABLE bus_events_history (
     processing_available_date datetime DEFAULT NULL,
     processing_state varchar(14) DEFAULT 'AVAILABLE',
     error_count int /*! unsigned */ DEFAULT 0,
+    priority smallint /*! unsigned */ DEFAULT 1,
     search_key1 bigint /*! unsigned */ default null,
     search_key2 bigint /*! unsigned */ default null,
     PRIMARY KEY(record_id)
@@ -31,7 +31,6 @@ import org.killbill.commons.embeddeddb.EmbeddedDB;
 import org.killbill.commons.embeddeddb.h2.H2EmbeddedDB;
 import org.killbill.commons.embeddeddb.mysql.MySQLEmbeddedDB;
 import org.killbill.commons.embeddeddb.postgresql.PostgreSQLEmbeddedDB;
-import org.killbill.commons.jdbi.notification.DatabaseTransactionNotificationApi;
 import org.killbill.commons.jdbi.transaction.NotificationTransactionHandler;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
@@ -63,7 +62,6 @@ public class TestSetup {
     protected NotificationQueueConfig notificationQueueConfig;
     protected ClockMock clock;
     protected final MetricRegistry metricRegistry = new NoOpMetricRegistry();
-    protected DatabaseTransactionNotificationApi databaseTransactionNotificationApi;
 
     @BeforeClass(groups = "slow")
     public void beforeClass() throws Exception {
@@ -105,10 +103,9 @@ public class TestSetup {
         embeddedDB.refreshTableNames();
 
 
-        databaseTransactionNotificationApi = new DatabaseTransactionNotificationApi();
         dbi = new DBI(embeddedDB.getDataSource());
         InTransaction.setupDBI(dbi);
-        dbi.setTransactionHandler(new NotificationTransactionHandler(databaseTransactionNotificationApi));
+        dbi.setTransactionHandler(new NotificationTransactionHandler());
 
         final ConfigSource configSource = new SimplePropertyConfigSource(System.getProperties());
         persistentBusConfig = new ConfigurationObjectFactory(configSource).buildWithReplacements(
@@ -71,7 +71,7 @@ public class TestLoadDefaultPersistentBus extends TestSetup {
         properties.setProperty("org.killbill.persistent.bus.main.useInflightQ", "true");
         final PersistentBusConfig busConfig = new ConfigurationObjectFactory(properties).buildWithReplacements(PersistentBusConfig.class, Map.of("instanceName", "main"));
 
-        eventBus = new DefaultPersistentBus(dbi, clock, busConfig, metricRegistry, databaseTransactionNotificationApi);
+        eventBus = new DefaultPersistentBus(dbi, clock, busConfig, metricRegistry);
     }
 
     @BeforeMethod(groups = "load", enabled = false)
@@ -44,7 +44,7 @@ public class TestPersistentEventBus extends TestSetup {
     public void beforeMethod() throws Exception {
         super.beforeMethod();
         // Reinitialize to restart the pool
-        busService = new DefaultPersistentBus(getDBI(), clock, getPersistentBusConfig(), metricRegistry, databaseTransactionNotificationApi);
+        busService = new DefaultPersistentBus(getDBI(), clock, getPersistentBusConfig(), metricRegistry);
         testEventBusBase = new TestEventBusBase(busService);
         busService.startQueue();
     }
@@ -64,7 +64,7 @@ public class TestRetries extends TestSetup {
     public void beforeMethod() throws Exception {
         super.beforeMethod();
         queueService = new DefaultNotificationQueueService(getDBI(), clock, getNotificationQueueConfig(), metricRegistry);
-        busService = new DefaultPersistentBus(getDBI(), clock, getPersistentBusConfig(), metricRegistry, databaseTransactionNotificationApi);
+        busService = new DefaultPersistentBus(getDBI(), clock, getPersistentBusConfig(), metricRegistry);
         busService.startQueue();
     }
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.bus.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.TestSetup;
+import org.killbill.commons.embeddeddb.EmbeddedDB;
+import org.killbill.commons.embeddeddb.h2.H2EmbeddedDB;
+import org.killbill.commons.jdbi.binder.SmartBindBean;
+import org.killbill.commons.jdbi.binder.SmartBindBeanFactory;
+import org.killbill.commons.utils.io.Resources;
+import org.killbill.queue.InTransaction;
+import org.killbill.queue.dao.EventEntryModelDao;
+import org.killbill.queue.dao.QueueSqlDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.Update;
+import org.skife.jdbi.v2.sqlobject.Binder;
+
+/**
+ * Inserts bus_events rows in H2, each row being bound via @SmartBindBean: insertEntries is the batch insert
+ * (1000 rows per batch), insertEntry the single row insert. Scores are per row. bindOnly measures the binding
+ * of a row alone (the statement isn't executed).
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusEventModelDaoBinderBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private EmbeddedDB embeddedDB;
+    private DBI dbi;
+    private PersistentBusSqlDao dao;
+    private List<BusEventModelDao> entries;
+    private Handle handle;
+    private SmartBindBean smartBindBean;
+    private Binder<SmartBindBean, Object> binder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        embeddedDB = new H2EmbeddedDB("killbillq_benchmark", "killbillq", "killbillq");
+        embeddedDB.initialize();
+        embeddedDB.start();
+        embeddedDB.executeScript(TestSetup.toString(Resources.getResource("org/killbill/queue/ddl.sql").openStream()));
+
+        dbi = new DBI(embeddedDB.getDataSource());
+        InTransaction.setupDBI(dbi);
+        dao = dbi.onDemand(PersistentBusSqlDao.class);
+
+        final DateTime now = new DateTime(DateTimeZone.UTC);
+        entries = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            entries.add(new BusEventModelDao("benchmark", now, String.class.getName(), "{\"json\":" + i + "}", UUID.randomUUID(), (long) i, 1L));
+        }
+
+        handle = dbi.open();
+        smartBindBean = (SmartBindBean) QueueSqlDao.class.getMethod("insertEntry", EventEntryModelDao.class, String.class).getParameterAnnotations()[0][0];
+        binder = new SmartBindBeanFactory().build(smartBindBean);
+    }
+
+    @Setup(Level.Iteration)
+    public void cleanup() {
+        try (final Handle handle = dbi.open()) {
+            handle.execute("truncate table bus_events");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        handle.close();
+        embeddedDB.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertEntries() {
+        dao.insertEntries(entries, "bus_events");
+    }
+
+    @Benchmark
+    public Long insertEntry() {
+        return dao.insertEntry(entries.get(0), "bus_events");
+    }
+
+    @Benchmark
+    public Update bindOnly() {
+        final Update update = handle.createStatement("insert into bus_events (class_name) values (:className)");
+        binder.bind(update, smartBindBean, entries.get(0));
+        return update;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BusEventModelDaoBinderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.bus.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.TestSetup;
+import org.killbill.commons.embeddeddb.EmbeddedDB;
+import org.killbill.commons.embeddeddb.h2.H2EmbeddedDB;
+import org.killbill.commons.jdbi.mapper.LowerToCamelBeanMapper;
+import org.killbill.commons.utils.io.Resources;
+import org.killbill.queue.InTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.util.LongMapper;
+
+/**
+ * Maps 10k bus_events rows from H2: fetchOnly is the cost of running the query and iterating over the rows,
+ * readAllColumns adds the cost of the JDBC getters and mapWithLowerToCamelBeanMapper the full mapping.
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusEventModelDaoMapperBenchmark {
+
+    private static final int NB_ROWS = 10000;
+    private static final String QUERY = "select record_id, class_name, event_json, user_token, created_date, creating_owner, processing_owner, " +
+                                         "processing_available_date, processing_state, error_count, priority, search_key1, search_key2 from bus_events";
+
+    private EmbeddedDB embeddedDB;
+    private Handle handle;
+    private LowerToCamelBeanMapper<BusEventModelDao> mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        embeddedDB = new H2EmbeddedDB("killbillq_benchmark", "killbillq", "killbillq");
+        embeddedDB.initialize();
+        embeddedDB.start();
+        embeddedDB.executeScript(TestSetup.toString(Resources.getResource("org/killbill/queue/ddl.sql").openStream()));
+
+        final DBI dbi = new DBI(embeddedDB.getDataSource());
+        InTransaction.setupDBI(dbi);
+
+        final DateTime now = new DateTime(DateTimeZone.UTC);
+        final List<BusEventModelDao> entries = new ArrayList<>(NB_ROWS);
+        for (int i = 0; i < NB_ROWS; i++) {
+            entries.add(new BusEventModelDao("benchmark", now, String.class.getName(), "{\"json\":" + i + "}", UUID.randomUUID(), (long) i, 1L));
+        }
+        dbi.onDemand(PersistentBusSqlDao.class).insertEntries(entries, "bus_events");
+
+        handle = dbi.open();
+        mapper = new LowerToCamelBeanMapper<>(BusEventModelDao.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        handle.close();
+        embeddedDB.stop();
+    }
+
+    @Benchmark
+    public List<Long> fetchOnly() {
+        return handle.createQuery(QUERY).map(LongMapper.FIRST).list();
+    }
+
+    @Benchmark
+    public List<Object> readAllColumns() {
+        return handle.createQuery(QUERY).map((index, r, ctx) -> {
+            final Object[] values = new Object[13];
+            values[0] = r.getLong(1);
+            values[1] = r.getString(2);
+            values[2] = r.getString(3);
+            values[3] = r.getString(4);
+            values[4] = r.getTimestamp(5);
+            values[5] = r.getString(6);
+            values[6] = r.getString(7);
+            values[7] = r.getTimestamp(8);
+            values[8] = r.getString(9);
+            values[9] = r.getLong(10);
+            values[10] = r.getInt(11);
+            values[11] = r.getLong(12);
+            values[12] = r.getLong(13);
+            return (Object) values;
+        }).list();
+    }
+
+    @Benchmark
+    public List<BusEventModelDao> mapWithLowerToCamelBeanMapper() {
+        return handle.createQuery(QUERY).map(mapper).list();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BusEventModelDaoMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
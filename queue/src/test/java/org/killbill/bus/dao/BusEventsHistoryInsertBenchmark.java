@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.bus.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.h2.tools.Server;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.TestSetup;
+import org.killbill.commons.embeddeddb.EmbeddedDB;
+import org.killbill.commons.embeddeddb.h2.H2EmbeddedDB;
+import org.killbill.commons.jdbi.binder.SmartBindBean;
+import org.killbill.commons.jdbi.template.KillBillSqlDaoStringTemplate;
+import org.killbill.commons.utils.io.Resources;
+import org.killbill.queue.InTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.sqlobject.SqlBatch;
+import org.skife.jdbi.v2.sqlobject.customizers.BatchChunkSize;
+import org.skife.jdbi.v2.sqlobject.customizers.Define;
+
+/**
+ * Inserts bus_events_history rows in H2 (chunks of 100 rows, like QueueSqlDao#insertEntries): jdbcBatch sends each
+ * chunk as a JDBC batch, multiRowValues as INSERT ... VALUES (...), (...), ... statements. Scores are per row.
+ * The database is either accessed in-process (embedded) or over the network (tcp, the H2 client sending one
+ * request per batched row).
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusEventsHistoryInsertBenchmark {
+
+    private static final int NB_ROWS = 1000;
+
+    @Param({"embedded", "tcp"})
+    private String transport;
+
+    private EmbeddedDB embeddedDB;
+    private Server tcpServer;
+    private JdbcConnectionPool tcpDataSource;
+    private DBI dbi;
+    private BatchInsertSqlDao dao;
+    private List<BusEventModelDao> entries;
+
+    @KillBillSqlDaoStringTemplate("/org/killbill/queue/dao/QueueSqlDao.sql.stg")
+    public interface BatchInsertSqlDao {
+
+        @SqlBatch("insertEntries")
+        @BatchChunkSize(100)
+        void insertEntriesWithJdbcBatch(@SmartBindBean Iterable<BusEventModelDao> evts,
+                                        @Define("tableName") final String tableName);
+
+        @SqlBatch(value = "insertEntries", multiRowValues = true)
+        @BatchChunkSize(100)
+        void insertEntriesWithMultiRowValues(@SmartBindBean Iterable<BusEventModelDao> evts,
+                                             @Define("tableName") final String tableName);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        embeddedDB = new H2EmbeddedDB("killbillq_benchmark", "killbillq", "killbillq");
+        embeddedDB.initialize();
+        embeddedDB.start();
+        embeddedDB.executeScript(TestSetup.toString(Resources.getResource("org/killbill/queue/ddl.sql").openStream()));
+
+        if ("tcp".equals(transport)) {
+            tcpServer = Server.createTcpServer("-tcpPort", "0").start();
+            tcpDataSource = JdbcConnectionPool.create(String.format("jdbc:h2:tcp://localhost:%d/mem:killbillq_benchmark;MODE=LEGACY", tcpServer.getPort()),
+                                                      "killbillq",
+                                                      "killbillq");
+            dbi = new DBI(tcpDataSource);
+        } else {
+            dbi = new DBI(embeddedDB.getDataSource());
+        }
+        InTransaction.setupDBI(dbi);
+        dao = dbi.onDemand(BatchInsertSqlDao.class);
+
+        final DateTime now = new DateTime(DateTimeZone.UTC);
+        entries = new ArrayList<>(NB_ROWS);
+        for (int i = 0; i < NB_ROWS; i++) {
+            entries.add(new BusEventModelDao("benchmark", now, String.class.getName(), "{\"json\":" + i + "}", UUID.randomUUID(), (long) i, 1L));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void cleanup() {
+        try (final Handle handle = dbi.open()) {
+            handle.execute("truncate table bus_events_history");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (tcpServer != null) {
+            tcpDataSource.dispose();
+            tcpServer.stop();
+        }
+        embeddedDB.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_ROWS)
+    public void jdbcBatch() {
+        dao.insertEntriesWithJdbcBatch(entries, "bus_events_history");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_ROWS)
+    public void multiRowValues() {
+        dao.insertEntriesWithMultiRowValues(entries, "bus_events_history");
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BusEventsHistoryInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -23,11 +23,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import org.joda.time.DateTime;
 import org.killbill.TestSetup;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestBusSqlDao extends TestSetup {
 
@@ -84,4 +87,76 @@ public class TestBusSqlDao extends TestSetup {
         assertEquals(totalEntries, TOTAL_ENTRIES);
     }
 
+    @Test(groups = "slow")
+    public void testGetReadyQueueEntriesPageForSearchKey2() {
+        final long searchKey2 = 8237L;
+
+        final int TOTAL_ENTRIES = 25;
+        final ArrayList<BusEventModelDao> entries = new ArrayList<>(TOTAL_ENTRIES);
+        for (int i = 0; i < TOTAL_ENTRIES; i++) {
+            final String eventJson = String.valueOf(i);
+            entries.add(new BusEventModelDao(hostname, clock.getUTCNow(), eventJson.getClass().toString(), eventJson, UUID.randomUUID(), 1242L, searchKey2));
+        }
+        dao.insertEntries(entries, persistentBusConfig.getTableName());
+
+        final DateTime maxCreatedDate = clock.getUTCNow().plusSeconds(1);
+        final int PAGE_SIZE = 10;
+
+        int totalEntries = 0;
+        long lastRecordId = -1;
+        List<BusEventModelDao> curPage;
+        do {
+            curPage = dao.getReadyQueueEntriesPageForSearchKey2(maxCreatedDate, searchKey2, lastRecordId, PAGE_SIZE, persistentBusConfig.getTableName());
+            assertTrue(curPage.size() <= PAGE_SIZE);
+            for (final BusEventModelDao e : curPage) {
+                assertTrue(e.getRecordId() > lastRecordId);
+                lastRecordId = e.getRecordId();
+            }
+            totalEntries += curPage.size();
+        } while (curPage.size() == PAGE_SIZE);
+        assertEquals(totalEntries, TOTAL_ENTRIES);
+    }
+
+    @Test(groups = "slow")
+    public void testInsertEntriesWithMultiRowValues() {
+        final long searchKey2 = 6131L;
+
+        // One full chunk and a partial one
+        final int TOTAL_ENTRIES = 150;
+        final ArrayList<BusEventModelDao> entries = new ArrayList<>(TOTAL_ENTRIES);
+        for (int i = 0; i < TOTAL_ENTRIES; i++) {
+            final String eventJson = String.valueOf(i);
+            entries.add(new BusEventModelDao(hostname, clock.getUTCNow(), eventJson.getClass().toString(), eventJson, UUID.randomUUID(), 1242L, searchKey2));
+        }
+        dao.insertEntriesWithMultiRowValues(entries, persistentBusConfig.getTableName());
+
+        final List<BusEventModelDao> inserted = dao.getReadyQueueEntriesPageForSearchKey2(clock.getUTCNow().plusSeconds(1), searchKey2, -1L, 2 * TOTAL_ENTRIES, persistentBusConfig.getTableName());
+        assertEquals(inserted.size(), TOTAL_ENTRIES);
+        for (int i = 0; i < TOTAL_ENTRIES; i++) {
+            assertEquals(inserted.get(i).getEventJson(), String.valueOf(i));
+            assertEquals(inserted.get(i).getUserToken(), entries.get(i).getUserToken());
+        }
+    }
+
+    @Test(groups = "slow")
+    public void testReadyEntriesOrderedByPriority() {
+        final long searchKey2 = 9281L;
+
+        final List<BusEventModelDao> entries = new ArrayList<>();
+        for (final PersistentQueueEntryPriority priority : List.of(PersistentQueueEntryPriority.LOW, PersistentQueueEntryPriority.NORMAL, PersistentQueueEntryPriority.HIGH)) {
+            final BusEventModelDao e = new BusEventModelDao(hostname, clock.getUTCNow(), String.class.toString(), priority.name(), UUID.randomUUID(), 1242L, searchKey2);
+            e.setPriority(priority.getValue());
+            entries.add(e);
+        }
+        dao.insertEntries(entries, persistentBusConfig.getTableName());
+
+        final List<BusEventModelDao> readyEntries = dao.getReadyEntries(clock.getUTCNow().toDate(), 1000, null, persistentBusConfig.getTableName());
+        final List<String> ourEntries = new ArrayList<>();
+        for (final BusEventModelDao e : readyEntries) {
+            if (e.getSearchKey2() == searchKey2) {
+                ourEntries.add(e.getEventJson());
+            }
+        }
+        assertEquals(ourEntries, List.of("HIGH", "NORMAL", "LOW"));
+    }
 }
@@ -22,6 +22,7 @@ package org.killbill.notificationq;
 import java.io.IOException;
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
@@ -38,6 +39,7 @@ import org.killbill.notificationq.api.NotificationQueue;
 import org.killbill.notificationq.api.NotificationQueueService.NotificationQueueHandler;
 import org.killbill.notificationq.dao.NotificationEventModelDao;
 import org.killbill.queue.api.PersistentQueueEntryLifecycleState;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.dispatching.EventEntryDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -102,6 +104,16 @@ public class MockNotificationQueue implements NotificationQueue {
         recordFutureNotification(futureNotificationTime, eventJson, userToken, searchKey1, searchKey2);
     }
 
+    @Override
+    public void recordFutureNotification(final DateTime futureNotificationTime, final NotificationEvent eventJson, final UUID userToken, final Long searchKey1, final Long searchKey2, final PersistentQueueEntryPriority priority) throws IOException {
+        recordFutureNotification(futureNotificationTime, eventJson, userToken, searchKey1, searchKey2);
+    }
+
+    @Override
+    public void recordFutureNotificationFromTransaction(final Connection connection, final DateTime futureNotificationTime, final NotificationEvent eventJson, final UUID userToken, final Long searchKey1, final Long searchKey2, final PersistentQueueEntryPriority priority) throws IOException {
+        recordFutureNotification(futureNotificationTime, eventJson, userToken, searchKey1, searchKey2);
+    }
+
     @Override
     public void updateFutureNotification(final Long recordId, final NotificationEvent eventJson, final Long searchKey1, final Long searchKey2) throws IOException {
         return;
@@ -124,12 +136,12 @@ public class MockNotificationQueue implements NotificationQueue {
 
     @Override
     public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getFutureNotificationForSearchKey2(final DateTime maxEffectiveDate, final Long searchKey2) {
-        return null;
+        return Collections.emptyList();
     }
 
     @Override
     public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getFutureNotificationFromTransactionForSearchKey2(final DateTime maxEffectiveDate, final Long searchKey2, final Connection connection) {
-        return null;
+        return Collections.emptyList();
     }
 
     @Override
@@ -149,12 +161,12 @@ public class MockNotificationQueue implements NotificationQueue {
 
     @Override
     public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getFutureOrInProcessingNotificationForSearchKey2(final DateTime maxEffectiveDate, final Long searchKey2) {
-        return null;
+        return Collections.emptyList();
     }
 
     @Override
     public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getFutureOrInProcessingNotificationFromTransactionForSearchKey2(final DateTime maxEffectiveDate, final Long searchKey2, final Connection connection) {
-        return null;
+        return Collections.emptyList();
     }
 
     @Override
@@ -164,7 +176,17 @@ public class MockNotificationQueue implements NotificationQueue {
 
     @Override
     public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getHistoricalNotificationForSearchKey2(final DateTime minEffectiveDate, final Long searchKey2) {
-        return null;
+        return Collections.emptyList();
+    }
+
+    @Override
+    public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getFutureNotificationPageForSearchKey2(final DateTime maxEffectiveDate, final Long searchKey2, final NotificationEventWithMetadata<?> lastEntry, final int pageSize) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getHistoricalNotificationPageForSearchKey2(final DateTime minEffectiveDate, final Long searchKey2, final NotificationEventWithMetadata<?> lastEntry, final int pageSize) {
+        return Collections.emptyList();
     }
 
     private <T extends NotificationEvent> List<NotificationEventWithMetadata<T>> getFutureNotificationsInternal(final Class<T> type, final Long searchKey1, final Connection connection) {
@@ -189,6 +211,11 @@ public class MockNotificationQueue implements NotificationQueue {
         return 0;
     }
 
+    @Override
+    public long getNbReadyEntries(final DateTime maxEffectiveDate, final long max) {
+        return 0;
+    }
+
     @Override
     public void removeNotification(final Long recordId) {
         removeNotificationFromTransaction(null, recordId);
@@ -210,6 +237,18 @@ public class MockNotificationQueue implements NotificationQueue {
     public void removeFutureNotificationsForSearchKeys(final Long searchKey1, final Long searchKey2) {
     }
 
+    @Override
+    public void removeFutureNotificationsForSearchKeys(final Long searchKey1, final Long searchKey2, final DateTime maxEffectiveDate) {
+    }
+
+    @Override
+    public void removeFutureNotificationsFromTransactionForSearchKeys(final Long searchKey1, final Long searchKey2, final Connection connection) {
+    }
+
+    @Override
+    public void removeFutureNotificationsFromTransactionForSearchKeys(final Long searchKey1, final Long searchKey2, final DateTime maxEffectiveDate, final Connection connection) {
+    }
+
     @Override
     public String getFullQName() {
         return NotificationQueueDispatcher.getCompositeName(svcName, queueName);
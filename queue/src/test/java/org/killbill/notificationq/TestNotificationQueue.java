@@ -25,6 +25,9 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -49,6 +52,7 @@ import org.skife.jdbi.v2.DBI;
 import org.skife.jdbi.v2.Handle;
 import org.skife.jdbi.v2.TransactionCallback;
 import org.skife.jdbi.v2.TransactionStatus;
+import org.skife.jdbi.v2.exceptions.CallbackFailedException;
 import org.skife.jdbi.v2.tweak.HandleCallback;
 import org.skife.jdbi.v2.util.IntegerMapper;
 import org.slf4j.Logger;
@@ -134,6 +138,25 @@ public class TestNotificationQueue extends TestSetup {
         }
     }
 
+    private static final class TestDedupNotificationKey implements NotificationEvent {
+
+        private final String value;
+
+        @JsonCreator
+        public TestDedupNotificationKey(@JsonProperty("value") final String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String getDedupKey() {
+            return value;
+        }
+    }
+
     @Override
     @BeforeMethod(groups = "slow")
     public void beforeMethod() throws Exception {
@@ -270,6 +293,16 @@ public class TestNotificationQueue extends TestSetup {
         }
         Assert.assertEquals(found, 3);
 
+        // Same results, one page at a time
+        final List<NotificationEventWithMetadata<TestNotificationKey>> firstPage = queue.getFutureNotificationPageForSearchKey2(null, SEARCH_KEY_2, null, 2);
+        Assert.assertEquals(firstPage.size(), 2);
+        Assert.assertEquals(firstPage.get(0).getRecordId(), futures2.get(0).getRecordId());
+        Assert.assertEquals(firstPage.get(1).getRecordId(), futures2.get(1).getRecordId());
+        final List<NotificationEventWithMetadata<TestNotificationKey>> secondPage = queue.getFutureNotificationPageForSearchKey2(null, SEARCH_KEY_2, firstPage.get(1), 2);
+        Assert.assertEquals(secondPage.size(), 1);
+        Assert.assertEquals(secondPage.get(0).getRecordId(), futures2.get(2).getRecordId());
+        Assert.assertEquals(queue.getFutureNotificationPageForSearchKey2(null, SEARCH_KEY_2, secondPage.get(0), 2).size(), 0);
+
         // Move time in the future after the notification effectiveDate
         clock.setDeltaFromReality(3000);
 
@@ -295,9 +328,13 @@ public class TestNotificationQueue extends TestSetup {
         queue.removeFutureNotificationsForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2);
         Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)), 0);
 
+        Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(1L, 1L)), 1);
+        // Notification is scheduled after the cutoff
+        queue.removeFutureNotificationsForSearchKeys(1L, 1L, readyTime.plusDays(1));
         Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(1L, 1L)), 1);
         queue.removeFutureNotificationsForSearchKeys(1L, 1L);
         Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(1L, 1L)), 0);
+        Assert.assertEquals(Iterables.size(queue.getHistoricalNotificationForSearchKeys(1L, 1L)), 1);
 
         queue.stopQueue();
     }
@@ -649,4 +686,189 @@ public class TestNotificationQueue extends TestSetup {
             retryableQueueService.stop();
         }
     }
+
+    @Test(groups = "slow")
+    public void testDedupNotifications() throws Exception {
+        final NotificationQueue queue = queueService.createNotificationQueue("test-svc",
+                                                                             "dedup",
+                                                                             new NotificationQueueHandler() {
+                                                                                 @Override
+                                                                                 public void handleReadyNotification(final NotificationEvent eventJson, final DateTime eventDateTime, final UUID userToken, final Long searchKey1, final Long searchKey2) {
+                                                                                 }
+                                                                             });
+
+        final DateTime now = clock.getUTCNow().withMillisOfSecond(0);
+        queue.recordFutureNotification(now.plusDays(3), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        // Earlier effective date wins
+        queue.recordFutureNotification(now.plusDays(1), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        // Later one is a no-op
+        final DBI dbi = getDBI();
+        dbi.inTransaction(new TransactionCallback<Object>() {
+            @Override
+            public Object inTransaction(final Handle conn, final TransactionStatus status) throws Exception {
+                queue.recordFutureNotificationFromTransaction(conn.getConnection(), now.plusDays(2), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+                return null;
+            }
+        });
+
+        final List<NotificationEventWithMetadata<TestDedupNotificationKey>> futures = Iterables.toUnmodifiableList(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2));
+        Assert.assertEquals(futures.size(), 1);
+        Assert.assertEquals(futures.get(0).getEffectiveDate().compareTo(now.plusDays(1)), 0);
+
+        // Other keys aren't coalesced
+        queue.recordFutureNotification(now.plusDays(1), new TestDedupNotificationKey("invoice-43"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        queue.recordFutureNotification(now.plusDays(1), new TestNotificationKey("no-dedup"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        queue.recordFutureNotification(now.plusDays(1), new TestNotificationKey("no-dedup"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)), 4);
+
+        // Once removed, the key can be used again
+        queue.removeFutureNotificationsForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2);
+        queue.recordFutureNotification(now.plusDays(3), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)), 1);
+    }
+
+    @Test(groups = "slow")
+    public void testDedupNotificationsWithEntryNotAvailable() throws Exception {
+        final NotificationQueue queue = queueService.createNotificationQueue("test-svc",
+                                                                             "dedup-not-available",
+                                                                             new NotificationQueueHandler() {
+                                                                                 @Override
+                                                                                 public void handleReadyNotification(final NotificationEvent eventJson, final DateTime eventDateTime, final UUID userToken, final Long searchKey1, final Long searchKey2) {
+                                                                                 }
+                                                                             });
+
+        final DateTime now = clock.getUTCNow().withMillisOfSecond(0);
+        queue.recordFutureNotification(now.plusDays(1), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        final Long firstRecordId = Iterables.toUnmodifiableList(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)).get(0).getRecordId();
+
+        // Claimed: the key is released, the payload of the next notification must not be absorbed
+        final NotificationSqlDao notificationSqlDao = dbi.onDemand(NotificationSqlDao.class);
+        Assert.assertEquals(notificationSqlDao.claimEntry(firstRecordId, "owner", clock.getUTCNow().plusMinutes(5).toDate(), notificationQueueConfig.getTableName()), 1);
+        queue.recordFutureNotification(now.plusDays(2), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        List<NotificationEventWithMetadata<TestDedupNotificationKey>> futures = Iterables.toUnmodifiableList(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2));
+        Assert.assertEquals(futures.size(), 1);
+        Assert.assertEquals(futures.get(0).getEffectiveDate().compareTo(now.plusDays(2)), 0);
+        final Long secondRecordId = futures.get(0).getRecordId();
+
+        // Not AVAILABLE anymore, but still holding the key (e.g. processed and not yet moved into history)
+        final Handle handle = dbi.open();
+        try {
+            handle.execute(String.format("update %s set processing_state = 'PROCESSED' where record_id = ?", notificationQueueConfig.getTableName()), secondRecordId);
+        } finally {
+            handle.close();
+        }
+        queue.recordFutureNotification(now.plusDays(1), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        futures = Iterables.toUnmodifiableList(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2));
+        Assert.assertEquals(futures.size(), 1);
+        Assert.assertNotEquals(futures.get(0).getRecordId(), secondRecordId);
+        Assert.assertEquals(futures.get(0).getEffectiveDate().compareTo(now.plusDays(1)), 0);
+        Assert.assertEquals(notificationSqlDao.getByRecordId(secondRecordId, notificationQueueConfig.getTableName()).getEffectiveDate().compareTo(now.plusDays(2)), 0);
+
+        // The new entry absorbs the next ones
+        queue.recordFutureNotification(now.plusDays(3), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)), 1);
+    }
+
+    @Test(groups = "slow")
+    public void testConcurrentDedupNotifications() throws Exception {
+        final NotificationQueue queue = queueService.createNotificationQueue("test-svc",
+                                                                             "dedup-concurrent",
+                                                                             new NotificationQueueHandler() {
+                                                                                 @Override
+                                                                                 public void handleReadyNotification(final NotificationEvent eventJson, final DateTime eventDateTime, final UUID userToken, final Long searchKey1, final Long searchKey2) {
+                                                                                 }
+                                                                             });
+
+        final DateTime now = clock.getUTCNow().withMillisOfSecond(0);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final DBI dbi = getDBI();
+            final Future<?> concurrentRecord = dbi.inTransaction(new TransactionCallback<Future<?>>() {
+                @Override
+                public Future<?> inTransaction(final Handle conn, final TransactionStatus status) throws Exception {
+                    queue.recordFutureNotificationFromTransaction(conn.getConnection(), now.plusDays(3), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+
+                    // Doesn't see the uncommitted entry: its insert waits on the unique index until we commit
+                    final Future<?> future = executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            queue.recordFutureNotification(now.plusDays(1), new TestDedupNotificationKey("invoice-42"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+                            return null;
+                        }
+                    });
+                    Thread.sleep(500);
+                    return future;
+                }
+            });
+            concurrentRecord.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final List<NotificationEventWithMetadata<TestDedupNotificationKey>> futures = Iterables.toUnmodifiableList(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2));
+        Assert.assertEquals(futures.size(), 1);
+        Assert.assertEquals(futures.get(0).getEffectiveDate().compareTo(now.plusDays(1)), 0);
+    }
+
+    @Test(groups = "slow")
+    public void testRemoveFutureNotificationsFromTransaction() throws Exception {
+        final NotificationQueue queue = queueService.createNotificationQueue("test-svc",
+                                                                             "remove",
+                                                                             new NotificationQueueHandler() {
+                                                                                 @Override
+                                                                                 public void handleReadyNotification(final NotificationEvent eventJson, final DateTime eventDateTime, final UUID userToken, final Long searchKey1, final Long searchKey2) {
+                                                                                 }
+                                                                             });
+
+        final DateTime now = clock.getUTCNow().withMillisOfSecond(0);
+        queue.recordFutureNotification(now.plusDays(1), new TestNotificationKey("day-1"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        queue.recordFutureNotification(now.plusDays(2), new TestNotificationKey("day-2"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        queue.recordFutureNotification(now.plusDays(3), new TestNotificationKey("day-3"), TOKEN_ID, SEARCH_KEY_1, SEARCH_KEY_2);
+        // Other search keys aren't removed
+        queue.recordFutureNotification(now.plusDays(1), new TestNotificationKey("other"), TOKEN_ID, SEARCH_KEY_1, 1L);
+
+        // Rolled back with the caller's transaction
+        final DBI dbi = getDBI();
+        try {
+            dbi.inTransaction(new TransactionCallback<Object>() {
+                @Override
+                public Object inTransaction(final Handle conn, final TransactionStatus status) throws Exception {
+                    queue.removeFutureNotificationsFromTransactionForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2, conn.getConnection());
+                    Assert.assertEquals(Iterables.size(queue.getFutureNotificationFromTransactionForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2, conn.getConnection())), 0);
+                    throw new IllegalStateException("Rollback");
+                }
+            });
+            Assert.fail();
+        } catch (final CallbackFailedException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)), 3);
+        Assert.assertEquals(Iterables.size(queue.getHistoricalNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)), 0);
+
+        // Only the notifications scheduled before the cutoff are removed
+        dbi.inTransaction(new TransactionCallback<Object>() {
+            @Override
+            public Object inTransaction(final Handle conn, final TransactionStatus status) throws Exception {
+                queue.removeFutureNotificationsFromTransactionForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2, now.plusDays(2), conn.getConnection());
+                return null;
+            }
+        });
+        final List<NotificationEventWithMetadata<TestNotificationKey>> futures = Iterables.toUnmodifiableList(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2));
+        Assert.assertEquals(futures.size(), 2);
+        Assert.assertEquals(futures.get(0).getEvent().getValue(), "day-2");
+        Assert.assertEquals(futures.get(1).getEvent().getValue(), "day-3");
+
+        // Entries weren't claimed: only their state changes
+        final NotificationSqlDao notificationSqlDao = dbi.onDemand(NotificationSqlDao.class);
+        final List<NotificationEventModelDao> removed = Iterators.toUnmodifiableList(notificationSqlDao.getHistoricalQueueEntriesForSearchKeys(queue.getFullQName(), SEARCH_KEY_1, SEARCH_KEY_2, notificationQueueConfig.getHistoryTableName()));
+        Assert.assertEquals(removed.size(), 1);
+        Assert.assertEquals(removed.get(0).getProcessingState(), PersistentQueueEntryLifecycleState.REMOVED);
+        Assert.assertNull(removed.get(0).getProcessingOwner());
+        Assert.assertNull(removed.get(0).getProcessingAvailableDate());
+
+        queue.removeFutureNotificationsForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2);
+        Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)), 0);
+        Assert.assertEquals(Iterables.size(queue.getHistoricalNotificationForSearchKeys(SEARCH_KEY_1, SEARCH_KEY_2)), 3);
+        Assert.assertEquals(Iterables.size(queue.getFutureNotificationForSearchKeys(SEARCH_KEY_1, 1L)), 1);
+    }
 }
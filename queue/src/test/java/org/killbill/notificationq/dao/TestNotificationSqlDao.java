@@ -107,6 +107,8 @@ public class TestNotificationSqlDao extends TestSetup {
 
         final long nbEntries = dao.getNbReadyEntries(now.toDate(), hostname, notificationQueueConfig.getTableName());
         assertEquals(nbEntries, 1);
+        assertEquals(dao.getNbReadyEntriesUpTo(now.toDate(), 10, hostname, notificationQueueConfig.getTableName()), 1);
+        assertEquals(dao.getNbReadyEntriesUpTo(now.toDate(), 0, hostname, notificationQueueConfig.getTableName()), 0);
 
         NotificationEventModelDao notification = notifications.get(0);
         assertEquals(notification.getEventJson(), eventJson);
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.queue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.killbill.TestSetup;
+import org.killbill.bus.api.PersistentBusConfig;
+import org.killbill.bus.dao.BusEventModelDao;
+import org.killbill.bus.dao.PersistentBusSqlDao;
+import org.killbill.clock.DefaultClock;
+import org.killbill.commons.embeddeddb.EmbeddedDB;
+import org.killbill.commons.embeddeddb.h2.H2EmbeddedDB;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
+import org.killbill.commons.utils.io.Resources;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.skife.config.ConfigurationObjectFactory;
+import org.skife.jdbi.v2.DBI;
+
+/**
+ * Non-transactional bus_events inserts (DBBackedQueue#insertEntry, as in PersistentBus#post) from 16 threads, with and
+ * without group commit. H2 doesn't sync on commit: commitLatencyMicros adds a fixed latency to each commit, to mimic
+ * the fsync of the log of a real database. Statements and commits are executed one at a time, as they would be on a
+ * single log (H2 can also assign the same record_id to concurrent inserts in that mode).
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    @Param({"0", "1000"})
+    private long commitLatencyMicros;
+
+    @Param({"0ms", "2ms"})
+    private String groupCommitMaxDelay;
+
+    private final Object statementLock = new Object();
+
+    private EmbeddedDB embeddedDB;
+    private DBI dbi;
+    private DBBackedQueue<BusEventModelDao> queue;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        embeddedDB = new H2EmbeddedDB("killbillq_benchmark", "killbillq", "killbillq");
+        embeddedDB.initialize();
+        embeddedDB.start();
+        embeddedDB.executeScript(TestSetup.toString(Resources.getResource("org/killbill/queue/ddl.sql").openStream()));
+
+        dbi = new DBI(withCommitLatency(embeddedDB.getDataSource()));
+        InTransaction.setupDBI(dbi);
+
+        final Properties properties = new Properties();
+        properties.setProperty("org.killbill.persistent.bus.main.groupCommit.maxDelay", groupCommitMaxDelay);
+        final PersistentBusConfig config = new ConfigurationObjectFactory(properties).buildWithReplacements(PersistentBusConfig.class, Map.of("instanceName", "main"));
+        queue = new DBBackedQueueWithPolling<>(new DefaultClock(), dbi, PersistentBusSqlDao.class, config, "benchmark", new NoOpMetricRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        embeddedDB.stop();
+    }
+
+    @Benchmark
+    public void insertEntry() {
+        queue.insertEntry(new BusEventModelDao("benchmark", new DateTime(DateTimeZone.UTC), String.class.getName(), "{\"json\":1}", UUID.randomUUID(), 1L, 1L));
+    }
+
+    private DataSource withCommitLatency(final DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+            final Object result = invoke(dataSource, method, args);
+            if (!(result instanceof Connection)) {
+                return result;
+            }
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (connectionProxy, connectionMethod, connectionArgs) -> {
+                if ("commit".equals(connectionMethod.getName())) {
+                    synchronized (statementLock) {
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(commitLatencyMicros));
+                        return invoke(result, connectionMethod, connectionArgs);
+                    }
+                }
+                final Object connectionResult = invoke(result, connectionMethod, connectionArgs);
+                if (!(connectionResult instanceof PreparedStatement)) {
+                    return connectionResult;
+                }
+                return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (statementProxy, statementMethod, statementArgs) -> {
+                    if (!statementMethod.getName().startsWith("execute")) {
+                        return invoke(connectionResult, statementMethod, statementArgs);
+                    }
+                    synchronized (statementLock) {
+                        return invoke(connectionResult, statementMethod, statementArgs);
+                    }
+                });
+            });
+        });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GroupCommitBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -19,8 +19,12 @@
 
 package org.killbill.queue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.killbill.CreatorName;
@@ -58,7 +62,7 @@ public class TestDBBackedQueueWithInflightQ extends TestSetup {
 
         final int NB_ENTRIES = 2345;
         final PersistentBusConfig config = createConfig();
-        queue = new DBBackedQueueWithInflightQueue<BusEventModelDao>(clock, dbi, PersistentBusSqlDao.class, config, "testInflightQWithExistingEntries", metricRegistry, databaseTransactionNotificationApi);
+        queue = new DBBackedQueueWithInflightQueue<BusEventModelDao>(clock, dbi, PersistentBusSqlDao.class, config, "testInflightQWithExistingEntries", metricRegistry);
 
         // Insert entries prior initialization
         for (int i = 0; i < NB_ENTRIES; i++) {
@@ -68,6 +72,9 @@ public class TestDBBackedQueueWithInflightQ extends TestSetup {
 
         final long readyEntries = queue.getNbReadyEntries();
         assertEquals(readyEntries, NB_ENTRIES);
+        assertEquals(queue.getNbReadyEntries(clock.getUTCNow().toDate(), NB_ENTRIES + 1), NB_ENTRIES);
+        assertEquals(queue.getNbReadyEntries(clock.getUTCNow().toDate(), 3), 3);
+        assertEquals(queue.getApproximateNbReadyEntries(), NB_ENTRIES);
 
         queue.initialize();
 
@@ -75,6 +82,32 @@ public class TestDBBackedQueueWithInflightQ extends TestSetup {
 
     }
 
+    @Test(groups = "slow")
+    public void testInflightQWithGroupCommit() throws Exception {
+        final int NB_ENTRIES = 8;
+        final PersistentBusConfig config = createConfig(new TimeSpan(50, TimeUnit.MILLISECONDS));
+        queue = new DBBackedQueueWithInflightQueue<BusEventModelDao>(clock, dbi, PersistentBusSqlDao.class, config, "testInflightQWithGroupCommit", metricRegistry);
+        queue.initialize();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(NB_ENTRIES);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < NB_ENTRIES; i++) {
+                final BusEventModelDao input = createEntry(new Long(i + 5));
+                futures.add(executor.submit(() -> queue.insertEntry(input)));
+            }
+            for (final Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The recordIds of the batched entries are still dispatched once committed
+        assertEquals(queue.getNbReadyEntries(), NB_ENTRIES);
+        assertEquals(queue.getInflightQSize(), NB_ENTRIES);
+    }
+
     private BusEventModelDao createEntry(final Long searchKey1, final String owner) {
         final String json = "json";
         return new BusEventModelDao(owner, clock.getUTCNow(), String.class.getName(), json, UUID.randomUUID(), searchKey1, 1L);
@@ -85,6 +118,10 @@ public class TestDBBackedQueueWithInflightQ extends TestSetup {
     }
 
     private PersistentBusConfig createConfig() {
+        return createConfig(new TimeSpan(0, TimeUnit.MILLISECONDS));
+    }
+
+    private PersistentBusConfig createConfig(final TimeSpan groupCommitMaxDelay) {
         return new PersistentBusConfig() {
             @Override
             public boolean isInMemory() {
@@ -167,6 +204,16 @@ public class TestDBBackedQueueWithInflightQ extends TestSetup {
             public TimeSpan getShutdownTimeout() {
                 return new TimeSpan(5, TimeUnit.SECONDS);
             }
+
+            @Override
+            public TimeSpan getGroupCommitMaxDelay() {
+                return groupCommitMaxDelay;
+            }
+
+            @Override
+            public int getGroupCommitMaxEntries() {
+                return 4;
+            }
         };
     }
 }
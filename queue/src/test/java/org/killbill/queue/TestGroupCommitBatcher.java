@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.queue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestGroupCommitBatcher {
+
+    @Test(groups = "fast")
+    public void testWrittenRightAwayWithoutConcurrentWrites() {
+        final Collection<List<Integer>> batches = new ConcurrentLinkedQueue<>();
+        final GroupCommitBatcher<Integer> batcher = new GroupCommitBatcher<>(1, TimeUnit.HOURS, 100, batch -> batches.add(new ArrayList<>(batch)));
+
+        batcher.add(1);
+        batcher.add(2);
+
+        Assert.assertEquals(new ArrayList<>(batches), List.of(List.of(1), List.of(2)));
+    }
+
+    @Test(groups = "fast")
+    public void testBatchedWhileWriting() throws Exception {
+        final Collection<List<Integer>> batches = new ConcurrentLinkedQueue<>();
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch releaseWrite = new CountDownLatch(1);
+        // The delay is never reached
+        final GroupCommitBatcher<Integer> batcher = new GroupCommitBatcher<>(1, TimeUnit.HOURS, 4, batch -> {
+            if (batch.contains(-1)) {
+                writing.countDown();
+                awaitUninterruptibly(releaseWrite);
+            }
+            batches.add(new ArrayList<>(batch));
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            final Future<?> first = executor.submit(() -> batcher.add(-1));
+            Assert.assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+            // Collected while the first batch is being written, the full batches are written right away
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 9; i++) {
+                final int element = i;
+                futures.add(executor.submit(() -> batcher.add(element)));
+            }
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (batches.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            Assert.assertEquals(batches.size(), 2);
+
+            // The remaining element is waiting for the first batch to complete
+            releaseWrite.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            for (final Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final List<Integer> sizes = new ArrayList<>();
+        for (final List<Integer> batch : batches) {
+            sizes.add(batch.size());
+        }
+        Assert.assertEquals(sizes, List.of(4, 4, 1, 1));
+    }
+
+    @Test(groups = "fast")
+    public void testBatchClosedAfterDelay() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch releaseWrite = new CountDownLatch(1);
+        final GroupCommitBatcher<Integer> batcher = new GroupCommitBatcher<>(10, TimeUnit.MILLISECONDS, 100, batch -> {
+            if (batch.contains(-1)) {
+                writing.countDown();
+                awaitUninterruptibly(releaseWrite);
+            }
+        });
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> first = executor.submit(() -> batcher.add(-1));
+            Assert.assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+            // Doesn't wait for the first batch to complete
+            final long ini = System.nanoTime();
+            batcher.add(1);
+            Assert.assertTrue(System.nanoTime() - ini >= TimeUnit.MILLISECONDS.toNanos(10));
+            Assert.assertFalse(first.isDone());
+
+            releaseWrite.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testFailureReportedToAllCallers() throws Exception {
+        final AtomicInteger nbWrites = new AtomicInteger();
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch releaseWrite = new CountDownLatch(1);
+        final GroupCommitBatcher<Integer> batcher = new GroupCommitBatcher<>(1, TimeUnit.HOURS, 3, batch -> {
+            if (batch.contains(-1)) {
+                writing.countDown();
+                awaitUninterruptibly(releaseWrite);
+                return;
+            }
+            nbWrites.incrementAndGet();
+            throw new IllegalStateException("Rollback");
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Future<?> first = executor.submit(() -> batcher.add(-1));
+            Assert.assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                final int element = i;
+                futures.add(executor.submit(() -> batcher.add(element)));
+            }
+            for (final Future<?> future : futures) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                    Assert.fail();
+                } catch (final ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+
+            releaseWrite.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(nbWrites.get(), 1);
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.killbill.commons.utils.collect.Iterables;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestKeysetPaginatedIterable {
+
+    @Test(groups = "fast")
+    public void testPagination() {
+        final List<Long> recordIds = LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toUnmodifiableList());
+        final AtomicInteger nbQueries = new AtomicInteger(0);
+        final KeysetPaginatedIterable<Long> iterable = new KeysetPaginatedIterable<Long>((lastEntry, pageSize) -> {
+            nbQueries.incrementAndGet();
+            return recordIds.stream()
+                            .filter(recordId -> lastEntry == null || recordId > lastEntry)
+                            .limit(pageSize)
+                            .collect(Collectors.toUnmodifiableList());
+        }, 3);
+
+        // Nothing is fetched until the caller starts iterating
+        Assert.assertEquals(nbQueries.get(), 0);
+
+        Assert.assertEquals(Iterables.toUnmodifiableList(iterable), recordIds);
+        // 3 full pages and a short one
+        Assert.assertEquals(nbQueries.get(), 4);
+
+        // Each iterator starts from the beginning
+        Assert.assertEquals(Iterables.toUnmodifiableList(iterable), recordIds);
+        Assert.assertEquals(nbQueries.get(), 8);
+    }
+
+    @Test(groups = "fast")
+    public void testExactMultipleOfPageSize() {
+        final List<Long> recordIds = LongStream.rangeClosed(1, 6).boxed().collect(Collectors.toUnmodifiableList());
+        final List<Long> lastEntries = new ArrayList<Long>();
+        final KeysetPaginatedIterable<Long> iterable = new KeysetPaginatedIterable<Long>((lastEntry, pageSize) -> {
+            lastEntries.add(lastEntry);
+            return recordIds.stream()
+                            .filter(recordId -> lastEntry == null || recordId > lastEntry)
+                            .limit(pageSize)
+                            .collect(Collectors.toUnmodifiableList());
+        }, 3);
+
+        Assert.assertEquals(Iterables.toUnmodifiableList(iterable), recordIds);
+        // The last (empty) page is required to detect the end of the results
+        final List<Long> expectedLastEntries = new ArrayList<Long>();
+        expectedLastEntries.add(null);
+        expectedLastEntries.add(3L);
+        expectedLastEntries.add(6L);
+        Assert.assertEquals(lastEntries, expectedLastEntries);
+    }
+
+    @Test(groups = "fast")
+    public void testEmpty() {
+        final KeysetPaginatedIterable<Long> iterable = new KeysetPaginatedIterable<Long>((lastEntry, pageSize) -> List.of(), 3);
+        Assert.assertFalse(iterable.iterator().hasNext());
+    }
+}
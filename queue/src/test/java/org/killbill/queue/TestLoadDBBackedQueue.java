@@ -118,7 +118,7 @@ public class TestLoadDBBackedQueue extends TestSetup {
 
         final int nbEntries = 10000;
         final PersistentBusConfig config = createConfig(10, nbEntries, PersistentQueueMode.STICKY_EVENTS);
-        queue = new DBBackedQueueWithInflightQueue<BusEventModelDao>(clock, dbi, PersistentBusSqlDao.class, config, "multipleReaderMultipleWriter-bus_event", metricRegistry, databaseTransactionNotificationApi);
+        queue = new DBBackedQueueWithInflightQueue<BusEventModelDao>(clock, dbi, PersistentBusSqlDao.class, config, "multipleReaderMultipleWriter-bus_event", metricRegistry);
         queue.initialize();
         for (int i = 0; i < nbEntries; i++) {
             final BusEventModelDao input = createEntry(new Long(i + 5));
@@ -38,6 +38,7 @@ import org.killbill.bus.dao.BusEventModelDao;
 import org.killbill.bus.dao.PersistentBusSqlDao;
 import org.killbill.commons.eventbus.AllowConcurrentEvents;
 import org.killbill.commons.eventbus.Subscribe;
+import org.killbill.commons.utils.collect.Iterables;
 import org.killbill.queue.api.PersistentQueueEntryLifecycleState;
 import org.skife.config.TimeSpan;
 import org.testng.Assert;
@@ -71,7 +72,7 @@ public class TestReaperIntegration extends TestSetup {
         super.beforeMethod();
 
         config = createConfig();
-        bus = new DefaultPersistentBus(dbi, clock, config, metricRegistry, databaseTransactionNotificationApi);
+        bus = new DefaultPersistentBus(dbi, clock, config, metricRegistry);
         bus.startQueue();
 
         handler = new DummyHandler();
@@ -175,7 +176,8 @@ public class TestReaperIntegration extends TestSetup {
         // See https://github.com/killbill/killbill-commons/issues/169
         handler.assertSeenEvents(3);
         final Iterable<BusEventWithMetadata<BusEvent>> result = bus.getHistoricalBusEventsForSearchKey2(now, SEARCH_KEY_2);
-        final long nbItems = result.spliterator().getExactSizeIfKnown();
+        // The result is lazily paginated, its size is only known once iterated
+        final long nbItems = Iterables.size(result);
         assertEquals(nbItems, 4);
     }
 
@@ -26,22 +26,32 @@ import org.joda.time.DateTime;
 import org.killbill.bus.api.BusEvent;
 import org.killbill.bus.api.PersistentBusConfig;
 import org.killbill.bus.dao.BusEventModelDao;
+import org.killbill.commons.metrics.api.Gauge;
+import org.killbill.commons.metrics.api.MetricId;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
 import org.killbill.queue.api.PersistentQueueEntryLifecycleState;
+import org.killbill.queue.api.PersistentQueueEntryPriority;
 import org.killbill.queue.api.QueueEvent;
 import org.skife.config.TimeSpan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Callable;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestDispatcher {
 
@@ -68,7 +78,7 @@ public class TestDispatcher {
                                            TimeUnit.MINUTES,
                                            5,
                                            TimeUnit.SECONDS,
-                                           new LinkedBlockingQueue<Runnable>(QUEUE_SIZE),
+                                           QUEUE_SIZE,
                                            testThreadFactory,
                                            new TestBlockingRejectionExecutionHandler(callback),
                                            null,
@@ -94,11 +104,212 @@ public class TestDispatcher {
         });
     }
 
+    @Test(groups = "fast")
+    public void testPriorityLanes() throws Exception {
+        final CountDownLatch lowPriorityLatch = new CountDownLatch(1);
+        final List<String> processed = new CopyOnWriteArrayList<String>();
+        final TestCallableCallback laneCallback = new TestCallableCallback() {
+            @Override
+            public void dispatch(final BusEvent event, final BusEventModelDao modelDao) throws Exception {
+                if (modelDao.getPriority() == PersistentQueueEntryPriority.LOW.getValue()) {
+                    lowPriorityLatch.await();
+                }
+                processed.add(modelDao.getEventJson());
+            }
+        };
+        // One thread (and work queue slot) for each of the HIGH and LOW lanes
+        final Dispatcher<BusEvent, BusEventModelDao> laneDispatcher = new Dispatcher<>(1,
+                                                                                      createConfig(3),
+                                                                                      5,
+                                                                                      TimeUnit.MINUTES,
+                                                                                      5,
+                                                                                      TimeUnit.SECONDS,
+                                                                                      QUEUE_SIZE,
+                                                                                      r -> new Thread(r, "test-lane-th"),
+                                                                                      new BlockingRejectionExecutionHandler(),
+                                                                                      null,
+                                                                                      laneCallback,
+                                                                                      null);
+        laneDispatcher.start();
+        try {
+            // The (single) LOW thread is stuck and its work queue (1 slot) is full
+            for (int i = 0; i < 2; i++) {
+                laneDispatcher.dispatch(createEntry("low-" + i, PersistentQueueEntryPriority.LOW));
+            }
+            laneDispatcher.dispatch(createEntry("high", PersistentQueueEntryPriority.HIGH));
+
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> processed.contains("high"));
+            Assert.assertEquals(processed.size(), 1);
+
+            lowPriorityLatch.countDown();
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> processed.size() == 3);
+        } finally {
+            lowPriorityLatch.countDown();
+            laneDispatcher.stopDispatcher();
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testNormalLaneCapacity() throws Exception {
+        final int maxDispatchThreads = 10;
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        final AtomicInteger started = new AtomicInteger();
+        final TestCallableCallback blockingCallback = new TestCallableCallback() {
+            @Override
+            public void dispatch(final BusEvent event, final BusEventModelDao modelDao) throws Exception {
+                started.incrementAndGet();
+                releaseLatch.await();
+            }
+        };
+        final AtomicInteger rejected = new AtomicInteger();
+        final Dispatcher<BusEvent, BusEventModelDao> normalDispatcher = new Dispatcher<>(1,
+                                                                                        createConfig(maxDispatchThreads),
+                                                                                        5,
+                                                                                        TimeUnit.MINUTES,
+                                                                                        5,
+                                                                                        TimeUnit.SECONDS,
+                                                                                        QUEUE_SIZE,
+                                                                                        r -> new Thread(r, "test-normal-th"),
+                                                                                        (r, executor) -> rejected.incrementAndGet(),
+                                                                                        null,
+                                                                                        blockingCallback,
+                                                                                        null);
+        normalDispatcher.start();
+        try {
+            // Without any priority set, all the configured threads and work queue capacity are available
+            for (int i = 0; i < maxDispatchThreads; i++) {
+                normalDispatcher.dispatch(createEntry("normal-" + i, PersistentQueueEntryPriority.NORMAL));
+            }
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> started.get() == maxDispatchThreads);
+
+            for (int i = 0; i < QUEUE_SIZE; i++) {
+                normalDispatcher.dispatch(createEntry("queued-" + i, PersistentQueueEntryPriority.NORMAL));
+            }
+            Assert.assertEquals(rejected.get(), 0);
+            normalDispatcher.dispatch(createEntry("rejected", PersistentQueueEntryPriority.NORMAL));
+            Assert.assertEquals(rejected.get(), 1);
+            Assert.assertEquals(started.get(), maxDispatchThreads);
+        } finally {
+            releaseLatch.countDown();
+            normalDispatcher.stopDispatcher();
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testExtraLaneSizes() {
+        // Defaults of the notification queue and the bus
+        Assert.assertEquals(Dispatcher.extraLaneSize(10), 1);
+        Assert.assertEquals(Dispatcher.extraLaneSize(30000), 3000);
+        for (int total = 1; total < 100; total++) {
+            Assert.assertTrue(Dispatcher.extraLaneSize(total) >= 1);
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testGaugesOfLatestDispatcher() {
+        final MetricRegistry metricRegistry = new GetOrAddMetricRegistry();
+        final Dispatcher<BusEvent, BusEventModelDao> firstDispatcher = createDispatcher(1, 30, new TestCallableCallback(), metricRegistry);
+        final Dispatcher<BusEvent, BusEventModelDao> secondDispatcher = createDispatcher(2, 30, new TestCallableCallback(), metricRegistry);
+        firstDispatcher.start();
+        secondDispatcher.start();
+        try {
+            final String corePoolSizeGauge = MetricId.of(Dispatcher.class.getName() + ".corePoolSize",
+                                                         "queue", createConfig().getTableName(),
+                                                         "priority", PersistentQueueEntryPriority.NORMAL.name()).getFlatName();
+            Assert.assertEquals(metricRegistry.getGauges().get(corePoolSizeGauge).getValue(), 2);
+        } finally {
+            firstDispatcher.stopDispatcher();
+            secondDispatcher.stopDispatcher();
+        }
+    }
+
+    @Test(groups = "fast")
+    public void testGaugesPerLane() {
+        final MetricRegistry metricRegistry = new GetOrAddMetricRegistry();
+        final TestCallableCallback gaugeCallback = new TestCallableCallback();
+        // Single dispatch thread
+        final Dispatcher<BusEvent, BusEventModelDao> gaugeDispatcher = createDispatcher(1, 1, gaugeCallback, metricRegistry);
+        gaugeDispatcher.start();
+        try {
+            gaugeDispatcher.dispatch(createEntry("normal-0", PersistentQueueEntryPriority.NORMAL));
+            gaugeDispatcher.dispatch(createEntry("normal-1", PersistentQueueEntryPriority.NORMAL));
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> gaugeCallback.getProcessed().size() == 2);
+
+            // Only the NORMAL lane exists: summing over the priorities doesn't count any executor twice
+            Assert.assertEquals(metricRegistry.getGauges().size(), 6);
+            Assert.assertEquals(poolSizeGauge(metricRegistry, PersistentQueueEntryPriority.NORMAL).getValue(), 1);
+            Assert.assertNull(poolSizeGauge(metricRegistry, PersistentQueueEntryPriority.HIGH));
+
+            gaugeDispatcher.dispatch(createEntry("high", PersistentQueueEntryPriority.HIGH));
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> gaugeCallback.getProcessed().size() == 3);
+
+            Assert.assertEquals(metricRegistry.getGauges().size(), 12);
+            Assert.assertEquals(poolSizeGauge(metricRegistry, PersistentQueueEntryPriority.NORMAL).getValue(), 1);
+            Assert.assertEquals(poolSizeGauge(metricRegistry, PersistentQueueEntryPriority.HIGH).getValue(), 1);
+            Assert.assertNull(poolSizeGauge(metricRegistry, PersistentQueueEntryPriority.LOW));
+        } finally {
+            gaugeDispatcher.stopDispatcher();
+        }
+    }
+
+    private Gauge<?> poolSizeGauge(final MetricRegistry metricRegistry, final PersistentQueueEntryPriority priority) {
+        return metricRegistry.getGauges().get(MetricId.of(Dispatcher.class.getName() + ".poolSize",
+                                                          "queue", createConfig().getTableName(),
+                                                          "priority", priority.name()).getFlatName());
+    }
+
+    private Dispatcher<BusEvent, BusEventModelDao> createDispatcher(final int corePoolSize,
+                                                                   final int maxDispatchThreads,
+                                                                   final TestCallableCallback callback,
+                                                                   final MetricRegistry metricRegistry) {
+        return new Dispatcher<>(corePoolSize,
+                                createConfig(maxDispatchThreads),
+                                5,
+                                TimeUnit.MINUTES,
+                                5,
+                                TimeUnit.SECONDS,
+                                QUEUE_SIZE,
+                                r -> new Thread(r, "test-gauge-th"),
+                                new BlockingRejectionExecutionHandler(),
+                                null,
+                                callback,
+                                null,
+                                metricRegistry);
+    }
+
+    private BusEventModelDao createEntry(final String json, final PersistentQueueEntryPriority priority) {
+        final BusEventModelDao entry = new BusEventModelDao("owner", new DateTime(), String.class.getName(), json, UUID.randomUUID(), 1L, 1L);
+        entry.setPriority(priority.getValue());
+        return entry;
+    }
+
     private void dispatch(final int i) {
         final BusEventModelDao e1 = new BusEventModelDao("owner", new DateTime(), String.class.getName(), "e-" + i, UUID.randomUUID(), 1L, 1L);
         dispatcher.dispatch(e1);
     }
 
+    // Like the actual registries, only registers missing gauges
+    private static class GetOrAddMetricRegistry extends NoOpMetricRegistry {
+
+        private final Map<String, Gauge<?>> gauges = new HashMap<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Gauge<T> gauge(final String name, final Gauge<T> gauge) {
+            return (Gauge<T>) gauges.computeIfAbsent(name, n -> gauge);
+        }
+
+        @Override
+        public boolean remove(final String name) {
+            return gauges.remove(name) != null;
+        }
+
+        @Override
+        public Map<String, Gauge<?>> getGauges() {
+            return gauges;
+        }
+    }
+
     private class TestBlockingRejectionExecutionHandler extends BlockingRejectionExecutionHandler {
 
         private final TestCallableCallback callback;
@@ -219,6 +430,10 @@ public class TestDispatcher {
     }
 
     private PersistentBusConfig createConfig() {
+        return createConfig(1);
+    }
+
+    private PersistentBusConfig createConfig(final int maxDispatchThreads) {
         return new PersistentBusConfig() {
             @Override
             public boolean isInMemory() {
@@ -267,7 +482,7 @@ public class TestDispatcher {
 
             @Override
             public int geMaxDispatchThreads() {
-                return 1;
+                return maxDispatchThreads;
             }
 
             @Override
@@ -19,74 +19,130 @@
 
 package org.killbill.commons.skeleton.metrics;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
+import org.killbill.commons.metrics.api.MetricId;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.metrics.api.Timer;
-import org.killbill.commons.utils.Joiner;
 
+/**
+ * Timers of a resource method, for a given set of tag values, by response status.
+ * <p>
+ * The metric names are computed once: the timers are looked up in the registry the first time a status is seen,
+ * then cached (a resource only returns a handful of statuses). The flat name is kb_resource.resourcePath.name.httpMethod[.tagValues].statusGroup.status (dots
+ * in the components are replaced by underscores), registries supporting tags also get the components as tags.
+ */
 public class ResourceTimer {
 
-    private static final Joiner METRIC_NAME_JOINER = Joiner.on('.');
-
-    private final String resourcePath;
-    private final String name;
-    private final String httpMethod;
+    private static final String METRIC_NAME = "kb_resource";
+    // Beyond that, timers are looked up in the registry
+    private static final int MAX_CACHED_STATUSES = 16;
 
-    private final Map<String, Object> tags;
+    private final MetricId metricId;
+    private final String metricNamePrefix;
     private final MetricRegistry registry;
 
+    // Copy-on-write, scanned linearly
+    private volatile CachedTimers cachedTimers = CachedTimers.EMPTY;
+
     public ResourceTimer(final String resourcePath, final String name, final String httpMethod, @Nullable final Map<String, Object> tags, final MetricRegistry registry) {
-        this.resourcePath = resourcePath;
-        this.name = name;
-        this.httpMethod = httpMethod;
-        this.tags = tags == null ? null : new HashMap<>(tags);
+        MetricId metricId = MetricId.of(METRIC_NAME,
+                                        "resource", String.valueOf(resourcePath),
+                                        "name", String.valueOf(name),
+                                        "http_method", String.valueOf(httpMethod));
+        final StringBuilder metricNamePrefix = new StringBuilder(METRIC_NAME).append('.').append(escape(resourcePath))
+                                                                             .append('.').append(escape(name))
+                                                                             .append('.').append(escape(httpMethod));
+        if (tags != null && !tags.isEmpty()) {
+            metricNamePrefix.append('.');
+            boolean first = true;
+            for (final Map.Entry<String, Object> tag : tags.entrySet()) {
+                final String tagValue = String.valueOf(tag.getValue());
+                metricId = metricId.tagged(tag.getKey(), tagValue);
+                if (!first) {
+                    // Tag values are joined with dots, which are then escaped as well
+                    metricNamePrefix.append('_');
+                }
+                metricNamePrefix.append(escape(tagValue));
+                first = false;
+            }
+        }
+        this.metricId = metricId;
+        this.metricNamePrefix = metricNamePrefix.toString();
         this.registry = registry;
     }
 
     public void update(final int responseStatus, final long duration, final TimeUnit unit) {
-        final String metricName;
-        if (tags != null && !tags.isEmpty()) {
-            final String tags = METRIC_NAME_JOINER.join(getTagsValues());
-            metricName = METRIC_NAME_JOINER.join(
-                    escapeMetrics("kb_resource", resourcePath, name, httpMethod, tags, responseStatusGroup(responseStatus), responseStatus));
-        } else {
-            metricName = METRIC_NAME_JOINER.join(
-                    escapeMetrics("kb_resource", resourcePath, name, httpMethod, responseStatusGroup(responseStatus), responseStatus));
+        timer(responseStatus).update(duration, unit);
+    }
+
+    private Timer timer(final int responseStatus) {
+        final Timer timer = cachedTimers.get(responseStatus);
+        return timer != null ? timer : newTimer(responseStatus);
+    }
+
+    private synchronized Timer newTimer(final int responseStatus) {
+        final CachedTimers cached = cachedTimers;
+        Timer timer = cached.get(responseStatus);
+        if (timer != null) {
+            return timer;
         }
+
         // Letting metric registry deal with unique metric creation
-        final Timer timer = registry.timer(metricName);
-        timer.update(duration, unit);
+        timer = registry.timer(metricId(responseStatus));
+        if (cached.statuses.length < MAX_CACHED_STATUSES) {
+            cachedTimers = cached.with(responseStatus, timer);
+        }
+        return timer;
     }
 
-    private List<String> escapeMetrics(final Object... names) {
-        final List<String> result = new ArrayList<String>(names.length);
-        for (final Object name : names) {
-            final String metricName = String.valueOf(name);
-            result.add(metricName.replaceAll("\\.", "_"));
-        }
-        return result;
+    private MetricId metricId(final int responseStatus) {
+        final String statusGroup = responseStatusGroup(responseStatus);
+        final String status = String.valueOf(responseStatus);
+        return metricId.tagged("status_group", statusGroup)
+                       .tagged("status", status)
+                       .withFlatName(metricNamePrefix + '.' + escape(statusGroup) + '.' + escape(status));
+    }
+
+    private static String escape(@Nullable final Object name) {
+        return String.valueOf(name).replace('.', '_');
     }
 
-    private List<Object> getTagsValues() {
-        final List<Object> values = new ArrayList<Object>(tags.values().size());
-        for (final Object value : tags.values()) {
-            if (value != null) {
-                values.add(value);
-            } else {
-                values.add("null");
+    private static String responseStatusGroup(final int responseStatus) {
+        return responseStatus / 100 + "xx";
+    }
+
+    private static final class CachedTimers {
+
+        private static final CachedTimers EMPTY = new CachedTimers(new int[0], new Timer[0]);
+
+        private final int[] statuses;
+        private final Timer[] timers;
+
+        private CachedTimers(final int[] statuses, final Timer[] timers) {
+            this.statuses = statuses;
+            this.timers = timers;
+        }
+
+        private Timer get(final int responseStatus) {
+            for (int i = 0; i < statuses.length; i++) {
+                if (statuses[i] == responseStatus) {
+                    return timers[i];
+                }
             }
+            return null;
         }
-        return values;
-    }
 
-    private String responseStatusGroup(final int responseStatus) {
-        return String.format("%sxx", responseStatus / 100);
+        private CachedTimers with(final int responseStatus, final Timer timer) {
+            final int[] newStatuses = Arrays.copyOf(statuses, statuses.length + 1);
+            final Timer[] newTimers = Arrays.copyOf(timers, timers.length + 1);
+            newStatuses[statuses.length] = responseStatus;
+            newTimers[timers.length] = timer;
+            return new CachedTimers(newStatuses, newTimers);
+        }
     }
 }
@@ -22,7 +22,10 @@ package org.killbill.commons.skeleton.metrics;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -40,10 +43,15 @@ import org.killbill.commons.metrics.api.MetricRegistry;
 
 /**
  * A method interceptor which times the execution of the annotated resource method.
+ * <p>
+ * The metric tags of the method are resolved on the first invocation, and the timers are then cached by tag values
+ * (and by response status, see {@link ResourceTimer}): a request doesn't build any metric name.
  */
 public class TimedResourceInterceptor implements MethodInterceptor {
 
-    private final Map<String, Map<String, Object>> metricTagsByMethod = new ConcurrentHashMap<String, Map<String, Object>>();
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Map<Method, MethodTimers> timersByMethod = new ConcurrentHashMap<Method, MethodTimers>();
     private final ExceptionMappers exceptionMappers;
     private final MetricRegistry metricRegistry;
     private final String resourcePath;
@@ -104,42 +112,20 @@ public class TimedResourceInterceptor implements MethodInterceptor {
     }
 
     private ResourceTimer timer(final MethodInvocation invocation) {
-        final Map<String, Object> metricTags = metricTags(invocation);
-
-        return new ResourceTimer(resourcePath, metricName, httpMethod, metricTags, metricRegistry);
-    }
-
-    private Map<String, Object> metricTags(final MethodInvocation invocation) {
         final Method method = invocation.getMethod();
-        // Expensive to compute
-        final String methodString = method.toString();
-
-        // Cache metric tags as Method.getParameterAnnotations() generates lots of garbage objects
-        Map<String, Object> metricTags = metricTagsByMethod.get(methodString);
-        if (metricTags != null) {
-            return metricTags;
+        MethodTimers methodTimers = timersByMethod.get(method);
+        if (methodTimers == null) {
+            methodTimers = timersByMethod.computeIfAbsent(method, MethodTimers::new);
         }
+        return methodTimers.timer(invocation.getArguments());
+    }
 
-        metricTags = new LinkedHashMap<String, Object>();
-        final Annotation[][] parametersAnnotations = method.getParameterAnnotations();
-        for (int i = 0; i < parametersAnnotations.length; i++) {
-            final Annotation[] parameterAnnotations = parametersAnnotations[i];
-
-            final MetricTag metricTag = findMetricTagAnnotations(parameterAnnotations);
-            if (metricTag != null) {
-                final Object currentArgument = invocation.getArguments()[i];
-                final Object tagValue;
-                if (metricTag.property().trim().isEmpty()) {
-                    tagValue = currentArgument;
-                } else {
-                    tagValue = getProperty(currentArgument, metricTag.property());
-                }
-                metricTags.put(metricTag.tag(), tagValue);
-            }
+    // Keys of the timers: the values of Strings and enums are used as is, others by their String representation (as in the metric name)
+    private static Object tagKey(final Object tagValue) {
+        if (tagValue instanceof String || tagValue instanceof Enum) {
+            return tagValue;
         }
-        metricTagsByMethod.put(methodString, metricTags);
-
-        return metricTags;
+        return String.valueOf(tagValue);
     }
 
     private static MetricTag findMetricTagAnnotations(final Annotation[] parameterAnnotations) {
@@ -151,29 +137,14 @@ public class TimedResourceInterceptor implements MethodInterceptor {
         return null;
     }
 
-    private static Object getProperty(final Object currentArgument, final String property) {
-        if (currentArgument == null) {
-            return null;
-        }
-
-        try {
-            final String[] methodNames = {"get" + capitalize(property), "is" + capitalize(property), property};
-            Method propertyMethod = null;
-            for (final String methodName : methodNames) {
-                try {
-                    propertyMethod = currentArgument.getClass().getMethod(methodName);
-                    break;
-                } catch (final NoSuchMethodException e) {}
-            }
-            if (propertyMethod == null) {
-                throw handleReadPropertyError(currentArgument, property, null);
-            }
-            return propertyMethod.invoke(currentArgument);
-        } catch (final IllegalAccessException e) {
-            throw handleReadPropertyError(currentArgument, property, e);
-        } catch (final InvocationTargetException e) {
-            throw handleReadPropertyError(currentArgument, property, e);
+    private static Method findPropertyMethod(final Object currentArgument, final String property) {
+        final String[] methodNames = {"get" + capitalize(property), "is" + capitalize(property), property};
+        for (final String methodName : methodNames) {
+            try {
+                return currentArgument.getClass().getMethod(methodName);
+            } catch (final NoSuchMethodException e) {}
         }
+        throw handleReadPropertyError(currentArgument, property, null);
     }
 
     private static String capitalize(final String property) {
@@ -183,4 +154,121 @@ public class TimedResourceInterceptor implements MethodInterceptor {
     private static IllegalArgumentException handleReadPropertyError(final Object object, final String property, final Exception e) {
         return new IllegalArgumentException(String.format("Failed to read tag property \"%s\" value from object of type %s", property, object.getClass()), e);
     }
+
+    private final class MethodTimers {
+
+        private final String[] tags;
+        private final int[] parameterIndexes;
+        private final PropertyReader[] propertyReaders;
+        private final ResourceTimer untaggedTimer;
+        private final Map<Object, ResourceTimer> timersByTagValues = new ConcurrentHashMap<Object, ResourceTimer>();
+
+        private MethodTimers(final Method method) {
+            final List<String> tags = new ArrayList<String>();
+            final List<Integer> parameterIndexes = new ArrayList<Integer>();
+            final List<PropertyReader> propertyReaders = new ArrayList<PropertyReader>();
+            // Method.getParameterAnnotations() generates lots of garbage objects, this is only done once per method
+            final Annotation[][] parametersAnnotations = method.getParameterAnnotations();
+            for (int i = 0; i < parametersAnnotations.length; i++) {
+                final MetricTag metricTag = findMetricTagAnnotations(parametersAnnotations[i]);
+                if (metricTag != null) {
+                    tags.add(metricTag.tag());
+                    parameterIndexes.add(i);
+                    propertyReaders.add(metricTag.property().trim().isEmpty() ? null : new PropertyReader(metricTag.property()));
+                }
+            }
+
+            this.tags = tags.toArray(new String[0]);
+            this.parameterIndexes = new int[parameterIndexes.size()];
+            for (int i = 0; i < this.parameterIndexes.length; i++) {
+                this.parameterIndexes[i] = parameterIndexes.get(i);
+            }
+            this.propertyReaders = propertyReaders.toArray(new PropertyReader[0]);
+            this.untaggedTimer = this.tags.length == 0 ? new ResourceTimer(resourcePath, metricName, httpMethod, null, metricRegistry) : null;
+        }
+
+        private ResourceTimer timer(final Object[] arguments) {
+            if (untaggedTimer != null) {
+                return untaggedTimer;
+            }
+
+            final Object tagValues;
+            if (tags.length == 1) {
+                tagValues = tagKey(tagValue(0, arguments));
+            } else {
+                final Object[] values = new Object[tags.length];
+                for (int i = 0; i < tags.length; i++) {
+                    values[i] = tagKey(tagValue(i, arguments));
+                }
+                tagValues = Arrays.asList(values);
+            }
+
+            final ResourceTimer timer = timersByTagValues.get(tagValues);
+            if (timer != null) {
+                return timer;
+            }
+            return timersByTagValues.computeIfAbsent(tagValues, this::newTimer);
+        }
+
+        private Object tagValue(final int index, final Object[] arguments) {
+            final Object currentArgument = arguments[parameterIndexes[index]];
+            final PropertyReader propertyReader = propertyReaders[index];
+            return propertyReader == null ? currentArgument : propertyReader.read(currentArgument);
+        }
+
+        private ResourceTimer newTimer(final Object tagValues) {
+            final Map<String, Object> metricTags = new LinkedHashMap<String, Object>();
+            if (tags.length == 1) {
+                metricTags.put(tags[0], tagValues);
+            } else {
+                final List<?> values = (List<?>) tagValues;
+                for (int i = 0; i < tags.length; i++) {
+                    metricTags.put(tags[i], values.get(i));
+                }
+            }
+            return new ResourceTimer(resourcePath, metricName, httpMethod, metricTags, metricRegistry);
+        }
+    }
+
+    // Caches the property method for the last seen argument class (usually, the only one)
+    private static final class PropertyReader {
+
+        private final String property;
+        private volatile PropertyMethod lastPropertyMethod;
+
+        private PropertyReader(final String property) {
+            this.property = property;
+        }
+
+        private Object read(final Object currentArgument) {
+            if (currentArgument == null) {
+                return null;
+            }
+
+            PropertyMethod propertyMethod = lastPropertyMethod;
+            if (propertyMethod == null || propertyMethod.argumentClass != currentArgument.getClass()) {
+                propertyMethod = new PropertyMethod(currentArgument.getClass(), findPropertyMethod(currentArgument, property));
+                lastPropertyMethod = propertyMethod;
+            }
+
+            try {
+                return propertyMethod.method.invoke(currentArgument, NO_ARGUMENTS);
+            } catch (final IllegalAccessException e) {
+                throw handleReadPropertyError(currentArgument, property, e);
+            } catch (final InvocationTargetException e) {
+                throw handleReadPropertyError(currentArgument, property, e);
+            }
+        }
+    }
+
+    private static final class PropertyMethod {
+
+        private final Class<?> argumentClass;
+        private final Method method;
+
+        private PropertyMethod(final Class<?> argumentClass, final Method method) {
+            this.argumentClass = argumentClass;
+            this.method = method;
+        }
+    }
 }
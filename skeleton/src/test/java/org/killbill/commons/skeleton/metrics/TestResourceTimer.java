@@ -19,13 +19,17 @@
 
 package org.killbill.commons.skeleton.metrics;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import org.killbill.commons.metrics.api.Metric;
+import org.killbill.commons.metrics.api.MetricId;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.metrics.api.Timer;
 
 import org.killbill.commons.metrics.dropwizard.KillBillCodahaleMetricRegistry;
+import org.killbill.commons.metrics.registry.DefaultMetricRegistry;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -96,4 +100,57 @@ public class TestResourceTimer {
         Assert.assertNotNull(timer, "Failed to create metric with expected name");
         Assert.assertEquals(1, timer.getCount());
     }
+
+    @Test
+    public void testTimerCachedByStatus() {
+        final ResourceTimer resourceTimer = new ResourceTimer("/1.0/kb/payments", "getPayment", "GET", null, metricRegistry);
+        resourceTimer.update(200, 1, TimeUnit.MILLISECONDS);
+        resourceTimer.update(200, 1, TimeUnit.MILLISECONDS);
+        resourceTimer.update(404, 1, TimeUnit.MILLISECONDS);
+        resourceTimer.update(1000, 1, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(metricRegistry.getTimers().get("kb_resource./1_0/kb/payments.getPayment.GET.2xx.200").getCount(), 2);
+        Assert.assertEquals(metricRegistry.getTimers().get("kb_resource./1_0/kb/payments.getPayment.GET.4xx.404").getCount(), 1);
+        Assert.assertEquals(metricRegistry.getTimers().get("kb_resource./1_0/kb/payments.getPayment.GET.10xx.1000").getCount(), 1);
+    }
+
+    @Test
+    public void testManyStatuses() {
+        final ResourceTimer resourceTimer = new ResourceTimer("/1.0/kb/payments", "getPayment", "GET", null, metricRegistry);
+        // More statuses than cached
+        for (int status = 400; status < 440; status++) {
+            resourceTimer.update(status, 1, TimeUnit.MILLISECONDS);
+            resourceTimer.update(status, 1, TimeUnit.MILLISECONDS);
+        }
+
+        Assert.assertEquals(metricRegistry.getTimers().size(), 40);
+        for (int status = 400; status < 440; status++) {
+            Assert.assertEquals(metricRegistry.getTimers().get("kb_resource./1_0/kb/payments.getPayment.GET.4xx." + status).getCount(), 2);
+        }
+    }
+
+    @Test
+    public void testMetricTags() {
+        final MetricRegistry defaultMetricRegistry = new DefaultMetricRegistry();
+        final Map<String, Object> tags = new LinkedHashMap<>();
+        tags.put("transactionType", "AUTHORIZE");
+        tags.put("paymentMethod", "a.b");
+
+        final ResourceTimer resourceTimer = new ResourceTimer("/1.0/kb/payments", "create", "POST", tags, defaultMetricRegistry);
+        resourceTimer.update(201, 1, TimeUnit.MILLISECONDS);
+
+        final MetricId expectedMetricId = MetricId.of(RESOURCE_METRICS_PREFIX,
+                                                      "resource", "/1.0/kb/payments",
+                                                      "name", "create",
+                                                      "http_method", "POST",
+                                                      "transactionType", "AUTHORIZE",
+                                                      "paymentMethod", "a.b",
+                                                      "status_group", "2xx",
+                                                      "status", "201");
+        final Map<MetricId, Metric> family = defaultMetricRegistry.getTaggedMetrics().get(RESOURCE_METRICS_PREFIX);
+        Assert.assertNotNull(family);
+        Assert.assertEquals(((Timer) family.get(expectedMetricId)).getCount(), 1);
+        // Flat name for registries without tags (the tag values are joined, then escaped)
+        Assert.assertEquals(defaultMetricRegistry.getTimers().get("kb_resource./1_0/kb/payments.create.POST.AUTHORIZE_a_b.2xx.201").getCount(), 1);
+    }
 }
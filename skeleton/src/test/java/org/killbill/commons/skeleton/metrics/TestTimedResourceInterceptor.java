@@ -83,6 +83,19 @@ public class TestTimedResourceInterceptor {
         Assert.assertEquals(1, timer.getCount());
     }
 
+    public void testResourceTagValuesPerRequest() {
+        interceptedResource.createOk("AUTHORIZE");
+        interceptedResource.createOk("PURCHASE");
+        interceptedResource.createOk("AUTHORIZE");
+        interceptedResource.createOk(new Payment("CREDIT"));
+        interceptedResource.createOk(new Payment("REFUND"));
+
+        Assert.assertEquals(registry.getTimers().get("kb_resource.path.createOk.POST.AUTHORIZE.2xx.200").getCount(), 2);
+        Assert.assertEquals(registry.getTimers().get("kb_resource.path.createOk.POST.PURCHASE.2xx.200").getCount(), 1);
+        Assert.assertEquals(registry.getTimers().get("kb_resource.path.createOk.POST.CREDIT.2xx.201").getCount(), 1);
+        Assert.assertEquals(registry.getTimers().get("kb_resource.path.createOk.POST.REFUND.2xx.201").getCount(), 1);
+    }
+
     public void testResourceWithPropertyTag() {
         final Response response = interceptedResource.createOk(new Payment("PURCHASE"));
         Assert.assertEquals(201, response.getStatus());
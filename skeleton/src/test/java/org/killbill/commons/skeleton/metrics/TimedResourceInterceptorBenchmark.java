@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020-2026 Equinix, Inc
+ * Copyright 2014-2026 The Billing Project, LLC
+ *
+ * The Billing Project licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.killbill.commons.skeleton.metrics;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.Response;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.killbill.commons.metrics.api.MetricRegistry;
+import org.killbill.commons.metrics.api.annotation.MetricTag;
+import org.killbill.commons.metrics.dropwizard.KillBillCodahaleMetricRegistry;
+import org.killbill.commons.metrics.registry.DefaultMetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Requests per second through the interceptor, against a trivial resource (the resource method is called directly,
+ * there is no HTTP or Jersey overhead). Run with -prof gc to see the allocation rates.
+ * <p>
+ * Not run as part of the test suite, see main (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimedResourceInterceptorBenchmark {
+
+    @Param({"codahale", "default"})
+    public String registryType;
+
+    private final TrivialResource resource = new TrivialResource();
+
+    private TimedResourceInterceptor getInterceptor;
+    private TimedResourceInterceptor createInterceptor;
+    private MethodInvocation getInvocation;
+    private MethodInvocation createInvocation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final MetricRegistry registry = "codahale".equals(registryType) ? new KillBillCodahaleMetricRegistry() : new DefaultMetricRegistry();
+        getInterceptor = new TimedResourceInterceptor(null, registry, "/1.0/kb/trivial", "get", "GET");
+        createInterceptor = new TimedResourceInterceptor(null, registry, "/1.0/kb/trivial", "create", "POST");
+        getInvocation = new TrivialInvocation(TrivialResource.class.getMethod("get"), new Object[]{}, resource::get);
+        createInvocation = new TrivialInvocation(TrivialResource.class.getMethod("create", String.class), new Object[]{"AUTHORIZE"}, () -> resource.create("AUTHORIZE"));
+    }
+
+    @Benchmark
+    public Object untaggedRequest() throws Throwable {
+        return getInterceptor.invoke(getInvocation);
+    }
+
+    @Benchmark
+    public Object taggedRequest() throws Throwable {
+        return createInterceptor.invoke(createInvocation);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TimedResourceInterceptorBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Path("/1.0/kb/trivial")
+    public static class TrivialResource {
+
+        private final Response ok = Response.ok().build();
+
+        @GET
+        public Response get() {
+            return ok;
+        }
+
+        @POST
+        public Response create(@MetricTag(tag = "transactionType") final String type) {
+            return ok;
+        }
+    }
+
+    private static final class TrivialInvocation implements MethodInvocation {
+
+        private final Method method;
+        private final Object[] arguments;
+        private final Supplier<Object> target;
+
+        private TrivialInvocation(final Method method, final Object[] arguments, final Supplier<Object> target) {
+            this.method = method;
+            this.arguments = arguments;
+            this.target = target;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return arguments;
+        }
+
+        @Override
+        public Object proceed() {
+            return target.get();
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return method;
+        }
+    }
+}
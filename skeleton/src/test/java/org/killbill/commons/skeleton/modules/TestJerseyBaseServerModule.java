@@ -22,6 +22,7 @@ package org.killbill.commons.skeleton.modules;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,7 @@ import org.killbill.commons.health.impl.HealthyResultBuilder;
 import org.killbill.commons.metrics.api.MetricRegistry;
 import org.killbill.commons.metrics.impl.NoOpMetricRegistry;
 import org.killbill.commons.metrics.modules.StatsModule;
+import org.killbill.commons.metrics.servlets.PrometheusMetricsServlet;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -86,6 +88,11 @@ public class TestJerseyBaseServerModule extends AbstractBaseServerModuleTest {
         final MetricRegistry metricRegistry = injector.getInstance(MetricRegistry.class);
         Assert.assertEquals(metricRegistry.getMetrics().size(), 0);
 
+        request = HttpRequest.newBuilder().uri(URI.create("http://127.0.0.1:" + ((NetworkConnector) server.getConnectors()[0]).getPort() + metricsUri + "/prometheus")).build();
+        final HttpResponse<String> prometheusResponse = client.send(request, BodyHandlers.ofString());
+        Assert.assertEquals(prometheusResponse.headers().firstValue("Content-Type").orElse(null), PrometheusMetricsServlet.CONTENT_TYPE);
+        Assert.assertEquals(prometheusResponse.body(), "# EOF\n");
+
         Assert.assertEquals(HelloFilter.invocations, 0);
 
         // Do multiple passes to verify Singleton pattern